@@ -0,0 +1,97 @@
+package com.ruiyun.example;
+
+import com.ruiyun.jvppeteer.cdp.core.CoverageAggregator;
+import com.ruiyun.jvppeteer.cdp.entities.CoverageEntry;
+import com.ruiyun.jvppeteer.cdp.entities.Range;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Z_CoverageAggregatorTest {
+
+    private static final String URL = "https://a.test/a.js";
+
+    /**
+     * 第 3 行为空行，第 5 行没有执行
+     */
+    private static final String TEXT = "a();\nb();\n\nc();\nd();\n";
+
+    private static CoverageEntry entry(String text, Range... ranges) {
+        return new CoverageEntry(URL, Arrays.asList(ranges), text);
+    }
+
+    private static String lcov(CoverageAggregator aggregator) throws Exception {
+        StringWriter writer = new StringWriter();
+        aggregator.writeLcov(writer);
+        return writer.toString();
+    }
+
+    /**
+     * 三次运行合并后每行的执行次数，以及区间的并集
+     */
+    @Test
+    public void test1() throws Exception {
+        CoverageAggregator aggregator = new CoverageAggregator();
+        aggregator.add(entry(TEXT, new Range(0, 4), new Range(11, 15)));
+        aggregator.add(entry(TEXT, new Range(0, 10)));
+        aggregator.add(entry(TEXT, new Range(0, 4)));
+        Assert.assertEquals(1, aggregator.size());
+        Assert.assertEquals("TN:\n" +
+                "SF:" + URL + "\n" +
+                "DA:1,3\n" +
+                "DA:2,1\n" +
+                "DA:4,1\n" +
+                "DA:5,0\n" +
+                "LF:4\n" +
+                "LH:3\n" +
+                "end_of_record\n", lcov(aggregator));
+        List<CoverageEntry> merged = aggregator.merge();
+        Assert.assertEquals(1, merged.size());
+        List<Range> ranges = merged.get(0).getRangse();
+        Assert.assertEquals(2, ranges.size());
+        Assert.assertEquals(0, ranges.get(0).getStart(), 0);
+        Assert.assertEquals(10, ranges.get(0).getEnd(), 0);
+        Assert.assertEquals(11, ranges.get(1).getStart(), 0);
+        Assert.assertEquals(15, ranges.get(1).getEnd(), 0);
+    }
+
+    /**
+     * 同一 URL 的不同源码分别统计，名称带上源码哈希
+     */
+    @Test
+    public void test2() throws Exception {
+        CoverageAggregator aggregator = new CoverageAggregator();
+        aggregator.add(entry(TEXT, new Range(0, 4)));
+        aggregator.add(entry("x();\n", new Range(0, 4)));
+        aggregator.add(new CoverageEntry(null, Collections.emptyList(), TEXT));
+        Assert.assertEquals(2, aggregator.size());
+        List<CoverageEntry> merged = aggregator.merge();
+        Assert.assertEquals(2, merged.size());
+        String lcov = lcov(aggregator);
+        Assert.assertEquals(2, lcov.split("SF:" + URL + "#", -1).length - 1);
+        aggregator.clear();
+        Assert.assertEquals(0, aggregator.size());
+    }
+
+    /**
+     * 事件数量超过阈值后压缩，执行次数不变
+     */
+    @Test
+    public void test3() throws Exception {
+        CoverageAggregator aggregator = new CoverageAggregator();
+        List<CoverageEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 40000; i++) {
+            entries.add(i % 2 == 0 ? entry(TEXT, new Range(0, 4), new Range(5, 9)) : entry(TEXT, new Range(0, 4)));
+        }
+        aggregator.addAll(entries);
+        String lcov = lcov(aggregator);
+        Assert.assertTrue(lcov, lcov.contains("DA:1,40000\n"));
+        Assert.assertTrue(lcov, lcov.contains("DA:2,20000\n"));
+        Assert.assertTrue(lcov, lcov.contains("DA:4,0\n"));
+        Assert.assertTrue(lcov, lcov.contains("LH:2\n"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.ruiyun.example;
+
+import com.ruiyun.jvppeteer.cdp.core.CoverageRangeSet;
+import com.ruiyun.jvppeteer.cdp.entities.Range;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Z_CoverageRangeSetTest {
+
+    /**
+     * 不相交的区间按顺序插入，空区间忽略
+     */
+    @Test
+    public void test1() {
+        CoverageRangeSet set = new CoverageRangeSet();
+        set.add(20, 30);
+        set.add(0, 5);
+        set.add(10, 15);
+        set.add(40, 40);
+        set.add(50, 45);
+        Assert.assertEquals("CoverageRangeSet[[0, 5), [10, 15), [20, 30)]", set.toString());
+        Assert.assertEquals(20, set.coveredLength());
+    }
+
+    /**
+     * 相交、相邻、包含以及跨越多个区间时合并
+     */
+    @Test
+    public void test2() {
+        CoverageRangeSet set = new CoverageRangeSet();
+        set.add(0, 5);
+        set.add(10, 15);
+        set.add(20, 30);
+        set.add(40, 50);
+        // 相邻
+        set.add(5, 7);
+        Assert.assertEquals("CoverageRangeSet[[0, 7), [10, 15), [20, 30), [40, 50)]", set.toString());
+        // 被已有区间包含
+        set.add(22, 25);
+        Assert.assertEquals(4, set.size());
+        // 与两侧相交
+        set.add(13, 21);
+        Assert.assertEquals("CoverageRangeSet[[0, 7), [10, 30), [40, 50)]", set.toString());
+        // 覆盖全部区间
+        set.add(0, 60);
+        Assert.assertEquals("CoverageRangeSet[[0, 60)]", set.toString());
+        Assert.assertEquals(60, set.coveredLength());
+    }
+
+    /**
+     * 超过初始容量时扩容，union 合并另一个集合
+     */
+    @Test
+    public void test3() {
+        CoverageRangeSet odd = new CoverageRangeSet();
+        CoverageRangeSet even = new CoverageRangeSet();
+        for (int i = 0; i < 20; i++) {
+            (i % 2 == 0 ? even : odd).add(i * 10, i * 10 + 10);
+        }
+        Assert.assertEquals(10, odd.size());
+        Assert.assertEquals(10, even.size());
+        even.union(odd);
+        Assert.assertEquals(1, even.size());
+        Assert.assertEquals(0, even.start(0));
+        Assert.assertEquals(200, even.end(0));
+        even.clear();
+        Assert.assertTrue(even.isEmpty());
+    }
+
+    /**
+     * 从协议返回的区间加入，输出仍然有序
+     */
+    @Test
+    public void test4() {
+        CoverageRangeSet set = new CoverageRangeSet();
+        set.addAll(Arrays.asList(new Range(30, 40), new Range(0, 10), new Range(8, 12)));
+        set.addAll(null);
+        Assert.assertEquals(2, set.toRanges().size());
+        Assert.assertEquals(0, set.toRanges().get(0).getStart(), 0);
+        Assert.assertEquals(12, set.toRanges().get(0).getEnd(), 0);
+        Assert.assertEquals(30, set.toRanges().get(1).getStart(), 0);
+        Assert.assertEquals(40, set.toRanges().get(1).getEnd(), 0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ruiyun.example;
+
+import com.ruiyun.jvppeteer.cdp.entities.CpuProfile;
+import com.ruiyun.jvppeteer.cdp.entities.FunctionTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+import static com.ruiyun.jvppeteer.common.Constant.OBJECTMAPPER;
+
+public class Z_CpuProfileTest {
+
+    /**
+     * (root) -> main -> work -> work（递归），三个采样分别落在 work、递归的 work 和 main 上
+     */
+    private static final String PROFILE_A = "{\"startTime\":1000,\"endTime\":5000,\"nodes\":[" +
+            "{\"id\":1,\"callFrame\":{\"functionName\":\"(root)\",\"url\":\"\",\"lineNumber\":-1,\"columnNumber\":-1},\"children\":[2]}," +
+            "{\"id\":2,\"callFrame\":{\"functionName\":\"main\",\"url\":\"a.js\",\"lineNumber\":1,\"columnNumber\":0},\"children\":[3]}," +
+            "{\"id\":3,\"callFrame\":{\"functionName\":\"work\",\"url\":\"a.js\",\"lineNumber\":5,\"columnNumber\":2},\"children\":[4]}," +
+            "{\"id\":4,\"callFrame\":{\"functionName\":\"work\",\"url\":\"a.js\",\"lineNumber\":5,\"columnNumber\":2}}]," +
+            "\"samples\":[3,4,2],\"timeDeltas\":[0,1000,2000]}";
+
+    /**
+     * 节点 id 与 A 不同，(root) -> main 的调用路径相同，main 下新增 other
+     */
+    private static final String PROFILE_B = "{\"startTime\":6000,\"endTime\":9000,\"nodes\":[" +
+            "{\"id\":10,\"callFrame\":{\"functionName\":\"(root)\",\"url\":\"\",\"lineNumber\":-1,\"columnNumber\":-1},\"children\":[20]}," +
+            "{\"id\":20,\"callFrame\":{\"functionName\":\"main\",\"url\":\"a.js\",\"lineNumber\":1,\"columnNumber\":0},\"children\":[30]}," +
+            "{\"id\":30,\"callFrame\":{\"functionName\":\"other\",\"url\":\"a.js\",\"lineNumber\":9,\"columnNumber\":4}}]," +
+            "\"samples\":[30,30],\"timeDeltas\":[500,4000]}";
+
+    private static FunctionTime find(List<FunctionTime> times, String name) {
+        for (FunctionTime time : times) {
+            if (name.equals(time.getFunctionName())) {
+                return time;
+            }
+        }
+        throw new AssertionError("No function " + name);
+    }
+
+    /**
+     * 自身耗时取到下一个采样的间隔，递归函数的总耗时只算一次
+     */
+    @Test
+    public void test1() throws Exception {
+        CpuProfile profile = CpuProfile.from(OBJECTMAPPER.readTree(PROFILE_A));
+        Assert.assertEquals(3, profile.functionCount());
+        Assert.assertEquals(4, profile.nodeCount());
+        List<FunctionTime> times = profile.functionTimes();
+        Assert.assertEquals("work", times.get(0).getFunctionName());
+        FunctionTime work = find(times, "work");
+        Assert.assertEquals(3, work.getSelfTime(), 1e-9);
+        Assert.assertEquals(3, work.getTotalTime(), 1e-9);
+        Assert.assertEquals(2, work.getSampleCount());
+        FunctionTime main = find(times, "main");
+        Assert.assertEquals(0, main.getSelfTime(), 1e-9);
+        Assert.assertEquals(3, main.getTotalTime(), 1e-9);
+        Assert.assertEquals(1, main.getSampleCount());
+        Assert.assertEquals(3, find(times, "(root)").getTotalTime(), 1e-9);
+        Assert.assertEquals(Arrays.asList("work", "main"), names(profile.hotFunctions(5)));
+    }
+
+    /**
+     * 合并时函数表和相同的调用路径去重，第二个 profile 的第一个间隔不计入上一个采样
+     */
+    @Test
+    public void test2() throws Exception {
+        CpuProfile a = CpuProfile.from(OBJECTMAPPER.readTree(PROFILE_A));
+        CpuProfile b = CpuProfile.from(OBJECTMAPPER.readTree(PROFILE_B));
+        CpuProfile merged = CpuProfile.merge(Arrays.asList(a, b));
+        Assert.assertEquals(4, merged.functionCount());
+        Assert.assertEquals(5, merged.nodeCount());
+        Assert.assertArrayEquals(new int[]{0, 1000, 2000, 0, 4000}, merged.getTimeDeltas());
+        Assert.assertEquals(1000, merged.getStartTime(), 1e-9);
+        Assert.assertEquals(9000, merged.getEndTime(), 1e-9);
+        List<FunctionTime> times = merged.functionTimes();
+        Assert.assertEquals(Arrays.asList("other", "work"), names(merged.hotFunctions(2)));
+        Assert.assertEquals(4, find(times, "other").getSelfTime(), 1e-9);
+        Assert.assertEquals(3, find(times, "work").getTotalTime(), 1e-9);
+        Assert.assertEquals(7, find(times, "main").getTotalTime(), 1e-9);
+        Assert.assertEquals(1, find(times, "main").getSampleCount());
+    }
+
+    private static List<String> names(List<FunctionTime> times) {
+        String[] names = new String[times.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = times.get(i).getFunctionName();
+        }
+        return Arrays.asList(names);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ruiyun.example;
+
+import com.ruiyun.jvppeteer.cdp.core.HeapSnapshotSummarizer;
+import com.ruiyun.jvppeteer.cdp.entities.ConstructorSize;
+import com.ruiyun.jvppeteer.cdp.entities.HeapSnapshotSummary;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Z_HeapSnapshotSummarizerTest {
+
+    /**
+     * 5 个节点：hidden 10、Foo 40、Foo 60、Bär 5、code 20，strings 在 nodes 之后
+     */
+    private static final byte[] SNAPSHOT = ("{\"snapshot\":{\"meta\":{" +
+            "\"node_fields\":[\"type\",\"name\",\"id\",\"self_size\",\"edge_count\"]," +
+            "\"node_types\":[[\"hidden\",\"array\",\"string\",\"object\",\"code\",\"closure\",\"regexp\",\"number\",\"native\"],\"string\",\"number\",\"number\",\"number\"]," +
+            "\"edge_fields\":[\"type\",\"name_or_index\",\"to_node\"]," +
+            "\"edge_types\":[[\"context\",\"element\",\"property\"],\"string_or_number\",\"node\"]}," +
+            "\"node_count\":5,\"edge_count\":3}," +
+            "\"nodes\":[0,0,1,10,0,3,1,2,40,1,3,1,3,60,1,3,2,4,5,1,4,0,5,20,0]," +
+            "\"edges\":[2,1,5,2,2,10,2,2,15]," +
+            "\"strings\":[\"\",\"Foo\",\"Bär\"]}").getBytes(StandardCharsets.UTF_8);
+
+    private static HeapSnapshotSummary summarize(int chunkSize) throws Exception {
+        HeapSnapshotSummarizer summarizer = new HeapSnapshotSummarizer();
+        for (int offset = 0; offset < SNAPSHOT.length; offset += chunkSize) {
+            summarizer.feed(SNAPSHOT, offset, Math.min(chunkSize, SNAPSHOT.length - offset));
+        }
+        return summarizer.finish();
+    }
+
+    private static void assertSummary(HeapSnapshotSummary summary) {
+        Assert.assertEquals(5, summary.getNodeCount());
+        Assert.assertEquals(3, summary.getEdgeCount());
+        Assert.assertEquals(135, summary.getTotalSize());
+        Assert.assertEquals(4, summary.getConstructors().size());
+        assertConstructor(summary.getConstructors().get(0), "Foo", 2, 100);
+        assertConstructor(summary.getConstructors().get(1), "(compiled code)", 1, 20);
+        assertConstructor(summary.getConstructors().get(2), "(system)", 1, 10);
+        assertConstructor(summary.getConstructors().get(3), "Bär", 1, 5);
+    }
+
+    private static void assertConstructor(ConstructorSize constructor, String name, long count, long selfSize) {
+        Assert.assertEquals(name, constructor.getName());
+        Assert.assertEquals(count, constructor.getCount());
+        Assert.assertEquals(selfSize, constructor.getSelfSize());
+    }
+
+    /**
+     * 一次喂入整个快照
+     */
+    @Test
+    public void test1() throws Exception {
+        assertSummary(summarize(SNAPSHOT.length));
+    }
+
+    /**
+     * 分块喂入，块的边界落在数字、字段名和多字节字符的中间
+     */
+    @Test
+    public void test2() throws Exception {
+        assertSummary(summarize(1));
+        assertSummary(summarize(7));
+        assertSummary(summarize(64));
+    }
+
+    /**
+     * 从文件统计
+     */
+    @Test
+    public void test3() throws Exception {
+        Path file = Files.createTempFile("jvppeteer", ".heapsnapshot");
+        try {
+            Files.write(file, SNAPSHOT);
+            assertSummary(HeapSnapshotSummarizer.summarize(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * meta 在 nodes 之后时无法解析
+     */
+    @Test
+    public void test4() throws Exception {
+        HeapSnapshotSummarizer summarizer = new HeapSnapshotSummarizer();
+        byte[] snapshot = "{\"nodes\":[0,0,1,10,0]}".getBytes(StandardCharsets.UTF_8);
+        try {
+            summarizer.feed(snapshot, 0, snapshot.length);
+            Assert.fail("meta must precede nodes");
+        } catch (JvppeteerException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ruiyun.example;
+
+import com.ruiyun.jvppeteer.cdp.core.TraceAnalyzer;
+import com.ruiyun.jvppeteer.cdp.entities.NavigationTraceSummary;
+import com.ruiyun.jvppeteer.cdp.entities.TraceCategory;
+import com.ruiyun.jvppeteer.cdp.entities.TraceSummary;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Z_TraceAnalyzerTest {
+
+    private static TraceSummary analyze(String json) throws Exception {
+        return TraceAnalyzer.analyze(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 嵌套 slice 的自身耗时、长任务和 TBT，只统计主线程
+     */
+    @Test
+    public void test1() throws Exception {
+        TraceSummary summary = analyze("{\"traceEvents\":[" +
+                "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"CrRendererMain\"}}," +
+                "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":2,\"args\":{\"name\":\"Compositor\"}}," +
+                "{\"name\":\"FunctionCall\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":1000000,\"dur\":100000}," +
+                "{\"name\":\"Layout\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":1010000,\"dur\":20000}," +
+                "{\"name\":\"ParseHTML\",\"ph\":\"B\",\"pid\":1,\"tid\":1,\"ts\":1200000}," +
+                "{\"name\":\"ParseHTML\",\"ph\":\"E\",\"pid\":1,\"tid\":1,\"ts\":1210000}," +
+                "{\"name\":\"Paint\",\"ph\":\"X\",\"pid\":1,\"tid\":2,\"ts\":1000000,\"dur\":90000}" +
+                "]}");
+        Assert.assertEquals(7, summary.getEventCount());
+        Assert.assertEquals(80, summary.getMainThreadTime().get(TraceCategory.Scripting), 1e-9);
+        Assert.assertEquals(20, summary.getMainThreadTime().get(TraceCategory.Layout), 1e-9);
+        Assert.assertEquals(10, summary.getMainThreadTime().get(TraceCategory.Loading), 1e-9);
+        Assert.assertEquals(0, summary.getMainThreadTime().get(TraceCategory.Paint), 1e-9);
+        Assert.assertEquals(1, summary.getLongTasks().size());
+        Assert.assertEquals(1000, summary.getLongTasks().get(0).getStartTime(), 1e-9);
+        Assert.assertEquals(100, summary.getLongTasks().get(0).getDuration(), 1e-9);
+        Assert.assertEquals(50, summary.getTotalBlockingTime(), 1e-9);
+    }
+
+    /**
+     * CLS 按会话窗口取最大值，忽略用户输入后的位移
+     */
+    @Test
+    public void test2() throws Exception {
+        TraceSummary summary = analyze("[" +
+                "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"CrRendererMain\"}}," +
+                "{\"name\":\"navigationStart\",\"ph\":\"R\",\"pid\":1,\"tid\":1,\"ts\":1000000,\"args\":{\"data\":{\"navigationId\":\"n1\",\"documentLoaderURL\":\"https://a.test/\",\"isLoadingMainFrame\":true}}}," +
+                "{\"name\":\"firstContentfulPaint\",\"ph\":\"R\",\"pid\":1,\"tid\":1,\"ts\":1300000,\"args\":{\"data\":{\"navigationId\":\"n1\"}}}," +
+                "{\"name\":\"largestContentfulPaint::Candidate\",\"ph\":\"R\",\"pid\":1,\"tid\":1,\"ts\":1500000,\"args\":{\"data\":{\"navigationId\":\"n1\"}}}," +
+                // 第一个窗口：0.1 + 0.2
+                "{\"name\":\"LayoutShift\",\"ph\":\"I\",\"pid\":1,\"tid\":1,\"ts\":2000000,\"args\":{\"data\":{\"score\":0.1,\"weighted_score_delta\":0.1,\"had_recent_input\":false}}}," +
+                "{\"name\":\"LayoutShift\",\"ph\":\"I\",\"pid\":1,\"tid\":1,\"ts\":2500000,\"args\":{\"data\":{\"score\":0.2,\"weighted_score_delta\":0.2,\"had_recent_input\":false}}}," +
+                "{\"name\":\"LayoutShift\",\"ph\":\"I\",\"pid\":1,\"tid\":1,\"ts\":2600000,\"args\":{\"data\":{\"score\":0.5,\"weighted_score_delta\":0.5,\"had_recent_input\":true}}}," +
+                // 间隔超过 1 秒，开启第二个窗口
+                "{\"name\":\"LayoutShift\",\"ph\":\"I\",\"pid\":1,\"tid\":1,\"ts\":4000000,\"args\":{\"data\":{\"score\":0.25,\"weighted_score_delta\":0.25,\"had_recent_input\":false}}}" +
+                "]");
+        Assert.assertEquals(1, summary.getNavigations().size());
+        NavigationTraceSummary navigation = summary.getNavigations().get(0);
+        Assert.assertEquals("n1", navigation.getNavigationId());
+        Assert.assertEquals("https://a.test/", navigation.getUrl());
+        Assert.assertEquals(300, navigation.getFirstContentfulPaint(), 1e-9);
+        Assert.assertEquals(500, navigation.getLargestContentfulPaint(), 1e-9);
+        Assert.assertEquals(0.3, navigation.getCumulativeLayoutShift(), 1e-9);
+    }
+}
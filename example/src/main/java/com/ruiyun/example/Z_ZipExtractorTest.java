@@ -0,0 +1,154 @@
+package com.ruiyun.example;
+
+import com.ruiyun.jvppeteer.util.FileUtil;
+import com.ruiyun.jvppeteer.util.ZipExtractor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Z_ZipExtractorTest {
+
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    /**
+     * 生成 zip 包，每个条目为 {名称, 内容, Unix mode}，mode 为 null 时不写入外部属性
+     */
+    private static Path zip(Path directory, Object[]... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (Object[] entry : entries) {
+                out.putNextEntry(new ZipEntry((String) entry[0]));
+                if (entry[1] != null) {
+                    out.write(((String) entry[1]).getBytes(StandardCharsets.UTF_8));
+                }
+                out.closeEntry();
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        // ZipOutputStream 不能写外部属性，直接修改中央目录：version made by 的高字节设为 3（Unix），外部属性的高 16 位为 mode
+        int end = buffer.limit() - 22;
+        while (buffer.getInt(end) != 0x06054b50) {
+            end--;
+        }
+        int position = buffer.getInt(end + 16);
+        for (Object[] entry : entries) {
+            if (entry[2] != null) {
+                buffer.put(position + 5, (byte) 3);
+                buffer.putInt(position + 38, (Integer) entry[2] << 16);
+            }
+            position += 46 + (buffer.getShort(position + 28) & 0xffff) + (buffer.getShort(position + 30) & 0xffff) + (buffer.getShort(position + 32) & 0xffff);
+        }
+        Path zip = directory.resolve("test.zip");
+        Files.write(zip, buffer.array());
+        return zip;
+    }
+
+    private static long count(Path directory) throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.count();
+        }
+    }
+
+    /**
+     * 解压目录、文件、可执行权限和符号链接，替换目标目录中已有的同名条目
+     */
+    @Test
+    public void test1() throws Exception {
+        Path directory = Files.createTempDirectory("jvppeteer-zip");
+        try {
+            Path zip = zip(directory,
+                    new Object[]{"chrome/", null, 040755},
+                    new Object[]{"chrome/chrome", "#!/bin/sh\n", 0100755},
+                    new Object[]{"chrome/data.txt", "data", 0100644},
+                    new Object[]{"chrome/link", "data.txt", 0120777},
+                    new Object[]{"chrome/sub/plain.txt", "plain", null});
+            Path destination = directory.resolve("out");
+            Files.createDirectories(destination.resolve("chrome"));
+            Files.write(destination.resolve("chrome").resolve("old.txt"), new byte[1]);
+            ZipExtractor.extract(zip, destination);
+            Path chrome = destination.resolve("chrome");
+            Assert.assertFalse(Files.exists(chrome.resolve("old.txt")));
+            Assert.assertEquals("data", new String(Files.readAllBytes(chrome.resolve("data.txt")), StandardCharsets.UTF_8));
+            Assert.assertEquals("plain", new String(Files.readAllBytes(chrome.resolve("sub/plain.txt")), StandardCharsets.UTF_8));
+            // 只剩下 chrome，临时目录已经删除
+            Assert.assertEquals(1, count(destination));
+            if (POSIX) {
+                Assert.assertTrue(Files.getPosixFilePermissions(chrome.resolve("chrome")).contains(PosixFilePermission.OWNER_EXECUTE));
+                Assert.assertFalse(Files.getPosixFilePermissions(chrome.resolve("data.txt")).contains(PosixFilePermission.OWNER_EXECUTE));
+                Assert.assertTrue(Files.isSymbolicLink(chrome.resolve("link")));
+                Assert.assertEquals(Paths.get("data.txt"), Files.readSymbolicLink(chrome.resolve("link")));
+                Assert.assertEquals("data", new String(Files.readAllBytes(chrome.resolve("link")), StandardCharsets.UTF_8));
+            }
+        } finally {
+            FileUtil.removeFolder(directory.toString());
+        }
+    }
+
+    /**
+     * ../ 条目写到目录外时失败，目标目录不留下文件
+     */
+    @Test
+    public void test2() throws Exception {
+        Path directory = Files.createTempDirectory("jvppeteer-zip");
+        try {
+            Path zip = zip(directory,
+                    new Object[]{"chrome/data.txt", "data", 0100644},
+                    new Object[]{"chrome/../../evil.txt", "evil", 0100644});
+            Path destination = directory.resolve("out");
+            try {
+                ZipExtractor.extract(zip, destination);
+                Assert.fail("entry outside of the target directory");
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            Assert.assertFalse(Files.exists(directory.resolve("evil.txt")));
+            Assert.assertEquals(0, count(destination));
+        } finally {
+            FileUtil.removeFolder(directory.toString());
+        }
+    }
+
+    /**
+     * 指向目录外、绝对路径，或者经过其他链接后指向目录外的符号链接都会失败
+     */
+    @Test
+    public void test3() throws Exception {
+        if (!POSIX) {
+            return;
+        }
+        Object[][][] cases = {
+                {{"chrome/link", "../../outside", 0120777}},
+                {{"chrome/link", "/tmp", 0120777}},
+                // 字面上在目录内，经过 up 之后的真实路径在目录外
+                {{"chrome/up", "..", 0120777}, {"chrome/escape", "up/..", 0120777}},
+        };
+        for (Object[][] entries : cases) {
+            Path directory = Files.createTempDirectory("jvppeteer-zip");
+            try {
+                Path zip = zip(directory, entries);
+                Path destination = directory.resolve("out");
+                try {
+                    ZipExtractor.extract(zip, destination);
+                    Assert.fail("symbolic link outside of the target directory");
+                } catch (IOException e) {
+                    System.out.println(e.getMessage());
+                }
+                Assert.assertEquals(0, count(destination));
+            } finally {
+                FileUtil.removeFolder(directory.toString());
+            }
+        }
+    }
+}
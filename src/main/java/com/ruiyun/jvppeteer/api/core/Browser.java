@@ -7,6 +7,7 @@ import com.ruiyun.jvppeteer.cdp.entities.Cookie;
 import com.ruiyun.jvppeteer.cdp.entities.CookieData;
 import com.ruiyun.jvppeteer.cdp.entities.DebugInfo;
 import com.ruiyun.jvppeteer.cdp.entities.DownloadOptions;
+import com.ruiyun.jvppeteer.cdp.entities.LaunchTimings;
 import com.ruiyun.jvppeteer.common.AddScreenParams;
 import com.ruiyun.jvppeteer.common.Constant;
 import com.ruiyun.jvppeteer.common.CreatePageOptions;
@@ -26,6 +27,8 @@ import static com.ruiyun.jvppeteer.util.Helper.waitForCondition;
 
 public abstract class Browser extends EventEmitter<BrowserEvents> implements AutoCloseable {
     private static final Logger LOGGER = LoggerFactory.getLogger(Browser.class);
+
+    private volatile LaunchTimings launchTimings;
     /**
      * 获取关联的 Process。
      *
@@ -234,6 +237,26 @@ public abstract class Browser extends EventEmitter<BrowserEvents> implements Aut
      */
     public abstract boolean connected();
 
+    /**
+     * 与浏览器之间的连接
+     *
+     * @return 连接
+     */
+    public abstract Connection connection();
+
+    /**
+     * 启动浏览器时各阶段的耗时
+     *
+     * @return 启动耗时，通过 connect 连接的浏览器返回 null
+     */
+    public LaunchTimings launchTimings() {
+        return this.launchTimings;
+    }
+
+    public void setLaunchTimings(LaunchTimings launchTimings) {
+        this.launchTimings = launchTimings;
+    }
+
     public void disposeSymbol() {
         try {
             if (Objects.nonNull(this.process())) {
@@ -0,0 +1,320 @@
+package com.ruiyun.jvppeteer.api.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ruiyun.jvppeteer.api.events.PageEvents;
+import com.ruiyun.jvppeteer.cdp.core.WaitTask;
+import com.ruiyun.jvppeteer.cdp.entities.EvaluateType;
+import com.ruiyun.jvppeteer.cdp.entities.WaitTaskOptions;
+import com.ruiyun.jvppeteer.common.AwaitableResult;
+import com.ruiyun.jvppeteer.common.LazyArg;
+import com.ruiyun.jvppeteer.common.QueryHandler;
+import com.ruiyun.jvppeteer.common.QuerySelector;
+import com.ruiyun.jvppeteer.common.WaitConditions;
+import com.ruiyun.jvppeteer.common.WaitResult;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.exception.TargetCloseException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
+import com.ruiyun.jvppeteer.util.GetQueryHandler;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 组合等待
+ * <p>
+ * 全部 DOM 条件编译进同一个页面函数，只创建一个 {@link WaitTask}，在隔离的 realm 中按条件的声明顺序检查；
+ * 请求、响应和导航条件挂在页面事件上，命中时直接终止轮询。调用线程只阻塞在轮询任务或者一个 AwaitableResult 上，
+ * 结束时统一撤销监听、停止轮询，释放没有用到的句柄。
+ */
+class CompositeWait {
+
+    private static final String POLLER = "async (PuppeteerUtil, conditions, all) => {\n" +
+            "  const values = [];\n" +
+            "  for (let i = 0; i < conditions.length; i++) {\n" +
+            "    const condition = conditions[i];\n" +
+            "    let value;\n" +
+            "    if (condition.query) {\n" +
+            "      const querySelector = PuppeteerUtil.createFunction(condition.query);\n" +
+            "      const node = await querySelector(document, condition.selector, PuppeteerUtil);\n" +
+            "      value = PuppeteerUtil.checkVisibility(node, condition.visible ?? undefined);\n" +
+            "    } else {\n" +
+            "      value = await PuppeteerUtil.createFunction(condition.predicate)(document);\n" +
+            "    }\n" +
+            "    if (all) {\n" +
+            "      if (!value) {\n" +
+            "        return false;\n" +
+            "      }\n" +
+            "      values.push(value);\n" +
+            "    } else if (value) {\n" +
+            "      return [i, value];\n" +
+            "    }\n" +
+            "  }\n" +
+            "  return all ? values : false;\n" +
+            "}";
+
+    private final Frame frame;
+
+    private final Page page;
+
+    private final int timeout;
+
+    private final List<WaitConditions.Condition> domConditions = new ArrayList<>();
+
+    private final List<WaitConditions.Condition> eventConditions = new ArrayList<>();
+
+    private final List<String> keys = new ArrayList<>();
+
+    private final Map<PageEvents, List<Consumer<?>>> listeners = new HashMap<>();
+
+    /**
+     * 页面关闭等导致整个等待失败的错误
+     */
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private volatile WaitTask task;
+
+    CompositeWait(Frame frame, WaitConditions conditions) {
+        ValidateUtil.assertArg(conditions != null && !conditions.getConditions().isEmpty(), "At least one wait condition is required");
+        this.frame = frame;
+        this.page = frame.page();
+        this.timeout = Objects.isNull(conditions.getTimeout()) ? this.page.getDefaultTimeout() : conditions.getTimeout();
+        for (WaitConditions.Condition condition : conditions.getConditions()) {
+            this.keys.add(condition.getKey());
+            if (condition.getKind().dom()) {
+                this.domConditions.add(condition);
+            } else {
+                this.eventConditions.add(condition);
+            }
+        }
+    }
+
+    /**
+     * 等待任意一个条件满足
+     */
+    WaitResult any() throws JsonProcessingException {
+        AtomicReference<WaitResult> winner = new AtomicReference<>();
+        AwaitableResult<Boolean> settled = AwaitableResult.create();
+        this.listen((key, value) -> {
+            if (winner.compareAndSet(null, new WaitResult(key, value))) {
+                this.abort(settled);
+            }
+        }, settled);
+        try {
+            if (!this.domConditions.isEmpty()) {
+                List<Object> values = this.poll(false, winner::get);
+                if (values != null) {
+                    WaitResult dom = new WaitResult(this.domConditions.get(((Number) values.get(0)).intValue()).getKey(), values.get(1));
+                    if (!winner.compareAndSet(null, dom)) {
+                        release(dom.getValue());
+                    }
+                }
+            } else if (!settled.waiting(this.timeout, TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("WaitForAny timeout of " + this.timeout + " ms exceeded");
+            }
+            if (winner.get() == null && this.failure.get() != null) {
+                throw this.failure.get();
+            }
+            return winner.get();
+        } finally {
+            this.unlisten();
+        }
+    }
+
+    /**
+     * 等待全部条件满足，DOM 条件需要在同一次检查中同时满足
+     */
+    Map<String, Object> all() throws JsonProcessingException {
+        long start = System.currentTimeMillis();
+        Map<String, Object> matched = new ConcurrentHashMap<>();
+        AtomicInteger pending = new AtomicInteger(this.eventConditions.size());
+        AwaitableResult<Boolean> settled = AwaitableResult.create();
+        if (this.eventConditions.isEmpty()) {
+            settled.complete(true);
+        }
+        this.listen((key, value) -> {
+            if (matched.putIfAbsent(key, value) == null && pending.decrementAndGet() == 0) {
+                settled.complete(true);
+            }
+        }, settled);
+        try {
+            if (!this.domConditions.isEmpty()) {
+                List<Object> values = this.poll(true, () -> null);
+                if (values == null) {
+                    throw this.failure.get() != null ? this.failure.get() : new JvppeteerException("WaitForAll failed: polling was stopped");
+                }
+                for (int i = 0; i < values.size(); i++) {
+                    matched.put(this.domConditions.get(i).getKey(), values.get(i));
+                }
+            }
+            if (pending.get() > 0) {
+                int remaining = this.timeout == 0 ? 0 : (int) (this.timeout - (System.currentTimeMillis() - start));
+                if (this.timeout > 0 && remaining <= 0 || !settled.waiting(remaining, TimeUnit.MILLISECONDS)) {
+                    matched.values().forEach(CompositeWait::release);
+                    throw new TimeoutException("WaitForAll timeout of " + this.timeout + " ms exceeded");
+                }
+            }
+            if (this.failure.get() != null) {
+                matched.values().forEach(CompositeWait::release);
+                throw this.failure.get();
+            }
+            Map<String, Object> results = new LinkedHashMap<>();
+            for (String key : this.keys) {
+                results.put(key, matched.get(key));
+            }
+            return results;
+        } finally {
+            this.unlisten();
+        }
+    }
+
+    /**
+     * 执行合并后的轮询，被其他条件或者页面关闭终止时返回 null
+     *
+     * @param all    是否要求全部 DOM 条件满足
+     * @param winner 已经命中的其他条件
+     */
+    private List<Object> poll(boolean all, Supplier<WaitResult> winner) throws JsonProcessingException {
+        List<Map<String, Object>> specs = new ArrayList<>();
+        for (WaitConditions.Condition condition : this.domConditions) {
+            Map<String, Object> spec = new HashMap<>();
+            if (condition.getKind() == WaitConditions.Kind.SELECTOR) {
+                QuerySelector querySelector = GetQueryHandler.getQueryHandlerAndSelector(condition.getSelector(), this.frame);
+                spec.put("query", QueryHandler.getQuerySelector(querySelector.getQueryHandler()));
+                spec.put("selector", querySelector.getUpdatedSelector());
+                spec.put("visible", condition.getVisible());
+            } else {
+                spec.put("predicate", condition.getPptrFunction());
+            }
+            specs.add(spec);
+        }
+        Realm realm = this.frame.isolatedRealm();
+        WaitTask task = new WaitTask(realm, new WaitTaskOptions("raf", null, this.timeout), POLLER, EvaluateType.FUNCTION, new LazyArg(), specs, all);
+        this.task = task;
+        // 轮询开始前已经有其他条件命中
+        if (winner.get() != null || this.failure.get() != null) {
+            task.setBadError(new JvppeteerException("Waiting aborted: another condition was met"));
+        }
+        JSHandle handle;
+        try {
+            handle = task.result();
+        } catch (RuntimeException e) {
+            if (winner.get() != null || this.failure.get() != null) {
+                return null;
+            }
+            if (e instanceof TimeoutException) {
+                throw new TimeoutException((all ? "WaitForAll" : "WaitForAny") + " timeout of " + this.timeout + " ms exceeded", e);
+            }
+            throw e;
+        }
+        if (handle == null) {
+            return null;
+        }
+        List<Object> values = new ArrayList<>();
+        try {
+            Map<String, JSHandle> properties = handle.getProperties();
+            for (int i = 0; i < properties.size(); i++) {
+                values.add(this.toValue(properties.get(String.valueOf(i)), realm));
+            }
+        } finally {
+            handle.dispose();
+        }
+        return values;
+    }
+
+    /**
+     * 元素转到主 realm，其他值转成 Java 对象
+     */
+    private Object toValue(JSHandle value, Realm isolatedRealm) throws JsonProcessingException {
+        if (value == null) {
+            return null;
+        }
+        ElementHandle element = value.asElement();
+        if (element != null) {
+            ElementHandle transferred = this.frame.mainRealm().transferHandle(element);
+            if (transferred != element) {
+                element.dispose();
+            }
+            return transferred;
+        }
+        try {
+            // 真值但是无法序列化的对象按 true 处理
+            Object json = value.jsonValue();
+            return json == null ? Boolean.TRUE : json;
+        } finally {
+            value.dispose();
+        }
+    }
+
+    private void listen(BiConsumer<String, Object> onMatch, AwaitableResult<Boolean> settled) {
+        for (WaitConditions.Condition condition : this.eventConditions) {
+            String key = condition.getKey();
+            switch (condition.getKind()) {
+                case RESPONSE:
+                    this.on(PageEvents.Response, (Consumer<Response>) response -> {
+                        if (condition.getResponsePredicate().test(response)) {
+                            onMatch.accept(key, response);
+                        }
+                    });
+                    break;
+                case REQUEST:
+                    this.on(PageEvents.Request, (Consumer<Request>) request -> {
+                        if (condition.getRequestPredicate().test(request)) {
+                            onMatch.accept(key, request);
+                        }
+                    });
+                    break;
+                case NAVIGATION:
+                    this.on(PageEvents.FrameNavigated, (Consumer<Frame>) navigated -> {
+                        if (navigated == this.frame) {
+                            onMatch.accept(key, navigated);
+                        }
+                    });
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.on(PageEvents.Close, ignore -> {
+            this.failure.compareAndSet(null, new TargetCloseException("Page closed!"));
+            this.abort(settled);
+        });
+    }
+
+    private void on(PageEvents type, Consumer<?> listener) {
+        this.listeners.computeIfAbsent(type, ignore -> new ArrayList<>()).add(listener);
+        this.page.on(type, listener);
+    }
+
+    private void unlisten() {
+        this.listeners.forEach((type, consumers) -> consumers.forEach(listener -> this.page.off(type, listener)));
+        this.listeners.clear();
+    }
+
+    /**
+     * 停止轮询，唤醒等待事件的调用线程
+     */
+    private void abort(AwaitableResult<Boolean> settled) {
+        WaitTask task = this.task;
+        if (task != null) {
+            task.setBadError(new JvppeteerException("Waiting aborted: another condition was met"));
+        }
+        settled.complete(true);
+    }
+
+    private static void release(Object value) {
+        if (value instanceof JSHandle) {
+            ((JSHandle) value).dispose();
+        }
+    }
+}
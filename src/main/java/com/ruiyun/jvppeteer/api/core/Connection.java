@@ -3,6 +3,7 @@ package com.ruiyun.jvppeteer.api.core;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.ruiyun.jvppeteer.api.events.ConnectionEvents;
 import com.ruiyun.jvppeteer.cdp.entities.TargetInfo;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
 import com.ruiyun.jvppeteer.exception.ProtocolException;
 import com.ruiyun.jvppeteer.transport.CallbackRegistry;
 import com.ruiyun.jvppeteer.transport.CdpCDPSession;
@@ -12,8 +13,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,6 +85,30 @@ public abstract class Connection extends EventEmitter<ConnectionEvents> {
         };
     }
 
+    /**
+     * 等待在此之前收到的消息都在消息处理线程中处理完。
+     * <p>
+     * 命令的响应在接收线程中直接返回，而事件在消息处理线程中排队执行，
+     * 当需要确保某个命令返回前推送的事件（例如堆快照的数据块）都已经被监听器处理时使用。
+     * 在消息处理线程中调用时直接返回。
+     */
+    public void waitForPendingMessages() {
+        if (Thread.currentThread().getName().startsWith(JV_HANDLE_MESSAGE_THREAD)) {
+            return;
+        }
+        try {
+            this.handleMessageExecutorService.submit(() -> {
+            }).get();
+        } catch (RejectedExecutionException e) {
+            // 连接已经关闭，没有需要等待的消息
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JvppeteerException(e);
+        } catch (ExecutionException e) {
+            throw new JvppeteerException(e);
+        }
+    }
+
     public void setCloseRunner(Runnable closeRunner) {
         this.closeRunner = closeRunner;
     }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.ruiyun.jvppeteer.bidi.entities.PrintMarginParameters;
+import com.ruiyun.jvppeteer.cdp.core.HandleScope;
 import com.ruiyun.jvppeteer.cdp.entities.AutofillData;
 import com.ruiyun.jvppeteer.cdp.entities.BoundingBox;
 import com.ruiyun.jvppeteer.cdp.entities.BoxModel;
@@ -18,6 +19,7 @@ import com.ruiyun.jvppeteer.cdp.entities.RemoteObject;
 import com.ruiyun.jvppeteer.cdp.entities.ScreenshotClip;
 import com.ruiyun.jvppeteer.cdp.entities.WaitForSelectorOptions;
 import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.common.ExtractSchema;
 import com.ruiyun.jvppeteer.common.LazyArg;
 import com.ruiyun.jvppeteer.common.QuerySelector;
 import com.ruiyun.jvppeteer.exception.EvaluateException;
@@ -36,6 +38,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,7 +73,13 @@ public abstract class ElementHandle extends JSHandle {
         if (this.isolatedHandle == null) {
             synchronized (this) {
                 if (this.isolatedHandle == null) {
-                    this.isolatedHandle = this.frame().isolatedRealm().adoptHandle(this).asElement();
+                    // 缓存在当前元素上，生命周期跟随元素，不放入调用方的句柄作用域
+                    HandleScope scope = HandleScope.detach();
+                    try {
+                        this.isolatedHandle = this.frame().isolatedRealm().adoptHandle(this).asElement();
+                    } finally {
+                        scope.close();
+                    }
                 }
             }
         }
@@ -327,6 +336,8 @@ public abstract class ElementHandle extends JSHandle {
 
     /**
      * 查询当前元素内与给定选择器匹配的所有元素。
+     * <p>
+     * 查询在隔离的 realm 中执行，返回前全部元素已经转到当前元素所在的 realm，隔离 realm 中的句柄随即释放
      *
      * @param selector 选择器
      * @return 与给定选择器匹配的所有元素
@@ -335,7 +346,28 @@ public abstract class ElementHandle extends JSHandle {
      */
     public List<ElementHandle> $$(String selector) throws JsonProcessingException, EvaluateException {
         QuerySelector queryHandlerAndSelector = GetQueryHandler.getQueryHandlerAndSelector(selector,this.frame());
-       return this.adoptResult(queryHandlerAndSelector.getQueryHandler().queryAll(this.adoptIsolatedHandle(), queryHandlerAndSelector.getUpdatedSelector()));
+        List<ElementHandle> elements = queryHandlerAndSelector.getQueryHandler().queryAll(this.adoptIsolatedHandle(), queryHandlerAndSelector.getUpdatedSelector());
+        if (elements == null) {
+            return null;
+        }
+        List<ElementHandle> result = new ArrayList<>(elements.size());
+        int index = 0;
+        try {
+            for (; index < elements.size(); index++) {
+                ElementHandle element = elements.get(index);
+                ElementHandle transferred = this.realm().transferHandle(element);
+                if (transferred != element) {
+                    element.dispose();
+                }
+                result.add(transferred);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // 页面跳转等导致转换失败时，已经转换的和还没有转换的句柄都释放掉
+            result.forEach(JSHandle::dispose);
+            elements.subList(index, elements.size()).forEach(JSHandle::dispose);
+            throw e;
+        }
+        return result;
     }
 
 
@@ -403,14 +435,53 @@ public abstract class ElementHandle extends JSHandle {
      */
     public Object $$eval(String selector, String pptrFunction, List<Object> args) throws JsonProcessingException, EvaluateException {
         pptrFunction = withSourcePuppeteerURLIfNone("$$eval", pptrFunction);
-        List<ElementHandle> results = this.$$(selector);
-        JSHandle elements = this.evaluateHandle("(_, ...elements) => {\n" +
-                "        return elements;\n" +
-                "      }", new ArrayList<>(results));
-        Object result = elements.evaluate(pptrFunction,args);
-        results.forEach(ElementHandle::dispose);
-        elements.dispose();
-        return result;
+        // 匹配到的元素只在这里使用，结束时一次释放
+        HandleScope scope = HandleScope.open();
+        try {
+            List<ElementHandle> results = this.$$(selector);
+            JSHandle elements = this.evaluateHandle("(_, ...elements) => {\n" +
+                    "        return elements;\n" +
+                    "      }", new ArrayList<>(results));
+            Object result = elements.evaluate(pptrFunction, args);
+            results.forEach(ElementHandle::dispose);
+            elements.dispose();
+            return result;
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * 按规则提取当前元素内与选择器匹配的每个元素，整个提取只执行一次页面函数
+     *
+     * @param selector 记录的选择器，为空时当前元素是唯一的一条记录
+     * @param schema   提取规则
+     * @param type     记录的类型
+     * @param <T>      记录的类型
+     * @return 提取的记录
+     * @throws JsonProcessingException 当处理JSON时发生错误
+     * @throws EvaluateException       当页面函数执行失败时抛出异常
+     */
+    public <T> List<T> extract(String selector, ExtractSchema schema, Class<T> type) throws JsonProcessingException, EvaluateException {
+        List<T> records = new ArrayList<>();
+        this.extract(selector, schema, type, records::add);
+        return records;
+    }
+
+    /**
+     * 按规则提取当前元素内与选择器匹配的每个元素，逐条交给 consumer
+     *
+     * @param selector 记录的选择器，为空时当前元素是唯一的一条记录
+     * @param schema   提取规则
+     * @param type     记录的类型
+     * @param consumer 接收每条记录
+     * @param <T>      记录的类型
+     * @throws JsonProcessingException 当处理JSON时发生错误
+     * @throws EvaluateException       当页面函数执行失败时抛出异常
+     */
+    public <T> void extract(String selector, ExtractSchema schema, Class<T> type, Consumer<T> consumer) throws JsonProcessingException, EvaluateException {
+        Object result = this.adoptIsolatedHandle().evaluate(schema.source(), Collections.singletonList(selector));
+        schema.read(result, type, consumer);
     }
 
     /**
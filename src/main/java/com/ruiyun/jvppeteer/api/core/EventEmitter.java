@@ -2,10 +2,13 @@ package com.ruiyun.jvppeteer.api.core;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -136,6 +139,41 @@ public class EventEmitter<EventType> {
         consumers.remove(listener);
     }
 
+    /**
+     * 当前所有监听器的副本，配合 {@link #restoreListeners(Map)} 可以移除之后添加的监听器
+     *
+     * @return 事件类型到监听器列表的副本
+     */
+    public Map<EventType, List<Consumer<?>>> listenersSnapshot() {
+        Map<EventType, List<Consumer<?>>> snapshot = new HashMap<>();
+        this.listeners.forEach((eventType, consumers) -> {
+            synchronized (consumers) {
+                snapshot.put(eventType, new ArrayList<>(consumers));
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * 移除快照之后添加的监听器，快照中的监听器保持不变
+     *
+     * @param snapshot {@link #listenersSnapshot()} 返回的快照
+     */
+    public void restoreListeners(Map<EventType, List<Consumer<?>>> snapshot) {
+        Iterator<Map.Entry<EventType, List<Consumer<?>>>> iterator = this.listeners.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<EventType, List<Consumer<?>>> entry = iterator.next();
+            List<Consumer<?>> kept = snapshot.get(entry.getKey());
+            if (kept == null) {
+                iterator.remove();
+                continue;
+            }
+            Set<Consumer<?>> keptSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            keptSet.addAll(kept);
+            entry.getValue().removeIf(listener -> !keptSet.contains(listener));
+        }
+    }
+
     /**
      * 释放所有监听器
      */
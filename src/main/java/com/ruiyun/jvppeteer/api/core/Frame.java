@@ -1,16 +1,21 @@
 package com.ruiyun.jvppeteer.api.core;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.ruiyun.jvppeteer.api.events.FrameEvents;
 import com.ruiyun.jvppeteer.cdp.core.Accessibility;
+import com.ruiyun.jvppeteer.cdp.core.HandleScope;
 import com.ruiyun.jvppeteer.cdp.entities.ClickOptions;
 import com.ruiyun.jvppeteer.cdp.entities.EvaluateType;
 import com.ruiyun.jvppeteer.cdp.entities.FrameAddScriptTagOptions;
 import com.ruiyun.jvppeteer.cdp.entities.FrameAddStyleTagOptions;
 import com.ruiyun.jvppeteer.cdp.entities.GoToOptions;
 import com.ruiyun.jvppeteer.cdp.entities.WaitForSelectorOptions;
+import com.ruiyun.jvppeteer.common.ExtractSchema;
 import com.ruiyun.jvppeteer.common.QuerySelector;
+import com.ruiyun.jvppeteer.common.WaitConditions;
 import com.ruiyun.jvppeteer.common.WaitForOptions;
+import com.ruiyun.jvppeteer.common.WaitResult;
 import com.ruiyun.jvppeteer.exception.EvaluateException;
 import com.ruiyun.jvppeteer.exception.JvppeteerException;
 import com.ruiyun.jvppeteer.util.GetQueryHandler;
@@ -21,6 +26,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -30,6 +36,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 
 import static com.ruiyun.jvppeteer.common.Constant.DEFAULT_BATCH_SIZE;
@@ -94,9 +101,15 @@ public abstract class Frame extends EventEmitter<FrameEvents> {
      */
     public ElementHandle document() throws JsonProcessingException {
         if (this.document == null) {
-            this.document = this.mainRealm().evaluateHandle("() => {\n" +
-                    "        return document;\n" +
-                    "      }", null).asElement();
+            // 缓存在框架上，不放入调用方的句柄作用域
+            HandleScope scope = HandleScope.detach();
+            try {
+                this.document = this.mainRealm().evaluateHandle("() => {\n" +
+                        "        return document;\n" +
+                        "      }", null).asElement();
+            } finally {
+                scope.close();
+            }
         }
         return this.document;
     }
@@ -208,6 +221,38 @@ public abstract class Frame extends EventEmitter<FrameEvents> {
         return this.evaluate(pptrFunction, null, args);
     }
 
+    /**
+     * 执行给定的 JS 函数，返回值直接反序列化为指定类型，不再经过 Map、List 组成的中间对象
+     *
+     * @param pptrFunction 给定的 JS 函数
+     * @param resultType   返回值类型
+     * @param args         pptrFunction 的参数
+     * @param <T>          返回值类型
+     * @return pptrFunction 的执行结果
+     * @throws JsonProcessingException 序列化异常
+     * @throws EvaluateException       JS 函数执行异常
+     */
+    public <T> T evaluateAs(String pptrFunction, Class<T> resultType, List<Object> args) throws JsonProcessingException {
+        pptrFunction = withSourcePuppeteerURLIfNone("evaluate", pptrFunction);
+        return this.mainRealm().evaluateAs(pptrFunction, resultType, args);
+    }
+
+    /**
+     * 执行给定的 JS 函数，返回值直接反序列化为指定的泛型类型
+     *
+     * @param pptrFunction 给定的 JS 函数
+     * @param resultType   返回值类型
+     * @param args         pptrFunction 的参数
+     * @param <T>          返回值类型
+     * @return pptrFunction 的执行结果
+     * @throws JsonProcessingException 序列化异常
+     * @throws EvaluateException       JS 函数执行异常
+     */
+    public <T> T evaluateAs(String pptrFunction, TypeReference<T> resultType, List<Object> args) throws JsonProcessingException {
+        pptrFunction = withSourcePuppeteerURLIfNone("evaluate", pptrFunction);
+        return this.mainRealm().evaluateAs(pptrFunction, resultType, args);
+    }
+
     /**
      * 查询框架中与给定选择器匹配的第一个元素。
      *
@@ -270,6 +315,41 @@ public abstract class Frame extends EventEmitter<FrameEvents> {
         return document.$$eval(selector, pptrFunction, args);
     }
 
+    /**
+     * 按规则提取框架中与选择器匹配的每个元素，整个提取只执行一次页面函数
+     * <p>
+     * 在隔离的 realm 中执行，页面脚本无法干扰提取结果
+     *
+     * @param selector 记录的选择器，为空时整个 document 是唯一的一条记录
+     * @param schema   提取规则
+     * @param type     记录的类型
+     * @param <T>      记录的类型
+     * @return 提取的记录
+     * @throws JsonProcessingException 序列化异常
+     * @throws EvaluateException       JS 函数执行异常
+     */
+    public <T> List<T> extract(String selector, ExtractSchema schema, Class<T> type) throws JsonProcessingException {
+        List<T> records = new ArrayList<>();
+        this.extract(selector, schema, type, records::add);
+        return records;
+    }
+
+    /**
+     * 按规则提取框架中与选择器匹配的每个元素，逐条交给 consumer，不保留全部记录
+     *
+     * @param selector 记录的选择器，为空时整个 document 是唯一的一条记录
+     * @param schema   提取规则
+     * @param type     记录的类型
+     * @param consumer 接收每条记录
+     * @param <T>      记录的类型
+     * @throws JsonProcessingException 序列化异常
+     * @throws EvaluateException       JS 函数执行异常
+     */
+    public <T> void extract(String selector, ExtractSchema schema, Class<T> type, Consumer<T> consumer) throws JsonProcessingException {
+        Object result = this.isolatedRealm().evaluate(schema.source(), Arrays.asList(null, selector));
+        schema.read(result, type, consumer);
+    }
+
     /**
      * 等待直到指定的选择器匹配的元素满足某些条件（可见、隐藏或存在）.
      *
@@ -295,6 +375,30 @@ public abstract class Frame extends EventEmitter<FrameEvents> {
         return this.mainRealm().waitForFunction(pptrFunction, options, type, args);
     }
 
+    /**
+     * 等待任意一个条件满足，其余条件的监听和轮询随即撤销
+     * <p>
+     * 全部选择器和 DOM 谓词合并在一个页面函数中轮询，请求、响应和导航条件通过页面事件判断
+     *
+     * @param conditions 条件
+     * @return 最先满足的条件和它的结果
+     * @throws JsonProcessingException 序列化异常
+     */
+    public WaitResult waitForAny(WaitConditions conditions) throws JsonProcessingException {
+        return new CompositeWait(this, conditions).any();
+    }
+
+    /**
+     * 等待全部条件满足，DOM 条件要求在同一次检查中同时满足
+     *
+     * @param conditions 条件
+     * @return 按条件声明顺序排列的 key 和结果
+     * @throws JsonProcessingException 序列化异常
+     */
+    public Map<String, Object> waitForAll(WaitConditions conditions) throws JsonProcessingException {
+        return new CompositeWait(this, conditions).all();
+    }
+
     /**
      * 框架的完整 HTML 内容，包括 DOCTYPE。
      *
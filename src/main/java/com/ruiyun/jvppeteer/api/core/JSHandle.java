@@ -1,6 +1,7 @@
 package com.ruiyun.jvppeteer.api.core;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.ruiyun.jvppeteer.cdp.entities.RemoteObject;
 import com.ruiyun.jvppeteer.exception.EvaluateException;
 import com.ruiyun.jvppeteer.util.ValidateUtil;
@@ -53,6 +54,47 @@ public abstract class JSHandle {
         return this.realm().evaluate(pptrFunction, argsArray);
     }
 
+    /**
+     * 使用当前对象作为第一个参数来执行给定的 JS 函数，返回值直接反序列化为指定类型。
+     *
+     * @param pptrFunction 给定函数
+     * @param resultType   返回值类型
+     * @param args         给定函数的参数，第一个参数是当前对象
+     * @param <T>          返回值类型
+     * @return 给定函数执行的结果
+     * @throws JsonProcessingException 序列化异常
+     * @throws EvaluateException       给定函数执行的异常
+     */
+    public <T> T evaluateAs(String pptrFunction, Class<T> resultType, List<Object> args) throws JsonProcessingException, EvaluateException {
+        pptrFunction = withSourcePuppeteerURLIfNone("evaluate", pptrFunction);
+        return this.realm().evaluateAs(pptrFunction, resultType, this.withThis(args));
+    }
+
+    /**
+     * 使用当前对象作为第一个参数来执行给定的 JS 函数，返回值直接反序列化为指定的泛型类型。
+     *
+     * @param pptrFunction 给定函数
+     * @param resultType   返回值类型
+     * @param args         给定函数的参数，第一个参数是当前对象
+     * @param <T>          返回值类型
+     * @return 给定函数执行的结果
+     * @throws JsonProcessingException 序列化异常
+     * @throws EvaluateException       给定函数执行的异常
+     */
+    public <T> T evaluateAs(String pptrFunction, TypeReference<T> resultType, List<Object> args) throws JsonProcessingException, EvaluateException {
+        pptrFunction = withSourcePuppeteerURLIfNone("evaluate", pptrFunction);
+        return this.realm().evaluateAs(pptrFunction, resultType, this.withThis(args));
+    }
+
+    private List<Object> withThis(List<Object> args) {
+        List<Object> argsArray = new ArrayList<>();
+        argsArray.add(this);
+        if (Objects.nonNull(args)) {
+            argsArray.addAll(args);
+        }
+        return argsArray;
+    }
+
     /**
      * 使用当前对象作为第一个参数来执行给定的 JS 函数。
      *
@@ -1,11 +1,14 @@
 package com.ruiyun.jvppeteer.api.core;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.ruiyun.jvppeteer.api.events.ConnectionEvents;
 import com.ruiyun.jvppeteer.api.events.PageEvents;
 import com.ruiyun.jvppeteer.cdp.core.Accessibility;
 import com.ruiyun.jvppeteer.cdp.core.Coverage;
 import com.ruiyun.jvppeteer.cdp.core.FileChooser;
+import com.ruiyun.jvppeteer.cdp.core.HeapProfiler;
+import com.ruiyun.jvppeteer.cdp.core.Profiler;
 import com.ruiyun.jvppeteer.cdp.core.Tracing;
 import com.ruiyun.jvppeteer.cdp.entities.BoundingBox;
 import com.ruiyun.jvppeteer.cdp.entities.ClickOptions;
@@ -17,6 +20,8 @@ import com.ruiyun.jvppeteer.cdp.entities.Device;
 import com.ruiyun.jvppeteer.cdp.entities.EvaluateType;
 import com.ruiyun.jvppeteer.cdp.entities.FrameAddScriptTagOptions;
 import com.ruiyun.jvppeteer.cdp.entities.FrameAddStyleTagOptions;
+import com.ruiyun.jvppeteer.cdp.entities.HeapSnapshotOptions;
+import com.ruiyun.jvppeteer.cdp.entities.HeapSnapshotSummary;
 import com.ruiyun.jvppeteer.cdp.entities.GeolocationOptions;
 import com.ruiyun.jvppeteer.cdp.entities.GoToOptions;
 import com.ruiyun.jvppeteer.cdp.entities.IdleOverridesState;
@@ -39,13 +44,16 @@ import com.ruiyun.jvppeteer.cdp.events.ScreencastFrameEvent;
 import com.ruiyun.jvppeteer.common.AwaitableResult;
 import com.ruiyun.jvppeteer.common.BindingFunction;
 import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.common.ExtractSchema;
 import com.ruiyun.jvppeteer.common.MediaType;
 import com.ruiyun.jvppeteer.common.ParamsFactory;
 import com.ruiyun.jvppeteer.common.ReloadOptions;
 import com.ruiyun.jvppeteer.common.ScreenRecorder;
 import com.ruiyun.jvppeteer.common.TimeoutSettings;
 import com.ruiyun.jvppeteer.common.UserAgentOptions;
+import com.ruiyun.jvppeteer.common.WaitConditions;
 import com.ruiyun.jvppeteer.common.WaitForOptions;
+import com.ruiyun.jvppeteer.common.WaitResult;
 import com.ruiyun.jvppeteer.common.WebPermission;
 import com.ruiyun.jvppeteer.exception.JvppeteerException;
 import com.ruiyun.jvppeteer.exception.TargetCloseException;
@@ -54,13 +62,17 @@ import com.ruiyun.jvppeteer.util.Helper;
 import com.ruiyun.jvppeteer.util.StringUtil;
 import com.ruiyun.jvppeteer.util.ValidateUtil;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -80,6 +92,14 @@ public abstract class Page extends EventEmitter<PageEvents> {
     protected final Map<Consumer<Request>, Consumer<Request>> requestHandlers = new WeakHashMap<>();
     protected boolean isDragging;
     protected List<String> inflight = new ArrayList<>();
+    /**
+     * 通过 evaluateOnNewDocument 添加且尚未移除的脚本
+     */
+    protected final Set<String> newDocumentScripts = ConcurrentHashMap.newKeySet();
+    /**
+     * 通过 exposeFunction 暴露且尚未移除的函数
+     */
+    protected final Set<String> exposedFunctionNames = ConcurrentHashMap.newKeySet();
 
     public Page() {
         super();
@@ -158,6 +178,11 @@ public abstract class Page extends EventEmitter<PageEvents> {
         }
     }
 
+    /**
+     * 清除 {@link #setGeolocation(GeolocationOptions)} 设置的地理位置，恢复为浏览器的真实位置
+     */
+    public abstract void clearGeolocation();
+
     /**
      * 创建此页面的目标。
      *
@@ -211,6 +236,40 @@ public abstract class Page extends EventEmitter<PageEvents> {
 
     public abstract Tracing tracing();
 
+    /**
+     * CPU 采样分析器
+     *
+     * @return Profiler
+     */
+    public abstract Profiler profiler();
+
+    /**
+     * 堆快照
+     *
+     * @return HeapProfiler
+     */
+    public abstract HeapProfiler heapProfiler();
+
+    /**
+     * 生成堆快照，快照数据边接收边写入文件
+     *
+     * @param path 快照文件的路径
+     */
+    public void heapSnapshot(Path path) {
+        this.heapProfiler().takeHeapSnapshot(path, null);
+    }
+
+    /**
+     * 生成堆快照，快照数据边接收边写入文件
+     *
+     * @param path    快照文件的路径
+     * @param options 选项，可以报告进度，或者在写入的同时统计各构造函数的对象数量和大小
+     * @return 开启 summarize 时返回统计结果，否则返回 null
+     */
+    public HeapSnapshotSummary heapSnapshot(Path path, HeapSnapshotOptions options) {
+        return this.heapProfiler().takeHeapSnapshot(path, options);
+    }
+
     public abstract Accessibility accessibility();
 
     /**
@@ -317,6 +376,34 @@ public abstract class Page extends EventEmitter<PageEvents> {
         return this.mainFrame().$$(selector);
     }
 
+    /**
+     * 按规则提取主框架中与选择器匹配的每个元素，整个提取只执行一次页面函数
+     *
+     * @param selector 记录的选择器，为空时整个 document 是唯一的一条记录
+     * @param schema   提取规则
+     * @param type     记录的类型
+     * @param <T>      记录的类型
+     * @return 提取的记录
+     * @throws JsonProcessingException JSON异常
+     */
+    public <T> List<T> extract(String selector, ExtractSchema schema, Class<T> type) throws JsonProcessingException {
+        return this.mainFrame().extract(selector, schema, type);
+    }
+
+    /**
+     * 按规则提取主框架中与选择器匹配的每个元素，逐条交给 consumer
+     *
+     * @param selector 记录的选择器，为空时整个 document 是唯一的一条记录
+     * @param schema   提取规则
+     * @param type     记录的类型
+     * @param consumer 接收每条记录
+     * @param <T>      记录的类型
+     * @throws JsonProcessingException JSON异常
+     */
+    public <T> void extract(String selector, ExtractSchema schema, Class<T> type, Consumer<T> consumer) throws JsonProcessingException {
+        this.mainFrame().extract(selector, schema, type, consumer);
+    }
+
     /**
      * 此方法和 page.evaluate 的唯一区别是此方法返回的是页内类型(JSHandle)
      *
@@ -955,6 +1042,28 @@ public abstract class Page extends EventEmitter<PageEvents> {
         return Helper.waitForCondition(conditionChecker, timeout, "WaitForFrame timeout of " + timeout + " ms exceeded");
     }
 
+    /**
+     * 在主 frame 上等待任意一个条件满足，例如 "出现某个元素、或者收到错误响应、或者发生跳转"，其余条件随即撤销
+     *
+     * @param conditions 条件
+     * @return 最先满足的条件和它的结果
+     * @throws JsonProcessingException 序列化异常
+     */
+    public WaitResult waitForAny(WaitConditions conditions) throws JsonProcessingException {
+        return this.mainFrame().waitForAny(conditions);
+    }
+
+    /**
+     * 在主 frame 上等待全部条件满足
+     *
+     * @param conditions 条件
+     * @return 按条件声明顺序排列的 key 和结果
+     * @throws JsonProcessingException 序列化异常
+     */
+    public Map<String, Object> waitForAll(WaitConditions conditions) throws JsonProcessingException {
+        return this.mainFrame().waitForAll(conditions);
+    }
+
     /**
      * 此方法导航到历史记录中的上一页
      *
@@ -1122,6 +1231,39 @@ public abstract class Page extends EventEmitter<PageEvents> {
         }
     }
 
+    /**
+     * 执行一段 JavaScript代码，返回值直接反序列化为指定类型
+     * <pre>{@code
+     * BoundingBox box = page.evaluateAs("() => ({x: 0, y: 0, width: innerWidth, height: innerHeight})", BoundingBox.class);
+     * }</pre>
+     *
+     * @param pptrFunction 要执行的字符串
+     * @param resultType   返回值类型
+     * @param args         如果pageFunction 是 Javascript 函数的话，args就是函数上的参数
+     * @param <T>          返回值类型
+     * @return pageFunction执行结果
+     * @throws JsonProcessingException json序列化异常
+     */
+    public <T> T evaluateAs(String pptrFunction, Class<T> resultType, Object... args) throws JsonProcessingException {
+        pptrFunction = withSourcePuppeteerURLIfNone("evaluate", pptrFunction);
+        return this.mainFrame().evaluateAs(pptrFunction, resultType, Objects.isNull(args) ? null : Arrays.asList(args));
+    }
+
+    /**
+     * 执行一段 JavaScript代码，返回值直接反序列化为指定的泛型类型
+     *
+     * @param pptrFunction 要执行的字符串
+     * @param resultType   返回值类型，例如 new TypeReference&lt;List&lt;String&gt;&gt;() {}
+     * @param args         如果pageFunction 是 Javascript 函数的话，args就是函数上的参数
+     * @param <T>          返回值类型
+     * @return pageFunction执行结果
+     * @throws JsonProcessingException json序列化异常
+     */
+    public <T> T evaluateAs(String pptrFunction, TypeReference<T> resultType, Object... args) throws JsonProcessingException {
+        pptrFunction = withSourcePuppeteerURLIfNone("evaluate", pptrFunction);
+        return this.mainFrame().evaluateAs(pptrFunction, resultType, Objects.isNull(args) ? null : Arrays.asList(args));
+    }
+
     /**
      * 在新dom产生之际执行给定的javascript
      * <p>当你的js代码为函数时，type={@link EvaluateType#FUNCTION}</p>
@@ -1154,6 +1296,24 @@ public abstract class Page extends EventEmitter<PageEvents> {
      */
     public abstract void removeScriptToEvaluateOnNewDocument(String identifier);
 
+    /**
+     * 通过 evaluateOnNewDocument 添加且尚未移除的脚本 identifier
+     *
+     * @return identifier 集合的副本
+     */
+    public Set<String> newDocumentScripts() {
+        return new HashSet<>(this.newDocumentScripts);
+    }
+
+    /**
+     * 通过 exposeFunction 暴露且尚未移除的函数名
+     *
+     * @return 函数名集合的副本
+     */
+    public Set<String> exposedFunctionNames() {
+        return new HashSet<>(this.exposedFunctionNames);
+    }
+
     /**
      * 根据启用状态切换忽略每个请求的缓存。默认情况下，缓存已启用。
      *
@@ -1334,8 +1494,7 @@ public abstract class Page extends EventEmitter<PageEvents> {
                 } else {
                     if (options.getFullPage()) {
                         if (!options.getCaptureBeyondViewport()) {
-                            Object response = this.mainFrame().isolatedRealm().evaluate("() => {\n" + "              const element = document.documentElement;\n" + "              return {\n" + "                width: element.scrollWidth,\n" + "                height: element.scrollHeight,\n" + "              };\n" + "            }");
-                            BoundingBox scrollDimensions = Constant.OBJECTMAPPER.convertValue(response, BoundingBox.class);
+                            BoundingBox scrollDimensions = this.mainFrame().isolatedRealm().evaluateAs("() => {\n" + "              const element = document.documentElement;\n" + "              return {\n" + "                width: element.scrollWidth,\n" + "                height: element.scrollHeight,\n" + "              };\n" + "            }", BoundingBox.class, null);
                             fullViewport = new Viewport((int) scrollDimensions.getWidth(), (int) scrollDimensions.getHeight(), this.viewport().getDeviceScaleFactor(), this.viewport().getIsMobile(), this.viewport().getHasTouch(), this.viewport().getIsLandscape());
                             this.setViewport(fullViewport);
                         }
@@ -2,6 +2,8 @@ package com.ruiyun.jvppeteer.api.core;
 
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.ruiyun.jvppeteer.bidi.core.BidiElementHandle;
 import com.ruiyun.jvppeteer.bidi.core.BidiFrameRealm;
 import com.ruiyun.jvppeteer.bidi.core.BidiJSHandle;
@@ -24,6 +26,8 @@ import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
+import static com.ruiyun.jvppeteer.common.Constant.OBJECTMAPPER;
+
 public abstract class Realm {
 
     protected final TimeoutSettings timeoutSettings;
@@ -52,6 +56,42 @@ public abstract class Realm {
 
     public abstract Object evaluate(String pptrFunction, EvaluateType type, List<Object> args) throws JsonProcessingException;
 
+    /**
+     * 执行函数，返回值反序列化为指定类型
+     *
+     * @param pptrFunction 函数或者表达式
+     * @param resultType   返回值类型
+     * @param args         函数参数
+     * @param <T>          返回值类型
+     * @return 返回值
+     * @throws JsonProcessingException 序列化异常
+     */
+    public <T> T evaluateAs(String pptrFunction, Class<T> resultType, List<Object> args) throws JsonProcessingException {
+        return this.evaluateAs(pptrFunction, OBJECTMAPPER.constructType(resultType), args);
+    }
+
+    /**
+     * 执行函数，返回值反序列化为指定的泛型类型
+     *
+     * @param pptrFunction 函数或者表达式
+     * @param resultType   返回值类型，例如 new TypeReference&lt;List&lt;BoundingBox&gt;&gt;() {}
+     * @param args         函数参数
+     * @param <T>          返回值类型
+     * @return 返回值
+     * @throws JsonProcessingException 序列化异常
+     */
+    public <T> T evaluateAs(String pptrFunction, TypeReference<T> resultType, List<Object> args) throws JsonProcessingException {
+        return this.evaluateAs(pptrFunction, OBJECTMAPPER.constructType(resultType), args);
+    }
+
+    /**
+     * 执行函数并把返回值转成指定类型，默认先得到通用的返回值再转换，支持直接绑定的实现覆盖这个方法
+     */
+    protected <T> T evaluateAs(String pptrFunction, JavaType resultType, List<Object> args) throws JsonProcessingException {
+        Object result = this.evaluate(pptrFunction, args);
+        return result == null ? null : OBJECTMAPPER.convertValue(result, resultType);
+    }
+
     public JSHandle waitForFunction(String pptrFunction, WaitForSelectorOptions options, EvaluateType type, Object... args) throws ExecutionException, InterruptedException, TimeoutException {
         String polling = "raf";
         int timeout = Objects.isNull(options.getTimeout()) ? this.timeoutSettings.timeout() : options.getTimeout();
@@ -63,7 +103,7 @@ public abstract class Realm {
         } else {
             ValidateUtil.assertArg("raf".equals(polling) || "mutation".equals(polling), "Unknown polling option: " + polling);
         }
-        return new WaitTask(this, new WaitTaskOptions(polling, options.getRoot(), timeout), pptrFunction, type, args).result();
+        return new WaitTask(this, new WaitTaskOptions(polling, options.getRoot(), timeout, options.getPush()), pptrFunction, type, args).result();
     }
 
     public IsolatedWorld toIsolatedWorld() {
@@ -50,6 +50,8 @@ public enum ConnectionEvents {
     Network_responseReceivedExtraInfo("Network.responseReceivedExtraInfo"),
     Network_requestWillBeSentExtraInfo("Network.requestWillBeSentExtraInfo"),
     Tracing_tracingComplete("Tracing.tracingComplete"),
+    HeapProfiler_addHeapSnapshotChunk("HeapProfiler.addHeapSnapshotChunk"),
+    HeapProfiler_reportHeapSnapshotProgress("HeapProfiler.reportHeapSnapshotProgress"),
     Input_dragIntercepted("Input.dragIntercepted"),
     /**
      * 下载进度时触发
@@ -0,0 +1,27 @@
+package com.ruiyun.jvppeteer.api.events;
+
+import com.ruiyun.jvppeteer.api.core.Browser;
+import com.ruiyun.jvppeteer.cdp.entities.ResourceUsage;
+
+public enum GovernorEvents {
+    /**
+     * 每次采样后触发
+     * {@link ResourceUsage}
+     */
+    Sample,
+    /**
+     * 连续多次采样超过阈值时触发
+     * {@link ResourceUsage}
+     */
+    ThresholdExceeded,
+    /**
+     * 浏览器回收完成，参数是新启动的浏览器
+     * {@link Browser}
+     */
+    Recycled,
+    /**
+     * 回收失败，参数是异常
+     * {@link Exception}
+     */
+    RecycleFailed
+}
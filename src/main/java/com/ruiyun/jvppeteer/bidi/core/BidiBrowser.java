@@ -166,6 +166,7 @@ public class BidiBrowser extends Browser {
         return this.cdpConnection;
     }
 
+    @Override
     public Connection connection() {
         return this.browserCore.session().connection();
     }
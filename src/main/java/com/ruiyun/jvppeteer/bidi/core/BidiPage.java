@@ -45,6 +45,8 @@ import com.ruiyun.jvppeteer.cdp.core.Accessibility;
 import com.ruiyun.jvppeteer.cdp.core.Coverage;
 import com.ruiyun.jvppeteer.cdp.core.EmulationManager;
 import com.ruiyun.jvppeteer.cdp.core.FileChooser;
+import com.ruiyun.jvppeteer.cdp.core.HeapProfiler;
+import com.ruiyun.jvppeteer.cdp.core.Profiler;
 import com.ruiyun.jvppeteer.cdp.core.Tracing;
 import com.ruiyun.jvppeteer.cdp.entities.BoundingBox;
 import com.ruiyun.jvppeteer.cdp.entities.Cookie;
@@ -120,6 +122,8 @@ public class BidiPage extends Page {
     private final BidiTouchscreen touchscreen;
     private final Tracing tracing;
     private final Coverage coverage;
+    private final Profiler profiler;
+    private final HeapProfiler heapProfiler;
     private final EmulationManager cdpEmulationManager;
     private InternalNetworkConditions emulatedNetworkConditions;
     private String overrideNavigatorPropertiesPreloadScript;
@@ -136,6 +140,8 @@ public class BidiPage extends Page {
         this.cdpEmulationManager = new EmulationManager(this.frame.client());
         this.tracing = new Tracing(this.frame.client());
         this.coverage = new Coverage(this.frame.client());
+        this.profiler = new Profiler(this.frame.client());
+        this.heapProfiler = new HeapProfiler(this.frame.client());
         this.keyboard = new BidiKeyboard(this);
         this.mouse = new BidiMouse(this);
         this.touchscreen = new BidiTouchscreen(this);
@@ -369,6 +375,11 @@ public class BidiPage extends Page {
         this.frame.browsingContext.setGeolocationOverride(setGeoLocationOverrideOptions);
     }
 
+    @Override
+    public void clearGeolocation() {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void setJavaScriptEnabled(boolean enabled) {
         this.frame.browsingContext.setJavaScriptEnabled(enabled);
@@ -587,17 +598,20 @@ public class BidiPage extends Page {
     public NewDocumentScriptEvaluation evaluateOnNewDocument(String pptrFunction, EvaluateType type, Object... args) throws JsonProcessingException {
         String expression = evaluationExpression(pptrFunction, args);
         String identifier = this.frame.browsingContext.addPreloadScript(expression, new AddPreloadScriptOptions());
+        this.newDocumentScripts.add(identifier);
         return new NewDocumentScriptEvaluation(identifier);
     }
 
     @Override
     public void removeScriptToEvaluateOnNewDocument(String identifier) {
         this.frame.browsingContext.removePreloadScript(identifier);
+        this.newDocumentScripts.remove(identifier);
     }
 
     @Override
     public void exposeFunction(String name, BindingFunction pptrFunction) {
         this.mainFrame().exposeFunction(name, pptrFunction);
+        this.exposedFunctionNames.add(name);
     }
 
     @Override
@@ -904,6 +918,7 @@ public class BidiPage extends Page {
     @Override
     public void removeExposedFunction(String name) {
         this.frame.removeExposedFunction(name);
+        this.exposedFunctionNames.remove(name);
     }
 
     @Override
@@ -942,6 +957,16 @@ public class BidiPage extends Page {
         return this.tracing;
     }
 
+    @Override
+    public Profiler profiler() {
+        return this.profiler;
+    }
+
+    @Override
+    public HeapProfiler heapProfiler() {
+        return this.heapProfiler;
+    }
+
     @Override
     public Accessibility accessibility() {
         throw new UnsupportedOperationException();
@@ -0,0 +1,337 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ruiyun.jvppeteer.cdp.entities.BrowserCacheEntry;
+import com.ruiyun.jvppeteer.util.FileUtil;
+import com.ruiyun.jvppeteer.util.StreamUtil;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static com.ruiyun.jvppeteer.common.Constant.OBJECTMAPPER;
+
+/**
+ * 浏览器缓存目录的索引
+ * <p>
+ * 索引文件记录缓存目录下已经安装的浏览器版本、占用空间和最近使用时间。多个 JVM 共用一个缓存目录时，
+ * 修改索引前获取 .jvppeteer-cache-index.lock 的文件锁，写入临时文件后原子替换，读取时不需要加锁。
+ * 同一个 JVM 内按索引文件的修改时间缓存解析结果，文件没有变化时不再读取磁盘。
+ * <p>
+ * 索引与目录一致时，把索引文件的修改时间设为缓存目录的修改时间。目录中增删了文件夹（包括其他工具的修改）后，
+ * 目录的修改时间会晚于索引，{@link #isFresh()} 返回 false，调用方需要重新扫描目录并通过 {@link #reconcile} 写回。
+ * 配置磁盘配额后，安装新版本时按最近使用时间淘汰最久没有使用的版本。
+ */
+public class BrowserCacheIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrowserCacheIndex.class);
+
+    private static final String INDEX_FILE = ".jvppeteer-cache-index.json";
+
+    private static final String LOCK_FILE = ".jvppeteer-cache-index.lock";
+
+    /**
+     * 最近使用时间的精度，间隔小于这个时间的使用不重复写索引
+     */
+    private static final long TOUCH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Map<Path, Snapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    private final Path index;
+
+    private final Path lockFile;
+
+    public BrowserCacheIndex(String cacheDir) {
+        this.directory = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.index = this.directory.resolve(INDEX_FILE);
+        this.lockFile = this.directory.resolve(LOCK_FILE);
+    }
+
+    /**
+     * 索引中的全部记录
+     *
+     * @return 记录，索引不存在时为空集合
+     * @throws IOException 读取失败
+     */
+    public List<BrowserCacheEntry> entries() throws IOException {
+        return this.snapshot().entries;
+    }
+
+    /**
+     * 索引是否与缓存目录一致：索引的修改时间不早于目录的修改时间
+     *
+     * @return 索引不存在或者目录在索引之后被修改过时返回 false
+     */
+    public boolean isFresh() {
+        try {
+            return Files.getLastModifiedTime(this.index).compareTo(Files.getLastModifiedTime(this.directory)) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 用扫描目录得到的记录替换索引中属于扫描范围的记录，写回后索引与目录一致
+     * <p>
+     * 索引中已有的记录保留（其中的最近使用时间可能已被其他 JVM 更新），只添加新出现的、删除已经不存在的
+     *
+     * @param scope   扫描范围，例如某个产品的记录
+     * @param scanned 扫描得到的记录
+     * @throws IOException 写入失败
+     */
+    public void reconcile(Predicate<BrowserCacheEntry> scope, List<BrowserCacheEntry> scanned) throws IOException {
+        this.update(entries -> {
+            Map<String, BrowserCacheEntry> existing = new HashMap<>(entries);
+            entries.values().removeIf(scope);
+            for (BrowserCacheEntry entry : scanned) {
+                entries.put(entry.getFolder(), existing.getOrDefault(entry.getFolder(), entry));
+            }
+            return null;
+        }, true);
+    }
+
+    /**
+     * 查找文件夹对应的记录
+     *
+     * @param folder 文件夹名称
+     * @return 记录，不存在时为 null
+     * @throws IOException 读取失败
+     */
+    public BrowserCacheEntry get(String folder) throws IOException {
+        for (BrowserCacheEntry entry : this.entries()) {
+            if (Objects.equals(entry.getFolder(), folder)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 添加或者替换记录
+     *
+     * @param entry 记录
+     * @throws IOException 写入失败
+     */
+    public void put(BrowserCacheEntry entry) throws IOException {
+        this.update(entries -> entries.put(entry.getFolder(), entry));
+    }
+
+    /**
+     * 删除记录，不会删除文件夹
+     *
+     * @param folder 文件夹名称
+     * @throws IOException 写入失败
+     */
+    public void remove(String folder) throws IOException {
+        this.update(entries -> entries.remove(folder));
+    }
+
+    /**
+     * 更新最近使用时间
+     *
+     * @param folder 文件夹名称
+     * @return 索引中没有该记录时返回 false
+     * @throws IOException 写入失败
+     */
+    public boolean touch(String folder) throws IOException {
+        BrowserCacheEntry cached = this.get(folder);
+        if (cached == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - cached.getLastUsed() < TOUCH_INTERVAL) {
+            return true;
+        }
+        return this.update(entries -> {
+            BrowserCacheEntry entry = entries.get(folder);
+            if (entry != null) {
+                entry.setLastUsed(now);
+            }
+            return entry != null;
+        });
+    }
+
+    /**
+     * 按最近使用时间淘汰旧版本，直到总占用不超过配额。版本的文件夹锁被占用（正在安装或者删除）时跳过该版本
+     *
+     * @param quota 配额，字节，小于等于 0 时不淘汰
+     * @param keep  不淘汰的文件夹，通常是刚刚安装或者正在使用的版本
+     * @return 被删除的记录
+     * @throws IOException 写入索引失败
+     */
+    public List<BrowserCacheEntry> prune(long quota, String keep) throws IOException {
+        if (quota <= 0) {
+            return Collections.emptyList();
+        }
+        return this.update(entries -> {
+            long total = entries.values().stream().mapToLong(BrowserCacheEntry::getSize).sum();
+            List<BrowserCacheEntry> candidates = new ArrayList<>(entries.values());
+            candidates.sort(Comparator.comparingLong(BrowserCacheEntry::getLastUsed));
+            List<BrowserCacheEntry> removed = new ArrayList<>();
+            for (BrowserCacheEntry entry : candidates) {
+                if (total <= quota) {
+                    break;
+                }
+                if (Objects.equals(entry.getFolder(), keep)) {
+                    continue;
+                }
+                // 和安装、删除使用同一把锁，正在安装或者删除的版本跳过
+                Closeable folderLock;
+                try {
+                    folderLock = FileUtil.tryLock(this.directory.resolve(entry.getFolder() + ".lock"));
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to lock browser cache folder {}", entry.getFolder(), e);
+                    continue;
+                }
+                if (folderLock == null) {
+                    LOGGER.debug("Browser cache folder {} is busy, skip pruning", entry.getFolder());
+                    continue;
+                }
+                try {
+                    FileUtil.removeFolder(this.directory.resolve(entry.getFolder()).toString());
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to remove browser cache folder {}", entry.getFolder(), e);
+                    continue;
+                } finally {
+                    StreamUtil.closeQuietly(folderLock);
+                }
+                entries.remove(entry.getFolder());
+                total -= entry.getSize();
+                removed.add(entry);
+                LOGGER.info("Pruned browser {} {} from cache ({} bytes, last used at {})", entry.getProduct(), entry.getRevision(), entry.getSize(), entry.getLastUsed());
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * 计算文件夹占用的空间，不跟随符号链接
+     *
+     * @param folder 文件夹
+     * @return 字节数
+     * @throws IOException 读取失败
+     */
+    public static long sizeOf(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            return paths.mapToLong(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    return attributes.isRegularFile() ? attributes.size() : 0;
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        }
+    }
+
+    /**
+     * 持有文件锁，读取最新的索引，修改后写回
+     */
+    private <T> T update(Function<Map<String, BrowserCacheEntry>, T> mutation) throws IOException {
+        return this.update(mutation, false);
+    }
+
+    /**
+     * 持有文件锁，读取最新的索引，修改后写回
+     *
+     * @param scanned 修改后的索引与目录一致；为 false 时只有修改前一致才保持一致，修改前目录已经变化的仍需重新扫描
+     */
+    private <T> T update(Function<Map<String, BrowserCacheEntry>, T> mutation, boolean scanned) throws IOException {
+        Closeable lock = FileUtil.lock(this.lockFile);
+        try {
+            boolean fresh = scanned || this.isFresh();
+            Map<String, BrowserCacheEntry> entries = new LinkedHashMap<>();
+            for (BrowserCacheEntry entry : read(this.index)) {
+                entries.put(entry.getFolder(), entry);
+            }
+            T result = mutation.apply(entries);
+            List<BrowserCacheEntry> updated = new ArrayList<>(entries.values());
+            Path temp = this.directory.resolve(INDEX_FILE + ".tmp");
+            OBJECTMAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), updated);
+            try {
+                Files.move(temp, this.index, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, this.index, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (fresh) {
+                // 替换索引文件本身也会修改目录的修改时间，写完后再对齐
+                Files.setLastModifiedTime(this.index, Files.getLastModifiedTime(this.directory));
+            }
+            BasicFileAttributes attributes = Files.readAttributes(this.index, BasicFileAttributes.class);
+            SNAPSHOTS.put(this.directory, new Snapshot(attributes.lastModifiedTime().toMillis(), attributes.size(), updated));
+            return result;
+        } finally {
+            lock.close();
+        }
+    }
+
+    private Snapshot snapshot() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(this.index, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return Snapshot.EMPTY;
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        Snapshot snapshot = SNAPSHOTS.get(this.directory);
+        if (snapshot != null && snapshot.modified == modified && snapshot.size == attributes.size()) {
+            return snapshot;
+        }
+        snapshot = new Snapshot(modified, attributes.size(), read(this.index));
+        SNAPSHOTS.put(this.directory, snapshot);
+        return snapshot;
+    }
+
+    private static List<BrowserCacheEntry> read(Path index) throws IOException {
+        if (!Files.isRegularFile(index)) {
+            return new ArrayList<>();
+        }
+        try {
+            List<BrowserCacheEntry> entries = OBJECTMAPPER.readValue(index.toFile(), new TypeReference<List<BrowserCacheEntry>>() {
+            });
+            return entries == null ? new ArrayList<>() : entries;
+        } catch (JsonProcessingException e) {
+            // 索引损坏时重建，不影响已经安装的浏览器
+            LOGGER.warn("Browser cache index {} is corrupted, rebuilding", index, e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(-1, -1, Collections.emptyList());
+
+        private final long modified;
+
+        private final long size;
+
+        private final List<BrowserCacheEntry> entries;
+
+        private Snapshot(long modified, long size, List<BrowserCacheEntry> entries) {
+            this.modified = modified;
+            this.size = size;
+            this.entries = Collections.unmodifiableList(entries);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ruiyun.jvppeteer.cdp.core;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.ruiyun.jvppeteer.cdp.entities.BrowserCacheEntry;
 import com.ruiyun.jvppeteer.cdp.entities.FetcherOptions;
 import com.ruiyun.jvppeteer.cdp.entities.RevisionInfo;
 import com.ruiyun.jvppeteer.common.BrowserRevision;
@@ -9,11 +10,14 @@ import com.ruiyun.jvppeteer.common.Product;
 import com.ruiyun.jvppeteer.exception.JvppeteerException;
 import com.ruiyun.jvppeteer.util.FileUtil;
 import com.ruiyun.jvppeteer.util.Helper;
+import com.ruiyun.jvppeteer.util.RangeDownloader;
 import com.ruiyun.jvppeteer.util.StreamUtil;
 import com.ruiyun.jvppeteer.util.StringUtil;
 import com.ruiyun.jvppeteer.util.ValidateUtil;
+import com.ruiyun.jvppeteer.util.ZipExtractor;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -26,6 +30,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -162,6 +167,21 @@ public class BrowserFetcher {
      */
     private final Product product;
 
+    /**
+     * 压缩包的 SHA-256，为空时不校验
+     */
+    private final String sha256;
+
+    /**
+     * 下载时的并行连接数
+     */
+    private final int downloadConnections;
+
+    /**
+     * 缓存目录的磁盘配额，字节，0 表示不限制
+     */
+    private final long cacheQuota;
+
     /**
      * 创建 BrowserFetcher 对象
      *
@@ -173,6 +193,9 @@ public class BrowserFetcher {
         this.downloadHost = StringUtil.isNotEmpty(options.getHost()) ? options.getHost() : downloadURLs.get(this.product).get("host");
         this.platform = StringUtil.isNotEmpty(options.getPlatform()) ? options.getPlatform() : detectBrowserPlatform();
         this.revision = resolveVersion(options);
+        this.sha256 = options.getSha256();
+        this.downloadConnections = options.getDownloadConnections() > 0 ? options.getDownloadConnections() : RangeDownloader.DEFAULT_CONNECTIONS;
+        this.cacheQuota = options.getCacheQuota();
         Objects.requireNonNull(downloadURLs.get(this.product).get(this.platform), "Unsupported platform: " + this.platform);
     }
 
@@ -305,6 +328,7 @@ public class BrowserFetcher {
         if (!revisionInfo.getLocal()) {
             return this.downloadAndInstall(this.revision);
         }
+        this.recordUsage(revisionInfo);
         return revisionInfo;
     }
 
@@ -349,21 +373,101 @@ public class BrowserFetcher {
         if (!(exists(this.downloadsFolder))) {
             mkdir(this.downloadsFolder);
         }
-        if (!exists(folderPath)) {
-            mkdir(folderPath);
+        // 多个 JVM 同时安装同一个版本时排队，后进入的直接使用已经安装好的浏览器
+        Closeable lock = FileUtil.lock(Paths.get(folderPath + ".lock"));
+        try {
+            RevisionInfo installed = this.revisionInfo(revision);
+            if (installed.getLocal()) {
+                return installed;
+            }
+            if (!exists(folderPath)) {
+                mkdir(folderPath);
+            }
+            String archiveName = archive(this.product, this.platform, revision);
+            if (Objects.equals(this.product, Product.Firefox)) {
+                executeShell(url, folderPath, archiveName, fileName(this.product, this.platform));
+            } else {
+                //zip 包在 java 中分段下载并解压，不再依赖系统的 curl 和 unzip
+                Path zip = new RangeDownloader(this.downloadConnections, RangeDownloader.DEFAULT_CHUNK_SIZE).download(url, Paths.get(folderPath, archiveName + ".zip"), this.sha256);
+                ZipExtractor.extract(zip, Paths.get(folderPath));
+                Files.deleteIfExists(zip);
+                //Linux 上还需要脚本安装浏览器依赖的系统库，脚本发现已经解压时跳过下载和解压
+                if (Helper.isLinux()) {
+                    executeShell(url, folderPath, archiveName, fileName(this.product, this.platform));
+                }
+            }
+        } finally {
+            lock.close();
         }
-        //用shell下载，不用java代码下载了
-        executeShell(url, folderPath, archive(this.product, this.platform, revision), fileName(this.product, this.platform));
         RevisionInfo revisionInfo = this.revisionInfo(revision);
         if (revisionInfo != null) {
             File executableFile = new File(revisionInfo.getExecutablePath());
             executableFile.setExecutable(true, false);
+            if (revisionInfo.getLocal()) {
+                this.recordUsage(revisionInfo);
+                this.pruneCache(revisionInfo);
+            }
         }
         return revisionInfo;
     }
 
+    /**
+     * 浏览器缓存目录的索引
+     *
+     * @return BrowserCacheIndex
+     */
+    public BrowserCacheIndex cacheIndex() {
+        return new BrowserCacheIndex(this.downloadsFolder);
+    }
+
+    /**
+     * 更新索引中的最近使用时间，索引中还没有该版本时计算大小后加入。下载和启动浏览器时调用
+     * <p>
+     * 索引只用于加速查找和淘汰旧版本，读写失败不影响下载和启动
+     *
+     * @param revisionInfo 本地的浏览器版本
+     */
+    public void recordUsage(RevisionInfo revisionInfo) {
+        try {
+            BrowserCacheIndex index = this.cacheIndex();
+            String folder = Paths.get(revisionInfo.getFolderPath()).getFileName().toString();
+            if (!index.touch(folder)) {
+                index.put(this.cacheEntry(revisionInfo.getRevision(), Paths.get(revisionInfo.getFolderPath()), revisionInfo.getExecutablePath()));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to update browser cache index in {}", this.downloadsFolder, e);
+        }
+    }
+
+    private void pruneCache(RevisionInfo keep) {
+        if (this.cacheQuota <= 0) {
+            return;
+        }
+        try {
+            this.cacheIndex().prune(this.cacheQuota, Paths.get(keep.getFolderPath()).getFileName().toString());
+        } catch (IOException e) {
+            LOGGER.warn("Failed to prune browser cache in {}", this.downloadsFolder, e);
+        }
+    }
+
+    private BrowserCacheEntry cacheEntry(String revision, Path folder, String executablePath) throws IOException {
+        long now = System.currentTimeMillis();
+        BrowserCacheEntry entry = new BrowserCacheEntry();
+        entry.setFolder(folder.getFileName().toString());
+        entry.setProduct(this.product);
+        entry.setPlatform(this.platform);
+        entry.setRevision(revision);
+        entry.setExecutablePath(executablePath);
+        entry.setSize(BrowserCacheIndex.sizeOf(folder));
+        entry.setInstalledAt(now);
+        entry.setLastUsed(now);
+        return entry;
+    }
+
     /**
      * 本地存在的浏览器版本
+     * <p>
+     * 索引与缓存目录一致时直接使用索引，不访问版本目录；目录被修改过或者索引中没有当前平台的版本时才重新扫描目录
      *
      * @return 版本集合
      * @throws IOException 异常
@@ -371,9 +475,44 @@ public class BrowserFetcher {
     public List<String> localRevisions() throws IOException {
         if (!exists(this.downloadsFolder))
             return new ArrayList<>();
+        BrowserCacheIndex index = this.cacheIndex();
+        List<String> revisions = index.isFresh() ? this.revisions(index.entries()) : Collections.emptyList();
+        if (revisions.isEmpty()) {
+            revisions = this.revisions(this.scanRevisions(index));
+        }
+        return revisions;
+    }
+
+    private List<String> revisions(List<BrowserCacheEntry> entries) {
+        return entries.stream().filter(entry -> this.product.equals(entry.getProduct()) && this.platform.equals(entry.getPlatform())).map(BrowserCacheEntry::getRevision).collect(Collectors.toList());
+    }
+
+    /**
+     * 扫描缓存目录，与索引对照后写回，只为新出现的版本计算占用空间
+     */
+    private List<BrowserCacheEntry> scanRevisions(BrowserCacheIndex index) throws IOException {
+        Map<String, BrowserCacheEntry> indexed = new HashMap<>();
+        for (BrowserCacheEntry entry : index.entries()) {
+            if (this.product.equals(entry.getProduct())) {
+                indexed.put(entry.getFolder(), entry);
+            }
+        }
+        List<RevisionEntry> scanned;
         try (Stream<Path> list = Files.list(Paths.get(this.downloadsFolder))) {
-            return list.map(revisionsPath -> parseRevisionsPath(this.product, revisionsPath)).filter(entry -> entry != null && this.platform.equals(entry.getPlatform())).map(RevisionEntry::getRevision).collect(Collectors.toList());
+            scanned = list.map(revisionsPath -> parseRevisionsPath(this.product, revisionsPath)).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+        List<BrowserCacheEntry> entries = new ArrayList<>();
+        for (RevisionEntry revisionEntry : scanned) {
+            Path folder = Paths.get(this.downloadsFolder, revisionEntry.getPlatform() + "-" + revisionEntry.getRevision());
+            BrowserCacheEntry entry = indexed.get(folder.getFileName().toString());
+            if (entry == null) {
+                entry = this.cacheEntry(revisionEntry.getRevision(), folder, this.relativeExecutablePath(revisionEntry.getRevision(), folder.toAbsolutePath().toString()));
+                entry.setPlatform(revisionEntry.getPlatform());
+            }
+            entries.add(entry);
         }
+        index.reconcile(entry -> this.product.equals(entry.getProduct()), entries);
+        return entries;
     }
 
     /**
@@ -385,7 +524,13 @@ public class BrowserFetcher {
     public void remove(String revision) throws IOException {
         String folderPath = this.relativeVersionPath(revision);
         ValidateUtil.assertArg(exists(folderPath), "Failed to remove: revision " + revision + " is not downloaded");
-        Files.delete(Paths.get(folderPath));
+        Closeable lock = FileUtil.lock(Paths.get(folderPath + ".lock"));
+        try {
+            FileUtil.removeFolder(folderPath);
+            this.cacheIndex().remove(Paths.get(folderPath).getFileName().toString());
+        } finally {
+            lock.close();
+        }
     }
 
     /**
@@ -11,7 +11,11 @@ import com.ruiyun.jvppeteer.util.FileUtil;
 import com.ruiyun.jvppeteer.util.Helper;
 import com.ruiyun.jvppeteer.util.NodeDownloader;
 import com.ruiyun.jvppeteer.util.StringUtil;
+import com.ruiyun.jvppeteer.transport.FifoPipe;
+import com.ruiyun.jvppeteer.transport.PipeTransport;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -31,8 +35,6 @@ import static com.ruiyun.jvppeteer.common.Constant.BACKUP_SUFFIX;
 import static com.ruiyun.jvppeteer.common.Constant.JVPPETEER_PIPE_LAUNCH_RESOURCE_DIR;
 import static com.ruiyun.jvppeteer.common.Constant.PREFS_JS;
 import static com.ruiyun.jvppeteer.common.Constant.USER_JS;
-import static com.ruiyun.jvppeteer.util.FileUtil.removeFolder;
-import static com.ruiyun.jvppeteer.util.FileUtil.removeFolderOnExit;
 
 public class BrowserRunner {
 
@@ -47,9 +49,22 @@ public class BrowserRunner {
     private volatile boolean closed;
     private static final List<BrowserRunner> runners = Collections.synchronizedList(new ArrayList<>());
     private static boolean isRegisterShutdownHook = false;
+    /**
+     * 程序正在退出，此时同步清理，避免后台线程随进程退出而来不及清理
+     */
+    private static volatile boolean shuttingDown;
     private final String customizedUserDataDir;
     private final Map<String, String> env;
     private final boolean usepipe;
+    /**
+     * Linux 下 pipe 模式直接使用的 FIFO，为 null 时通过 Node.js 中转
+     */
+    private FifoPipe fifoPipe;
+    /**
+     * 是否把浏览器进程的输出打印到当前进程的标准输出
+     */
+    private boolean dumpio;
+    private static final ProcessBuilder.Redirect DISCARD = ProcessBuilder.Redirect.to(new File("/dev/null"));
     /**
      * 浏览器进程id
      */
@@ -73,6 +88,10 @@ public class BrowserRunner {
         this.usepipe = usePipe;
     }
 
+    public void setDumpio(boolean dumpio) {
+        this.dumpio = dumpio;
+    }
+
     /**
      * 启动浏览器进程
      * Start your browser
@@ -84,7 +103,17 @@ public class BrowserRunner {
             throw new JvppeteerException("This process has previously been started.");
         }
         List<String> arguments = new ArrayList<>();
-        if (usepipe) {
+        if (usepipe && FifoPipe.isSupported()) {
+            try {
+                this.fifoPipe = FifoPipe.create();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to create fifo for pipe mode, falling back to Node.js: {}", e.getMessage());
+            }
+        }
+        if (Objects.nonNull(this.fifoPipe)) {
+            arguments.add(this.executablePath);
+            arguments.addAll(this.browserArgs);
+        } else if (usepipe) {
             String pipeDir = System.getProperty(JVPPETEER_PIPE_LAUNCH_RESOURCE_DIR);
             if (StringUtil.isEmpty(pipeDir)) {
                 pipeDir = Helper.join(System.getProperty("user.dir"), ".pipe-resources-"+Constant.JVPPETEER_VERSION);
@@ -102,7 +131,12 @@ public class BrowserRunner {
             arguments.addAll(this.browserArgs);
         }
         ProcessBuilder processBuilder = new ProcessBuilder(arguments);
-        if (usepipe) {
+        if (Objects.nonNull(this.fifoPipe)) {
+            processBuilder.command(this.fifoPipe.wrap(arguments, processBuilder.environment()));
+            // 通信走 fd 3/4，不打印时丢弃浏览器的输出以免写满管道
+            processBuilder.redirectOutput(this.dumpio ? ProcessBuilder.Redirect.INHERIT : DISCARD);
+            processBuilder.redirectError(this.dumpio ? ProcessBuilder.Redirect.INHERIT : DISCARD);
+        } else if (usepipe) {
             processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
         } else {
             processBuilder.redirectErrorStream(true);
@@ -111,6 +145,8 @@ public class BrowserRunner {
         this.process = processBuilder.start();
         this.closed = false;
         registerHook();
+        ProfileReaper.register(this.tempDirectory);
+        ProfileReaper.reapOrphansOnce();
     }
 
     private static Path getPipeLaunchJsPath(String pipeDir) throws IOException {
@@ -183,16 +219,52 @@ public class BrowserRunner {
 
     /**
      * kill 掉浏览器进程
+     * <p>
+     * 只发出结束进程的信号，等待进程退出和删除临时用户数据目录在后台完成，程序退出时同步完成
      */
     public void destroy() {
         if (this.closed) {
             return;
         }
         try {
-            if ("-1".equals(pid) || StringUtil.isEmpty(pid)) {
-                this.destroyProcess(this.process);
-                return;
+            this.kill();
+        } catch (Exception e) {
+            LOGGER.error("kill chrome process error ", e);
+        } finally {
+            if (StringUtil.isNotEmpty(this.tempDirectory)) {
+                String tempDirectory = this.tempDirectory;
+                ProfileReaper.reap(this.process, () -> ProfileReaper.removeTempDirectory(tempDirectory), shuttingDown);
+            } else if (Objects.equals(this.product, Product.Firefox) && Objects.equals(this.protocol, Protocol.WebDriverBiDi)) {
+                // 自定义的用户数据目录可能马上被再次使用，等进程退出后同步恢复
+                ProfileReaper.reap(this.process, () -> {
+                    try {
+                        this.cleanUserDataDir();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, true);
+            } else {
+                ProfileReaper.reap(this.process, () -> {
+                }, shuttingDown);
+            }
+        }
+    }
+
+    /**
+     * 优先通过 ProcessHandle 结束浏览器及其子进程，JDK 不支持时通过 shell 命令结束
+     */
+    private void kill() throws IOException, InterruptedException {
+        if ("-1".equals(pid) || StringUtil.isEmpty(pid)) {
+            if (Objects.nonNull(this.process)) {
+                this.process.destroy();
             }
+            return;
+        }
+        if (Helper.destroyProcessTree(Long.parseLong(pid))) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("kill chrome process tree by ProcessHandle, pid: {}", pid);
+            }
+        } else {
             Process exec;
             String command;
             if (Helper.isUnixLike()) {
@@ -203,26 +275,18 @@ public class BrowserRunner {
                 exec = Runtime.getRuntime().exec(command);
             }
             try {
-                if (Objects.nonNull(exec)) {
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("kill chrome process by pid,command:  {}", command);
-                    }
-                    exec.waitFor(Constant.DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("kill chrome process by pid,command:  {}", command);
                 }
-                this.destroyProcess(this.process);
+                exec.waitFor(Constant.DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
             } finally {
-                this.destroyProcess(exec);
-            }
-
-        } catch (Exception e) {
-            LOGGER.error("kill chrome process error ", e);
-        } finally {
-            try {
-                cleanUserDataDir();
-            } catch (IOException ignored) {
-
+                exec.destroy();
             }
         }
+        // pipe 模式下 process 是启动浏览器的 node 进程
+        if (Objects.nonNull(this.process)) {
+            this.process.destroy();
+        }
     }
 
     public void destroyProcess(Process process) {
@@ -242,12 +306,27 @@ public class BrowserRunner {
         }
     }
 
+    /**
+     * 创建与浏览器通信的 pipe 传输层
+     *
+     * @param timeout 等待浏览器打开 FIFO 的时间，毫秒，0 表示不限时
+     * @return PipeTransport
+     */
+    public PipeTransport createPipeTransport(int timeout) {
+        if (Objects.nonNull(this.fifoPipe)) {
+            this.fifoPipe.connect(this.process, timeout);
+            return new PipeTransport(this.fifoPipe.getInputStream(), this.fifoPipe.getOutputStream());
+        }
+        return new PipeTransport(this.process.getInputStream(), this.process.getOutputStream());
+    }
+
     public Process getProcess() {
         return process;
     }
 
     //系统奔溃或正常关闭时候，关闭所有打开的浏览器
     public void closeAllBrowser() {
+        shuttingDown = true;
         for (BrowserRunner browserRunner : runners) {
             browserRunner.closeBrowser();
         }
@@ -271,7 +350,7 @@ public class BrowserRunner {
     }
 
     /**
-     * 清理运行浏览器而产生的用户数据目录，如果是临时目录，则尝试删除
+     * 恢复自定义的用户数据目录，临时目录由 {@link ProfileReaper} 删除
      *
      * @throws IOException IO异常
      */
@@ -279,15 +358,7 @@ public class BrowserRunner {
         if (this.closed) {
             return;
         }
-        if (StringUtil.isNotEmpty(this.tempDirectory)) {
-            try {
-                removeFolder(this.tempDirectory);
-                if (Paths.get(this.tempDirectory).toFile().exists()) {
-                    removeFolderOnExit(this.tempDirectory);
-                }
-            } catch (Exception ignored) {
-            }
-        } else {
+        if (StringUtil.isEmpty(this.tempDirectory)) {
             if (Objects.equals(this.product, Product.Firefox) && Objects.equals(this.protocol, Protocol.WebDriverBiDi)) {
                 //回复备份文件的名字
                 String prefsPath = Helper.join(this.customizedUserDataDir, PREFS_JS);
@@ -16,18 +16,33 @@ import com.ruiyun.jvppeteer.util.ValidateUtil;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class CSSCoverage {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CSSCoverage.class);
 
     private volatile CDPSession client;
-    private boolean enabled;
-    private final HashMap<String, String> stylesheetURLs = new HashMap<>();
-    private final HashMap<String, String> stylesheetSources = new HashMap<>();
+    private volatile boolean enabled;
+    private final HashMap<String, String> stylesheetURLs = new LinkedHashMap<>();
+    private CoverageSourceStore stylesheetSources = new CoverageSourceStore(null);
+    /**
+     * 增量快照合并后的覆盖区间，key 为 styleSheetId
+     */
+    private final Map<String, CoverageRangeSet> stylesheetRanges = new HashMap<>();
     private final Map<ConnectionEvents, Consumer<?>> listeners = new HashMap<>();
     private boolean resetOnNavigation;
+    private boolean lazySources;
+    private boolean incremental;
+    private ScheduledExecutorService snapshotService;
 
     public CSSCoverage(CDPSession client) {
         this.client = client;
@@ -40,9 +55,15 @@ public class CSSCoverage {
     public void start(CSSCoverageOptions options) {
         ValidateUtil.assertArg(!this.enabled, "CSSCoverage is already enabled");
         this.resetOnNavigation = options.getResetOnNavigation();
+        this.lazySources = options.getLazySources();
+        this.incremental = options.getSnapshotInterval() > 0;
         this.enabled = true;
-        this.stylesheetURLs.clear();
-        this.stylesheetSources.clear();
+        synchronized (this) {
+            this.stylesheetURLs.clear();
+            this.stylesheetRanges.clear();
+            this.stylesheetSources.close();
+            this.stylesheetSources = new CoverageSourceStore(options.getSpillDirectory());
+        }
 
         Consumer<StyleSheetAddedEvent> styleSheetAdded = this::onStyleSheet;
         this.client.on(ConnectionEvents.CSS_styleSheetAdded, styleSheetAdded);
@@ -55,11 +76,17 @@ public class CSSCoverage {
         this.client.send("DOM.enable");
         this.client.send("CSS.enable");
         this.client.send("CSS.startRuleUsageTracking");
+
+        if (this.incremental) {
+            this.snapshotService = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("jvppeteer-coverage-snapshot", true));
+            this.snapshotService.scheduleWithFixedDelay(this::snapshot, options.getSnapshotInterval(), options.getSnapshotInterval(), TimeUnit.MILLISECONDS);
+        }
     }
 
-    private void onExecutionContextsCleared() {
+    private synchronized void onExecutionContextsCleared() {
         if (!this.resetOnNavigation) return;
         this.stylesheetURLs.clear();
+        this.stylesheetRanges.clear();
         this.stylesheetSources.clear();
     }
 
@@ -67,24 +94,86 @@ public class CSSCoverage {
         CSSStyleSheetHeader header = event.getHeader();
         // Ignore anonymous scripts
         if (StringUtil.isEmpty(header.getSourceURL())) return;
+        if (this.lazySources) {
+            synchronized (this) {
+                this.stylesheetURLs.put(header.getStyleSheetId(), header.getSourceURL());
+            }
+            return;
+        }
+        String text = this.fetchStyleSheetText(header.getStyleSheetId());
+        synchronized (this) {
+            this.stylesheetURLs.put(header.getStyleSheetId(), header.getSourceURL());
+            this.stylesheetSources.put(header.getStyleSheetId(), text);
+        }
+    }
+
+    private String fetchStyleSheetText(String styleSheetId) {
         Map<String, Object> params = ParamsFactory.create();
-        params.put("styleSheetId", header.getStyleSheetId());
+        params.put("styleSheetId", styleSheetId);
         JsonNode response = client.send("CSS.getStyleSheetText", params);
-        this.stylesheetURLs.put(header.getStyleSheetId(), header.getSourceURL());
-        this.stylesheetSources.put(header.getStyleSheetId(), response.get("text").asText());
+        return response.get("text").asText();
+    }
 
+    /**
+     * 获取样式表源码，延迟模式下源码不在存储中时向浏览器获取
+     *
+     * @param styleSheetId 样式表id
+     * @param retain       获取后是否保存，以免样式表被移除后无法再获取
+     * @return 源码，获取失败返回null
+     */
+    private String styleSheetText(String styleSheetId, boolean retain) {
+        String text = this.stylesheetSources.get(styleSheetId);
+        if (text != null || !this.lazySources) {
+            return text;
+        }
+        try {
+            text = this.fetchStyleSheetText(styleSheetId);
+        } catch (Exception e) {
+            LOGGER.debug("Failed to get text of stylesheet {}", styleSheetId, e);
+            return null;
+        }
+        if (retain) {
+            this.stylesheetSources.put(styleSheetId, text);
+        }
+        return text;
     }
 
-    public List<CoverageEntry> stop() {
-        ValidateUtil.assertArg(this.enabled, "CSSCoverage is not enabled");
-        this.enabled = false;
-        JsonNode ruleTrackingResponse = this.client.send("CSS.stopRuleUsageTracking");
-        this.client.send("CSS.disable");
-        this.client.send("DOM.disable");
-        this.listeners.forEach(this.client::off);
-        // aggregate by styleSheetId
+    /**
+     * 获取上次快照以来的规则使用情况，并合并到每个样式表的区间集合中
+     */
+    private synchronized void snapshot() {
+        if (!this.enabled) {
+            return;
+        }
+        try {
+            JsonNode response = this.client.send("CSS.takeCoverageDelta");
+            this.fold(response.get("coverage"));
+        } catch (Exception e) {
+            LOGGER.error("Failed to take CSS coverage snapshot", e);
+        }
+    }
+
+    private void fold(JsonNode ruleUsageNode) {
+        Map<String, List<CoverageRange>> styleSheetIdToCoverage = aggregate(ruleUsageNode);
+        for (Map.Entry<String, List<CoverageRange>> entry : styleSheetIdToCoverage.entrySet()) {
+            if (!this.stylesheetURLs.containsKey(entry.getKey())) continue;
+            CoverageRangeSet rangeSet = this.stylesheetRanges.computeIfAbsent(entry.getKey(), k -> new CoverageRangeSet());
+            rangeSet.addAll(Coverage.convertToDisjointRanges(entry.getValue()));
+            // 有覆盖的样式表尽早获取源码，避免样式表被移除后无法获取
+            if (!rangeSet.isEmpty() && !this.stylesheetSources.contains(entry.getKey())) {
+                this.styleSheetText(entry.getKey(), true);
+            }
+        }
+    }
+
+    /**
+     * aggregate by styleSheetId
+     */
+    private static Map<String, List<CoverageRange>> aggregate(JsonNode ruleUsageNode) {
         Map<String, List<CoverageRange>> styleSheetIdToCoverage = new HashMap<>();
-        JsonNode ruleUsageNode = ruleTrackingResponse.get("ruleUsage");
+        if (ruleUsageNode == null) {
+            return styleSheetIdToCoverage;
+        }
         Iterator<JsonNode> elements = ruleUsageNode.elements();
         while (elements.hasNext()) {
             JsonNode entry = elements.next();
@@ -95,17 +184,61 @@ public class CSSCoverage {
             else
                 ranges.add(new CoverageRange(entry.get("startOffset").asDouble(), entry.get("endOffset").asDouble(), 0));
         }
+        return styleSheetIdToCoverage;
+    }
 
+    public List<CoverageEntry> stop() {
         List<CoverageEntry> coverage = new ArrayList<>();
-        for (String styleSheetId : this.stylesheetURLs.keySet()) {
-            String url = this.stylesheetURLs.get(styleSheetId);
-            ValidateUtil.assertArg(url != null, "Stylesheet URL is undefined (styleSheetId=" + styleSheetId + ")");
-            String text = this.stylesheetSources.get(styleSheetId);
-            ValidateUtil.assertArg(text != null, "Stylesheet text is undefined (styleSheetId=" + styleSheetId + ")");
-            List<Range> ranges = Coverage.convertToDisjointRanges(styleSheetIdToCoverage.get(styleSheetId));
-            coverage.add(new CoverageEntry(url, ranges, text));
-        }
+        this.stop(coverage::add);
         return coverage;
     }
 
+    /**
+     * 停止收集，逐个输出覆盖率报告，调用方处理完一个报告后即可释放，不需要同时在内存中保留所有样式表的源码
+     *
+     * @param consumer 报告的消费者
+     */
+    public synchronized void stop(Consumer<CoverageEntry> consumer) {
+        ValidateUtil.assertArg(this.enabled, "CSSCoverage is not enabled");
+        this.enabled = false;
+        if (this.snapshotService != null) {
+            this.snapshotService.shutdown();
+            this.snapshotService = null;
+        }
+        try {
+            JsonNode ruleTrackingResponse = this.client.send("CSS.stopRuleUsageTracking");
+            this.listeners.forEach(this.client::off);
+            Map<String, List<CoverageRange>> styleSheetIdToCoverage = null;
+            if (!this.incremental) {
+                styleSheetIdToCoverage = aggregate(ruleTrackingResponse.get("ruleUsage"));
+            } else {
+                this.fold(ruleTrackingResponse.get("ruleUsage"));
+            }
+            for (String styleSheetId : this.stylesheetURLs.keySet()) {
+                String url = this.stylesheetURLs.get(styleSheetId);
+                ValidateUtil.assertArg(url != null, "Stylesheet URL is undefined (styleSheetId=" + styleSheetId + ")");
+                String text = this.styleSheetText(styleSheetId, false);
+                if (text == null && this.lazySources) {
+                    // 样式表已经被移除，无法再获取源码
+                    continue;
+                }
+                ValidateUtil.assertArg(text != null, "Stylesheet text is undefined (styleSheetId=" + styleSheetId + ")");
+                List<Range> ranges;
+                if (styleSheetIdToCoverage != null) {
+                    ranges = Coverage.convertToDisjointRanges(styleSheetIdToCoverage.get(styleSheetId));
+                } else {
+                    CoverageRangeSet rangeSet = this.stylesheetRanges.get(styleSheetId);
+                    ranges = rangeSet == null ? new ArrayList<>() : rangeSet.toRanges();
+                }
+                consumer.accept(new CoverageEntry(url, ranges, text));
+            }
+        } finally {
+            // 延迟模式下生成报告时仍需要 CSS 域获取源码
+            this.client.send("CSS.disable");
+            this.client.send("DOM.disable");
+            this.stylesheetRanges.clear();
+            this.stylesheetSources.close();
+        }
+    }
+
 }
@@ -322,6 +322,11 @@ public class CdpBrowser extends Browser {
 
     public volatile boolean closed;
 
+    @Override
+    public Connection connection() {
+        return this.connection;
+    }
+
     @Override
     public void close() {
         if (this.closed) {
@@ -53,6 +53,10 @@ public class CdpElementHandle extends ElementHandle {
         return ((CdpJSHandle) (this.handle)).client();
     }
 
+    CdpJSHandle cdpHandle() {
+        return (CdpJSHandle) this.handle;
+    }
+
     public FrameManager frameManager() {
         return this.frame().frameManager();
     }
@@ -27,8 +27,12 @@ import java.util.Map;
 public class CdpJSHandle extends JSHandle {
 
     private final RemoteObject remoteObject;
-    private boolean disposed = false;
+    private volatile boolean disposed = false;
     private final IsolatedWorld world;
+    /**
+     * 所在的句柄作用域，不为 null 时由作用域统一释放
+     */
+    private volatile HandleScope scope;
 
     CdpJSHandle(IsolatedWorld world, RemoteObject remoteObject) {
         super();
@@ -44,6 +48,8 @@ public class CdpJSHandle extends JSHandle {
     @Override
     public Map<String, JSHandle> getProperties() throws JsonProcessingException {
         JsonNode response = this.client().send("Runtime.getProperties", Constant.OBJECTMAPPER.createObjectNode().put("objectId", this.remoteObject.getObjectId()).put("ownProperties", true));
+        // 属性值和所属对象在同一个 objectGroup 中
+        HandleScope ownerScope = this.scope;
         Map<String, JSHandle> result = new LinkedHashMap<>();
         Iterator<JsonNode> iterator = response.get(Constant.RESULT).iterator();
         while (iterator.hasNext()) {
@@ -51,7 +57,7 @@ public class CdpJSHandle extends JSHandle {
             if (!property.get("enumerable").asBoolean() || !property.hasNonNull("value")) {
                 continue;
             }
-            result.put(property.get("name").asText(), this.world.createJSHandle(Constant.OBJECTMAPPER.treeToValue(property.get("value"), RemoteObject.class)));
+            result.put(property.get("name").asText(), this.world.createJSHandle(Constant.OBJECTMAPPER.treeToValue(property.get("value"), RemoteObject.class), ownerScope));
         }
         return result;
     }
@@ -91,9 +97,24 @@ public class CdpJSHandle extends JSHandle {
         if (this.disposed)
             return;
         this.disposed = true;
+        if (this.scope != null) {
+            // 作用域关闭时统一释放
+            return;
+        }
         Helper.releaseObject(this.client(), this.remoteObject);
     }
 
+    void setScope(HandleScope scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * 所在的作用域已经释放了远端对象，只标记为已释放
+     */
+    void markDisposed() {
+        this.disposed = true;
+    }
+
     public String toString() {
         if (StringUtil.isNotEmpty(this.remoteObject.getObjectId())) {
             String type = StringUtil.isNotEmpty(this.remoteObject.getSubtype()) ? this.remoteObject.getSubtype() : this.remoteObject.getType();
@@ -121,6 +121,8 @@ public class CdpPage extends Page {
     private final Map<String, Binding> bindings = new HashMap<>();
     private final Map<String, String> exposedFunctions = new HashMap<>();
     private final Coverage coverage;
+    private final Profiler profiler;
+    private final HeapProfiler heapProfiler;
     private Viewport viewport;
     private final Map<String, CdpWebWorker> workers = new HashMap<>();
     private final Set<AwaitableResult<FileChooser>> fileChooserResults = new HashSet<>();
@@ -144,6 +146,8 @@ public class CdpPage extends Page {
         this.emulationManager = new EmulationManager(client);
         this.tracing = new Tracing(client);
         this.coverage = new Coverage(client);
+        this.profiler = new Profiler(client);
+        this.heapProfiler = new HeapProfiler(client);
         this.viewport = null;
         this.cdpBluetoothEmulation = new CdpBluetoothEmulation(this.primaryTargetClient.connection());
         Map<FrameManager.FrameManagerEvent, Consumer<?>> frameManagerHandlers = Collections.unmodifiableMap(new HashMap<FrameManager.FrameManagerEvent, Consumer<?>>() {{
@@ -215,6 +219,8 @@ public class CdpPage extends Page {
         this.emulationManager.updateClient(newSession);
         this.tracing.updateClient(newSession);
         this.coverage.updateClient(newSession);
+        this.profiler.updateClient(newSession);
+        this.heapProfiler.updateClient(newSession);
         this.frameManager.swapFrameTree(newSession);
         this.setupPrimaryTargetListeners();
     }
@@ -341,6 +347,10 @@ public class CdpPage extends Page {
         this.emulationManager.setGeolocation(options);
     }
 
+    public void clearGeolocation() {
+        this.emulationManager.clearGeolocation();
+    }
+
     public Target target() {
         return this.primaryTarget;
     }
@@ -387,6 +397,14 @@ public class CdpPage extends Page {
         return this.tracing;
     }
 
+    public Profiler profiler() {
+        return this.profiler;
+    }
+
+    public HeapProfiler heapProfiler() {
+        return this.heapProfiler;
+    }
+
     public List<CdpFrame> frames() {
         return this.frameManager.frames();
     }
@@ -566,6 +584,7 @@ public class CdpPage extends Page {
         NewDocumentScriptEvaluation response = this.frameManager.evaluateOnNewDocument(source);
         this.frameManager.addExposedFunctionBinding(binding);
         this.exposedFunctions.put(name, response.getIdentifier());
+        this.exposedFunctionNames.add(name);
     }
 
     public void removeExposedFunction(String name) throws JsonProcessingException {
@@ -574,6 +593,7 @@ public class CdpPage extends Page {
             throw new JvppeteerException("Failed to remove page binding with name '" + name + "' window['" + name + "'] does not exists!");
         }
         this.exposedFunctions.remove(name);
+        this.exposedFunctionNames.remove(name);
         Binding binging = this.bindings.remove(name);
         this.frameManager.removeScriptToEvaluateOnNewDocument(exposedFunctionId);
         this.frameManager.removeExposedFunctionBinding(binging);
@@ -828,13 +848,16 @@ public class CdpPage extends Page {
         } else {
             source = Helper.evaluationString(pptrFunction, args);
         }
-        return this.frameManager.evaluateOnNewDocument(source);
+        NewDocumentScriptEvaluation evaluation = this.frameManager.evaluateOnNewDocument(source);
+        this.newDocumentScripts.add(evaluation.getIdentifier());
+        return evaluation;
     }
 
     public void removeScriptToEvaluateOnNewDocument(String identifier) {
         Map<String, Object> identifierKeys = new HashMap<>();
         identifierKeys.put("identifier", identifier);
         this.primaryTargetClient.send("Page.removeScriptToEvaluateOnNewDocument", identifierKeys);
+        this.newDocumentScripts.remove(identifier);
     }
 
     public void setCacheEnabled(boolean enabled) {
@@ -15,6 +15,7 @@ import com.ruiyun.jvppeteer.util.ValidateUtil;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -62,6 +63,16 @@ public class Coverage {
         return this.jsCoverage.stop();
     }
 
+    /**
+     * 停止收集 JavaScript 覆盖率，逐个把报告交给 consumer，适合脚本很多或者开启了 spillDirectory 的场景。
+     *
+     * @param consumer 报告的消费者
+     * @throws JsonProcessingException 异常
+     */
+    public void stopJSCoverage(Consumer<JSCoverageEntry> consumer) throws JsonProcessingException {
+        this.jsCoverage.stop(consumer);
+    }
+
     public void startCSSCoverage() {
         this.cssCoverage.start(new CSSCoverageOptions());
     }
@@ -82,6 +93,15 @@ public class Coverage {
         return this.cssCoverage.stop();
     }
 
+    /**
+     * 停止收集 CSS 覆盖率，逐个把报告交给 consumer
+     *
+     * @param consumer 报告的消费者
+     */
+    public void stopCSSCoverage(Consumer<CoverageEntry> consumer) {
+        this.cssCoverage.stop(consumer);
+    }
+
     public static List<Range> convertToDisjointRanges(List<CoverageRange> nestedRanges) {
         List<CoveragePoint> points = new ArrayList<>();
         if (ValidateUtil.isNotEmpty(nestedRanges)) {
@@ -0,0 +1,470 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ruiyun.jvppeteer.cdp.entities.CoverageEntry;
+import com.ruiyun.jvppeteer.cdp.entities.Range;
+import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.util.FileUtil;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * 合并多个页面、多次运行的覆盖率结果，并导出为 LCOV 或 Istanbul JSON
+ * <p>
+ * 覆盖率按 URL 和源码的 SHA-256 分组，同一 URL 的不同版本分别统计。每组只保留一份源码，
+ * 区间以 long 编码的端点事件保存（高 32 位为位置，低 32 位为权重），合并时排序后用扫描线计算每段被覆盖的次数，
+ * 事件过多时会先压缩为带权重的区间，内存占用与不同区间的数量有关，而与加入的报告数量无关。
+ * <p>
+ * 可以在多个线程中同时调用 add，合并时按组并行执行。
+ */
+public class CoverageAggregator {
+
+    /**
+     * 每组的事件数量超过该值时压缩
+     */
+    private static final int COMPACT_THRESHOLD = 1 << 16;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final ForkJoinPool pool;
+
+    public CoverageAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool 执行合并的线程池
+     */
+    public CoverageAggregator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 加入一次覆盖率结果，JSCoverageEntry 和 CoverageEntry 都可以
+     *
+     * @param entries 覆盖率结果
+     */
+    public void addAll(List<? extends CoverageEntry> entries) {
+        if (entries == null) {
+            return;
+        }
+        for (CoverageEntry entry : entries) {
+            this.add(entry);
+        }
+    }
+
+    public void add(CoverageEntry entry) {
+        if (entry == null || StringUtil.isEmpty(entry.getUrl()) || entry.getText() == null) {
+            return;
+        }
+        String hash = sha256(entry.getText());
+        Bucket bucket = this.buckets.computeIfAbsent(entry.getUrl() + '\n' + hash, key -> new Bucket(entry.getUrl(), hash, entry.getText()));
+        bucket.add(entry.getRangse());
+    }
+
+    /**
+     * @return 已加入的不同 URL 和源码组合的数量
+     */
+    public int size() {
+        return this.buckets.size();
+    }
+
+    public void clear() {
+        this.buckets.clear();
+    }
+
+    /**
+     * 合并所有结果，每个 URL 和源码组合输出一个 CoverageEntry，区间为所有运行中被执行过的部分的并集
+     *
+     * @return 合并后的结果，按 URL 排序
+     */
+    public List<CoverageEntry> merge() {
+        return this.mergeFiles().stream().map(file -> new CoverageEntry(file.url, file.union(), file.text)).collect(Collectors.toList());
+    }
+
+    /**
+     * 导出为 LCOV 格式，每个非空行为一条 DA 记录，执行次数为覆盖该行的运行次数
+     *
+     * @param path 输出文件
+     * @throws IOException 写入失败
+     */
+    public void writeLcov(Path path) throws IOException {
+        FileUtil.createNewFile(path.toString());
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            this.writeLcov(writer);
+        }
+    }
+
+    public void writeLcov(Writer writer) throws IOException {
+        BufferedWriter out = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+        for (MergedFile file : this.mergeFiles()) {
+            int[] lineHits = file.lineHits();
+            int found = 0, hit = 0;
+            out.write("TN:\n");
+            out.write("SF:" + file.name + "\n");
+            for (int line = 0; line < lineHits.length; line++) {
+                if (lineHits[line] < 0) {
+                    continue;
+                }
+                found++;
+                if (lineHits[line] > 0) {
+                    hit++;
+                }
+                out.write("DA:" + (line + 1) + "," + lineHits[line] + "\n");
+            }
+            out.write("LF:" + found + "\n");
+            out.write("LH:" + hit + "\n");
+            out.write("end_of_record\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * 导出为 Istanbul 的 coverage-final.json 格式，每个非空行作为一条语句
+     *
+     * @param path 输出文件
+     * @throws IOException 写入失败
+     */
+    public void writeIstanbul(Path path) throws IOException {
+        FileUtil.createNewFile(path.toString());
+        try (OutputStream out = Files.newOutputStream(path)) {
+            this.writeIstanbul(out);
+        }
+    }
+
+    public void writeIstanbul(OutputStream out) throws IOException {
+        try (JsonGenerator generator = Constant.OBJECTMAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            for (MergedFile file : this.mergeFiles()) {
+                int[] lineStarts = file.lineStarts();
+                int[] lineHits = file.lineHits(lineStarts);
+                generator.writeObjectFieldStart(file.name);
+                generator.writeStringField("path", file.name);
+                generator.writeObjectFieldStart("statementMap");
+                int statement = 0;
+                for (int line = 0; line < lineHits.length; line++) {
+                    if (lineHits[line] < 0) {
+                        continue;
+                    }
+                    generator.writeObjectFieldStart(String.valueOf(statement++));
+                    writePosition(generator, "start", line + 1, 0);
+                    writePosition(generator, "end", line + 1, lineEnd(file.text, lineStarts, line) - lineStarts[line]);
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+                generator.writeObjectFieldStart("s");
+                statement = 0;
+                for (int lineHit : lineHits) {
+                    if (lineHit >= 0) {
+                        generator.writeNumberField(String.valueOf(statement++), lineHit);
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeObjectFieldStart("fnMap");
+                generator.writeEndObject();
+                generator.writeObjectFieldStart("f");
+                generator.writeEndObject();
+                generator.writeObjectFieldStart("branchMap");
+                generator.writeEndObject();
+                generator.writeObjectFieldStart("b");
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writePosition(JsonGenerator generator, String name, int line, int column) throws IOException {
+        generator.writeObjectFieldStart(name);
+        generator.writeNumberField("line", line);
+        generator.writeNumberField("column", column);
+        generator.writeEndObject();
+    }
+
+    /**
+     * 在线程池中按组并行合并
+     */
+    private List<MergedFile> mergeFiles() {
+        List<Bucket> snapshot = new ArrayList<>(this.buckets.values());
+        Map<String, Integer> versions = new HashMap<>();
+        for (Bucket bucket : snapshot) {
+            versions.merge(bucket.url, 1, Integer::sum);
+        }
+        List<MergedFile> files;
+        try {
+            files = this.pool.submit(() -> snapshot.parallelStream().map(bucket -> bucket.merge(versions.get(bucket.url) > 1)).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JvppeteerException(e);
+        } catch (ExecutionException e) {
+            throw new JvppeteerException("Failed to merge coverage", e.getCause());
+        }
+        files.sort(Comparator.comparing(file -> file.name));
+        return files;
+    }
+
+    private static int lineEnd(String text, int[] lineStarts, int line) {
+        int end = line + 1 < lineStarts.length ? lineStarts[line + 1] - 1 : text.length();
+        if (end > lineStarts[line] && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new JvppeteerException(e);
+        }
+    }
+
+    /**
+     * 同一 URL、同一源码的所有区间端点
+     */
+    private static class Bucket {
+        private final String url;
+        private final String hash;
+        private final String text;
+        private long[] events = new long[16];
+        private int size;
+
+        Bucket(String url, String hash, String text) {
+            this.url = url;
+            this.hash = hash;
+            this.text = text;
+        }
+
+        synchronized void add(List<Range> ranges) {
+            if (ranges == null) {
+                return;
+            }
+            for (Range range : ranges) {
+                int start = (int) range.getStart();
+                int end = (int) range.getEnd();
+                if (end > start) {
+                    this.addEvent(start, 1);
+                    this.addEvent(end, -1);
+                }
+            }
+            if (this.size > COMPACT_THRESHOLD) {
+                this.compact();
+            }
+        }
+
+        private void addEvent(int position, int weight) {
+            if (this.size == this.events.length) {
+                this.events = Arrays.copyOf(this.events, this.size * 2);
+            }
+            this.events[this.size++] = encode(position, weight);
+        }
+
+        /**
+         * 把事件压缩为带权重的区间，相邻且次数相同的区间合并
+         */
+        private void compact() {
+            Segments segments = this.sweep();
+            this.size = 0;
+            for (int i = 0; i < segments.size; i++) {
+                this.addEvent(segments.starts[i], segments.counts[i]);
+                this.addEvent(segments.ends[i], -segments.counts[i]);
+            }
+        }
+
+        /**
+         * 扫描线：按位置排序后累计权重，得到每段被覆盖的次数
+         */
+        private Segments sweep() {
+            long[] sorted = Arrays.copyOf(this.events, this.size);
+            Arrays.sort(sorted);
+            Segments segments = new Segments(sorted.length / 2 + 1);
+            int depth = 0;
+            int i = 0;
+            while (i < sorted.length) {
+                int position = position(sorted[i]);
+                // 同一位置的事件一起处理
+                int next = depth;
+                while (i < sorted.length && position(sorted[i]) == position) {
+                    next += weight(sorted[i]);
+                    i++;
+                }
+                if (next != depth) {
+                    if (depth > 0) {
+                        segments.close(position);
+                    }
+                    if (next > 0) {
+                        segments.open(position, next);
+                    }
+                    depth = next;
+                }
+            }
+            return segments;
+        }
+
+        synchronized MergedFile merge(boolean appendHash) {
+            Segments segments = this.sweep();
+            String name = appendHash ? this.url + "#" + this.hash.substring(0, 8) : this.url;
+            return new MergedFile(this.url, name, this.text, segments);
+        }
+
+        private static long encode(int position, int weight) {
+            return ((long) position << 32) | (weight & 0xffffffffL);
+        }
+
+        private static int position(long event) {
+            return (int) (event >> 32);
+        }
+
+        private static int weight(long event) {
+            return (int) event;
+        }
+    }
+
+    /**
+     * 带覆盖次数的不相交区间，相邻且次数相同的区间已合并
+     */
+    private static class Segments {
+        private int[] starts;
+        private int[] ends;
+        private int[] counts;
+        private int size;
+        private int openStart;
+        private int openCount;
+
+        Segments(int capacity) {
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+            this.counts = new int[capacity];
+        }
+
+        void open(int position, int count) {
+            this.openStart = position;
+            this.openCount = count;
+        }
+
+        void close(int position) {
+            if (this.size > 0 && this.ends[this.size - 1] == this.openStart && this.counts[this.size - 1] == this.openCount) {
+                this.ends[this.size - 1] = position;
+                return;
+            }
+            if (this.size == this.starts.length) {
+                int capacity = this.size * 2;
+                this.starts = Arrays.copyOf(this.starts, capacity);
+                this.ends = Arrays.copyOf(this.ends, capacity);
+                this.counts = Arrays.copyOf(this.counts, capacity);
+            }
+            this.starts[this.size] = this.openStart;
+            this.ends[this.size] = position;
+            this.counts[this.size] = this.openCount;
+            this.size++;
+        }
+    }
+
+    private static class MergedFile {
+        private final String url;
+        private final String name;
+        private final String text;
+        private final Segments segments;
+
+        MergedFile(String url, String name, String text, Segments segments) {
+            this.url = url;
+            this.name = name;
+            this.text = text;
+            this.segments = segments;
+        }
+
+        List<Range> union() {
+            List<Range> ranges = new ArrayList<>();
+            Range last = null;
+            for (int i = 0; i < this.segments.size; i++) {
+                if (last != null && last.getEnd() == this.segments.starts[i]) {
+                    last.setEnd(this.segments.ends[i]);
+                } else {
+                    last = new Range(this.segments.starts[i], this.segments.ends[i]);
+                    ranges.add(last);
+                }
+            }
+            return ranges;
+        }
+
+        int[] lineStarts() {
+            int count = 1;
+            for (int i = 0; i < this.text.length(); i++) {
+                if (this.text.charAt(i) == '\n') {
+                    count++;
+                }
+            }
+            int[] lineStarts = new int[count];
+            int line = 1;
+            for (int i = 0; i < this.text.length(); i++) {
+                if (this.text.charAt(i) == '\n') {
+                    lineStarts[line++] = i + 1;
+                }
+            }
+            return lineStarts;
+        }
+
+        int[] lineHits() {
+            return this.lineHits(this.lineStarts());
+        }
+
+        /**
+         * 每行的执行次数，取该行非空白字符上的最大覆盖次数，空行为 -1
+         */
+        int[] lineHits(int[] lineStarts) {
+            int[] hits = new int[lineStarts.length];
+            int segment = 0;
+            for (int line = 0; line < lineStarts.length; line++) {
+                int start = lineStarts[line];
+                int end = lineEnd(this.text, lineStarts, line);
+                int first = start;
+                while (first < end && Character.isWhitespace(this.text.charAt(first))) {
+                    first++;
+                }
+                if (first == end) {
+                    hits[line] = -1;
+                    continue;
+                }
+                int last = end;
+                while (Character.isWhitespace(this.text.charAt(last - 1))) {
+                    last--;
+                }
+                while (segment < this.segments.size && this.segments.ends[segment] <= first) {
+                    segment++;
+                }
+                int max = 0;
+                for (int i = segment; i < this.segments.size && this.segments.starts[i] < last; i++) {
+                    max = Math.max(max, this.segments.counts[i]);
+                }
+                hits[line] = max;
+            }
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.ruiyun.jvppeteer.cdp.entities.Range;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 有序、互不相交的覆盖区间集合，区间为左闭右开 [start, end)
+ * <p>
+ * 用两个 int 数组保存区间端点，相交或相邻的区间在加入时合并，适合长时间累积多次覆盖率快照。
+ */
+public class CoverageRangeSet {
+
+    private int[] starts;
+
+    private int[] ends;
+
+    private int size;
+
+    public CoverageRangeSet() {
+        this.starts = new int[8];
+        this.ends = new int[8];
+    }
+
+    /**
+     * 加入一个区间，与已有区间相交或相邻时合并
+     *
+     * @param start 起始位置（包含）
+     * @param end   结束位置（不包含）
+     */
+    public void add(int start, int end) {
+        if (end <= start) {
+            return;
+        }
+        // 第一个 end >= start 的区间，以及最后一个 start <= end 的区间，两者之间的区间都要合并
+        int low = lowerBound(this.ends, this.size, start);
+        int high = upperBound(this.starts, this.size, end) - 1;
+        if (low > high) {
+            this.ensureCapacity(this.size + 1);
+            System.arraycopy(this.starts, low, this.starts, low + 1, this.size - low);
+            System.arraycopy(this.ends, low, this.ends, low + 1, this.size - low);
+            this.starts[low] = start;
+            this.ends[low] = end;
+            this.size++;
+            return;
+        }
+        this.starts[low] = Math.min(start, this.starts[low]);
+        this.ends[low] = Math.max(end, this.ends[high]);
+        int removed = high - low;
+        if (removed > 0) {
+            System.arraycopy(this.starts, high + 1, this.starts, low + 1, this.size - high - 1);
+            System.arraycopy(this.ends, high + 1, this.ends, low + 1, this.size - high - 1);
+            this.size -= removed;
+        }
+    }
+
+    public void addAll(List<Range> ranges) {
+        if (ranges == null) {
+            return;
+        }
+        for (Range range : ranges) {
+            this.add((int) range.getStart(), (int) range.getEnd());
+        }
+    }
+
+    /**
+     * 合并另一个集合
+     *
+     * @param other 另一个集合
+     */
+    public void union(CoverageRangeSet other) {
+        for (int i = 0; i < other.size; i++) {
+            this.add(other.starts[i], other.ends[i]);
+        }
+    }
+
+    public List<Range> toRanges() {
+        List<Range> ranges = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            ranges.add(new Range(this.starts[i], this.ends[i]));
+        }
+        return ranges;
+    }
+
+    /**
+     * @return 所有区间覆盖的总长度
+     */
+    public long coveredLength() {
+        long length = 0;
+        for (int i = 0; i < this.size; i++) {
+            length += this.ends[i] - this.starts[i];
+        }
+        return length;
+    }
+
+    public int start(int index) {
+        return this.starts[index];
+    }
+
+    public int end(int index) {
+        return this.ends[index];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.starts.length) {
+            int newCapacity = Math.max(capacity, this.starts.length * 2);
+            this.starts = Arrays.copyOf(this.starts, newCapacity);
+            this.ends = Arrays.copyOf(this.ends, newCapacity);
+        }
+    }
+
+    /**
+     * 第一个大于等于 key 的下标
+     */
+    private static int lowerBound(int[] array, int length, int key) {
+        int low = 0, high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个大于 key 的下标
+     */
+    private static int upperBound(int[] array, int length, int key) {
+        int low = 0, high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("CoverageRangeSet[");
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('[').append(this.starts[i]).append(", ").append(this.ends[i]).append(')');
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.util.FileUtil;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 覆盖率收集期间的源码存储，默认保存在内存中，指定目录时写入磁盘，只在生成报告时读回
+ */
+class CoverageSourceStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoverageSourceStore.class);
+
+    private final Path directory;
+
+    private final Map<String, String> sources = new HashMap<>();
+
+    private final Map<String, Path> files = new HashMap<>();
+
+    private int fileIndex;
+
+    /**
+     * @param spillDirectory 源码写入的目录，为空时保存在内存中
+     */
+    CoverageSourceStore(String spillDirectory) {
+        if (StringUtil.isEmpty(spillDirectory)) {
+            this.directory = null;
+            return;
+        }
+        try {
+            Path parent = Paths.get(spillDirectory);
+            FileUtil.createDirs(parent);
+            this.directory = Files.createTempDirectory(parent, "jvppeteer-coverage-");
+        } catch (IOException e) {
+            throw new JvppeteerException("Failed to create coverage spill directory: " + spillDirectory, e);
+        }
+    }
+
+    synchronized void put(String id, String text) {
+        if (this.directory == null) {
+            this.sources.put(id, text);
+            return;
+        }
+        Path file = this.files.get(id);
+        if (file == null) {
+            file = this.directory.resolve((this.fileIndex++) + ".src");
+        }
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            this.files.put(id, file);
+        } catch (IOException e) {
+            throw new JvppeteerException("Failed to spill coverage source: " + id, e);
+        }
+    }
+
+    synchronized boolean contains(String id) {
+        return this.directory == null ? this.sources.containsKey(id) : this.files.containsKey(id);
+    }
+
+    synchronized String get(String id) {
+        if (this.directory == null) {
+            return this.sources.get(id);
+        }
+        Path file = this.files.get(id);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new JvppeteerException("Failed to read coverage source: " + id, e);
+        }
+    }
+
+    synchronized void clear() {
+        this.sources.clear();
+        for (Path file : this.files.values()) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete coverage source file: {}", file, e);
+            }
+        }
+        this.files.clear();
+    }
+
+    /**
+     * 清空存储并删除写入磁盘的目录
+     */
+    synchronized void close() {
+        this.clear();
+        if (this.directory != null) {
+            try {
+                FileUtil.removeFolder(this.directory.toString());
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete coverage spill directory: {}", this.directory, e);
+            }
+        }
+    }
+}
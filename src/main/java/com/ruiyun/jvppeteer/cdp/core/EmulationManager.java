@@ -262,7 +262,7 @@ public class EmulationManager implements ClientProvider {
             params.put("accuracy", state.getGeoLocation().getAccuracy());
             client.send("Emulation.setGeolocationOverride", params);
         } else {
-            client.send("Emulation.setGeolocationOverride");
+            client.send("Emulation.clearGeolocationOverride");
         }
     };
 
@@ -284,6 +284,13 @@ public class EmulationManager implements ClientProvider {
         this.geoLocationState.setState(new GeoLocationState(true, new GeolocationOptions(options.getLongitude(), options.getLatitude(), options.getAccuracy())));
     }
 
+    /**
+     * 清除模拟的地理位置
+     */
+    public void clearGeolocation() {
+        this.geoLocationState.setState(new GeoLocationState(true, null));
+    }
+
 
     private static final Updater<DefaultBackgroundColorState> setDefaultBackgroundColor = (client, state) -> {
         if (!state.getActive()) {
@@ -2,6 +2,7 @@ package com.ruiyun.jvppeteer.cdp.core;
 
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.ruiyun.jvppeteer.api.core.CDPSession;
@@ -28,12 +29,16 @@ import com.ruiyun.jvppeteer.exception.EvaluateException;
 import com.ruiyun.jvppeteer.exception.JvppeteerException;
 import com.ruiyun.jvppeteer.util.Helper;
 import com.ruiyun.jvppeteer.util.StringUtil;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +64,45 @@ public class ExecutionContext extends EventEmitter<ExecutionContext.ExecutionCon
     private final Map<String, Binding> bindings = new HashMap<>();
     private volatile JSHandle puppeteerUtil;
 
+    /**
+     * 源码长度达到这个值的函数才编译缓存，短函数直接发送源码更划算
+     */
+    private static final int COMPILE_THRESHOLD = 1024;
+
+    /**
+     * 每个上下文最多缓存的函数数量，避免动态拼接的源码无限增长
+     */
+    private static final int MAX_COMPILED_FUNCTIONS = 64;
+
+    /**
+     * 调用已经编译好的函数，第一个参数是函数本身
+     */
+    private static final String CALL_COMPILED_FUNCTION = "function (fn, ...args) {\n  return fn.apply(this, args);\n}";
+
+    /**
+     * 函数源码到已经在本上下文中创建好的函数对象 objectId，空字符串表示编译失败，不再尝试
+     */
+    private final Map<String, String> compiledFunctions = new ConcurrentHashMap<>();
+
+    /**
+     * 已经执行过一次的函数源码，第二次执行时才编译，只用一次的函数不会多出请求
+     */
+    private final Set<String> seenFunctions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 等待任务的通知绑定，同一个上下文中的所有推送模式的等待共用这一个绑定，按 id 区分
+     */
+    static final String WAIT_TASK_BINDING = CDP_BINDING_PREFIX + "jvppeteerWaitTaskNotify";
+
+    /**
+     * 等待通知的 id 到回调
+     */
+    private final Map<Integer, Runnable> waiters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger waiterSeq = new AtomicInteger();
+
+    private volatile boolean waitTaskBindingAdded;
+
     public ExecutionContext(CDPSession client, ExecutionContextDescription contextPayload, IsolatedWorld world) {
         this.client = client;
         this.world = world;
@@ -127,6 +171,43 @@ public class ExecutionContext extends EventEmitter<ExecutionContext.ExecutionCon
         }
     }
 
+    /**
+     * 注册一个等待通知，页面中调用 globalThis[WAIT_TASK_BINDING](String(id)) 时执行回调。
+     * 第一次注册时在本上下文中添加绑定
+     *
+     * @param callback 收到通知时在消息处理线程中执行，不能阻塞
+     * @return 通知的 id，添加绑定失败时返回 -1
+     */
+    int addWaiter(Runnable callback) {
+        if (!this.waitTaskBindingAdded) {
+            synchronized (this) {
+                if (!this.waitTaskBindingAdded) {
+                    Map<String, Object> params = ParamsFactory.create();
+                    params.put("name", WAIT_TASK_BINDING);
+                    if (StringUtil.isNotEmpty(this.name)) {
+                        params.put("executionContextName", this.name);
+                    } else {
+                        params.put("executionContextId", this.id);
+                    }
+                    try {
+                        this.client.send("Runtime.addBinding", params);
+                    } catch (Exception e) {
+                        LOGGER.debug("Failed to add wait task binding", e);
+                        return -1;
+                    }
+                    this.waitTaskBindingAdded = true;
+                }
+            }
+        }
+        int id = this.waiterSeq.incrementAndGet();
+        this.waiters.put(id, callback);
+        return id;
+    }
+
+    void removeWaiter(int id) {
+        this.waiters.remove(id);
+    }
+
     private String addPageBinding() {
         return "function addPageBinding(type, name, prefix) {\n" +
                 "  // Depending on the frame loading state either Runtime.evaluate or\n" +
@@ -179,6 +260,18 @@ public class ExecutionContext extends EventEmitter<ExecutionContext.ExecutionCon
         if (event.getExecutionContextId() != this.id) {
             return;
         }
+        if (WAIT_TASK_BINDING.equals(event.getName())) {
+            Runnable waiter;
+            try {
+                waiter = this.waiters.remove(Integer.parseInt(event.getPayload()));
+            } catch (NumberFormatException e) {
+                return;
+            }
+            if (waiter != null) {
+                waiter.run();
+            }
+            return;
+        }
         String payloadStr = event.getPayload();
         BindingPayload payload;
         try {
@@ -265,37 +358,79 @@ public class ExecutionContext extends EventEmitter<ExecutionContext.ExecutionCon
         return null;
     }
 
+    /**
+     * 执行函数并把返回值直接绑定到指定类型
+     * <p>
+     * 返回值从协议响应的 JsonNode 用缓存的 ObjectReader 直接反序列化，不再先转成 Map、List 组成的对象树再 convertValue
+     *
+     * @param pptrFunction 函数或者表达式
+     * @param resultType   返回值类型
+     * @param args         函数参数
+     * @param <T>          返回值类型
+     * @return 返回值，undefined 和 null 返回 null
+     * @throws JsonProcessingException 序列化异常
+     */
+    public <T> T evaluateAs(String pptrFunction, JavaType resultType, List<Object> args) throws JsonProcessingException {
+        EvaluateType type = Helper.isFunction(pptrFunction) ? EvaluateType.FUNCTION : EvaluateType.STRING;
+        JsonNode remoteObject = this.callInternal(true, pptrFunction, type, args, null);
+        if (remoteObject == null) {
+            return null;
+        }
+        JsonNode value = remoteObject.get("value");
+        if (remoteObject.hasNonNull("unserializableValue") || value == null) {
+            // NaN、bigint、undefined 等没有 JSON 表示的值
+            Object unserializable = Helper.valueFromRemoteObject(OBJECTMAPPER.treeToValue(remoteObject, RemoteObject.class));
+            return unserializable == null ? null : OBJECTMAPPER.convertValue(unserializable, resultType);
+        }
+        try {
+            return Helper.readerFor(resultType).readValue(value);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new JvppeteerException("Failed to read evaluate result as " + resultType, e);
+        }
+    }
+
     /**
      * 这里的EvaluateType有时候是明确指定为String的，不指定的情况下，会自动判断是字符串还是函数
      * <p>
      * {@link CdpFrame#addExposedFunctionBinding(Binding)}就指定了是String
      */
     private Object evaluateInternal(boolean returnByValue, String pptrFunction, EvaluateType type, List<Object> args) throws JsonProcessingException {
+        // 返回句柄时放入当前句柄作用域的 objectGroup
+        HandleScope scope = returnByValue ? null : HandleScope.current();
+        JsonNode result = this.callInternal(returnByValue, pptrFunction, type, args, scope);
+        if (result == null) {
+            return null;
+        }
+        RemoteObject remoteObject = OBJECTMAPPER.treeToValue(result, RemoteObject.class);
+        return returnByValue ? Helper.valueFromRemoteObject(remoteObject) : this.world.createJSHandle(remoteObject, scope);
+    }
+
+    /**
+     * 发送 Runtime.evaluate 或者 Runtime.callFunctionOn
+     *
+     * @return 响应中的 result（RemoteObject），执行出错时抛出 EvaluateException
+     */
+    private JsonNode callInternal(boolean returnByValue, String pptrFunction, EvaluateType type, List<Object> args, HandleScope scope) throws JsonProcessingException {
         pptrFunction = setSourceUrlComment(pptrFunction);
         if (EvaluateType.STRING.equals(type)) {
             Map<String, Object> params = new HashMap<>();
             params.put("expression", pptrFunction);
             params.put("contextId", this.id);
+            if (scope != null) {
+                params.put("objectGroup", scope.enter(this.client));
+            }
             params.put("returnByValue", returnByValue);
             params.put("awaitPromise", true);
             params.put("userGesture", true);
-            EvaluateResponse result;
+            JsonNode result;
             try {
-                result = OBJECTMAPPER.treeToValue(this.client.send("Runtime.evaluate", params), EvaluateResponse.class);
+                result = this.client.send("Runtime.evaluate", params);
             } catch (Exception e) {
-                result = rewriteError(e);
-            }
-            ExceptionDetails exceptionDetails = result.getExceptionDetails();
-            if (exceptionDetails != null) {
-                Object evaluationError = Helper.createCdpEvaluationError(exceptionDetails);
-                if (evaluationError instanceof EvaluateException) {
-                    throw (EvaluateException) evaluationError;
-                } else {
-                    throw new EvaluateException(OBJECTMAPPER.writeValueAsString(evaluationError));
-                }
+                result = OBJECTMAPPER.valueToTree(rewriteError(e));
             }
-            RemoteObject remoteObject = result.getResult();
-            return returnByValue ? Helper.valueFromRemoteObject(remoteObject) : this.world.createJSHandle(remoteObject);
+            return this.resultOf(result);
         }
         Map<String, Object> params = new HashMap<>();
         List<JsonNode> argList = new ArrayList<>();
@@ -309,39 +444,116 @@ public class ExecutionContext extends EventEmitter<ExecutionContext.ExecutionCon
                 }
             }
         }
-        params.put("functionDeclaration", pptrFunction);
         params.put("executionContextId", this.id);
-        params.put("arguments", argList);
         params.put("returnByValue", returnByValue);
         params.put("awaitPromise", true);
         params.put("userGesture", true);
-        EvaluateResponse callFunctionOnPromise;
+        if (scope != null) {
+            params.put("objectGroup", scope.enter(this.client));
+        }
+        String functionId = this.compiledFunction(pptrFunction);
+        if (functionId != null) {
+            // 只发送函数对象的引用，不再重复发送源码
+            List<JsonNode> compiledArgList = new ArrayList<>(argList.size() + 1);
+            compiledArgList.add(OBJECTMAPPER.createObjectNode().put("objectId", functionId));
+            compiledArgList.addAll(argList);
+            params.put("functionDeclaration", CALL_COMPILED_FUNCTION);
+            params.put("arguments", compiledArgList);
+        } else {
+            params.put("functionDeclaration", pptrFunction);
+            params.put("arguments", argList);
+        }
+        JsonNode callFunctionOnPromise;
         try {
             try {//第一个try用来添加message,第二个try是重写错误，返回结果
-                callFunctionOnPromise = OBJECTMAPPER.treeToValue(this.client.send("Runtime.callFunctionOn", params), EvaluateResponse.class);
+                callFunctionOnPromise = this.client.send("Runtime.callFunctionOn", params);
             } catch (Exception e) {
-                if (e.getMessage().startsWith("Converting circular structure to JSON"))
+                if (functionId != null && e.getMessage() != null && e.getMessage().contains("Could not find object with given id")) {
+                    // 函数对象已经被释放，丢弃缓存后用源码重新执行
+                    this.compiledFunctions.remove(pptrFunction);
+                    params.put("functionDeclaration", pptrFunction);
+                    params.put("arguments", argList);
+                    callFunctionOnPromise = this.client.send("Runtime.callFunctionOn", params);
+                } else if (e.getMessage() != null && e.getMessage().startsWith("Converting circular structure to JSON"))
                     throw new JvppeteerException(e.getMessage() + " Recursive objects are not allowed.");
                 else
                     throw e;
             }
         } catch (Exception e) {
-            callFunctionOnPromise = rewriteError(e);
+            callFunctionOnPromise = OBJECTMAPPER.valueToTree(rewriteError(e));
         }
-        if (callFunctionOnPromise == null) {
+        return this.resultOf(callFunctionOnPromise);
+    }
+
+    /**
+     * 检查执行结果中的异常，返回 result
+     */
+    private JsonNode resultOf(JsonNode response) throws JsonProcessingException {
+        if (response == null || response.isNull()) {
             return null;
         }
-        ExceptionDetails exceptionDetails = callFunctionOnPromise.getExceptionDetails();
-        if (exceptionDetails != null) {
-            Object evaluationError = Helper.createCdpEvaluationError(exceptionDetails);
+        JsonNode details = response.get("exceptionDetails");
+        if (details != null && !details.isNull()) {
+            Object evaluationError = Helper.createCdpEvaluationError(OBJECTMAPPER.treeToValue(details, ExceptionDetails.class));
             if (evaluationError instanceof EvaluateException) {
                 throw (EvaluateException) evaluationError;
             } else {
                 throw new EvaluateException(OBJECTMAPPER.writeValueAsString(evaluationError));
             }
         }
-        RemoteObject remoteObject = callFunctionOnPromise.getResult();
-        return returnByValue ? Helper.valueFromRemoteObject(remoteObject) : this.world.createJSHandle(remoteObject);
+        return response.get("result");
+    }
+
+    /**
+     * 获取函数源码在本上下文中编译好的函数对象
+     * <p>
+     * 同一个较大的函数第二次在本上下文中执行时，用 Runtime.compileScript（persistScript）和 Runtime.runScript
+     * 创建函数对象并缓存其 objectId，之后的调用只发送引用。上下文销毁后缓存随之失效。
+     *
+     * @param source 函数源码
+     * @return objectId，不使用缓存时返回 null
+     */
+    private String compiledFunction(String source) {
+        if (source.length() < COMPILE_THRESHOLD) {
+            return null;
+        }
+        String functionId = this.compiledFunctions.get(source);
+        if (functionId != null) {
+            return functionId.isEmpty() ? null : functionId;
+        }
+        if (this.compiledFunctions.size() >= MAX_COMPILED_FUNCTIONS) {
+            return null;
+        }
+        if (this.seenFunctions.size() >= MAX_COMPILED_FUNCTIONS) {
+            this.seenFunctions.clear();
+        }
+        if (this.seenFunctions.add(source)) {
+            return null;
+        }
+        functionId = "";
+        try {
+            Map<String, Object> compileParams = new HashMap<>();
+            compileParams.put("expression", "(" + source + "\n)");
+            compileParams.put("sourceURL", "");
+            compileParams.put("persistScript", true);
+            compileParams.put("executionContextId", this.id);
+            JsonNode compiled = this.client.send("Runtime.compileScript", compileParams);
+            if (compiled != null && compiled.hasNonNull("scriptId") && !compiled.hasNonNull("exceptionDetails")) {
+                Map<String, Object> runParams = new HashMap<>();
+                runParams.put("scriptId", compiled.get("scriptId").asText());
+                runParams.put("executionContextId", this.id);
+                runParams.put("silent", true);
+                JsonNode run = this.client.send("Runtime.runScript", runParams);
+                if (run != null && !run.hasNonNull("exceptionDetails") && "function".equals(run.path("result").path("type").asText())) {
+                    functionId = run.path("result").path("objectId").asText("");
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Failed to compile function in execution context {}", this.id, e);
+        }
+        this.compiledFunctions.put(source, functionId);
+        this.seenFunctions.remove(source);
+        return functionId.isEmpty() ? null : functionId;
     }
 
     private void initPuppeteerUtil() throws JsonProcessingException {
@@ -375,7 +587,13 @@ public class ExecutionContext extends EventEmitter<ExecutionContext.ExecutionCon
                     Binding ariaQuerySelectorAllBinding = new Binding("__ariaQuerySelectorAll", queryAllFunction, "");
                     this.addBinding(ariaQuerySelectorBinding);
                     this.addBinding(ariaQuerySelectorAllBinding);
-                    this.puppeteerUtil = this.evaluateHandle(Source, EvaluateType.STRING, null);
+                    // 每个上下文缓存一份，不能放入调用方的句柄作用域
+                    HandleScope scope = HandleScope.detach();
+                    try {
+                        this.puppeteerUtil = this.evaluateHandle(Source, EvaluateType.STRING, null);
+                    } finally {
+                        scope.close();
+                    }
                 }
             }
         }
@@ -434,6 +652,9 @@ public class ExecutionContext extends EventEmitter<ExecutionContext.ExecutionCon
 
     public void dispose() {
         this.listener.forEach(this.client::off);
+        this.compiledFunctions.clear();
+        this.seenFunctions.clear();
+        this.waiters.clear();
         this.emit(ExecutionContextEvent.Disposed, true);
     }
 
@@ -0,0 +1,154 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.ruiyun.jvppeteer.api.core.CDPSession;
+import com.ruiyun.jvppeteer.common.ParamsFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 句柄作用域
+ * <p>
+ * 在作用域内（同一个线程）通过 CDP 创建的 JSHandle、ElementHandle 都放在同一个 objectGroup 中，
+ * 作用域关闭时用一条 Runtime.releaseObjectGroup 全部释放，不再为每个句柄单独发送 Runtime.releaseObject。
+ * 作用域内对这些句柄调用 dispose 只做标记，真正的释放推迟到作用域关闭。
+ * <p>
+ * 作用域关闭后其中的句柄全部失效，需要在作用域外继续使用的句柄不要在作用域内创建。
+ * <pre>{@code
+ * try (HandleScope scope = HandleScope.open()) {
+ *     List<ElementHandle> rows = page.$$("tr");
+ *     ...
+ * }
+ * }</pre>
+ */
+public class HandleScope implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandleScope.class);
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    /**
+     * 当前线程的作用域栈，栈顶为 {@link #detach()} 打开的作用域时表示暂时不使用作用域
+     */
+    private static final ThreadLocal<Deque<HandleScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final String objectGroup;
+
+    /**
+     * 使用过这个 objectGroup 的会话，关闭时逐个释放
+     */
+    private final Set<CDPSession> sessions = ConcurrentHashMap.newKeySet();
+
+    private final List<CdpJSHandle> handles = new ArrayList<>();
+
+    private volatile boolean closed;
+
+    private HandleScope(String objectGroup) {
+        this.objectGroup = objectGroup;
+    }
+
+    /**
+     * 打开一个作用域，嵌套打开时内层作用域单独释放
+     *
+     * @return HandleScope
+     */
+    public static HandleScope open() {
+        HandleScope scope = new HandleScope("jvppeteer-scope-" + COUNTER.incrementAndGet());
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    /**
+     * 当前线程生效的作用域
+     *
+     * @return 没有作用域时返回 null
+     */
+    public static HandleScope current() {
+        HandleScope scope = SCOPES.get().peek();
+        return scope == null || scope.detached() ? null : scope;
+    }
+
+    /**
+     * 暂时离开当前作用域，关闭返回值后恢复。用于创建需要缓存、生命周期比作用域长的句柄
+     *
+     * @return 关闭即恢复
+     */
+    public static HandleScope detach() {
+        HandleScope scope = new HandleScope("");
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    private boolean detached() {
+        return this.objectGroup.isEmpty();
+    }
+
+    public String objectGroup() {
+        return this.objectGroup;
+    }
+
+    /**
+     * 在会话中使用这个作用域，返回要放入请求中的 objectGroup
+     */
+    String enter(CDPSession client) {
+        this.sessions.add(client);
+        return this.objectGroup;
+    }
+
+    /**
+     * 记录作用域内创建的句柄
+     */
+    void adopt(CdpJSHandle handle) {
+        synchronized (this.handles) {
+            if (this.closed) {
+                return;
+            }
+            this.handles.add(handle);
+        }
+        handle.setScope(this);
+    }
+
+    public boolean closed() {
+        return this.closed;
+    }
+
+    /**
+     * 释放作用域内创建的全部句柄
+     */
+    @Override
+    public void close() {
+        if (this.detached()) {
+            SCOPES.get().remove(this);
+            return;
+        }
+        List<CdpJSHandle> adopted;
+        synchronized (this.handles) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            adopted = new ArrayList<>(this.handles);
+            this.handles.clear();
+        }
+        SCOPES.get().remove(this);
+        adopted.forEach(CdpJSHandle::markDisposed);
+        for (CDPSession session : this.sessions) {
+            Map<String, Object> params = ParamsFactory.create();
+            params.put("objectGroup", this.objectGroup);
+            try {
+                session.send("Runtime.releaseObjectGroup", params, null, false);
+            } catch (Exception e) {
+                // 页面已经跳转或者关闭，对象已经随上下文释放
+                LOGGER.debug("Failed to release object group {}", this.objectGroup, e);
+            }
+        }
+        this.sessions.clear();
+    }
+}
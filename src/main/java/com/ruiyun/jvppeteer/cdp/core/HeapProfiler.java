@@ -0,0 +1,123 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.ruiyun.jvppeteer.api.core.CDPSession;
+import com.ruiyun.jvppeteer.api.core.Connection;
+import com.ruiyun.jvppeteer.api.events.ConnectionEvents;
+import com.ruiyun.jvppeteer.cdp.entities.HeapSnapshotOptions;
+import com.ruiyun.jvppeteer.cdp.entities.HeapSnapshotSummary;
+import com.ruiyun.jvppeteer.cdp.events.HeapSnapshotChunkEvent;
+import com.ruiyun.jvppeteer.cdp.events.HeapSnapshotProgressEvent;
+import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.common.ParamsFactory;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.util.FileUtil;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 堆快照，基于 HeapProfiler.takeHeapSnapshot
+ * <p>
+ * 快照数据分块到达后直接写入文件，不会在内存中拼接完整的快照。
+ */
+public class HeapProfiler {
+
+    private volatile CDPSession client;
+
+    private volatile boolean taking;
+
+    public HeapProfiler(CDPSession client) {
+        this.client = client;
+    }
+
+    /**
+     * 生成堆快照并写入文件
+     *
+     * @param path    快照文件的路径，可以用 Chrome DevTools 的 Memory 面板打开
+     * @param options 选项，可以为 null
+     * @return 开启 summarize 时返回统计结果，否则返回 null
+     */
+    public HeapSnapshotSummary takeHeapSnapshot(Path path, HeapSnapshotOptions options) {
+        Objects.requireNonNull(path, "path");
+        ValidateUtil.assertArg(!this.taking, "Heap snapshot is already in progress");
+        if (options == null) {
+            options = new HeapSnapshotOptions();
+        }
+        this.taking = true;
+        CDPSession client = this.client;
+        HeapSnapshotSummarizer summarizer = options.getSummarize() ? new HeapSnapshotSummarizer() : null;
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Consumer<HeapSnapshotChunkEvent> chunkListener = null;
+        Consumer<HeapSnapshotProgressEvent> progressListener = null;
+        try (OutputStream out = openOutput(path)) {
+            chunkListener = event -> {
+                if (error.get() != null) {
+                    return;
+                }
+                try {
+                    byte[] bytes = event.getChunk().getBytes(StandardCharsets.UTF_8);
+                    out.write(bytes);
+                    if (summarizer != null) {
+                        summarizer.feed(bytes, 0, bytes.length);
+                    }
+                } catch (Exception e) {
+                    error.set(e);
+                }
+            };
+            client.on(ConnectionEvents.HeapProfiler_addHeapSnapshotChunk, chunkListener);
+            if (options.getOnProgress() != null) {
+                progressListener = options.getOnProgress();
+                client.on(ConnectionEvents.HeapProfiler_reportHeapSnapshotProgress, progressListener);
+            }
+            client.send("HeapProfiler.enable");
+            if (options.getCollectGarbage()) {
+                client.send("HeapProfiler.collectGarbage");
+            }
+            Map<String, Object> params = ParamsFactory.create();
+            params.put("reportProgress", progressListener != null);
+            params.put("captureNumericValue", options.getCaptureNumericValue());
+            client.send("HeapProfiler.takeHeapSnapshot", params);
+            // 响应可能先于最后几个 chunk 事件被处理，等事件线程处理完已收到的消息
+            Connection connection = client.connection();
+            if (connection != null) {
+                connection.waitForPendingMessages();
+            }
+            if (error.get() != null) {
+                throw new JvppeteerException("Error writing heap snapshot", error.get());
+            }
+            return summarizer != null ? summarizer.finish() : null;
+        } catch (IOException e) {
+            throw new JvppeteerException("Error writing heap snapshot", e);
+        } finally {
+            if (chunkListener != null) {
+                client.off(ConnectionEvents.HeapProfiler_addHeapSnapshotChunk, chunkListener);
+            }
+            if (progressListener != null) {
+                client.off(ConnectionEvents.HeapProfiler_reportHeapSnapshotProgress, progressListener);
+            }
+            client.send("HeapProfiler.disable", null, null, false);
+            this.taking = false;
+        }
+    }
+
+    private static OutputStream openOutput(Path path) throws IOException {
+        FileUtil.createNewFile(path.toString());
+        return new BufferedOutputStream(Files.newOutputStream(path), Constant.DEFAULT_BUFFER_SIZE);
+    }
+
+    public boolean isTaking() {
+        return this.taking;
+    }
+
+    void updateClient(CDPSession newSession) {
+        this.client = newSession;
+    }
+}
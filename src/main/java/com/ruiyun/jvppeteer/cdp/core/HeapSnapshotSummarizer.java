@@ -0,0 +1,255 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.ruiyun.jvppeteer.cdp.entities.ConstructorSize;
+import com.ruiyun.jvppeteer.cdp.entities.HeapSnapshotSummary;
+import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 以推送的方式解析 .heapsnapshot 数据，统计每个构造函数的对象数量和自身大小。
+ * <p>
+ * 数据可以分块喂入（例如 HeapProfiler.addHeapSnapshotChunk 事件），解析过程中只保留聚合结果，
+ * 不会构建节点和边的对象图，内存占用只与不同构造函数的数量有关。
+ * <p>
+ * 因为不构建对象图，这里统计的是自身大小（shallow size），不是保留大小（retained size）。
+ * 分类方式与 DevTools 的 Summary 视图一致：object 和 native 节点按名称分组，其他节点按类型分组。
+ */
+public class HeapSnapshotSummarizer {
+
+    private final JsonParser parser;
+
+    private final ByteArrayFeeder feeder;
+
+    private final List<String> nodeFields = new ArrayList<>();
+
+    private final List<String> nodeTypes = new ArrayList<>();
+
+    private int fieldCount;
+
+    private int typeOffset = -1;
+
+    private int nameOffset = -1;
+
+    private int selfSizeOffset = -1;
+
+    /**
+     * nodes 数组中已经读到的数字个数
+     */
+    private long nodeValueIndex;
+
+    private int currentType;
+
+    private int currentName;
+
+    private long currentSelfSize;
+
+    private long nodeCount;
+
+    private long edgeCount;
+
+    private long totalSize;
+
+    /**
+     * 按名称分组的节点，key 为名称在 strings 中的下标，value 为 [数量, 大小]
+     */
+    private final Map<Integer, long[]> namedStats = new HashMap<>();
+
+    /**
+     * 按类型分组的节点，key 为类型名，value 为 [数量, 大小]
+     */
+    private final Map<String, long[]> typedStats = new HashMap<>();
+
+    /**
+     * 解析 strings 数组后得到的名称
+     */
+    private final Map<Integer, String> names = new HashMap<>();
+
+    private int stringIndex;
+
+    private boolean finished;
+
+    public HeapSnapshotSummarizer() {
+        try {
+            this.parser = Constant.OBJECTMAPPER.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new JvppeteerException(e);
+        }
+        this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * 统计一个 .heapsnapshot 文件
+     *
+     * @param path 快照文件
+     * @return 统计结果
+     * @throws IOException 读取文件失败
+     */
+    public static HeapSnapshotSummary summarize(Path path) throws IOException {
+        HeapSnapshotSummarizer summarizer = new HeapSnapshotSummarizer();
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[Constant.DEFAULT_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                summarizer.feed(buffer, 0, read);
+            }
+        }
+        return summarizer.finish();
+    }
+
+    /**
+     * 喂入下一段数据，方法返回时数据已经处理完，调用方可以复用 buffer
+     *
+     * @param buffer 数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @throws IOException 数据不是合法的 JSON
+     */
+    public void feed(byte[] buffer, int offset, int length) throws IOException {
+        if (this.finished) {
+            throw new IllegalStateException("Summarizer is already finished");
+        }
+        this.feeder.feedInput(buffer, offset, offset + length);
+        this.drain();
+    }
+
+    /**
+     * 结束输入，返回统计结果
+     *
+     * @return 统计结果
+     * @throws IOException 数据不完整
+     */
+    public HeapSnapshotSummary finish() throws IOException {
+        if (!this.finished) {
+            this.finished = true;
+            this.feeder.endOfInput();
+            this.drain();
+            this.parser.close();
+        }
+        List<ConstructorSize> constructors = new ArrayList<>(this.namedStats.size() + this.typedStats.size());
+        this.namedStats.forEach((name, stats) -> constructors.add(new ConstructorSize(this.names.getOrDefault(name, ""), stats[0], stats[1])));
+        this.typedStats.forEach((type, stats) -> constructors.add(new ConstructorSize(type, stats[0], stats[1])));
+        constructors.sort(Comparator.comparingLong(ConstructorSize::getSelfSize).reversed());
+        HeapSnapshotSummary summary = new HeapSnapshotSummary();
+        summary.setNodeCount(this.nodeCount);
+        summary.setEdgeCount(this.edgeCount);
+        summary.setTotalSize(this.totalSize);
+        summary.setConstructors(constructors);
+        return summary;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                this.onNumber();
+            } else if (token == JsonToken.VALUE_STRING) {
+                this.onString();
+            }
+        }
+    }
+
+    private void onNumber() throws IOException {
+        JsonStreamContext context = this.parser.getParsingContext();
+        if (context.inObject()) {
+            if ("edge_count".equals(context.getCurrentName()) && "snapshot".equals(context.getParent().getCurrentName())) {
+                this.edgeCount = this.parser.getLongValue();
+            }
+            return;
+        }
+        if (!this.isTopLevelArray(context, "nodes")) {
+            return;
+        }
+        if (this.fieldCount == 0) {
+            this.initNodeFields();
+        }
+        int field = (int) (this.nodeValueIndex++ % this.fieldCount);
+        if (field == this.typeOffset) {
+            this.currentType = this.parser.getIntValue();
+        } else if (field == this.nameOffset) {
+            this.currentName = this.parser.getIntValue();
+        } else if (field == this.selfSizeOffset) {
+            this.currentSelfSize = this.parser.getLongValue();
+        }
+        if (field == this.fieldCount - 1) {
+            this.addNode();
+        }
+    }
+
+    private void onString() throws IOException {
+        JsonStreamContext context = this.parser.getParsingContext();
+        if (!context.inArray()) {
+            return;
+        }
+        JsonStreamContext parent = context.getParent();
+        if (this.isTopLevelArray(context, "strings")) {
+            int index = this.stringIndex++;
+            if (this.namedStats.containsKey(index)) {
+                this.names.put(index, this.parser.getText());
+            }
+        } else if ("node_fields".equals(parent.getCurrentName()) && "meta".equals(parent.getParent().getCurrentName())) {
+            this.nodeFields.add(this.parser.getText());
+        } else if (parent.inArray() && parent.getCurrentIndex() == 0 && "node_types".equals(parent.getParent().getCurrentName())) {
+            this.nodeTypes.add(this.parser.getText());
+        }
+    }
+
+    private boolean isTopLevelArray(JsonStreamContext context, String name) {
+        JsonStreamContext parent = context.getParent();
+        return context.inArray() && parent != null && name.equals(parent.getCurrentName()) && parent.getParent() != null && parent.getParent().inRoot();
+    }
+
+    private void initNodeFields() {
+        if (this.nodeFields.isEmpty() || this.nodeTypes.isEmpty()) {
+            throw new JvppeteerException("Heap snapshot meta must precede nodes");
+        }
+        this.fieldCount = this.nodeFields.size();
+        this.typeOffset = this.nodeFields.indexOf("type");
+        this.nameOffset = this.nodeFields.indexOf("name");
+        this.selfSizeOffset = this.nodeFields.indexOf("self_size");
+        if (this.typeOffset < 0 || this.nameOffset < 0 || this.selfSizeOffset < 0) {
+            throw new JvppeteerException("Unsupported heap snapshot node fields: " + this.nodeFields);
+        }
+    }
+
+    /**
+     * 读完一个节点的所有字段后计入统计
+     */
+    private void addNode() {
+        long selfSize = this.currentSelfSize;
+        this.nodeCount++;
+        this.totalSize += selfSize;
+        String type = this.currentType < this.nodeTypes.size() ? this.nodeTypes.get(this.currentType) : "unknown";
+        long[] stats;
+        if ("object".equals(type) || "native".equals(type)) {
+            stats = this.namedStats.computeIfAbsent(this.currentName, key -> new long[2]);
+        } else {
+            stats = this.typedStats.computeIfAbsent(this.className(type), key -> new long[2]);
+        }
+        stats[0]++;
+        stats[1] += selfSize;
+    }
+
+    private String className(String type) {
+        switch (type) {
+            case "hidden":
+                return "(system)";
+            case "code":
+                return "(compiled code)";
+            default:
+                return "(" + type + ")";
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ruiyun.jvppeteer.cdp.core;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.ruiyun.jvppeteer.api.core.CDPSession;
 import com.ruiyun.jvppeteer.api.core.JSHandle;
@@ -104,6 +105,17 @@ public class IsolatedWorld extends Realm {
         return this.context;
     }
 
+    /**
+     * 当前的执行上下文，还没有创建时等待
+     */
+    ExecutionContext awaitExecutionContext() {
+        ExecutionContext context = this.executionContext();
+        if (context == null) {
+            context = this.waitForExecutionContext();
+        }
+        return context;
+    }
+
     private ExecutionContext executionContext() {
         if (this.disposed()) {
             throw new JvppeteerException("Execution context is not available in detached frame or worker" + (this.webWorker == null ? this.frame.url() : this.webWorker.url()) + "(are you trying to evaluate?)");
@@ -157,6 +169,16 @@ public class IsolatedWorld extends Realm {
         return context.evaluate(pptrFunction, type, args);
     }
 
+    @Override
+    protected <T> T evaluateAs(String pptrFunction, JavaType resultType, List<Object> args) throws JsonProcessingException {
+        pptrFunction = withSourcePuppeteerURLIfNone("evaluate", pptrFunction);
+        ExecutionContext context = this.executionContext();
+        if (context == null) {
+            context = this.waitForExecutionContext();
+        }
+        return context.evaluateAs(pptrFunction, resultType, args);
+    }
+
 
 
     public JSHandle adoptBackendNode(int backendNodeId) throws JsonProcessingException {
@@ -170,8 +192,12 @@ public class IsolatedWorld extends Realm {
         Map<String, Object> params = ParamsFactory.create();
         params.put("backendNodeId", backendNodeId);
         params.put("executionContextId", executionContext.getId());
+        HandleScope scope = HandleScope.current();
+        if (scope != null) {
+            params.put("objectGroup", scope.enter(this.client()));
+        }
         JsonNode result = this.client().send("DOM.resolveNode", params);
-        return this.createJSHandle(OBJECTMAPPER.treeToValue(result.get("object"), RemoteObject.class));
+        return this.createJSHandle(OBJECTMAPPER.treeToValue(result.get("object"), RemoteObject.class), scope);
     }
 
     @SuppressWarnings("unchecked")
@@ -213,6 +239,21 @@ public class IsolatedWorld extends Realm {
         return new CdpJSHandle(this, remoteObject);
     }
 
+    /**
+     * 创建句柄，远端对象属于 scope 的 objectGroup 时由 scope 统一释放
+     *
+     * @param remoteObject 远端对象
+     * @param scope        句柄作用域，可以为 null
+     * @return JSHandle
+     */
+    JSHandle createJSHandle(RemoteObject remoteObject, HandleScope scope) {
+        JSHandle handle = this.createJSHandle(remoteObject);
+        if (scope != null && StringUtil.isNotEmpty(remoteObject.getObjectId())) {
+            scope.adopt(handle instanceof CdpElementHandle ? ((CdpElementHandle) handle).cdpHandle() : (CdpJSHandle) handle);
+        }
+        return handle;
+    }
+
     public void dispose() {
         Optional.ofNullable(this.context).ifPresent(ExecutionContext::dispose);
         this.emitter.emit(IsolatedWorldEmitter.IsolatedWorldEventType.Disposed, true);
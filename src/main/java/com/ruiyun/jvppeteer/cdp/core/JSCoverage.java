@@ -19,9 +19,14 @@ import com.ruiyun.jvppeteer.util.StringUtil;
 import com.ruiyun.jvppeteer.util.ValidateUtil;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import org.java_websocket.util.NamedThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,12 +37,19 @@ public class JSCoverage {
     private static final Logger LOGGER = LoggerFactory.getLogger(JSCoverage.class);
     private volatile CDPSession client;
     private volatile boolean enabled;
-    private final Map<String, String> scriptSources = new HashMap<>();
+    private CoverageSourceStore scriptSources = new CoverageSourceStore(null);
     private final Map<String, String> scriptURLs = new HashMap<>();
+    /**
+     * 增量快照合并后的覆盖区间，key 为 scriptId，按首次出现的顺序排列
+     */
+    private final Map<String, CoverageRangeSet> scriptRanges = new LinkedHashMap<>();
     private final Map<ConnectionEvents, Consumer<?>> listeners = new HashMap<>();
     private boolean resetOnNavigation;
     private boolean reportAnonymousScripts;
     private boolean includeRawScriptCoverage;
+    private boolean lazySources;
+    private boolean incremental;
+    private ScheduledExecutorService snapshotService;
 
     public JSCoverage(CDPSession client) {
         this.client = client;
@@ -48,9 +60,15 @@ public class JSCoverage {
         this.resetOnNavigation = options.getResetOnNavigation();
         this.reportAnonymousScripts = options.getReportAnonymousScripts();
         this.includeRawScriptCoverage = options.getIncludeRawScriptCoverage();
+        this.lazySources = options.getLazySources();
+        this.incremental = options.getSnapshotInterval() > 0;
         this.enabled = true;
-        this.scriptURLs.clear();
-        this.scriptSources.clear();
+        synchronized (this) {
+            this.scriptURLs.clear();
+            this.scriptRanges.clear();
+            this.scriptSources.close();
+            this.scriptSources = new CoverageSourceStore(options.getSpillDirectory());
+        }
         Consumer<ScriptParsedEvent> onScriptParsed = this::onScriptParsed;
         this.client.on(ConnectionEvents.Debugger_scriptParsed, onScriptParsed);
         this.listeners.put(ConnectionEvents.Debugger_scriptParsed, onScriptParsed);
@@ -69,12 +87,17 @@ public class JSCoverage {
         params.put("skip", true);
         this.client.send("Debugger.setSkipAllPauses", params);
 
+        if (this.incremental) {
+            this.snapshotService = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("jvppeteer-coverage-snapshot", true));
+            this.snapshotService.scheduleWithFixedDelay(this::snapshot, options.getSnapshotInterval(), options.getSnapshotInterval(), TimeUnit.MILLISECONDS);
+        }
     }
 
-    private void onExecutionContextsCleared() {
+    private synchronized void onExecutionContextsCleared() {
         if (!this.resetOnNavigation)
             return;
         this.scriptURLs.clear();
+        this.scriptRanges.clear();
         this.scriptSources.clear();
     }
 
@@ -87,48 +110,157 @@ public class JSCoverage {
             return;
         if (!this.enabled)
             return;
-        Map<String, Object> params = ParamsFactory.create();
-        params.put("scriptId", event.getScriptId());
+        if (this.lazySources) {
+            synchronized (this) {
+                this.scriptURLs.put(event.getScriptId(), event.getUrl());
+            }
+            return;
+        }
         try {
-            JsonNode response = this.client.send("Debugger.getScriptSource", params);
-            scriptURLs.put(event.getScriptId(), event.getUrl());
-            scriptSources.put(event.getScriptId(), response.get("scriptSource").asText());
+            String source = this.fetchScriptSource(event.getScriptId());
+            synchronized (this) {
+                scriptURLs.put(event.getScriptId(), event.getUrl());
+                scriptSources.put(event.getScriptId(), source);
+            }
         } catch (Exception e) {
             LOGGER.error("onScriptParsed error: ", e);
         }
     }
 
+    private String fetchScriptSource(String scriptId) {
+        Map<String, Object> params = ParamsFactory.create();
+        params.put("scriptId", scriptId);
+        JsonNode response = this.client.send("Debugger.getScriptSource", params);
+        return response.get("scriptSource").asText();
+    }
+
+    /**
+     * 获取脚本源码，延迟模式下源码不在存储中时向浏览器获取
+     *
+     * @param scriptId 脚本id
+     * @param retain   获取后是否保存，以免脚本被回收后无法再获取
+     * @return 源码，获取失败返回null
+     */
+    private String scriptSource(String scriptId, boolean retain) {
+        String text = this.scriptSources.get(scriptId);
+        if (text != null || !this.lazySources) {
+            return text;
+        }
+        try {
+            text = this.fetchScriptSource(scriptId);
+        } catch (Exception e) {
+            LOGGER.debug("Failed to get source of script {}", scriptId, e);
+            return null;
+        }
+        if (retain) {
+            this.scriptSources.put(scriptId, text);
+        }
+        return text;
+    }
+
+    /**
+     * 获取增量覆盖率（Profiler.takePreciseCoverage 会重置浏览器端的计数），并合并到每个脚本的区间集合中
+     */
+    private synchronized void snapshot() {
+        if (!this.enabled) {
+            return;
+        }
+        try {
+            JsonNode result = this.client.send("Profiler.takePreciseCoverage");
+            this.fold(Constant.OBJECTMAPPER.treeToValue(result, TakePreciseCoverageResponse.class));
+        } catch (Exception e) {
+            LOGGER.error("Failed to take JS coverage snapshot", e);
+        }
+    }
+
+    private void fold(TakePreciseCoverageResponse response) {
+        if (ValidateUtil.isEmpty(response.getResult())) {
+            return;
+        }
+        for (ScriptCoverage entry : response.getResult()) {
+            if (!this.scriptURLs.containsKey(entry.getScriptId()))
+                continue;
+            List<Range> ranges = Coverage.convertToDisjointRanges(flattenRanges(entry));
+            CoverageRangeSet rangeSet = this.scriptRanges.computeIfAbsent(entry.getScriptId(), k -> new CoverageRangeSet());
+            rangeSet.addAll(ranges);
+            // 有覆盖的脚本尽早获取源码，避免导航后脚本被回收
+            if (!rangeSet.isEmpty() && !this.scriptSources.contains(entry.getScriptId())) {
+                this.scriptSource(entry.getScriptId(), true);
+            }
+        }
+    }
+
+    private static List<CoverageRange> flattenRanges(ScriptCoverage entry) {
+        List<CoverageRange> flattenRanges = new ArrayList<>();
+        for (FunctionCoverage func : entry.getFunctions())
+            flattenRanges.addAll(func.getRanges());
+        return flattenRanges;
+    }
+
     public List<JSCoverageEntry> stop() throws JsonProcessingException {
+        List<JSCoverageEntry> coverage = new ArrayList<>();
+        this.stop(coverage::add);
+        return coverage;
+    }
+
+    /**
+     * 停止收集，逐个输出覆盖率报告，调用方处理完一个报告后即可释放，不需要同时在内存中保留所有脚本的源码
+     *
+     * @param consumer 报告的消费者
+     * @throws JsonProcessingException 解析覆盖率结果失败
+     */
+    public synchronized void stop(Consumer<JSCoverageEntry> consumer) throws JsonProcessingException {
         ValidateUtil.assertArg(this.enabled, "JSCoverage is not enabled");
         this.enabled = false;
-        JsonNode result = this.client.send("Profiler.takePreciseCoverage");
-        this.client.send("Profiler.stopPreciseCoverage", null, null, false);
-        this.client.send("Profiler.disable", null, null, false);
-        this.client.send("Debugger.disable");
-        this.listeners.forEach((eventType, listener) -> this.client.off(eventType, listener));
-        List<JSCoverageEntry> coverage = new ArrayList<>();
-        TakePreciseCoverageResponse profileResponse = Constant.OBJECTMAPPER.treeToValue(result, TakePreciseCoverageResponse.class);
-        if (ValidateUtil.isEmpty(profileResponse.getResult())) {
-            return coverage;
+        if (this.snapshotService != null) {
+            this.snapshotService.shutdown();
+            this.snapshotService = null;
         }
-        for (ScriptCoverage entry : profileResponse.getResult()) {
-            String url = this.scriptURLs.get(entry.getScriptId());
-            if (StringUtil.isEmpty(url) && this.reportAnonymousScripts)
-                url = "debugger://VM" + entry.getScriptId();
-            String text = this.scriptSources.get(entry.getScriptId());
-            if (StringUtil.isEmpty(text) || StringUtil.isEmpty(url))
-                continue;
-            List<CoverageRange> flattenRanges = new ArrayList<>();
-            for (FunctionCoverage func : entry.getFunctions())
-                flattenRanges.addAll(func.getRanges());
-            List<Range> ranges = Coverage.convertToDisjointRanges(flattenRanges);
-            if (!this.includeRawScriptCoverage) {
-                coverage.add(new JSCoverageEntry(url, ranges, text, null));
-            } else {
-                coverage.add(new JSCoverageEntry(url, ranges, text, entry));
+        try {
+            JsonNode result = this.client.send("Profiler.takePreciseCoverage");
+            this.client.send("Profiler.stopPreciseCoverage", null, null, false);
+            this.client.send("Profiler.disable", null, null, false);
+            this.listeners.forEach((eventType, listener) -> this.client.off(eventType, listener));
+            TakePreciseCoverageResponse profileResponse = Constant.OBJECTMAPPER.treeToValue(result, TakePreciseCoverageResponse.class);
+            if (this.incremental) {
+                // 报告所有快照合并后的区间，区间来自多次快照，不再附带原始的 V8 覆盖率
+                this.fold(profileResponse);
+                for (Map.Entry<String, CoverageRangeSet> entry : this.scriptRanges.entrySet()) {
+                    this.report(entry.getKey(), entry.getValue().toRanges(), null, consumer);
+                }
+                return;
             }
+            if (ValidateUtil.isEmpty(profileResponse.getResult())) {
+                return;
+            }
+            for (ScriptCoverage entry : profileResponse.getResult()) {
+                List<Range> ranges = Coverage.convertToDisjointRanges(flattenRanges(entry));
+                this.report(entry.getScriptId(), ranges, entry, consumer);
+            }
+        } finally {
+            // 延迟模式下生成报告时仍需要 Debugger 获取源码
+            this.client.send("Debugger.disable");
+            this.scriptRanges.clear();
+            this.scriptSources.close();
+        }
+    }
+
+    private void report(String scriptId, List<Range> ranges, ScriptCoverage rawCoverage, Consumer<JSCoverageEntry> consumer) {
+        if (!this.scriptURLs.containsKey(scriptId))
+            return;
+        String url = this.scriptURLs.get(scriptId);
+        if (StringUtil.isEmpty(url) && this.reportAnonymousScripts)
+            url = "debugger://VM" + scriptId;
+        if (StringUtil.isEmpty(url))
+            return;
+        String text = this.scriptSource(scriptId, false);
+        if (StringUtil.isEmpty(text))
+            return;
+        if (!this.includeRawScriptCoverage) {
+            consumer.accept(new JSCoverageEntry(url, ranges, text, null));
+        } else {
+            consumer.accept(new JSCoverageEntry(url, ranges, text, rawCoverage));
         }
-        return coverage;
     }
 
     public void updateClient(CDPSession client) {
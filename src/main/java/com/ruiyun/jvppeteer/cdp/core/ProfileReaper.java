@@ -0,0 +1,270 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.util.FileUtil;
+import com.ruiyun.jvppeteer.util.Helper;
+import com.ruiyun.jvppeteer.util.StreamUtil;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 后台回收浏览器进程和临时用户数据目录
+ * <p>
+ * 关闭浏览器时只发出结束进程的信号，等待进程退出、删除临时目录都交给后台线程，关闭操作可以立即返回。
+ * 第一次启动浏览器时还会清理之前崩溃的 JVM 遗留在临时目录中的 jvppeteer 用户数据目录。
+ * <p>
+ * 只有确认目录不再使用时才删除：创建目录的 JVM 一直持有目录中标记文件的锁，浏览器在目录中留下的锁指向本机的进程号，
+ * 二者任一能证明目录仍在使用或者无法判断时都保留，不按修改时间判断。
+ */
+public class ProfileReaper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProfileReaper.class);
+
+    private static final ExecutorService REAPER = Executors.newSingleThreadExecutor(new NamedThreadFactory("jvppeteer-profile-reaper", true));
+
+    private static final AtomicBoolean ORPHANS_SCHEDULED = new AtomicBoolean();
+
+    /**
+     * 创建目录的 JVM 在目录中持有锁的标记文件
+     */
+    private static final String OWNER_FILE = ".jvppeteer-owner";
+
+    /**
+     * 浏览器在用户数据目录中创建的锁：Chrome 为 SingletonLock（hostname-pid），Firefox 为 lock（ip:+pid）
+     */
+    private static final String[] LOCK_FILES = {"SingletonLock", "lock"};
+
+    private static final Pattern LOCK_PATTERN = Pattern.compile("^(.*?)(?:-|:\\+)(\\d+)$");
+
+    private static final String[] PROFILE_PREFIXES = {Constant.CHROME_PROFILE_PREFIX, Constant.FIREFOX_PROFILE_PREFIX};
+
+    /**
+     * 本进程正在使用的临时目录，清理遗留目录时跳过
+     */
+    private static final Set<String> ACTIVE = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 本进程持有的标记文件锁，关闭 channel 即释放锁
+     */
+    private static final Map<String, FileChannel> OWNER_LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * 本机的主机名和网卡地址，用于判断锁是不是本机的浏览器创建的
+     */
+    private static volatile Set<String> localHosts;
+
+    private ProfileReaper() {
+    }
+
+    static void register(String tempDirectory) {
+        if (tempDirectory == null) {
+            return;
+        }
+        Path dir = Paths.get(tempDirectory).toAbsolutePath().normalize();
+        ACTIVE.add(dir.toString());
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(dir.resolve(OWNER_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.tryLock() != null) {
+                OWNER_LOCKS.put(dir.toString(), channel);
+                return;
+            }
+        } catch (IOException | OverlappingFileLockException e) {
+            LOGGER.debug("Failed to lock browser profile {}", dir, e);
+        }
+        StreamUtil.closeQuietly(channel);
+    }
+
+    /**
+     * 在后台等待进程退出后执行清理，进程超时未退出则强制结束
+     *
+     * @param process 浏览器进程，可以为 null
+     * @param cleanup 进程退出后执行的清理
+     * @param inline  为 true 时在当前线程执行，用于程序退出时
+     */
+    static void reap(Process process, Runnable cleanup, boolean inline) {
+        Runnable task = () -> {
+            awaitExit(process);
+            try {
+                cleanup.run();
+            } catch (Exception e) {
+                LOGGER.debug("Failed to clean up browser profile", e);
+            }
+        };
+        if (inline) {
+            task.run();
+            return;
+        }
+        try {
+            REAPER.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * 删除临时目录，删除失败的文件在程序退出时再删
+     *
+     * @param tempDirectory 临时目录
+     */
+    static void removeTempDirectory(String tempDirectory) {
+        // 浏览器进程已经退出，先释放标记文件的锁，Windows 上被锁住的文件无法删除
+        StreamUtil.closeQuietly(OWNER_LOCKS.remove(Paths.get(tempDirectory).toAbsolutePath().normalize().toString()));
+        try {
+            FileUtil.removeFolder(tempDirectory);
+            if (Paths.get(tempDirectory).toFile().exists()) {
+                FileUtil.removeFolderOnExit(tempDirectory);
+            }
+        } catch (Exception ignored) {
+        } finally {
+            ACTIVE.remove(Paths.get(tempDirectory).toAbsolutePath().normalize().toString());
+        }
+    }
+
+    private static void awaitExit(Process process) {
+        if (process == null) {
+            return;
+        }
+        try {
+            if (!process.waitFor(30L, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                process.waitFor(2, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 每个进程只在后台清理一次遗留目录
+     */
+    static void reapOrphansOnce() {
+        if (!ORPHANS_SCHEDULED.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            REAPER.execute(ProfileReaper::reapOrphans);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    /**
+     * 清理系统临时目录下遗留的 jvppeteer 用户数据目录
+     * <p>
+     * 浏览器的锁文件指向本机已经退出的进程，或者没有锁文件并且创建目录的 JVM 已经释放标记文件的锁时删除
+     *
+     * @return 删除的目录数量
+     */
+    public static int reapOrphans() {
+        // Windows 上锁文件不是符号链接，无法判断目录是否仍在使用
+        if (!Helper.isUnixLike()) {
+            return 0;
+        }
+        Path tempRoot = Paths.get(System.getProperty("java.io.tmpdir"));
+        int removed = 0;
+        try (Stream<Path> children = Files.list(tempRoot)) {
+            for (Path dir : children.filter(ProfileReaper::isProfileDir).collect(Collectors.toList())) {
+                if (ACTIVE.contains(dir.toAbsolutePath().normalize().toString()) || !isOrphan(dir)) {
+                    continue;
+                }
+                FileUtil.removeFolder(dir.toString());
+                removed++;
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Removed orphaned browser profile {}", dir);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Failed to clean up orphaned browser profiles", e);
+        }
+        return removed;
+    }
+
+    private static boolean isProfileDir(Path path) {
+        String name = path.getFileName().toString();
+        for (String prefix : PROFILE_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOrphan(Path dir) throws IOException {
+        for (String lockFile : LOCK_FILES) {
+            Path lock = dir.resolve(lockFile);
+            if (!Files.isSymbolicLink(lock)) {
+                continue;
+            }
+            Matcher matcher = LOCK_PATTERN.matcher(Files.readSymbolicLink(lock).toString());
+            // 其他主机的进程号在本机没有意义（临时目录可能是共享的），无法判断时保守处理，不删除
+            if (!matcher.find() || !isLocalHost(matcher.group(1))) {
+                return false;
+            }
+            return Objects.equals(Helper.isProcessAlive(Long.parseLong(matcher.group(2))), Boolean.FALSE);
+        }
+        // 没有浏览器的锁（例如 chrome-headless-shell 不创建 SingletonLock），只有拿到标记文件的锁才说明创建目录的 JVM 已经退出
+        Path owner = dir.resolve(OWNER_FILE);
+        if (!Files.isRegularFile(owner, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        Closeable ownerLock = FileUtil.tryLock(owner);
+        if (ownerLock == null) {
+            return false;
+        }
+        ownerLock.close();
+        return true;
+    }
+
+    private static boolean isLocalHost(String host) {
+        Set<String> hosts = localHosts;
+        if (hosts == null) {
+            hosts = new HashSet<>();
+            try {
+                hosts.add(InetAddress.getLocalHost().getHostName().toLowerCase(Locale.ROOT));
+            } catch (IOException e) {
+                LOGGER.debug("Failed to get the local host name", e);
+            }
+            try {
+                Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+                for (NetworkInterface networkInterface : interfaces == null ? Collections.<NetworkInterface>emptyList() : Collections.list(interfaces)) {
+                    for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                        hosts.add(address.getHostAddress().toLowerCase(Locale.ROOT));
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Failed to get the local addresses", e);
+            }
+            localHosts = hosts;
+        }
+        return hosts.contains(host.toLowerCase(Locale.ROOT));
+    }
+}
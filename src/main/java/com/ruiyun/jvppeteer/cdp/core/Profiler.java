@@ -0,0 +1,70 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ruiyun.jvppeteer.api.core.CDPSession;
+import com.ruiyun.jvppeteer.cdp.entities.CpuProfile;
+import com.ruiyun.jvppeteer.common.ParamsFactory;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.util.Map;
+
+/**
+ * CPU 采样分析器，基于 Profiler.start 和 Profiler.stop
+ * <p>
+ * 停止后返回紧凑的 {@link CpuProfile}，可以计算每个函数的自身耗时和总耗时，也可以合并多个页面的 profile。
+ */
+public class Profiler {
+
+    /**
+     * 默认采样间隔，单位微秒，与 V8 的默认值一致
+     */
+    public static final int DEFAULT_SAMPLING_INTERVAL = 1000;
+
+    private volatile CDPSession client;
+
+    private volatile boolean recording;
+
+    public Profiler(CDPSession client) {
+        this.client = client;
+    }
+
+    public void start() {
+        this.start(DEFAULT_SAMPLING_INTERVAL);
+    }
+
+    /**
+     * 开始 CPU 采样
+     *
+     * @param samplingInterval 采样间隔，单位微秒
+     */
+    public void start(int samplingInterval) {
+        ValidateUtil.assertArg(!this.recording, "Profiler is already started");
+        ValidateUtil.assertArg(samplingInterval > 0, "Sampling interval must be positive");
+        this.client.send("Profiler.enable");
+        Map<String, Object> params = ParamsFactory.create();
+        params.put("interval", samplingInterval);
+        this.client.send("Profiler.setSamplingInterval", params);
+        this.client.send("Profiler.start");
+        this.recording = true;
+    }
+
+    /**
+     * 停止 CPU 采样
+     *
+     * @return 采样结果
+     */
+    public CpuProfile stop() {
+        ValidateUtil.assertArg(this.recording, "Profiler is not started");
+        this.recording = false;
+        JsonNode response = this.client.send("Profiler.stop");
+        this.client.send("Profiler.disable", null, null, false);
+        return CpuProfile.from(response.get("profile"));
+    }
+
+    public boolean isRecording() {
+        return this.recording;
+    }
+
+    void updateClient(CDPSession newSession) {
+        this.client = newSession;
+    }
+}
@@ -18,6 +18,12 @@ import com.ruiyun.jvppeteer.util.StringUtil;
 import com.ruiyun.jvppeteer.util.ValidateUtil;
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.java_websocket.util.NamedThreadFactory;
 
 
 import static com.ruiyun.jvppeteer.common.Constant.PRODUCT_ENV;
@@ -31,6 +37,11 @@ import static com.ruiyun.jvppeteer.common.Constant.PRODUCT_ENV;
  */
 public class Puppeteer {
 
+    /**
+     * launchAsync 默认使用的线程池，空闲线程 60 秒后回收
+     */
+    private static final ExecutorService LAUNCH_EXECUTOR = Executors.newCachedThreadPool(new NamedThreadFactory("jvppeteer-launch", true));
+
     private Product product = Product.Chrome;
     private BrowserLauncher launcher;
     private Environment env = null;
@@ -65,6 +76,39 @@ public class Puppeteer {
         return Puppeteer.rawLaunch(options, puppeteer);
     }
 
+    /**
+     * 在后台线程中启动浏览器，可以同时启动多个浏览器
+     * <p>
+     * 等待连接端点的时间受 {@link LaunchOptions#getTimeout()} 限制，启动各阶段的耗时见 {@link Browser#launchTimings()}。
+     * 启动使用调用时参数的副本，同一个 LaunchOptions 可以用于多次启动
+     *
+     * @param options 启动参数
+     * @return 启动完成的浏览器，启动失败时以异常结束
+     */
+    public static CompletableFuture<Browser> launchAsync(LaunchOptions options) {
+        return launchAsync(options, LAUNCH_EXECUTOR);
+    }
+
+    /**
+     * 使用指定的线程池启动浏览器
+     *
+     * @param options  启动参数，使用调用时的副本
+     * @param executor 执行启动的线程池
+     * @return 启动完成的浏览器，启动失败时以异常结束
+     */
+    public static CompletableFuture<Browser> launchAsync(LaunchOptions options, Executor executor) {
+        Objects.requireNonNull(options, "options");
+        Objects.requireNonNull(executor, "executor");
+        LaunchOptions launchOptions = options.copy();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return launch(launchOptions);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
     /**
      * The method launches a browser instance with given arguments. The browser will
      * be closed when the parent java process is closed.
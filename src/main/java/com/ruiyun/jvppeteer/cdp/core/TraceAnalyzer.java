@@ -0,0 +1,521 @@
+package com.ruiyun.jvppeteer.cdp.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.ruiyun.jvppeteer.cdp.entities.LongTask;
+import com.ruiyun.jvppeteer.cdp.entities.NavigationTraceSummary;
+import com.ruiyun.jvppeteer.cdp.entities.TraceCategory;
+import com.ruiyun.jvppeteer.cdp.entities.TraceSummary;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+import static com.ruiyun.jvppeteer.common.Constant.DEFAULT_BUFFER_SIZE;
+import static com.ruiyun.jvppeteer.common.Constant.OBJECTMAPPER;
+
+/**
+ * 流式分析 Chrome trace 文件（{@link Tracing} 生成的文件或者协议流）。
+ * <p>
+ * 使用 Jackson 的流式解析器逐个读取 trace 事件，每个事件只解析需要的字段，不会把整个 trace 读进内存，
+ * 内存占用只与线程数、导航数和长任务数有关，与 trace 文件大小无关。
+ * <p>
+ * 分析结果包括渲染进程主线程按分类（scripting、layout、paint、GC 等）统计的自身耗时、长任务，
+ * 以及从 loading / devtools.timeline 分类中提取的 FCP、LCP、CLS 指标。
+ * <p>
+ * 同一线程内的事件需要按开始时间顺序出现，Chrome 输出的 trace 满足这一点。
+ */
+public class TraceAnalyzer {
+
+    /**
+     * 长任务的阈值，单位毫秒
+     */
+    public static final double LONG_TASK_THRESHOLD = 50;
+
+    private static final String MAIN_THREAD_NAME = "CrRendererMain";
+
+    private static final Map<String, TraceCategory> CATEGORIES_BY_NAME = new HashMap<>();
+
+    static {
+        for (String name : Arrays.asList("EvaluateScript", "v8.compile", "v8.compileModule", "v8.evaluateModule", "v8.run", "v8.produceCache", "v8.produceModuleCache", "FunctionCall", "TimerFire", "TimerInstall", "TimerRemove", "EventDispatch", "FireAnimationFrame", "RequestAnimationFrame", "CancelAnimationFrame", "FireIdleCallback", "RequestIdleCallback", "XHRReadyStateChange", "XHRLoad", "RunMicrotasks", "V8.Execute", "V8.ScriptCompiler", "CacheScript", "WebAssembly.compile", "MarkDOMContent", "MarkLoad")) {
+            CATEGORIES_BY_NAME.put(name, TraceCategory.Scripting);
+        }
+        for (String name : Arrays.asList("Layout", "UpdateLayoutTree", "RecalculateStyles", "ScheduleStyleRecalculation", "InvalidateLayout", "UpdateLayerTree", "UpdateLayer", "HitTest", "PrePaint", "ScrollLayer", "Layerize")) {
+            CATEGORIES_BY_NAME.put(name, TraceCategory.Layout);
+        }
+        for (String name : Arrays.asList("Paint", "PaintImage", "PaintSetup", "CompositeLayers", "RasterTask", "Rasterize", "Decode Image", "Decode LazyPixelRef", "ImageDecodeTask", "Resize Image", "Commit", "UpdateLayerTree.Paint", "GPUTask")) {
+            CATEGORIES_BY_NAME.put(name, TraceCategory.Paint);
+        }
+        for (String name : Arrays.asList("MinorGC", "MajorGC", "GCEvent", "BlinkGC.AtomicPhase", "ThreadState::performIdleLazySweep", "ThreadState::completeSweep", "BlinkGCMarking", "CppGC.AtomicPhase")) {
+            CATEGORIES_BY_NAME.put(name, TraceCategory.GC);
+        }
+        for (String name : Arrays.asList("ParseHTML", "ParseAuthorStyleSheet", "ResourceSendRequest", "ResourceReceiveResponse", "ResourceReceivedData", "ResourceFinish", "ResourceWillSendRequest", "ResourceChangePriority")) {
+            CATEGORIES_BY_NAME.put(name, TraceCategory.Loading);
+        }
+    }
+
+    /**
+     * 分析 trace 文件
+     *
+     * @param path trace 文件路径
+     * @return 分析结果
+     * @throws IOException 读取文件失败
+     */
+    public static TraceSummary analyze(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), DEFAULT_BUFFER_SIZE)) {
+            return analyze(in);
+        }
+    }
+
+    /**
+     * 分析 trace 流，流由调用方负责关闭
+     * <p>
+     * 同时支持 {"traceEvents":[...]} 和 [...] 两种 trace 格式
+     *
+     * @param in trace 流，例如 {@link com.ruiyun.jvppeteer.util.ProtocolInputStream}
+     * @return 分析结果
+     * @throws IOException 读取或者解析失败
+     */
+    public static TraceSummary analyze(InputStream in) throws IOException {
+        State state = new State();
+        try (JsonParser parser = OBJECTMAPPER.getFactory().createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readEvents(parser, state);
+            } else if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("traceEvents".equals(field) && value == JsonToken.START_ARRAY) {
+                        readEvents(parser, state);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return state.finish();
+    }
+
+    private static void readEvents(JsonParser parser, State state) throws IOException {
+        TraceEvent event = new TraceEvent();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            event.reset();
+            readEvent(parser, event);
+            state.accept(event);
+        }
+    }
+
+    private static void readEvent(JsonParser parser, TraceEvent event) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name":
+                    event.name = parser.getValueAsString();
+                    break;
+                case "cat":
+                    event.cat = parser.getValueAsString();
+                    break;
+                case "ph":
+                    String ph = parser.getValueAsString();
+                    event.ph = StringUtil.isEmpty(ph) ? 0 : ph.charAt(0);
+                    break;
+                case "pid":
+                    event.pid = parser.getValueAsLong();
+                    break;
+                case "tid":
+                    event.tid = parser.getValueAsLong();
+                    break;
+                case "ts":
+                    event.ts = parser.getValueAsDouble();
+                    break;
+                case "dur":
+                    event.dur = parser.getValueAsDouble();
+                    break;
+                case "args":
+                    if (value == JsonToken.START_OBJECT) {
+                        readArgs(parser, event);
+                    }
+                    break;
+                default:
+            }
+            // 跳过不关心的对象和数组，已经读取完的对象不受影响
+            parser.skipChildren();
+        }
+    }
+
+    private static void readArgs(JsonParser parser, TraceEvent event) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("name".equals(field)) {
+                event.argName = parser.getValueAsString();
+            } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                readData(parser, event);
+            }
+            parser.skipChildren();
+        }
+    }
+
+    private static void readData(JsonParser parser, TraceEvent event) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "navigationId":
+                    event.navigationId = parser.getValueAsString();
+                    break;
+                case "documentLoaderURL":
+                    event.url = parser.getValueAsString();
+                    break;
+                case "isLoadingMainFrame":
+                    event.isLoadingMainFrame = parser.getValueAsBoolean();
+                    break;
+                case "score":
+                    event.score = parser.getValueAsDouble();
+                    break;
+                case "weighted_score_delta":
+                    event.weightedScoreDelta = parser.getValueAsDouble();
+                    break;
+                case "had_recent_input":
+                    event.hadRecentInput = parser.getValueAsBoolean();
+                    break;
+                default:
+            }
+            parser.skipChildren();
+        }
+    }
+
+    static TraceCategory categoryOf(String name, String cat) {
+        TraceCategory category = CATEGORIES_BY_NAME.get(name);
+        if (category != null) {
+            return category;
+        }
+        if (name.startsWith("V8.GC") || name.startsWith("BlinkGC") || name.startsWith("CppGC")) {
+            return TraceCategory.GC;
+        }
+        if (name.startsWith("V8.") || name.startsWith("v8.") || (cat != null && cat.contains("v8.execute"))) {
+            return TraceCategory.Scripting;
+        }
+        return TraceCategory.Other;
+    }
+
+    /**
+     * 当前读取的事件，所有事件共用一个对象，避免为每个事件分配内存
+     */
+    private static final class TraceEvent {
+        String name;
+        String cat;
+        char ph;
+        long pid;
+        long tid;
+        double ts;
+        double dur;
+        String argName;
+        String navigationId;
+        String url;
+        boolean isLoadingMainFrame;
+        double score;
+        double weightedScoreDelta;
+        boolean hadRecentInput;
+
+        void reset() {
+            this.name = null;
+            this.cat = null;
+            this.ph = 0;
+            this.pid = 0;
+            this.tid = 0;
+            this.ts = 0;
+            this.dur = 0;
+            this.argName = null;
+            this.navigationId = null;
+            this.url = null;
+            this.isLoadingMainFrame = false;
+            this.score = 0;
+            this.weightedScoreDelta = Double.NaN;
+            this.hadRecentInput = false;
+        }
+    }
+
+    /**
+     * 单次导航的统计数据
+     */
+    private static final class NavigationState {
+        final String navigationId;
+        String url;
+        double startTs = Double.NaN;
+        double fcpTs = Double.NaN;
+        double lcpTs = Double.NaN;
+        double lcpInvalidatedTs = Double.NaN;
+        double cls;
+        double windowStartTs = Double.NaN;
+        double windowLastTs;
+        double windowScore;
+        final double[] selfTime = new double[TraceCategory.values().length];
+        final List<LongTask> longTasks = new ArrayList<>();
+        double totalBlockingTime;
+
+        NavigationState(String navigationId) {
+            this.navigationId = navigationId;
+        }
+
+        /**
+         * 按 Web Vitals 的会话窗口算法累计 CLS：间隔 1 秒或者窗口超过 5 秒时开启新窗口，取最大窗口
+         */
+        void addLayoutShift(double ts, double score) {
+            if (Double.isNaN(this.windowStartTs) || ts - this.windowLastTs > 1_000_000 || ts - this.windowStartTs > 5_000_000) {
+                this.windowStartTs = ts;
+                this.windowScore = 0;
+            }
+            this.windowLastTs = ts;
+            this.windowScore += score;
+            this.cls = Math.max(this.cls, this.windowScore);
+        }
+    }
+
+    /**
+     * 单个线程的统计数据，slice 栈使用原始类型数组保存
+     */
+    private static final class ThreadState {
+        String name;
+        boolean hasNavigation;
+        final double[] selfTime = new double[TraceCategory.values().length];
+        final List<LongTask> longTasks = new ArrayList<>();
+        double totalBlockingTime;
+        NavigationState navigation;
+        double[] starts = new double[16];
+        double[] ends = new double[16];
+        double[] childTime = new double[16];
+        int[] categories = new int[16];
+        int depth;
+
+        void push(double start, double end, TraceCategory category) {
+            if (this.depth > 0 && !Double.isInfinite(end) && this.ends[this.depth - 1] >= end) {
+                this.childTime[this.depth - 1] += end - start;
+            }
+            if (this.depth == this.starts.length) {
+                int length = this.depth * 2;
+                this.starts = Arrays.copyOf(this.starts, length);
+                this.ends = Arrays.copyOf(this.ends, length);
+                this.childTime = Arrays.copyOf(this.childTime, length);
+                this.categories = Arrays.copyOf(this.categories, length);
+            }
+            this.starts[this.depth] = start;
+            this.ends[this.depth] = end;
+            this.childTime[this.depth] = 0;
+            this.categories[this.depth] = category.ordinal();
+            this.depth++;
+        }
+
+        /**
+         * 弹出所有在 ts 之前已经结束的 slice
+         */
+        void popUntil(double ts) {
+            while (this.depth > 0 && this.ends[this.depth - 1] <= ts) {
+                this.pop();
+            }
+        }
+
+        /**
+         * 结束栈顶的 B 事件
+         */
+        void end(double ts) {
+            this.popUntil(ts);
+            if (this.depth > 0) {
+                double start = this.starts[this.depth - 1];
+                this.ends[this.depth - 1] = ts;
+                if (this.depth > 1) {
+                    this.childTime[this.depth - 2] += ts - start;
+                }
+                this.pop();
+            }
+        }
+
+        void pop() {
+            this.depth--;
+            double duration = this.ends[this.depth] - this.starts[this.depth];
+            double self = Math.max(0, duration - this.childTime[this.depth]) / 1000;
+            int category = this.categories[this.depth];
+            this.selfTime[category] += self;
+            if (this.navigation != null) {
+                this.navigation.selfTime[category] += self;
+            }
+            if (this.depth == 0) {
+                double durationMs = duration / 1000;
+                if (durationMs > LONG_TASK_THRESHOLD) {
+                    LongTask longTask = new LongTask(this.starts[0] / 1000, durationMs);
+                    this.longTasks.add(longTask);
+                    this.totalBlockingTime += durationMs - LONG_TASK_THRESHOLD;
+                    if (this.navigation != null) {
+                        this.navigation.longTasks.add(longTask);
+                        this.navigation.totalBlockingTime += durationMs - LONG_TASK_THRESHOLD;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class State {
+        long eventCount;
+        final Map<Long, ThreadState> threads = new HashMap<>();
+        final Map<String, NavigationState> navigations = new LinkedHashMap<>();
+
+        void accept(TraceEvent event) {
+            this.eventCount++;
+            if (event.name == null) {
+                return;
+            }
+            ThreadState thread = this.threads.computeIfAbsent((event.pid << 32) | (event.tid & 0xffffffffL), key -> new ThreadState());
+            switch (event.ph) {
+                case 'M':
+                    if ("thread_name".equals(event.name)) {
+                        thread.name = event.argName;
+                    }
+                    return;
+                case 'X':
+                    thread.popUntil(event.ts);
+                    thread.push(event.ts, event.ts + event.dur, categoryOf(event.name, event.cat));
+                    break;
+                case 'B':
+                    thread.popUntil(event.ts);
+                    thread.push(event.ts, Double.POSITIVE_INFINITY, categoryOf(event.name, event.cat));
+                    break;
+                case 'E':
+                    thread.end(event.ts);
+                    break;
+                default:
+            }
+            this.acceptMarker(event, thread);
+        }
+
+        private void acceptMarker(TraceEvent event, ThreadState thread) {
+            switch (event.name) {
+                case "navigationStart": {
+                    if (StringUtil.isEmpty(event.navigationId) || !event.isLoadingMainFrame || StringUtil.isEmpty(event.url)) {
+                        return;
+                    }
+                    NavigationState navigation = this.navigation(event.navigationId);
+                    navigation.startTs = event.ts;
+                    navigation.url = event.url;
+                    thread.navigation = navigation;
+                    thread.hasNavigation = true;
+                    break;
+                }
+                case "firstContentfulPaint": {
+                    NavigationState navigation = this.markerNavigation(event, thread);
+                    if (navigation != null && Double.isNaN(navigation.fcpTs)) {
+                        navigation.fcpTs = event.ts;
+                    }
+                    break;
+                }
+                case "largestContentfulPaint::Candidate": {
+                    NavigationState navigation = this.markerNavigation(event, thread);
+                    if (navigation != null && (Double.isNaN(navigation.lcpTs) || event.ts >= navigation.lcpTs)) {
+                        navigation.lcpTs = event.ts;
+                    }
+                    break;
+                }
+                case "largestContentfulPaint::Invalidate": {
+                    NavigationState navigation = this.markerNavigation(event, thread);
+                    if (navigation != null) {
+                        navigation.lcpInvalidatedTs = event.ts;
+                    }
+                    break;
+                }
+                case "LayoutShift": {
+                    NavigationState navigation = this.markerNavigation(event, thread);
+                    if (navigation != null && !event.hadRecentInput) {
+                        navigation.addLayoutShift(event.ts, Double.isNaN(event.weightedScoreDelta) ? event.score : event.weightedScoreDelta);
+                    }
+                    break;
+                }
+                default:
+            }
+        }
+
+        private NavigationState navigation(String navigationId) {
+            return this.navigations.computeIfAbsent(navigationId, NavigationState::new);
+        }
+
+        private NavigationState markerNavigation(TraceEvent event, ThreadState thread) {
+            if (StringUtil.isNotEmpty(event.navigationId)) {
+                return this.navigation(event.navigationId);
+            }
+            return thread.navigation;
+        }
+
+        TraceSummary finish() {
+            TraceSummary summary = new TraceSummary();
+            summary.setEventCount(this.eventCount);
+            boolean hasThreadNames = this.threads.values().stream().anyMatch(thread -> MAIN_THREAD_NAME.equals(thread.name));
+            double[] selfTime = new double[TraceCategory.values().length];
+            for (ThreadState thread : this.threads.values()) {
+                // 没有 thread_name 元数据时（例如 trace 被截断），退而使用出现过导航的线程
+                if (hasThreadNames ? !MAIN_THREAD_NAME.equals(thread.name) : !thread.hasNavigation) {
+                    continue;
+                }
+                while (thread.depth > 0) {
+                    if (Double.isInfinite(thread.ends[thread.depth - 1])) {
+                        thread.ends[thread.depth - 1] = thread.starts[thread.depth - 1];
+                    }
+                    thread.pop();
+                }
+                for (int i = 0; i < selfTime.length; i++) {
+                    selfTime[i] += thread.selfTime[i];
+                }
+                summary.getLongTasks().addAll(thread.longTasks);
+                summary.setTotalBlockingTime(summary.getTotalBlockingTime() + thread.totalBlockingTime);
+            }
+            summary.setMainThreadTime(toMap(selfTime));
+            summary.getLongTasks().sort(Comparator.comparingDouble(LongTask::getStartTime));
+            for (NavigationState navigation : this.navigations.values()) {
+                if (Double.isNaN(navigation.startTs)) {
+                    continue;
+                }
+                NavigationTraceSummary navigationSummary = new NavigationTraceSummary();
+                navigationSummary.setNavigationId(navigation.navigationId);
+                navigationSummary.setUrl(navigation.url);
+                navigationSummary.setStartTime(navigation.startTs / 1000);
+                if (!Double.isNaN(navigation.fcpTs)) {
+                    navigationSummary.setFirstContentfulPaint((navigation.fcpTs - navigation.startTs) / 1000);
+                }
+                if (!Double.isNaN(navigation.lcpTs) && !(navigation.lcpInvalidatedTs > navigation.lcpTs)) {
+                    navigationSummary.setLargestContentfulPaint((navigation.lcpTs - navigation.startTs) / 1000);
+                }
+                navigationSummary.setCumulativeLayoutShift(navigation.cls);
+                navigationSummary.setMainThreadTime(toMap(navigation.selfTime));
+                navigationSummary.setLongTasks(navigation.longTasks);
+                navigationSummary.setTotalBlockingTime(navigation.totalBlockingTime);
+                summary.getNavigations().add(navigationSummary);
+            }
+            summary.getNavigations().sort(Comparator.comparingDouble(NavigationTraceSummary::getStartTime));
+            return summary;
+        }
+
+        private static Map<TraceCategory, Double> toMap(double[] selfTime) {
+            Map<TraceCategory, Double> map = new EnumMap<>(TraceCategory.class);
+            for (TraceCategory category : TraceCategory.values()) {
+                map.put(category, selfTime[category.ordinal()]);
+            }
+            return map;
+        }
+    }
+}
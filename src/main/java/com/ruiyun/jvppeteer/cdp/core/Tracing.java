@@ -5,16 +5,27 @@ import com.ruiyun.jvppeteer.api.events.ConnectionEvents;
 import com.ruiyun.jvppeteer.common.AwaitableResult;
 import com.ruiyun.jvppeteer.common.Constant;
 import com.ruiyun.jvppeteer.common.ParamsFactory;
+import com.ruiyun.jvppeteer.cdp.entities.TraceSummary;
 import com.ruiyun.jvppeteer.cdp.events.TracingCompleteEvent;
 import com.ruiyun.jvppeteer.transport.CdpCDPSession;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.util.FileUtil;
 import com.ruiyun.jvppeteer.util.Helper;
+import com.ruiyun.jvppeteer.util.ProtocolInputStream;
 import com.ruiyun.jvppeteer.util.StringUtil;
 import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -96,6 +107,82 @@ public class Tracing implements Constant {
         waitableResult.waiting();
     }
 
+    /**
+     * 停止追踪，并在读取协议流的同时分析追踪数据，不会把整个 trace 读进内存。
+     * <p>
+     * 如果 start 时指定了路径，trace 会同时写入该文件。
+     * <p>
+     * FCP、LCP、CLS 依赖 loading 和 devtools.timeline 分类，使用自定义分类时需要包含它们。
+     *
+     * @return 分析结果
+     * @see TraceAnalyzer
+     */
+    public TraceSummary stopAndAnalyze() {
+        AwaitableResult<TraceSummary> waitableResult = AwaitableResult.create();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        String path = this.path;
+        this.client.once(ConnectionEvents.Tracing_tracingComplete, (Consumer<TracingCompleteEvent>) event -> {
+            try {
+                ValidateUtil.assertArg(StringUtil.isNotEmpty(event.getStream()), "Missing \"stream\"");
+                try (InputStream in = Tracing.this.openStream(event.getStream(), path)) {
+                    waitableResult.onSuccess(TraceAnalyzer.analyze(in));
+                }
+            } catch (Exception e) {
+                LOGGER.error("Error analyzing trace", e);
+                error.set(e);
+                waitableResult.complete();
+            }
+        });
+        this.client.send("Tracing.end");
+        this.recording = false;
+        waitableResult.waiting();
+        if (error.get() != null) {
+            throw new JvppeteerException("Error analyzing trace", error.get());
+        }
+        return waitableResult.get();
+    }
+
+    private InputStream openStream(String handle, String path) throws IOException {
+        InputStream in = new ProtocolInputStream(this.client, handle);
+        if (StringUtil.isEmpty(path)) {
+            return in;
+        }
+        FileUtil.createNewFile(path);
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), DEFAULT_BUFFER_SIZE);
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    out.write(b);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    out.write(b, off, read);
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    // 分析结束后把剩余的数据也写入文件
+                    byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+                    while (this.read(buffer, 0, buffer.length) != -1) {
+                    }
+                    out.close();
+                } finally {
+                    super.close();
+                }
+            }
+        };
+    }
+
     void updateClient(CDPSession newSession) {
         this.client = newSession;
     }
@@ -1,46 +1,89 @@
 package com.ruiyun.jvppeteer.cdp.core;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.ruiyun.jvppeteer.api.core.ElementHandle;
 import com.ruiyun.jvppeteer.api.core.JSHandle;
 import com.ruiyun.jvppeteer.api.core.Realm;
 import com.ruiyun.jvppeteer.cdp.entities.EvaluateType;
 import com.ruiyun.jvppeteer.cdp.entities.WaitTaskOptions;
-import com.ruiyun.jvppeteer.common.AwaitableResult;
 import com.ruiyun.jvppeteer.common.LazyArg;
 import com.ruiyun.jvppeteer.exception.EvaluateException;
 import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.exception.ProtocolException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
 import com.ruiyun.jvppeteer.util.StringUtil;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.java_websocket.util.NamedThreadFactory;
 
 
 import static com.ruiyun.jvppeteer.util.Helper.throwError;
 
+/**
+ * 等待页面中的函数返回真值
+ * <p>
+ * 调用 {@link #result()} 的线程按截止时间等待：阻塞的协议调用（创建轮询器、等待 poller.result() 等）交给共用的线程池执行，
+ * 调用线程只在截止时间内等待调用结果，页面卡住时也能按时超时，不会一直等到协议超时。
+ * 超时或者被终止后，停止页面中的轮询、释放轮询器同样在线程池中进行，不占用调用线程。
+ * 执行上下文被销毁（例如页面跳转）时，等待新的上下文创建后重新开始轮询。
+ * <p>
+ * 推送模式下不再用一个挂起的 poller.result() 调用等待，条件满足时页面通过执行上下文的等待通知绑定告知，
+ * 同一个上下文中的所有等待共用一个绑定，等待期间不占用线程池中的线程。
+ * <p>
+ * 推送模式是默认的等待方式，线程池中只有短暂的协议调用，因此线程数有上限。
+ * 不支持推送（例如 WebDriver BiDi）或者关闭了推送的等待，挂起的 poller.result() 调用会占用一个线程直到条件满足，
+ * 同时进行的这类等待超过线程数时排队执行，调用线程仍按截止时间超时，已经超时的调用出队后直接跳过。
+ */
 public class WaitTask {
+    /**
+     * 线程池的线程数上限
+     */
+    private static final int PROTOCOL_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    /**
+     * 执行阻塞协议调用的线程池，线程只在调用期间占用，空闲后回收
+     */
+    private static final ExecutorService PROTOCOL_EXECUTOR = protocolExecutor();
+
     private final Realm world;
     private final String polling;
     private final List<Object> args = new ArrayList<>();
     private final String fn;
     private final ElementHandle root;
     private final int timeout;
-    private volatile JSHandle poller;
-    private final AwaitableResult<JSHandle> result = AwaitableResult.create();
-    private final List<ExecutorService> rerun = Collections.synchronizedList(new ArrayList<>());
+    private final boolean push;
+    private final AtomicReference<JSHandle> poller = new AtomicReference<>();
     private volatile Throwable badError;
+    /**
+     * 结束后创建出来的轮询器直接释放
+     */
+    private volatile boolean finished;
+    /**
+     * 调用线程正在等待的协议调用，终止时立即结束等待
+     */
+    private volatile CompletableFuture<?> pending;
+    private final Object rerunLock = new Object();
+    /**
+     * 执行上下文重新创建的次数
+     */
+    private int generation;
 
     public WaitTask(Realm world, WaitTaskOptions options, String pptrFunction, EvaluateType type, Object... args) {
         this.world = world;
         this.polling = options.getPolling();
         this.root = options.getRoot();
         this.timeout = options.getTimeout();
+        this.push = options.getPush();
         if (EvaluateType.STRING.equals(type)) {
             this.fn = "() => {return (" + pptrFunction + ");}";
         } else {
@@ -48,118 +91,363 @@ public class WaitTask {
         }
         Optional.ofNullable(args).ifPresent(args1 -> this.args.addAll(Arrays.asList(args1)));
         this.world.taskManager.add(this);
-        this.rerun();
     }
 
+    /**
+     * 执行上下文重新创建后调用，唤醒等待新上下文的 {@link #result()}
+     */
     public void rerun() {
-        for (ExecutorService executorService : this.rerun) {
-            executorService.shutdownNow();
+        synchronized (this.rerunLock) {
+            this.generation++;
+            this.rerunLock.notifyAll();
         }
-        this.rerun.clear();
-        ExecutorService rerunTaskService = Executors.newSingleThreadExecutor(new NamedThreadFactory("jvppeteer-waitTask-service"));
-        rerunTaskService.execute(() -> {
-            try {
-                switch (this.polling) {
-                    case "raf":
-                        List<Object> args = new ArrayList<>();
-                        args.add(new LazyArg());
-                        args.add(this.fn);
-                        args.addAll(this.args);
-                        this.poller = this.world.evaluateHandle("({RAFPoller, createFunction}, fn, ...args) => {\n" +
-                                "  const fun = createFunction(fn);\n" +
-                                "  return new RAFPoller(() => {\n" +
-                                "    return fun(...args);\n" +
-                                "  });\n" +
-                                "}", args);
-                        break;
-                    case "mutation":
-                        List<Object> args1 = new ArrayList<>();
-                        args1.add(new LazyArg());
-                        args1.add(this.root);
-                        args1.add(this.fn);
-                        args1.addAll(this.args);
-                        this.poller = this.world.evaluateHandle("({MutationPoller, createFunction}, root, fn, ...args) => {\n" +
-                                "  const fun = createFunction(fn);\n" +
-                                "  return new MutationPoller(() => {\n" +
-                                "    return fun(...args);\n" +
-                                "  }, root || document);\n" +
-                                "}", args1);
-                        break;
-                    default:
-                        List<Object> args2 = new ArrayList<>();
-                        args2.add(new LazyArg());
-                        args2.add(this.polling);
-                        args2.add(this.fn);
-                        args2.addAll(this.args);
-                        this.poller = this.world.evaluateHandle("({IntervalPoller, createFunction}, ms, fn, ...args) => {\n" +
-                                "  const fun = createFunction(fn);\n" +
-                                "  return new IntervalPoller(() => {\n" +
-                                "    return fun(...args);\n" +
-                                "  }, ms);\n" +
-                                "}", args2);
+    }
 
+    private JSHandle poll(int generation, long deadline) throws JsonProcessingException {
+        if (this.push && this.world.toIsolatedWorld() != null) {
+            boolean[] notified = {false};
+            PushRegistration registration = this.call(() -> {
+                ExecutionContext context = this.world.toIsolatedWorld().awaitExecutionContext();
+                int id = context.addWaiter(() -> {
+                    synchronized (this.rerunLock) {
+                        notified[0] = true;
+                        this.rerunLock.notifyAll();
+                    }
+                });
+                if (id < 0) {
+                    return new PushRegistration(null, id);
                 }
-                this.poller.evaluate("poller => {\n" +
-                        "  void poller.start();\n" +
-                        "}");
-
-                JSHandle result = this.poller.evaluateHandle("poller => {\n" +
-                        "        return poller.result();\n" +
-                        "      }");
-                this.result.onSuccess(result);
-                this.terminate();
-            } catch (Exception error) {
-                Throwable badError = this.getBadError(error);
-                if (Objects.nonNull(badError)) {
-                    this.setBadError(badError);
+                try {
+                    JSHandle poller = this.createPoller(context);
+                    poller.evaluate("(poller, notify, id) => {\n" +
+                            "  void poller.start();\n" +
+                            "  poller.result().then(() => {\n" +
+                            "    globalThis[notify](String(id));\n" +
+                            "  }, () => {});\n" +
+                            "}", Arrays.asList(ExecutionContext.WAIT_TASK_BINDING, id));
+                    this.track(poller);
+                } catch (Exception e) {
+                    context.removeWaiter(id);
+                    throw e;
+                }
+                if (this.finished) {
+                    // 调用线程已经超时返回，不会再移除这个等待
+                    context.removeWaiter(id);
                 }
+                return new PushRegistration(context, id);
+            }, deadline);
+            if (registration == null) {
+                return null;
             }
-        });
-        this.rerun.add(rerunTaskService);
+            if (registration.context != null) {
+                try {
+                    return this.pushPoll(notified, generation, deadline);
+                } finally {
+                    registration.context.removeWaiter(registration.id);
+                }
+            }
+        }
+        JSHandle poller = this.call(() -> {
+            JSHandle created = this.createPoller(null);
+            created.evaluate("poller => {\n" +
+                    "  void poller.start();\n" +
+                    "}");
+            this.track(created);
+            return created;
+        }, deadline);
+        if (poller == null) {
+            return null;
+        }
+        return this.call(() -> poller.evaluateHandle("poller => {\n" +
+                "        return poller.result();\n" +
+                "      }"), deadline);
     }
 
-    public void terminate() {
-        this.world.taskManager.delete(this);
-        if (Objects.nonNull(this.poller)) {
-            try {
-                this.poller.evaluate("async poller => {\n" +
-                        "          await poller.stop();\n" +
-                        "        }");
-                if (Objects.nonNull(this.poller)) {
-                    this.poller.dispose();
-                    this.poller = null;
+    /**
+     * 推送模式：轮询已经开始，等待页面通过绑定通知条件满足，期间不占用协议请求和线程
+     */
+    private JSHandle pushPoll(boolean[] notified, int generation, long deadline) throws JsonProcessingException {
+        synchronized (this.rerunLock) {
+            while (!notified[0] && this.badError == null && this.generation == generation) {
+                if (!this.waitUntil(deadline)) {
+                    break;
                 }
-            } catch (Exception ignored) {
-                // Ignore errors since they most likely come from low-level cleanup.
             }
+            if (!notified[0]) {
+                if (this.badError != null) {
+                    return null;
+                }
+                // 执行上下文已经重新创建，原来的轮询随旧的上下文失效
+                throw new JvppeteerException("Execution context was destroyed");
+            }
+        }
+        JSHandle poller = this.poller.get();
+        if (poller == null) {
+            return null;
+        }
+        // 结果已经就绪，这次调用立即返回
+        return this.call(() -> poller.evaluateHandle("poller => {\n" +
+                "        return poller.result();\n" +
+                "      }"), deadline);
+    }
+
+    /**
+     * 在页面中创建轮询器
+     *
+     * @param context 指定的执行上下文，为 null 时在当前 realm 中创建
+     */
+    private JSHandle createPoller(ExecutionContext context) throws JsonProcessingException {
+        String pptrFunction;
+        List<Object> args = new ArrayList<>();
+        args.add(new LazyArg());
+        switch (this.polling) {
+            case "raf":
+                args.add(this.fn);
+                pptrFunction = "({RAFPoller, createFunction}, fn, ...args) => {\n" +
+                        "  const fun = createFunction(fn);\n" +
+                        "  return new RAFPoller(() => {\n" +
+                        "    return fun(...args);\n" +
+                        "  });\n" +
+                        "}";
+                break;
+            case "mutation":
+                args.add(this.root);
+                args.add(this.fn);
+                pptrFunction = "({MutationPoller, createFunction}, root, fn, ...args) => {\n" +
+                        "  const fun = createFunction(fn);\n" +
+                        "  return new MutationPoller(() => {\n" +
+                        "    return fun(...args);\n" +
+                        "  }, root || document);\n" +
+                        "}";
+                break;
+            default:
+                args.add(this.polling);
+                args.add(this.fn);
+                pptrFunction = "({IntervalPoller, createFunction}, ms, fn, ...args) => {\n" +
+                        "  const fun = createFunction(fn);\n" +
+                        "  return new IntervalPoller(() => {\n" +
+                        "    return fun(...args);\n" +
+                        "  }, ms);\n" +
+                        "}";
+        }
+        args.addAll(this.args);
+        if (context != null) {
+            return context.evaluateHandle(pptrFunction, args);
+        }
+        return this.world.evaluateHandle(pptrFunction, args);
+    }
+
+    /**
+     * 记录新建的轮询器，任务已经结束时直接释放
+     */
+    private void track(JSHandle created) {
+        JSHandle previous = this.poller.getAndSet(created);
+        if (previous != null && previous != created) {
+            release(previous);
         }
+        if (this.finished) {
+            JSHandle current = this.poller.getAndSet(null);
+            if (current != null) {
+                release(current);
+            }
+        }
+    }
+
+    /**
+     * 在线程池中执行阻塞的协议调用，调用线程最多等到截止时间
+     *
+     * @return 调用结果，超时或者任务被终止时返回 null
+     */
+    private <T> T call(ProtocolCall<T> action, long deadline) throws JsonProcessingException {
         if (this.badError != null) {
-            throwError(this.badError);
+            return null;
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        this.pending = future;
+        try {
+            // 与 setBadError 并发时，setBadError 可能在 pending 赋值前执行
+            if (this.badError != null) {
+                return null;
+            }
+            try {
+                PROTOCOL_EXECUTOR.execute(() -> {
+                    // 排队期间调用线程已经不再等待
+                    if (future.isDone()) {
+                        return;
+                    }
+                    try {
+                        T value = action.call();
+                        // 调用线程已经不再等待，迟到的句柄不会再被使用
+                        if (!future.complete(value) && value instanceof JSHandle) {
+                            ((JSHandle) value).dispose();
+                        }
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                future.complete(action.call());
+            }
+            if (deadline == 0) {
+                return future.get();
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                this.setBadError(this.timeoutError());
+                return null;
+            }
+            return future.get(remaining, TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.TimeoutException e) {
+            this.setBadError(this.timeoutError());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.setBadError(e);
+            return null;
+        } catch (ExecutionException e) {
+            if (this.badError != null) {
+                return null;
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof JsonProcessingException) {
+                throw (JsonProcessingException) cause;
+            }
+            throwError(cause);
+            return null;
+        } finally {
+            this.pending = null;
+            future.cancel(false);
         }
     }
 
-    public JSHandle result() {
+    private TimeoutException timeoutError() {
+        return new TimeoutException("Waiting failed: " + this.timeout + "ms exceeded");
+    }
+
+    /**
+     * 在 rerunLock 上等待到截止时间，超时返回 false 并设置超时错误
+     */
+    private boolean waitUntil(long deadline) {
         try {
-            JSHandle result = this.result.waitingGetResult(this.timeout, TimeUnit.MILLISECONDS);
-            if (Objects.nonNull(result)) {
-                return result;
+            if (deadline == 0) {
+                this.rerunLock.wait();
+                return true;
             }
-            if (Objects.nonNull(this.badError)) {
-                this.terminate();
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                this.setBadError(this.timeoutError());
+                return false;
             }
-        } catch (Exception e) {
+            this.rerunLock.wait(remaining);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             this.setBadError(e);
-            for (ExecutorService executorService : this.rerun) {
-                executorService.shutdownNow();
+            return false;
+        }
+    }
+
+    public void terminate() {
+        this.cleanup();
+        if (this.badError != null) {
+            throwError(this.badError);
+        }
+    }
+
+    /**
+     * 结束任务，停止并释放页面中的轮询器。释放在线程池中进行，调用线程不等待
+     */
+    private void cleanup() {
+        this.finished = true;
+        this.world.taskManager.delete(this);
+        JSHandle poller = this.poller.getAndSet(null);
+        if (poller != null) {
+            execute(() -> release(poller));
+        }
+    }
+
+    private static ExecutorService protocolExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(PROTOCOL_THREADS, PROTOCOL_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory("jvppeteer-waitTask-protocol", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static void release(JSHandle poller) {
+        try {
+            poller.evaluate("async poller => {\n" +
+                    "          await poller.stop();\n" +
+                    "        }");
+        } catch (Exception ignored) {
+            // Ignore errors since they most likely come from low-level cleanup.
+        }
+        try {
+            poller.dispose();
+        } catch (Exception ignored) {
+            // 执行上下文已经销毁时句柄也随之失效
+        }
+    }
+
+    private static void execute(Runnable runnable) {
+        try {
+            PROTOCOL_EXECUTOR.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            runnable.run();
+        }
+    }
+
+    public JSHandle result() {
+        long deadline = this.timeout > 0 ? System.currentTimeMillis() + this.timeout : 0;
+        JSHandle result = null;
+        while (this.badError == null) {
+            int generation = this.generation();
+            try {
+                result = this.poll(generation, deadline);
+                break;
+            } catch (Exception error) {
+                if (this.badError != null) {
+                    // 超时或者被终止时停止了轮询，以 badError 为准
+                    break;
+                }
+                Throwable badError = this.getBadError(error);
+                if (Objects.nonNull(badError)) {
+                    this.setBadError(badError);
+                    break;
+                }
+                this.awaitRerun(generation, deadline);
             }
-            this.rerun.clear();
-            this.terminate();
+        }
+        this.cleanup();
+        if (result != null) {
+            return result;
+        }
+        if (this.badError != null) {
+            throwError(this.badError);
         }
         return null;
     }
 
+    private int generation() {
+        synchronized (this.rerunLock) {
+            return this.generation;
+        }
+    }
+
+    /**
+     * 等待执行上下文重新创建，期间超时或者被终止时返回
+     */
+    private void awaitRerun(int generation, long deadline) {
+        synchronized (this.rerunLock) {
+            while (this.generation == generation && this.badError == null) {
+                if (!this.waitUntil(deadline)) {
+                    return;
+                }
+            }
+        }
+    }
+
     private Throwable getBadError(Throwable error) {
-        if (error instanceof EvaluateException) {
+        // 上下文销毁的错误不只来自页面函数，也可能是协议错误或者等待上下文时的 JvppeteerException
+        if (error instanceof EvaluateException || error instanceof ProtocolException || error instanceof JvppeteerException) {
             // When frame is detached the task should have been terminated by the IsolatedWorld.
             // This can fail if we were adding this task while the frame was detached,
             // so we terminate here instead.
@@ -188,18 +476,49 @@ public class WaitTask {
         return error;
     }
 
+    /**
+     * 终止等待：唤醒调用线程，并在线程池中停止页面中的轮询
+     */
     public void setBadError(Throwable badError) {
-        if (this.badError == null) {
-            synchronized (this) {
-                if (this.badError == null) {
-                    //既然已经发生错误，那么需要唤醒等待result的主线程
-                    if(!this.result.isDone()){
-                        this.result.complete();
-                    }
-                    this.badError = badError;
-                }
+        synchronized (this) {
+            if (this.badError != null) {
+                return;
             }
+            this.badError = badError;
         }
+        synchronized (this.rerunLock) {
+            this.rerunLock.notifyAll();
+        }
+        CompletableFuture<?> pending = this.pending;
+        if (pending != null) {
+            pending.completeExceptionally(badError);
+        }
+        JSHandle poller = this.poller.get();
+        if (poller != null) {
+            execute(() -> {
+                try {
+                    poller.evaluate("async poller => {\n" +
+                            "          await poller.stop();\n" +
+                            "        }");
+                } catch (Exception ignored) {
+                    // 执行上下文已经销毁时轮询也随之停止
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface ProtocolCall<T> {
+        T call() throws JsonProcessingException;
     }
 
+    private static class PushRegistration {
+        private final ExecutionContext context;
+        private final int id;
+
+        private PushRegistration(ExecutionContext context, int id) {
+            this.context = context;
+            this.id = id;
+        }
+    }
 }
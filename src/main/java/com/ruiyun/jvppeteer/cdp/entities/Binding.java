@@ -2,6 +2,7 @@ package com.ruiyun.jvppeteer.cdp.entities;
 
 import com.ruiyun.jvppeteer.api.core.JSHandle;
 import com.ruiyun.jvppeteer.cdp.core.ExecutionContext;
+import com.ruiyun.jvppeteer.cdp.core.HandleScope;
 import com.ruiyun.jvppeteer.common.BindingFunction;
 import com.ruiyun.jvppeteer.exception.EvaluateException;
 import java.util.ArrayList;
@@ -33,6 +34,28 @@ public class Binding {
     }
 
     public void run(ExecutionContext context, int id, List<Object> args, boolean isTrivial) {
+        // 参数句柄在结束时一次释放
+        HandleScope scope = HandleScope.open();
+        try {
+            this.doRun(context, id, args, isTrivial);
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * 在作用域外执行绑定函数，函数中创建的句柄由使用者自己管理，不随参数句柄一起释放
+     */
+    private Object callFunction(List<Object> args) {
+        HandleScope detached = HandleScope.detach();
+        try {
+            return this.fn.bind(args);
+        } finally {
+            detached.close();
+        }
+    }
+
+    private void doRun(ExecutionContext context, int id, List<Object> args, boolean isTrivial) {
         try {
             if (!isTrivial) {
                 List<Object> params = new ArrayList<>();
@@ -64,7 +87,7 @@ public class Binding {
             List<Object> params = new ArrayList<>();
             params.add(this.name);
             params.add(id);
-            params.add(this.fn.bind(args));
+            params.add(this.callFunction(args));
             context.evaluate("(name, seq, result) => {\n" +
                     "            // @ts-expect-error Code is evaluated in a different context.\n" +
                     "          const callbacks = globalThis[name].callbacks;\n" +
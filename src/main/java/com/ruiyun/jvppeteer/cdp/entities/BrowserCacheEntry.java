@@ -0,0 +1,121 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import com.ruiyun.jvppeteer.common.Product;
+
+/**
+ * 浏览器缓存索引中的一条记录，对应缓存目录下的一个 平台-版本 文件夹
+ */
+public class BrowserCacheEntry {
+
+    /**
+     * 文件夹名称，例如 linux-131.0.6778.87
+     */
+    private String folder;
+
+    private Product product;
+
+    private String platform;
+
+    private String revision;
+
+    /**
+     * 启动路径
+     */
+    private String executablePath;
+
+    /**
+     * 占用的磁盘空间，字节
+     */
+    private long size;
+
+    /**
+     * 安装完成的时间，毫秒时间戳
+     */
+    private long installedAt;
+
+    /**
+     * 最近一次使用的时间，毫秒时间戳，按这个时间淘汰旧版本
+     */
+    private long lastUsed;
+
+    public BrowserCacheEntry() {
+    }
+
+    public String getFolder() {
+        return folder;
+    }
+
+    public void setFolder(String folder) {
+        this.folder = folder;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public void setRevision(String revision) {
+        this.revision = revision;
+    }
+
+    public String getExecutablePath() {
+        return executablePath;
+    }
+
+    public void setExecutablePath(String executablePath) {
+        this.executablePath = executablePath;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getInstalledAt() {
+        return installedAt;
+    }
+
+    public void setInstalledAt(long installedAt) {
+        this.installedAt = installedAt;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    public void setLastUsed(long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    @Override
+    public String toString() {
+        return "BrowserCacheEntry{" +
+                "folder='" + folder + '\'' +
+                ", product=" + product +
+                ", platform='" + platform + '\'' +
+                ", revision='" + revision + '\'' +
+                ", executablePath='" + executablePath + '\'' +
+                ", size=" + size +
+                ", installedAt=" + installedAt +
+                ", lastUsed=" + lastUsed +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import com.ruiyun.jvppeteer.common.BrowserContextOptions;
+
+/**
+ * 浏览器上下文池的配置
+ */
+public class BrowserContextPoolOptions {
+    /**
+     * 创建上下文的参数
+     */
+    private BrowserContextOptions contextOptions = new BrowserContextOptions();
+    /**
+     * 池中至少保持的上下文数量，不足时在后台创建
+     */
+    private int minSize = 1;
+    /**
+     * 池中最多的上下文数量，包括正在创建和正在清理的上下文
+     */
+    private int maxSize = 8;
+    /**
+     * 租借上下文的默认超时时间，单位毫秒
+     */
+    private long leaseTimeout = 30000;
+    /**
+     * 上下文被租借多少次后销毁并重新创建，0 表示不限制
+     */
+    private int maxUses;
+
+    public BrowserContextOptions getContextOptions() {
+        return contextOptions;
+    }
+
+    public void setContextOptions(BrowserContextOptions contextOptions) {
+        this.contextOptions = contextOptions;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public void setLeaseTimeout(long leaseTimeout) {
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    public int getMaxUses() {
+        return maxUses;
+    }
+
+    public void setMaxUses(int maxUses) {
+        this.maxUses = maxUses;
+    }
+
+    @Override
+    public String toString() {
+        return "BrowserContextPoolOptions{" +
+                "contextOptions=" + contextOptions +
+                ", minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", leaseTimeout=" + leaseTimeout +
+                ", maxUses=" + maxUses +
+                '}';
+    }
+}
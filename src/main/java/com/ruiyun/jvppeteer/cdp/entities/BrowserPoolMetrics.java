@@ -0,0 +1,156 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 浏览器池的运行指标快照
+ */
+public class BrowserPoolMetrics {
+    /**
+     * 空闲的浏览器数量
+     */
+    private int idle;
+    /**
+     * 已租借的浏览器数量
+     */
+    private int busy;
+    /**
+     * 正在启动的浏览器数量
+     */
+    private int launching;
+    /**
+     * 累计启动成功的次数
+     */
+    private long launched;
+    /**
+     * 累计启动失败的次数
+     */
+    private long launchFailures;
+    /**
+     * 累计退役的浏览器数量
+     */
+    private long retired;
+    /**
+     * 累计检测到的崩溃次数
+     */
+    private long crashed;
+    /**
+     * 累计租借次数
+     */
+    private long leases;
+    /**
+     * 平均启动耗时，单位毫秒
+     */
+    private double averageLaunchTime;
+    /**
+     * 最近一次启动耗时，单位毫秒
+     */
+    private long lastLaunchTime;
+    /**
+     * 平均租借等待时间，单位毫秒
+     */
+    private double averageLeaseWaitTime;
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public int getBusy() {
+        return busy;
+    }
+
+    public void setBusy(int busy) {
+        this.busy = busy;
+    }
+
+    public int getLaunching() {
+        return launching;
+    }
+
+    public void setLaunching(int launching) {
+        this.launching = launching;
+    }
+
+    public long getLaunched() {
+        return launched;
+    }
+
+    public void setLaunched(long launched) {
+        this.launched = launched;
+    }
+
+    public long getLaunchFailures() {
+        return launchFailures;
+    }
+
+    public void setLaunchFailures(long launchFailures) {
+        this.launchFailures = launchFailures;
+    }
+
+    public long getRetired() {
+        return retired;
+    }
+
+    public void setRetired(long retired) {
+        this.retired = retired;
+    }
+
+    public long getCrashed() {
+        return crashed;
+    }
+
+    public void setCrashed(long crashed) {
+        this.crashed = crashed;
+    }
+
+    public long getLeases() {
+        return leases;
+    }
+
+    public void setLeases(long leases) {
+        this.leases = leases;
+    }
+
+    public double getAverageLaunchTime() {
+        return averageLaunchTime;
+    }
+
+    public void setAverageLaunchTime(double averageLaunchTime) {
+        this.averageLaunchTime = averageLaunchTime;
+    }
+
+    public long getLastLaunchTime() {
+        return lastLaunchTime;
+    }
+
+    public void setLastLaunchTime(long lastLaunchTime) {
+        this.lastLaunchTime = lastLaunchTime;
+    }
+
+    public double getAverageLeaseWaitTime() {
+        return averageLeaseWaitTime;
+    }
+
+    public void setAverageLeaseWaitTime(double averageLeaseWaitTime) {
+        this.averageLeaseWaitTime = averageLeaseWaitTime;
+    }
+
+    @Override
+    public String toString() {
+        return "BrowserPoolMetrics{" +
+                "idle=" + idle +
+                ", busy=" + busy +
+                ", launching=" + launching +
+                ", launched=" + launched +
+                ", launchFailures=" + launchFailures +
+                ", retired=" + retired +
+                ", crashed=" + crashed +
+                ", leases=" + leases +
+                ", averageLaunchTime=" + averageLaunchTime +
+                ", lastLaunchTime=" + lastLaunchTime +
+                ", averageLeaseWaitTime=" + averageLeaseWaitTime +
+                '}';
+    }
+}
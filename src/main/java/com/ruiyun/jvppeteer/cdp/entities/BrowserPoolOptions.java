@@ -0,0 +1,129 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 浏览器池的配置
+ */
+public class BrowserPoolOptions {
+    /**
+     * 启动浏览器的参数。池中的浏览器都用这份参数启动，不要指定固定的 userDataDir
+     */
+    private LaunchOptions launchOptions = LaunchOptions.builder().build();
+    /**
+     * 池中至少保持的浏览器数量，不足时在后台启动补充
+     */
+    private int minSize = 1;
+    /**
+     * 池中最多的浏览器数量，包括正在启动的浏览器
+     */
+    private int maxSize = 4;
+    /**
+     * 租借浏览器的默认超时时间，单位毫秒
+     */
+    private long leaseTimeout = 30000;
+    /**
+     * 浏览器被租借多少次后退役，0 表示不限制
+     */
+    private int maxLeases;
+    /**
+     * 浏览器启动后最多使用多久，单位毫秒，超过后在归还时退役，0 表示不限制
+     */
+    private long maxAge;
+    /**
+     * 空闲浏览器超过该时间且池中数量大于 minSize 时关闭，单位毫秒，0 表示不关闭
+     */
+    private long idleTimeout = 300000;
+    /**
+     * 后台检查空闲浏览器的间隔，单位毫秒，检查时会调用 Browser.getVersion 确认浏览器可用
+     */
+    private long healthCheckInterval = 30000;
+    /**
+     * 租借时是否先调用 Browser.getVersion 确认浏览器可用
+     */
+    private boolean testOnLease;
+
+    public LaunchOptions getLaunchOptions() {
+        return launchOptions;
+    }
+
+    public void setLaunchOptions(LaunchOptions launchOptions) {
+        this.launchOptions = launchOptions;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public void setLeaseTimeout(long leaseTimeout) {
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    public int getMaxLeases() {
+        return maxLeases;
+    }
+
+    public void setMaxLeases(int maxLeases) {
+        this.maxLeases = maxLeases;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(long healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public boolean getTestOnLease() {
+        return testOnLease;
+    }
+
+    public void setTestOnLease(boolean testOnLease) {
+        this.testOnLease = testOnLease;
+    }
+
+    @Override
+    public String toString() {
+        return "BrowserPoolOptions{" +
+                "minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", leaseTimeout=" + leaseTimeout +
+                ", maxLeases=" + maxLeases +
+                ", maxAge=" + maxAge +
+                ", idleTimeout=" + idleTimeout +
+                ", healthCheckInterval=" + healthCheckInterval +
+                ", testOnLease=" + testOnLease +
+                '}';
+    }
+}
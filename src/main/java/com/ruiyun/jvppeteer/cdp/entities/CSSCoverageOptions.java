@@ -5,6 +5,19 @@ public class CSSCoverageOptions {
      * 是否重置每次导航的覆盖范围。
      */
     private boolean resetOnNavigation = true;
+    /**
+     * 是否延迟获取源码。开启后不在解析时获取每个样式表的源码，只在快照或者停止时获取出现在覆盖率结果中的样式表的源码。
+     */
+    private boolean lazySources;
+    /**
+     * 源码的落盘目录。设置后源码写入该目录下的临时目录，停止时读回并删除，收集期间不在内存中保留源码。
+     */
+    private String spillDirectory;
+    /**
+     * 增量快照的间隔，单位毫秒。大于 0 时定期调用 CSS.takeCoverageDelta，把结果合并为每个样式表的区间集合，
+     * 长时间收集时浏览器端不会累积数据。
+     */
+    private long snapshotInterval;
 
     public boolean getResetOnNavigation() {
         return resetOnNavigation;
@@ -13,4 +26,28 @@ public class CSSCoverageOptions {
     public void setResetOnNavigation(boolean resetOnNavigation) {
         this.resetOnNavigation = resetOnNavigation;
     }
+
+    public boolean getLazySources() {
+        return lazySources;
+    }
+
+    public void setLazySources(boolean lazySources) {
+        this.lazySources = lazySources;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public long getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(long snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
 }
@@ -0,0 +1,169 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import com.ruiyun.jvppeteer.common.BrowserContextOptions;
+import com.ruiyun.jvppeteer.common.ConcurrencyModel;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cluster 的配置
+ */
+public class ClusterOptions {
+    /**
+     * 并发模型
+     */
+    private ConcurrencyModel concurrency = ConcurrencyModel.CONTEXT;
+    /**
+     * 同时执行的任务数
+     */
+    private int maxConcurrency = 1;
+    /**
+     * 启动浏览器的参数
+     */
+    private LaunchOptions launchOptions = LaunchOptions.builder().build();
+    /**
+     * CONTEXT 模型下创建上下文的参数
+     */
+    private BrowserContextOptions contextOptions = new BrowserContextOptions();
+    /**
+     * 任务失败后的重试次数
+     */
+    private int retryLimit;
+    /**
+     * 第一次重试前的等待时间，单位毫秒，之后每次重试翻倍
+     */
+    private long retryDelay = 1000;
+    /**
+     * 单个任务的超时时间，单位毫秒，0 表示不限制
+     */
+    private long timeout = 30000;
+    /**
+     * 是否跳过已经入队过的 URL
+     */
+    private boolean skipDuplicateUrls;
+    /**
+     * 从任务数据中取出 URL，用于跳过重复的 URL。默认支持 String 类型的数据和带 url 键的 Map
+     */
+    private Function<Object, String> urlExtractor = ClusterOptions::defaultUrl;
+    /**
+     * 是否定期在日志中输出进度和吞吐量
+     */
+    private boolean monitor;
+    /**
+     * 输出进度的间隔，单位毫秒
+     */
+    private long monitorInterval = 5000;
+
+    private static String defaultUrl(Object data) {
+        if (data instanceof String) {
+            return (String) data;
+        }
+        if (data instanceof Map) {
+            Object url = ((Map<?, ?>) data).get("url");
+            return url == null ? null : url.toString();
+        }
+        return null;
+    }
+
+    public ConcurrencyModel getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(ConcurrencyModel concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public LaunchOptions getLaunchOptions() {
+        return launchOptions;
+    }
+
+    public void setLaunchOptions(LaunchOptions launchOptions) {
+        this.launchOptions = launchOptions;
+    }
+
+    public BrowserContextOptions getContextOptions() {
+        return contextOptions;
+    }
+
+    public void setContextOptions(BrowserContextOptions contextOptions) {
+        this.contextOptions = contextOptions;
+    }
+
+    public int getRetryLimit() {
+        return retryLimit;
+    }
+
+    public void setRetryLimit(int retryLimit) {
+        this.retryLimit = retryLimit;
+    }
+
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public boolean getSkipDuplicateUrls() {
+        return skipDuplicateUrls;
+    }
+
+    public void setSkipDuplicateUrls(boolean skipDuplicateUrls) {
+        this.skipDuplicateUrls = skipDuplicateUrls;
+    }
+
+    public Function<Object, String> getUrlExtractor() {
+        return urlExtractor;
+    }
+
+    public void setUrlExtractor(Function<Object, String> urlExtractor) {
+        this.urlExtractor = urlExtractor;
+    }
+
+    public boolean getMonitor() {
+        return monitor;
+    }
+
+    public void setMonitor(boolean monitor) {
+        this.monitor = monitor;
+    }
+
+    public long getMonitorInterval() {
+        return monitorInterval;
+    }
+
+    public void setMonitorInterval(long monitorInterval) {
+        this.monitorInterval = monitorInterval;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterOptions{" +
+                "concurrency=" + concurrency +
+                ", maxConcurrency=" + maxConcurrency +
+                ", retryLimit=" + retryLimit +
+                ", retryDelay=" + retryDelay +
+                ", timeout=" + timeout +
+                ", skipDuplicateUrls=" + skipDuplicateUrls +
+                ", monitor=" + monitor +
+                ", monitorInterval=" + monitorInterval +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * Cluster 的运行统计
+ */
+public class ClusterStatistics {
+    /**
+     * 等待执行的任务数，包括等待重试的任务
+     */
+    private int queued;
+    /**
+     * 正在执行的任务数
+     */
+    private int running;
+    /**
+     * 已经成功的任务数
+     */
+    private long succeeded;
+    /**
+     * 重试后仍然失败的任务数
+     */
+    private long failed;
+    /**
+     * 累计重试次数
+     */
+    private long retried;
+    /**
+     * 因为 URL 重复被跳过的任务数
+     */
+    private long skipped;
+    /**
+     * 从启动到现在的时间，单位毫秒
+     */
+    private long uptime;
+    /**
+     * 平均每秒完成的任务数
+     */
+    private double throughput;
+    /**
+     * 任务的平均执行时间，单位毫秒
+     */
+    private double averageDuration;
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public void setRunning(int running) {
+        this.running = running;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(long succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getRetried() {
+        return retried;
+    }
+
+    public void setRetried(long retried) {
+        this.retried = retried;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getUptime() {
+        return uptime;
+    }
+
+    public void setUptime(long uptime) {
+        this.uptime = uptime;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public double getAverageDuration() {
+        return averageDuration;
+    }
+
+    public void setAverageDuration(double averageDuration) {
+        this.averageDuration = averageDuration;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterStatistics{" +
+                "queued=" + queued +
+                ", running=" + running +
+                ", succeeded=" + succeeded +
+                ", failed=" + failed +
+                ", retried=" + retried +
+                ", skipped=" + skipped +
+                ", uptime=" + uptime +
+                ", throughput=" + throughput +
+                ", averageDuration=" + averageDuration +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 堆快照中按构造函数（或者 V8 内部类型）聚合的对象数量和大小
+ */
+public class ConstructorSize {
+    /**
+     * 构造函数名，V8 内部类型用括号表示，例如 (string)、(compiled code)
+     */
+    private String name;
+    /**
+     * 对象数量
+     */
+    private long count;
+    /**
+     * 对象自身大小（shallow size）之和，单位字节
+     */
+    private long selfSize;
+
+    public ConstructorSize() {
+    }
+
+    public ConstructorSize(String name, long count, long selfSize) {
+        this.name = name;
+        this.count = count;
+        this.selfSize = selfSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getSelfSize() {
+        return selfSize;
+    }
+
+    public void setSelfSize(long selfSize) {
+        this.selfSize = selfSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ConstructorSize{" +
+                "name='" + name + '\'' +
+                ", count=" + count +
+                ", selfSize=" + selfSize +
+                '}';
+    }
+}
@@ -0,0 +1,413 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 紧凑的 CPU 采样 profile。
+ * <p>
+ * 函数表经过去重（相同的函数名、脚本地址、行、列只保存一份），调用树节点、采样和时间间隔都保存在原始类型数组中，
+ * 节点和采样都用数组下标互相引用，大量采样时也只占用很少的内存。
+ */
+public class CpuProfile {
+    /**
+     * 函数表：函数名
+     */
+    private final String[] functionNames;
+    /**
+     * 函数表：脚本地址
+     */
+    private final String[] urls;
+    /**
+     * 函数表：行号
+     */
+    private final int[] lineNumbers;
+    /**
+     * 函数表：列号
+     */
+    private final int[] columnNumbers;
+    /**
+     * 调用树节点对应的函数下标
+     */
+    private final int[] nodeFunctions;
+    /**
+     * 调用树节点的父节点下标，根节点为 -1
+     */
+    private final int[] nodeParents;
+    /**
+     * 每个采样所在的节点下标
+     */
+    private final int[] samples;
+    /**
+     * 每个采样与上一个采样的时间间隔，单位微秒
+     */
+    private final int[] timeDeltas;
+    /**
+     * profile 开始时间，单位微秒
+     */
+    private final double startTime;
+    /**
+     * profile 结束时间，单位微秒
+     */
+    private final double endTime;
+
+    public CpuProfile(String[] functionNames, String[] urls, int[] lineNumbers, int[] columnNumbers, int[] nodeFunctions, int[] nodeParents, int[] samples, int[] timeDeltas, double startTime, double endTime) {
+        this.functionNames = functionNames;
+        this.urls = urls;
+        this.lineNumbers = lineNumbers;
+        this.columnNumbers = columnNumbers;
+        this.nodeFunctions = nodeFunctions;
+        this.nodeParents = nodeParents;
+        this.samples = samples;
+        this.timeDeltas = timeDeltas;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    /**
+     * 把 Profiler.stop 返回的 profile 转换成紧凑格式
+     *
+     * @param profile Profiler.stop 返回结果中的 profile 字段
+     * @return CpuProfile
+     */
+    public static CpuProfile from(JsonNode profile) {
+        FunctionTable functions = new FunctionTable();
+        JsonNode nodesNode = profile.path("nodes");
+        int nodeCount = nodesNode.size();
+        Map<Integer, Integer> indexById = new HashMap<>(nodeCount * 2);
+        int[] nodeFunctions = new int[nodeCount];
+        int[] nodeParents = new int[nodeCount];
+        Arrays.fill(nodeParents, -1);
+        for (int i = 0; i < nodeCount; i++) {
+            JsonNode node = nodesNode.get(i);
+            indexById.put(node.path("id").asInt(), i);
+            JsonNode callFrame = node.path("callFrame");
+            nodeFunctions[i] = functions.intern(callFrame.path("functionName").asText(""), callFrame.path("url").asText(""), callFrame.path("lineNumber").asInt(), callFrame.path("columnNumber").asInt());
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            for (JsonNode child : nodesNode.get(i).path("children")) {
+                Integer childIndex = indexById.get(child.asInt());
+                if (childIndex != null) {
+                    nodeParents[childIndex] = i;
+                }
+            }
+        }
+        JsonNode samplesNode = profile.path("samples");
+        JsonNode timeDeltasNode = profile.path("timeDeltas");
+        int[] samples = new int[samplesNode.size()];
+        int[] timeDeltas = new int[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            Integer index = indexById.get(samplesNode.get(i).asInt());
+            samples[i] = index == null ? -1 : index;
+            timeDeltas[i] = timeDeltasNode.path(i).asInt();
+        }
+        return functions.toProfile(nodeFunctions, nodeParents, samples, timeDeltas, profile.path("startTime").asDouble(), profile.path("endTime").asDouble());
+    }
+
+    /**
+     * 合并多个 profile（例如多个页面的 profile）。
+     * <p>
+     * 函数表按函数名、脚本地址、行、列合并，调用树按相同的调用路径合并，采样按顺序拼接。
+     *
+     * @param profiles 要合并的 profile
+     * @return 合并后的 profile
+     */
+    public static CpuProfile merge(Collection<CpuProfile> profiles) {
+        FunctionTable functions = new FunctionTable();
+        Map<Long, Integer> nodeByPath = new HashMap<>();
+        IntList nodeFunctions = new IntList();
+        IntList nodeParents = new IntList();
+        int sampleCount = 0;
+        double startTime = Double.MAX_VALUE;
+        double endTime = 0;
+        for (CpuProfile profile : profiles) {
+            sampleCount += profile.samples.length;
+            startTime = Math.min(startTime, profile.startTime);
+            endTime = Math.max(endTime, profile.endTime);
+        }
+        int[] samples = new int[sampleCount];
+        int[] timeDeltas = new int[sampleCount];
+        int offset = 0;
+        for (CpuProfile profile : profiles) {
+            int[] functionMapping = new int[profile.functionNames.length];
+            for (int i = 0; i < functionMapping.length; i++) {
+                functionMapping[i] = functions.intern(profile.functionNames[i], profile.urls[i], profile.lineNumbers[i], profile.columnNumbers[i]);
+            }
+            int[] nodeMapping = new int[profile.nodeFunctions.length];
+            Arrays.fill(nodeMapping, -1);
+            for (int i = 0; i < nodeMapping.length; i++) {
+                mapNode(profile, i, functionMapping, nodeMapping, nodeByPath, nodeFunctions, nodeParents);
+            }
+            for (int i = 0; i < profile.samples.length; i++) {
+                samples[offset + i] = profile.samples[i] < 0 ? -1 : nodeMapping[profile.samples[i]];
+                // 每个 profile 的第一个时间间隔是相对它自己的开始时间，合并后不能计入上一个 profile 的最后一个采样
+                timeDeltas[offset + i] = i == 0 ? 0 : profile.timeDeltas[i];
+            }
+            offset += profile.samples.length;
+        }
+        return functions.toProfile(nodeFunctions.toArray(), nodeParents.toArray(), samples, timeDeltas, profiles.isEmpty() ? 0 : startTime, endTime);
+    }
+
+    /**
+     * 把节点映射到合并后的调用树上，父节点需要先映射
+     */
+    private static int mapNode(CpuProfile profile, int node, int[] functionMapping, int[] nodeMapping, Map<Long, Integer> nodeByPath, IntList nodeFunctions, IntList nodeParents) {
+        if (nodeMapping[node] >= 0) {
+            return nodeMapping[node];
+        }
+        IntList path = new IntList();
+        int current = node;
+        while (current >= 0 && nodeMapping[current] < 0) {
+            path.add(current);
+            current = profile.nodeParents[current];
+        }
+        int parent = current < 0 ? -1 : nodeMapping[current];
+        for (int i = path.size - 1; i >= 0; i--) {
+            int original = path.values[i];
+            int function = functionMapping[profile.nodeFunctions[original]];
+            long key = ((long) parent << 32) | (function & 0xffffffffL);
+            Integer merged = nodeByPath.get(key);
+            if (merged == null) {
+                merged = nodeFunctions.size;
+                nodeFunctions.add(function);
+                nodeParents.add(parent);
+                nodeByPath.put(key, merged);
+            }
+            nodeMapping[original] = merged;
+            parent = merged;
+        }
+        return nodeMapping[node];
+    }
+
+    /**
+     * 计算每个函数的自身耗时和总耗时
+     *
+     * @return 按自身耗时从大到小排序的函数耗时
+     */
+    public List<FunctionTime> functionTimes() {
+        int functionCount = this.functionNames.length;
+        int nodeCount = this.nodeFunctions.length;
+        long[] nodeSelfTime = new long[nodeCount];
+        int[] nodeSampleCount = new int[nodeCount];
+        for (int i = 0; i < this.samples.length; i++) {
+            int node = this.samples[i];
+            if (node < 0) {
+                continue;
+            }
+            // 采样的耗时是到下一个采样之间的时间间隔
+            nodeSelfTime[node] += i + 1 < this.timeDeltas.length ? this.timeDeltas[i + 1] : 0;
+            nodeSampleCount[node]++;
+        }
+        long[] selfTime = new long[functionCount];
+        long[] totalTime = new long[functionCount];
+        int[] sampleCount = new int[functionCount];
+        // 用于在一条调用路径上对递归函数去重
+        int[] visited = new int[functionCount];
+        Arrays.fill(visited, -1);
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeSampleCount[node] == 0) {
+                continue;
+            }
+            int function = this.nodeFunctions[node];
+            selfTime[function] += nodeSelfTime[node];
+            sampleCount[function] += nodeSampleCount[node];
+            for (int current = node; current >= 0; current = this.nodeParents[current]) {
+                int currentFunction = this.nodeFunctions[current];
+                if (visited[currentFunction] != node) {
+                    visited[currentFunction] = node;
+                    totalTime[currentFunction] += nodeSelfTime[node];
+                }
+            }
+        }
+        List<FunctionTime> result = new ArrayList<>();
+        for (int i = 0; i < functionCount; i++) {
+            if (totalTime[i] == 0 && sampleCount[i] == 0) {
+                continue;
+            }
+            FunctionTime functionTime = new FunctionTime(this.functionNames[i], this.urls[i], this.lineNumbers[i], this.columnNumbers[i]);
+            functionTime.setSelfTime(selfTime[i] / 1000.0);
+            functionTime.setTotalTime(totalTime[i] / 1000.0);
+            functionTime.setSampleCount(sampleCount[i]);
+            result.add(functionTime);
+        }
+        result.sort(Comparator.comparingDouble(FunctionTime::getSelfTime).reversed());
+        return result;
+    }
+
+    /**
+     * 按自身耗时取最热的若干个函数，V8 内部节点（(program)、(idle)、(garbage collector) 等）不计入
+     *
+     * @param limit 返回的函数个数
+     * @return 最热的函数
+     */
+    public List<FunctionTime> hotFunctions(int limit) {
+        List<FunctionTime> result = new ArrayList<>();
+        for (FunctionTime functionTime : this.functionTimes()) {
+            String name = functionTime.getFunctionName();
+            if (name.startsWith("(") && name.endsWith(")")) {
+                continue;
+            }
+            result.add(functionTime);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public int functionCount() {
+        return this.functionNames.length;
+    }
+
+    public String functionName(int function) {
+        return this.functionNames[function];
+    }
+
+    public String url(int function) {
+        return this.urls[function];
+    }
+
+    public int lineNumber(int function) {
+        return this.lineNumbers[function];
+    }
+
+    public int columnNumber(int function) {
+        return this.columnNumbers[function];
+    }
+
+    public int nodeCount() {
+        return this.nodeFunctions.length;
+    }
+
+    /**
+     * @param node 节点下标
+     * @return 节点对应的函数下标
+     */
+    public int nodeFunction(int node) {
+        return this.nodeFunctions[node];
+    }
+
+    /**
+     * @param node 节点下标
+     * @return 父节点下标，根节点为 -1
+     */
+    public int nodeParent(int node) {
+        return this.nodeParents[node];
+    }
+
+    public int[] getSamples() {
+        return samples;
+    }
+
+    public int[] getTimeDeltas() {
+        return timeDeltas;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public double getEndTime() {
+        return endTime;
+    }
+
+    @Override
+    public String toString() {
+        return "CpuProfile{" +
+                "functions=" + functionNames.length +
+                ", nodes=" + nodeFunctions.length +
+                ", samples=" + samples.length +
+                ", startTime=" + startTime +
+                ", endTime=" + endTime +
+                '}';
+    }
+
+    /**
+     * 函数表，按函数名、脚本地址、行、列去重
+     */
+    private static final class FunctionTable {
+        private final Map<FunctionKey, Integer> indexes = new HashMap<>();
+        private final Map<String, String> strings = new HashMap<>();
+        private final List<String> functionNames = new ArrayList<>();
+        private final List<String> urls = new ArrayList<>();
+        private final IntList lineNumbers = new IntList();
+        private final IntList columnNumbers = new IntList();
+
+        int intern(String functionName, String url, int lineNumber, int columnNumber) {
+            functionName = this.strings.computeIfAbsent(functionName, key -> key);
+            url = this.strings.computeIfAbsent(url, key -> key);
+            FunctionKey key = new FunctionKey(functionName, url, lineNumber, columnNumber);
+            Integer index = this.indexes.get(key);
+            if (index == null) {
+                index = this.functionNames.size();
+                this.indexes.put(key, index);
+                this.functionNames.add(functionName);
+                this.urls.add(url);
+                this.lineNumbers.add(lineNumber);
+                this.columnNumbers.add(columnNumber);
+            }
+            return index;
+        }
+
+        CpuProfile toProfile(int[] nodeFunctions, int[] nodeParents, int[] samples, int[] timeDeltas, double startTime, double endTime) {
+            return new CpuProfile(this.functionNames.toArray(new String[0]), this.urls.toArray(new String[0]), this.lineNumbers.toArray(), this.columnNumbers.toArray(), nodeFunctions, nodeParents, samples, timeDeltas, startTime, endTime);
+        }
+    }
+
+    private static final class FunctionKey {
+        private final String functionName;
+        private final String url;
+        private final int lineNumber;
+        private final int columnNumber;
+
+        FunctionKey(String functionName, String url, int lineNumber, int columnNumber) {
+            this.functionName = functionName;
+            this.url = url;
+            this.lineNumber = lineNumber;
+            this.columnNumber = columnNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FunctionKey)) return false;
+            FunctionKey that = (FunctionKey) o;
+            return lineNumber == that.lineNumber && columnNumber == that.columnNumber && Objects.equals(functionName, that.functionName) && Objects.equals(url, that.url);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(functionName, url, lineNumber, columnNumber);
+        }
+    }
+
+    /**
+     * 可增长的 int 数组，避免装箱
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(this.values, this.size);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ruiyun.jvppeteer.cdp.entities;
 
 import com.ruiyun.jvppeteer.common.ChromeReleaseChannel;
 import com.ruiyun.jvppeteer.common.Product;
+import com.ruiyun.jvppeteer.util.RangeDownloader;
 
 public class FetcherOptions {
     /**
@@ -66,6 +67,23 @@ public class FetcherOptions {
      */
     private String build;
 
+    /**
+     * 浏览器压缩包的 SHA-256（十六进制），配置后下载完成会校验，不一致时删除并报错
+     */
+    private String sha256;
+
+    /**
+     * 下载浏览器时的并行连接数
+     */
+    private int downloadConnections = RangeDownloader.DEFAULT_CONNECTIONS;
+
+    /**
+     * 缓存目录的磁盘配额，字节
+     * <p>
+     * 大于 0 时，安装新版本后按最近使用时间删除旧版本，直到缓存目录中浏览器的总大小不超过配额。默认不限制
+     */
+    private long cacheQuota;
+
     public FetcherOptions() {
         super();
     }
@@ -133,4 +151,28 @@ public class FetcherOptions {
     public void setBuild(String build) {
         this.build = build;
     }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public int getDownloadConnections() {
+        return downloadConnections;
+    }
+
+    public void setDownloadConnections(int downloadConnections) {
+        this.downloadConnections = downloadConnections;
+    }
+
+    public long getCacheQuota() {
+        return cacheQuota;
+    }
+
+    public void setCacheQuota(long cacheQuota) {
+        this.cacheQuota = cacheQuota;
+    }
 }
@@ -0,0 +1,114 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 某个函数在 CPU profile 中的耗时统计
+ */
+public class FunctionTime {
+    /**
+     * 函数名，匿名函数为空字符串
+     */
+    private String functionName;
+    /**
+     * 函数所在脚本的地址
+     */
+    private String url;
+    /**
+     * 函数所在的行，从 0 开始
+     */
+    private int lineNumber;
+    /**
+     * 函数所在的列，从 0 开始
+     */
+    private int columnNumber;
+    /**
+     * 自身耗时（不含调用的其他函数），单位毫秒
+     */
+    private double selfTime;
+    /**
+     * 总耗时（包含调用的其他函数），单位毫秒，递归调用只计算一次
+     */
+    private double totalTime;
+    /**
+     * 落在该函数自身的采样数
+     */
+    private int sampleCount;
+
+    public FunctionTime() {
+    }
+
+    public FunctionTime(String functionName, String url, int lineNumber, int columnNumber) {
+        this.functionName = functionName;
+        this.url = url;
+        this.lineNumber = lineNumber;
+        this.columnNumber = columnNumber;
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    public void setFunctionName(String functionName) {
+        this.functionName = functionName;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    public int getColumnNumber() {
+        return columnNumber;
+    }
+
+    public void setColumnNumber(int columnNumber) {
+        this.columnNumber = columnNumber;
+    }
+
+    public double getSelfTime() {
+        return selfTime;
+    }
+
+    public void setSelfTime(double selfTime) {
+        this.selfTime = selfTime;
+    }
+
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    public void setTotalTime(double totalTime) {
+        this.totalTime = totalTime;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FunctionTime{" +
+                "functionName='" + functionName + '\'' +
+                ", url='" + url + '\'' +
+                ", lineNumber=" + lineNumber +
+                ", columnNumber=" + columnNumber +
+                ", selfTime=" + selfTime +
+                ", totalTime=" + totalTime +
+                ", sampleCount=" + sampleCount +
+                '}';
+    }
+}
@@ -0,0 +1,117 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 浏览器资源管控的配置，阈值为 0 表示不限制
+ */
+public class GovernorOptions {
+    /**
+     * 采样间隔，单位毫秒
+     */
+    private long sampleInterval = 10000;
+    /**
+     * 所有进程常驻内存之和的上限，单位字节，仅 Linux 下可以读取
+     */
+    private long maxTotalRss;
+    /**
+     * 单个进程常驻内存的上限，单位字节，仅 Linux 下可以读取
+     */
+    private long maxProcessRss;
+    /**
+     * 所有进程 CPU 占用率之和的上限，100 表示占满一个核心
+     */
+    private double maxCpuPercent;
+    /**
+     * 连续超过阈值多少次才触发，避免短暂的峰值引起回收
+     */
+    private int consecutiveSamples = 3;
+    /**
+     * 超过阈值时是否回收浏览器：不再创建新页面，等待进行中的页面关闭后重启浏览器
+     */
+    private boolean recycle;
+    /**
+     * 回收时等待进行中页面关闭的最长时间，单位毫秒，超时后直接关闭
+     */
+    private long drainTimeout = 30000;
+    /**
+     * 回收时启动新浏览器使用的参数，recycle 为 true 时必须设置
+     */
+    private LaunchOptions launchOptions;
+
+    public long getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public void setSampleInterval(long sampleInterval) {
+        this.sampleInterval = sampleInterval;
+    }
+
+    public long getMaxTotalRss() {
+        return maxTotalRss;
+    }
+
+    public void setMaxTotalRss(long maxTotalRss) {
+        this.maxTotalRss = maxTotalRss;
+    }
+
+    public long getMaxProcessRss() {
+        return maxProcessRss;
+    }
+
+    public void setMaxProcessRss(long maxProcessRss) {
+        this.maxProcessRss = maxProcessRss;
+    }
+
+    public double getMaxCpuPercent() {
+        return maxCpuPercent;
+    }
+
+    public void setMaxCpuPercent(double maxCpuPercent) {
+        this.maxCpuPercent = maxCpuPercent;
+    }
+
+    public int getConsecutiveSamples() {
+        return consecutiveSamples;
+    }
+
+    public void setConsecutiveSamples(int consecutiveSamples) {
+        this.consecutiveSamples = consecutiveSamples;
+    }
+
+    public boolean getRecycle() {
+        return recycle;
+    }
+
+    public void setRecycle(boolean recycle) {
+        this.recycle = recycle;
+    }
+
+    public long getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public void setDrainTimeout(long drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+
+    public LaunchOptions getLaunchOptions() {
+        return launchOptions;
+    }
+
+    public void setLaunchOptions(LaunchOptions launchOptions) {
+        this.launchOptions = launchOptions;
+    }
+
+    @Override
+    public String toString() {
+        return "GovernorOptions{" +
+                "sampleInterval=" + sampleInterval +
+                ", maxTotalRss=" + maxTotalRss +
+                ", maxProcessRss=" + maxProcessRss +
+                ", maxCpuPercent=" + maxCpuPercent +
+                ", consecutiveSamples=" + consecutiveSamples +
+                ", recycle=" + recycle +
+                ", drainTimeout=" + drainTimeout +
+                ", launchOptions=" + launchOptions +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import com.ruiyun.jvppeteer.cdp.events.HeapSnapshotProgressEvent;
+import java.util.function.Consumer;
+
+/**
+ * 生成堆快照的选项
+ */
+public class HeapSnapshotOptions {
+    /**
+     * 是否在写文件的同时统计各构造函数的对象数量和大小
+     */
+    private boolean summarize;
+    /**
+     * 生成快照前是否先执行一次垃圾回收
+     */
+    private boolean collectGarbage;
+    /**
+     * 是否在快照中记录数字的值
+     */
+    private boolean captureNumericValue;
+    /**
+     * 快照生成进度的回调
+     */
+    private Consumer<HeapSnapshotProgressEvent> onProgress;
+
+    public HeapSnapshotOptions() {
+    }
+
+    public HeapSnapshotOptions(boolean summarize, Consumer<HeapSnapshotProgressEvent> onProgress) {
+        this.summarize = summarize;
+        this.onProgress = onProgress;
+    }
+
+    public boolean getSummarize() {
+        return summarize;
+    }
+
+    public void setSummarize(boolean summarize) {
+        this.summarize = summarize;
+    }
+
+    public boolean getCollectGarbage() {
+        return collectGarbage;
+    }
+
+    public void setCollectGarbage(boolean collectGarbage) {
+        this.collectGarbage = collectGarbage;
+    }
+
+    public boolean getCaptureNumericValue() {
+        return captureNumericValue;
+    }
+
+    public void setCaptureNumericValue(boolean captureNumericValue) {
+        this.captureNumericValue = captureNumericValue;
+    }
+
+    public Consumer<HeapSnapshotProgressEvent> getOnProgress() {
+        return onProgress;
+    }
+
+    public void setOnProgress(Consumer<HeapSnapshotProgressEvent> onProgress) {
+        this.onProgress = onProgress;
+    }
+
+    @Override
+    public String toString() {
+        return "HeapSnapshotOptions{" +
+                "summarize=" + summarize +
+                ", collectGarbage=" + collectGarbage +
+                ", captureNumericValue=" + captureNumericValue +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆快照的统计结果
+ */
+public class HeapSnapshotSummary {
+    /**
+     * 节点总数
+     */
+    private long nodeCount;
+    /**
+     * 边的总数
+     */
+    private long edgeCount;
+    /**
+     * 所有节点自身大小之和，单位字节
+     */
+    private long totalSize;
+    /**
+     * 按构造函数聚合的结果，按大小从大到小排序
+     */
+    private List<ConstructorSize> constructors = new ArrayList<>();
+
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    public void setNodeCount(long nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    public void setEdgeCount(long edgeCount) {
+        this.edgeCount = edgeCount;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public List<ConstructorSize> getConstructors() {
+        return constructors;
+    }
+
+    public void setConstructors(List<ConstructorSize> constructors) {
+        this.constructors = constructors;
+    }
+
+    @Override
+    public String toString() {
+        return "HeapSnapshotSummary{" +
+                "nodeCount=" + nodeCount +
+                ", edgeCount=" + edgeCount +
+                ", totalSize=" + totalSize +
+                ", constructors=" + constructors +
+                '}';
+    }
+}
@@ -17,6 +17,19 @@ public class JSCoverageOptions {
      * 是否收集块级别的覆盖信息。如果为 true，则将在块级别收集覆盖范围（这是默认设置）。如果为 false，则将在功能级别收集覆盖率。
      */
     private boolean useBlockCoverage = true;
+    /**
+     * 是否延迟获取源码。开启后不在解析时获取每个脚本的源码，只在快照或者停止时获取出现在覆盖率结果中的脚本的源码。
+     */
+    private boolean lazySources;
+    /**
+     * 源码的落盘目录。设置后源码写入该目录下的临时目录，停止时读回并删除，收集期间不在内存中保留源码。
+     */
+    private String spillDirectory;
+    /**
+     * 增量快照的间隔，单位毫秒。大于 0 时定期调用 Profiler.takePreciseCoverage，把结果合并为每个脚本的区间集合，
+     * 长时间收集时浏览器端不会累积数据。
+     */
+    private long snapshotInterval;
 
     public JSCoverageOptions(boolean resetOnNavigation, boolean includeRawScriptCoverage, boolean reportAnonymousScripts, boolean useBlockCoverage) {
         this.resetOnNavigation = resetOnNavigation;
@@ -60,6 +73,30 @@ public class JSCoverageOptions {
         this.useBlockCoverage = useBlockCoverage;
     }
 
+    public boolean getLazySources() {
+        return lazySources;
+    }
+
+    public void setLazySources(boolean lazySources) {
+        this.lazySources = lazySources;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public long getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(long snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
     @Override
     public String toString() {
         return "JSCoverageOptions{" +
@@ -67,6 +104,9 @@ public class JSCoverageOptions {
                 ", reportAnonymousScripts=" + reportAnonymousScripts +
                 ", includeRawScriptCoverage=" + includeRawScriptCoverage +
                 ", useBlockCoverage=" + useBlockCoverage +
+                ", lazySources=" + lazySources +
+                ", spillDirectory='" + spillDirectory + '\'' +
+                ", snapshotInterval=" + snapshotInterval +
                 '}';
     }
 }
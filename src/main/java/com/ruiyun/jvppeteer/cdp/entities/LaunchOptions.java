@@ -5,6 +5,7 @@ import com.ruiyun.jvppeteer.api.core.Target;
 import com.ruiyun.jvppeteer.common.Constant;
 import com.ruiyun.jvppeteer.common.Product;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -34,6 +35,7 @@ public class LaunchOptions extends ConnectOptions {
         this.setHeadless(builder.headless);
         this.setArgs(builder.args);
         this.setUserDataDir(builder.userDataDir);
+        this.setProfileTemplate(builder.profileTemplate);
         this.setDevtools(builder.devtools);
         this.setDebuggingPort(builder.debuggingPort);
         this.setTimeout(builder.timeout);
@@ -116,6 +118,12 @@ public class LaunchOptions extends ConnectOptions {
      * Path to a User Data Directory.
      */
     private String userDataDir;
+    /**
+     * 用户数据目录的模板，见 {@link com.ruiyun.jvppeteer.launch.ProfileTemplate}
+     * <br/>
+     * 没有指定 userDataDir 时，从模板克隆出临时的用户数据目录，省去 Chrome 首次运行时初始化用户数据目录的时间。仅对 Chrome 生效
+     */
+    private String profileTemplate;
     /**
      * 是否打开devtool,也就是F12打开的开发者工具
      * <br/>
@@ -167,6 +175,14 @@ public class LaunchOptions extends ConnectOptions {
         this.userDataDir = userDataDir;
     }
 
+    public String getProfileTemplate() {
+        return profileTemplate;
+    }
+
+    public void setProfileTemplate(String profileTemplate) {
+        this.profileTemplate = profileTemplate;
+    }
+
     public boolean getDevtools() {
         return devtools;
     }
@@ -187,6 +203,48 @@ public class LaunchOptions extends ConnectOptions {
         return new Builder();
     }
 
+    /**
+     * 复制一份启动参数，启动过程会修改传入的参数（例如协议、args），同一份参数多次启动或者并发启动时每次使用副本
+     *
+     * @return 副本，args、ignoreDefaultArgs、env 是新的集合
+     */
+    public LaunchOptions copy() {
+        LaunchOptions copy = new LaunchOptions(new Builder());
+        copy.executablePath = this.executablePath;
+        copy.ignoreAllDefaultArgs = this.ignoreAllDefaultArgs;
+        copy.ignoreDefaultArgs = this.ignoreDefaultArgs == null ? null : new ArrayList<>(this.ignoreDefaultArgs);
+        copy.dumpio = this.dumpio;
+        copy.env = this.env == null ? null : new HashMap<>(this.env);
+        copy.pipe = this.pipe;
+        copy.product = this.product;
+        copy.waitForInitialPage = this.waitForInitialPage;
+        copy.preferredRevision = this.preferredRevision;
+        copy.cacheDir = this.cacheDir;
+        copy.extraPrefsFirefox = this.extraPrefsFirefox;
+        copy.headless = this.headless;
+        copy.args = this.args == null ? null : new ArrayList<>(this.args);
+        copy.userDataDir = this.userDataDir;
+        copy.profileTemplate = this.profileTemplate;
+        copy.devtools = this.devtools;
+        copy.debuggingPort = this.debuggingPort;
+        copy.timeout = this.timeout;
+        copy.setAcceptInsecureCerts(this.getAcceptInsecureCerts());
+        copy.setNetworkEnabled(this.getNetworkEnabled());
+        copy.setDefaultViewport(this.getDefaultViewport());
+        copy.setSlowMo(this.getSlowMo());
+        copy.setTargetFilter(this.getTargetFilter());
+        copy.setIsPageTarget(this.getIsPageTarget());
+        copy.setHandleDevToolsAsPage(this.getHandleDevToolsAsPage());
+        copy.setProtocol(this.getProtocol());
+        copy.setProtocolTimeout(this.getProtocolTimeout());
+        copy.setBrowserWSEndpoint(this.getBrowserWSEndpoint());
+        copy.setBrowserURL(this.getBrowserURL());
+        copy.setTransport(this.getTransport());
+        copy.setHeaders(this.getHeaders());
+        copy.setCapabilities(this.getCapabilities());
+        return copy;
+    }
+
 
     public int getTimeout() {
         return timeout;
@@ -207,6 +265,7 @@ public class LaunchOptions extends ConnectOptions {
         private boolean headless = true;
         private List<String> args = new ArrayList<>();
         private String userDataDir;
+        private String profileTemplate;
         private boolean devtools;
         private int debuggingPort;
         private int timeout = Constant.DEFAULT_TIMEOUT;
@@ -337,6 +396,11 @@ public class LaunchOptions extends ConnectOptions {
             return this;
         }
 
+        public Builder profileTemplate(String profileTemplate) {
+            this.profileTemplate = profileTemplate;
+            return this;
+        }
+
         public Builder extraPrefsFirefox(Map<String, Object> extraPrefsFirefox) {
             this.extraPrefsFirefox = extraPrefsFirefox;
             return this;
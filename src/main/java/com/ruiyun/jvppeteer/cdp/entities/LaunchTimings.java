@@ -0,0 +1,93 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 浏览器启动各阶段的耗时，单位毫秒，均从开始启动时计算
+ * <p>
+ * 没有经历的阶段为 -1，例如没有等待初始页面时 initialPageReady 为 -1
+ */
+public class LaunchTimings {
+    /**
+     * 浏览器进程已经创建
+     */
+    private long processSpawned = -1;
+    /**
+     * 从浏览器输出中发现了连接端点，pipe 模式下没有这一阶段
+     */
+    private long endpointDiscovered = -1;
+    /**
+     * 传输层（websocket 或 pipe）已经建立
+     */
+    private long transportConnected = -1;
+    /**
+     * 初始的 target 已经全部 attach
+     */
+    private long targetsAttached = -1;
+    /**
+     * 初始页面已经就绪
+     */
+    private long initialPageReady = -1;
+    /**
+     * 启动的总耗时
+     */
+    private long total = -1;
+
+    public long getProcessSpawned() {
+        return processSpawned;
+    }
+
+    public void setProcessSpawned(long processSpawned) {
+        this.processSpawned = processSpawned;
+    }
+
+    public long getEndpointDiscovered() {
+        return endpointDiscovered;
+    }
+
+    public void setEndpointDiscovered(long endpointDiscovered) {
+        this.endpointDiscovered = endpointDiscovered;
+    }
+
+    public long getTransportConnected() {
+        return transportConnected;
+    }
+
+    public void setTransportConnected(long transportConnected) {
+        this.transportConnected = transportConnected;
+    }
+
+    public long getTargetsAttached() {
+        return targetsAttached;
+    }
+
+    public void setTargetsAttached(long targetsAttached) {
+        this.targetsAttached = targetsAttached;
+    }
+
+    public long getInitialPageReady() {
+        return initialPageReady;
+    }
+
+    public void setInitialPageReady(long initialPageReady) {
+        this.initialPageReady = initialPageReady;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    @Override
+    public String toString() {
+        return "LaunchTimings{" +
+                "processSpawned=" + processSpawned +
+                ", endpointDiscovered=" + endpointDiscovered +
+                ", transportConnected=" + transportConnected +
+                ", targetsAttached=" + targetsAttached +
+                ", initialPageReady=" + initialPageReady +
+                ", total=" + total +
+                '}';
+    }
+}
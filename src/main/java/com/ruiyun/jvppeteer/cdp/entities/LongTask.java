@@ -0,0 +1,47 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 主线程上的长任务（执行时间超过 50ms 的顶层任务）
+ */
+public class LongTask {
+    /**
+     * 任务开始时间，单位毫秒，使用 trace 的时钟
+     */
+    private double startTime;
+    /**
+     * 任务持续时间，单位毫秒
+     */
+    private double duration;
+
+    public LongTask() {
+    }
+
+    public LongTask(double startTime, double duration) {
+        this.startTime = startTime;
+        this.duration = duration;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(double startTime) {
+        this.startTime = startTime;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    public void setDuration(double duration) {
+        this.duration = duration;
+    }
+
+    @Override
+    public String toString() {
+        return "LongTask{" +
+                "startTime=" + startTime +
+                ", duration=" + duration +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单次导航的分析结果：主线程耗时分布、长任务以及 FCP/LCP/CLS 指标
+ */
+public class NavigationTraceSummary {
+    /**
+     * 导航 id，对应 trace 事件中 args.data.navigationId
+     */
+    private String navigationId;
+    /**
+     * 导航的文档地址
+     */
+    private String url;
+    /**
+     * 导航开始时间，单位毫秒，使用 trace 的时钟
+     */
+    private double startTime;
+    /**
+     * First Contentful Paint，相对导航开始的毫秒数，没有记录到时为 -1
+     */
+    private double firstContentfulPaint = -1;
+    /**
+     * Largest Contentful Paint，相对导航开始的毫秒数，没有记录到时为 -1
+     */
+    private double largestContentfulPaint = -1;
+    /**
+     * Cumulative Layout Shift（最大会话窗口）
+     */
+    private double cumulativeLayoutShift;
+    /**
+     * 主线程各分类的自身耗时，单位毫秒
+     */
+    private Map<TraceCategory, Double> mainThreadTime = new EnumMap<>(TraceCategory.class);
+    /**
+     * 导航期间的长任务
+     */
+    private List<LongTask> longTasks = new ArrayList<>();
+    /**
+     * Total Blocking Time，所有长任务超过 50ms 部分之和，单位毫秒
+     */
+    private double totalBlockingTime;
+
+    public String getNavigationId() {
+        return navigationId;
+    }
+
+    public void setNavigationId(String navigationId) {
+        this.navigationId = navigationId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(double startTime) {
+        this.startTime = startTime;
+    }
+
+    public double getFirstContentfulPaint() {
+        return firstContentfulPaint;
+    }
+
+    public void setFirstContentfulPaint(double firstContentfulPaint) {
+        this.firstContentfulPaint = firstContentfulPaint;
+    }
+
+    public double getLargestContentfulPaint() {
+        return largestContentfulPaint;
+    }
+
+    public void setLargestContentfulPaint(double largestContentfulPaint) {
+        this.largestContentfulPaint = largestContentfulPaint;
+    }
+
+    public double getCumulativeLayoutShift() {
+        return cumulativeLayoutShift;
+    }
+
+    public void setCumulativeLayoutShift(double cumulativeLayoutShift) {
+        this.cumulativeLayoutShift = cumulativeLayoutShift;
+    }
+
+    public Map<TraceCategory, Double> getMainThreadTime() {
+        return mainThreadTime;
+    }
+
+    public void setMainThreadTime(Map<TraceCategory, Double> mainThreadTime) {
+        this.mainThreadTime = mainThreadTime;
+    }
+
+    public List<LongTask> getLongTasks() {
+        return longTasks;
+    }
+
+    public void setLongTasks(List<LongTask> longTasks) {
+        this.longTasks = longTasks;
+    }
+
+    public double getTotalBlockingTime() {
+        return totalBlockingTime;
+    }
+
+    public void setTotalBlockingTime(double totalBlockingTime) {
+        this.totalBlockingTime = totalBlockingTime;
+    }
+
+    @Override
+    public String toString() {
+        return "NavigationTraceSummary{" +
+                "navigationId='" + navigationId + '\'' +
+                ", url='" + url + '\'' +
+                ", startTime=" + startTime +
+                ", firstContentfulPaint=" + firstContentfulPaint +
+                ", largestContentfulPaint=" + largestContentfulPaint +
+                ", cumulativeLayoutShift=" + cumulativeLayoutShift +
+                ", mainThreadTime=" + mainThreadTime +
+                ", longTasks=" + longTasks +
+                ", totalBlockingTime=" + totalBlockingTime +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 页面池的配置
+ */
+public class PagePoolOptions {
+    /**
+     * 池中至少保持的页面数量，不足时在后台创建
+     */
+    private int minSize = 1;
+    /**
+     * 池中最多的页面数量，包括正在创建和正在重置的页面
+     */
+    private int maxSize = 8;
+    /**
+     * 租借页面的默认超时时间，单位毫秒
+     */
+    private long leaseTimeout = 30000;
+    /**
+     * 页面被租借多少次后关闭并重新创建，0 表示不限制
+     */
+    private int maxUses;
+    /**
+     * 归还后是否校验重置结果，校验失败的页面会被关闭
+     */
+    private boolean verifyReset = true;
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public void setLeaseTimeout(long leaseTimeout) {
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    public int getMaxUses() {
+        return maxUses;
+    }
+
+    public void setMaxUses(int maxUses) {
+        this.maxUses = maxUses;
+    }
+
+    public boolean getVerifyReset() {
+        return verifyReset;
+    }
+
+    public void setVerifyReset(boolean verifyReset) {
+        this.verifyReset = verifyReset;
+    }
+
+    @Override
+    public String toString() {
+        return "PagePoolOptions{" +
+                "minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", leaseTimeout=" + leaseTimeout +
+                ", maxUses=" + maxUses +
+                ", verifyReset=" + verifyReset +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 浏览器单个进程的资源占用
+ */
+public class ProcessUsage {
+    /**
+     * 进程id
+     */
+    private long pid;
+    /**
+     * 进程类型，例如 browser、renderer、GPU
+     */
+    private String type;
+    /**
+     * 常驻内存，单位字节，无法读取时为 -1
+     */
+    private long rss = -1;
+    /**
+     * 两次采样之间的 CPU 占用率，100 表示占满一个核心，首次采样时为 0
+     */
+    private double cpuPercent;
+    /**
+     * 进程启动以来累计的 CPU 时间，单位秒
+     */
+    private double cpuTime;
+
+    public ProcessUsage() {
+    }
+
+    public ProcessUsage(long pid, String type, double cpuTime) {
+        this.pid = pid;
+        this.type = type;
+        this.cpuTime = cpuTime;
+    }
+
+    public long getPid() {
+        return pid;
+    }
+
+    public void setPid(long pid) {
+        this.pid = pid;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getRss() {
+        return rss;
+    }
+
+    public void setRss(long rss) {
+        this.rss = rss;
+    }
+
+    public double getCpuPercent() {
+        return cpuPercent;
+    }
+
+    public void setCpuPercent(double cpuPercent) {
+        this.cpuPercent = cpuPercent;
+    }
+
+    public double getCpuTime() {
+        return cpuTime;
+    }
+
+    public void setCpuTime(double cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessUsage{" +
+                "pid=" + pid +
+                ", type='" + type + '\'' +
+                ", rss=" + rss +
+                ", cpuPercent=" + cpuPercent +
+                ", cpuTime=" + cpuTime +
+                '}';
+    }
+}
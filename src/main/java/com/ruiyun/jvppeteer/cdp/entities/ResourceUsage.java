@@ -0,0 +1,78 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次采样得到的浏览器资源占用，包括浏览器进程和渲染进程等子进程
+ */
+public class ResourceUsage {
+    /**
+     * 采样时间，毫秒时间戳
+     */
+    private long timestamp;
+    /**
+     * 所有进程的常驻内存之和，单位字节，无法读取时为 -1
+     */
+    private long totalRss = -1;
+    /**
+     * 所有进程的 CPU 占用率之和
+     */
+    private double totalCpuPercent;
+    /**
+     * 超过阈值的原因，没有超过时为 null
+     */
+    private String exceeded;
+    private List<ProcessUsage> processes = new ArrayList<>();
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public long getTotalRss() {
+        return totalRss;
+    }
+
+    public void setTotalRss(long totalRss) {
+        this.totalRss = totalRss;
+    }
+
+    public double getTotalCpuPercent() {
+        return totalCpuPercent;
+    }
+
+    public void setTotalCpuPercent(double totalCpuPercent) {
+        this.totalCpuPercent = totalCpuPercent;
+    }
+
+    public String getExceeded() {
+        return exceeded;
+    }
+
+    public void setExceeded(String exceeded) {
+        this.exceeded = exceeded;
+    }
+
+    public List<ProcessUsage> getProcesses() {
+        return processes;
+    }
+
+    public void setProcesses(List<ProcessUsage> processes) {
+        this.processes = processes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceUsage{" +
+                "timestamp=" + timestamp +
+                ", totalRss=" + totalRss +
+                ", totalCpuPercent=" + totalCpuPercent +
+                ", exceeded='" + exceeded + '\'' +
+                ", processes=" + processes +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+/**
+ * 主线程耗时的分类，与 Chrome DevTools 性能面板的分类保持一致
+ */
+public enum TraceCategory {
+    /**
+     * js 的编译、执行、定时器、事件回调等
+     */
+    Scripting,
+    /**
+     * 样式计算和布局
+     */
+    Layout,
+    /**
+     * 绘制、合成、光栅化和图片解码
+     */
+    Paint,
+    /**
+     * V8 和 Blink 的垃圾回收
+     */
+    GC,
+    /**
+     * HTML 解析、样式表解析等加载相关的工作
+     */
+    Loading,
+    /**
+     * 其他，例如任务调度本身的开销
+     */
+    Other
+}
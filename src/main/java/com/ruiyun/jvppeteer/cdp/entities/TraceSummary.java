@@ -0,0 +1,83 @@
+package com.ruiyun.jvppeteer.cdp.entities;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个 trace 文件的分析结果，汇总了所有渲染进程主线程（CrRendererMain）的数据
+ */
+public class TraceSummary {
+    /**
+     * 读取到的 trace 事件总数
+     */
+    private long eventCount;
+    /**
+     * 主线程各分类的自身耗时，单位毫秒
+     */
+    private Map<TraceCategory, Double> mainThreadTime = new EnumMap<>(TraceCategory.class);
+    /**
+     * 主线程上所有的长任务
+     */
+    private List<LongTask> longTasks = new ArrayList<>();
+    /**
+     * Total Blocking Time，所有长任务超过 50ms 部分之和，单位毫秒
+     */
+    private double totalBlockingTime;
+    /**
+     * 每次导航的分析结果，按导航开始时间排序
+     */
+    private List<NavigationTraceSummary> navigations = new ArrayList<>();
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public Map<TraceCategory, Double> getMainThreadTime() {
+        return mainThreadTime;
+    }
+
+    public void setMainThreadTime(Map<TraceCategory, Double> mainThreadTime) {
+        this.mainThreadTime = mainThreadTime;
+    }
+
+    public List<LongTask> getLongTasks() {
+        return longTasks;
+    }
+
+    public void setLongTasks(List<LongTask> longTasks) {
+        this.longTasks = longTasks;
+    }
+
+    public double getTotalBlockingTime() {
+        return totalBlockingTime;
+    }
+
+    public void setTotalBlockingTime(double totalBlockingTime) {
+        this.totalBlockingTime = totalBlockingTime;
+    }
+
+    public List<NavigationTraceSummary> getNavigations() {
+        return navigations;
+    }
+
+    public void setNavigations(List<NavigationTraceSummary> navigations) {
+        this.navigations = navigations;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceSummary{" +
+                "eventCount=" + eventCount +
+                ", mainThreadTime=" + mainThreadTime +
+                ", longTasks=" + longTasks +
+                ", totalBlockingTime=" + totalBlockingTime +
+                ", navigations=" + navigations +
+                '}';
+    }
+}
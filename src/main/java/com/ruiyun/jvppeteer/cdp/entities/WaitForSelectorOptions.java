@@ -33,6 +33,12 @@ public class WaitForSelectorOptions {
 
     private ElementHandle root;
 
+    /**
+     * 推送模式：条件满足时页面通过 Runtime.addBinding 注册的绑定通知，等待期间不占用一个一直挂起的 Runtime.callFunctionOn。
+     * 只支持 CDP 协议，其他协议自动使用挂起调用等待。默认 true，设为 false 时每个等待占用一个挂起的调用和一个线程
+     */
+    private boolean push = true;
+
     public WaitForSelectorOptions() {
         super();
     }
@@ -98,4 +104,12 @@ public class WaitForSelectorOptions {
     public void setRoot(ElementHandle root) {
         this.root = root;
     }
+
+    public boolean getPush() {
+        return push;
+    }
+
+    public void setPush(boolean push) {
+        this.push = push;
+    }
 }
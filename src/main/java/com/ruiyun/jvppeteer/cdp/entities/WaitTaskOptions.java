@@ -6,6 +6,10 @@ public class WaitTaskOptions {
     private String polling;
     private ElementHandle root;
     private int timeout;
+    /**
+     * 条件满足时由页面推送通知，默认 true，见 {@link WaitForSelectorOptions#getPush()}
+     */
+    private boolean push = true;
 
 
     public WaitTaskOptions(String polling, ElementHandle root, int timeout) {
@@ -14,6 +18,11 @@ public class WaitTaskOptions {
         this.root = root;
     }
 
+    public WaitTaskOptions(String polling, ElementHandle root, int timeout, boolean push) {
+        this(polling, root, timeout);
+        this.push = push;
+    }
+
     public String getPolling() {
         return polling;
     }
@@ -37,4 +46,12 @@ public class WaitTaskOptions {
     public void setTimeout(int timeout) {
         this.timeout = timeout;
     }
+
+    public boolean getPush() {
+        return push;
+    }
+
+    public void setPush(boolean push) {
+        this.push = push;
+    }
 }
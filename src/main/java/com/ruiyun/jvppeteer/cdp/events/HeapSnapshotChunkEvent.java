@@ -0,0 +1,31 @@
+package com.ruiyun.jvppeteer.cdp.events;
+
+/**
+ * HeapProfiler.addHeapSnapshotChunk 事件，堆快照的一个数据块
+ */
+public class HeapSnapshotChunkEvent {
+
+    private String chunk;
+
+    public HeapSnapshotChunkEvent() {
+    }
+
+    public HeapSnapshotChunkEvent(String chunk) {
+        this.chunk = chunk;
+    }
+
+    public String getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(String chunk) {
+        this.chunk = chunk;
+    }
+
+    @Override
+    public String toString() {
+        return "HeapSnapshotChunkEvent{" +
+                "chunk length=" + (chunk == null ? 0 : chunk.length()) +
+                '}';
+    }
+}
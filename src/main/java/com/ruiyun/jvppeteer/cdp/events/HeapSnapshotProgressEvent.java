@@ -0,0 +1,46 @@
+package com.ruiyun.jvppeteer.cdp.events;
+
+/**
+ * HeapProfiler.reportHeapSnapshotProgress 事件，生成堆快照的进度
+ */
+public class HeapSnapshotProgressEvent {
+
+    private int done;
+
+    private int total;
+
+    private boolean finished;
+
+    public int getDone() {
+        return done;
+    }
+
+    public void setDone(int done) {
+        this.done = done;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public boolean getFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    @Override
+    public String toString() {
+        return "HeapSnapshotProgressEvent{" +
+                "done=" + done +
+                ", total=" + total +
+                ", finished=" + finished +
+                '}';
+    }
+}
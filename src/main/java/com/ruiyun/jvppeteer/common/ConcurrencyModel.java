@@ -0,0 +1,19 @@
+package com.ruiyun.jvppeteer.common;
+
+/**
+ * Cluster 的并发模型
+ */
+public enum ConcurrencyModel {
+    /**
+     * 所有任务共用一个浏览器和默认上下文，每个任务一个页面，开销最小，任务之间共享 cookie 和存储
+     */
+    PAGE,
+    /**
+     * 所有任务共用一个浏览器，每个任务一个隐身上下文，任务之间互相隔离
+     */
+    CONTEXT,
+    /**
+     * 每个任务启动一个浏览器进程，隔离最彻底，开销最大
+     */
+    BROWSER
+}
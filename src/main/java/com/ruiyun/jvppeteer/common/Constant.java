@@ -41,6 +41,8 @@ import com.ruiyun.jvppeteer.cdp.events.FrameDetachedEvent;
 import com.ruiyun.jvppeteer.cdp.events.FrameNavigatedEvent;
 import com.ruiyun.jvppeteer.cdp.events.FrameStartedLoadingEvent;
 import com.ruiyun.jvppeteer.cdp.events.FrameStoppedLoadingEvent;
+import com.ruiyun.jvppeteer.cdp.events.HeapSnapshotChunkEvent;
+import com.ruiyun.jvppeteer.cdp.events.HeapSnapshotProgressEvent;
 import com.ruiyun.jvppeteer.cdp.events.JavascriptDialogOpeningEvent;
 import com.ruiyun.jvppeteer.cdp.events.LifecycleEvent;
 import com.ruiyun.jvppeteer.cdp.events.LoadingFailedEvent;
@@ -237,6 +239,7 @@ public interface Constant {
         {
             add("-*");
             add("devtools.timeline");
+            add("loading");
             add("v8.execute");
             add("disabled-by-default-devtools.timeline");
             add("disabled-by-default-devtools.timeline.frame");
@@ -379,6 +382,12 @@ public interface Constant {
                     case "Tracing.tracingComplete":
                         put(event.getEventName(), TracingCompleteEvent.class);
                         break;
+                    case "HeapProfiler.addHeapSnapshotChunk":
+                        put(event.getEventName(), HeapSnapshotChunkEvent.class);
+                        break;
+                    case "HeapProfiler.reportHeapSnapshotProgress":
+                        put(event.getEventName(), HeapSnapshotProgressEvent.class);
+                        break;
                     case "Page.frameStartedLoading":
                         put(event.getEventName(), FrameStartedLoadingEvent.class);
                         break;
@@ -0,0 +1,286 @@
+package com.ruiyun.jvppeteer.common;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.ruiyun.jvppeteer.common.Constant.OBJECTMAPPER;
+
+/**
+ * 声明式的数据提取规则
+ * <p>
+ * 字段名对应一个相对选择器和取值方式（文本、HTML、属性、DOM property），可以嵌套列表和对象。
+ * 规则被编译成一个页面函数，一次 Runtime.callFunctionOn 提取出全部记录，页面中用 JSON.stringify 序列化，
+ * Java 侧用 JsonParser 逐条反序列化成 POJO，不需要为每个字段调用一次 $eval。
+ * 同一个规则编译出的函数源码不变，会命中执行上下文的编译缓存。
+ * <p>
+ * 选择器都是 CSS 选择器，为空时表示当前元素本身；找不到元素时字段值为 null。
+ * <pre>{@code
+ * ExtractSchema schema = new ExtractSchema()
+ *         .text("title", "h2")
+ *         .attribute("url", "a", "href")
+ *         .list("tags", ".tag", new ExtractSchema().text("name", null));
+ * List<Item> items = page.extract(".item", schema, Item.class);
+ * }</pre>
+ */
+public class ExtractSchema {
+
+    private static final String EXTRACTOR = "(root, selector) => {\n" +
+            "  const spec = %s;\n" +
+            "  const pick = (node, field) => {\n" +
+            "    switch (field.kind) {\n" +
+            "      case 'text':\n" +
+            "        return (node.textContent || '').trim();\n" +
+            "      case 'html':\n" +
+            "        return node.innerHTML === undefined ? null : node.innerHTML;\n" +
+            "      case 'attribute':\n" +
+            "        return node.getAttribute ? node.getAttribute(field.key) : null;\n" +
+            "      case 'property': {\n" +
+            "        const value = node[field.key];\n" +
+            "        return value === undefined ? null : value;\n" +
+            "      }\n" +
+            "      case 'object':\n" +
+            "        return record(node, field.fields);\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  };\n" +
+            "  const record = (node, fields) => {\n" +
+            "    const result = {};\n" +
+            "    for (const field of fields) {\n" +
+            "      if (field.multiple) {\n" +
+            "        const nodes = field.selector ? node.querySelectorAll(field.selector) : [node];\n" +
+            "        result[field.name] = Array.from(nodes, item => pick(item, field));\n" +
+            "      } else {\n" +
+            "        const target = field.selector ? node.querySelector(field.selector) : node;\n" +
+            "        result[field.name] = target ? pick(target, field) : null;\n" +
+            "      }\n" +
+            "    }\n" +
+            "    return result;\n" +
+            "  };\n" +
+            "  const scope = root || document;\n" +
+            "  const nodes = selector ? scope.querySelectorAll(selector) : [scope];\n" +
+            "  return JSON.stringify(Array.from(nodes, node => record(node, spec)));\n" +
+            "}";
+
+    private final List<Field> fields = new ArrayList<>();
+
+    /**
+     * 编译后的页面函数，修改规则后重新编译
+     */
+    private volatile String source;
+
+    public ExtractSchema() {
+    }
+
+    /**
+     * 去掉首尾空白的 textContent
+     *
+     * @param name     字段名
+     * @param selector 相对选择器
+     * @return ExtractSchema
+     */
+    public ExtractSchema text(String name, String selector) {
+        return this.add(new Field(name, selector, "text", null, false, null));
+    }
+
+    /**
+     * 所有匹配元素的 textContent 组成的列表
+     *
+     * @param name     字段名
+     * @param selector 相对选择器
+     * @return ExtractSchema
+     */
+    public ExtractSchema textList(String name, String selector) {
+        return this.add(new Field(name, selector, "text", null, true, null));
+    }
+
+    /**
+     * innerHTML
+     *
+     * @param name     字段名
+     * @param selector 相对选择器
+     * @return ExtractSchema
+     */
+    public ExtractSchema html(String name, String selector) {
+        return this.add(new Field(name, selector, "html", null, false, null));
+    }
+
+    /**
+     * HTML 属性，例如 href
+     *
+     * @param name      字段名
+     * @param selector  相对选择器
+     * @param attribute 属性名
+     * @return ExtractSchema
+     */
+    public ExtractSchema attribute(String name, String selector, String attribute) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(attribute), "attribute must not be empty");
+        return this.add(new Field(name, selector, "attribute", attribute, false, null));
+    }
+
+    /**
+     * 所有匹配元素的 HTML 属性组成的列表
+     *
+     * @param name      字段名
+     * @param selector  相对选择器
+     * @param attribute 属性名
+     * @return ExtractSchema
+     */
+    public ExtractSchema attributeList(String name, String selector, String attribute) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(attribute), "attribute must not be empty");
+        return this.add(new Field(name, selector, "attribute", attribute, true, null));
+    }
+
+    /**
+     * DOM property，例如 value、checked，值需要能被 JSON 序列化
+     *
+     * @param name     字段名
+     * @param selector 相对选择器
+     * @param property property 名称
+     * @return ExtractSchema
+     */
+    public ExtractSchema property(String name, String selector, String property) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(property), "property must not be empty");
+        return this.add(new Field(name, selector, "property", property, false, null));
+    }
+
+    /**
+     * 嵌套对象，以第一个匹配的元素为根按 schema 提取
+     *
+     * @param name     字段名
+     * @param selector 相对选择器
+     * @param schema   嵌套的规则
+     * @return ExtractSchema
+     */
+    public ExtractSchema object(String name, String selector, ExtractSchema schema) {
+        ValidateUtil.assertArg(schema != null, "schema must not be null");
+        return this.add(new Field(name, selector, "object", null, false, schema));
+    }
+
+    /**
+     * 嵌套列表，每个匹配的元素按 schema 提取成一条记录
+     *
+     * @param name     字段名
+     * @param selector 相对选择器
+     * @param schema   列表元素的规则
+     * @return ExtractSchema
+     */
+    public ExtractSchema list(String name, String selector, ExtractSchema schema) {
+        ValidateUtil.assertArg(schema != null, "schema must not be null");
+        return this.add(new Field(name, selector, "object", null, true, schema));
+    }
+
+    private ExtractSchema add(Field field) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(field.name), "name must not be empty");
+        synchronized (this.fields) {
+            this.fields.add(field);
+            this.source = null;
+        }
+        return this;
+    }
+
+    /**
+     * 编译后的页面函数，参数为 (root, selector)，root 为空时从 document 开始查找，selector 为空时 root 本身就是唯一的记录。
+     * 返回值是记录数组的 JSON 字符串
+     *
+     * @return 函数源码
+     */
+    public String source() {
+        String source = this.source;
+        if (source == null) {
+            try {
+                source = String.format(EXTRACTOR, OBJECTMAPPER.writeValueAsString(this.spec(0)));
+            } catch (JsonProcessingException e) {
+                throw new JvppeteerException("Failed to compile extract schema", e);
+            }
+            this.source = source;
+        }
+        return source;
+    }
+
+    private ArrayNode spec(int depth) {
+        ValidateUtil.assertArg(depth < 32, "Extract schema is nested too deeply, is it recursive?");
+        ArrayNode spec = OBJECTMAPPER.createArrayNode();
+        synchronized (this.fields) {
+            for (Field field : this.fields) {
+                ObjectNode node = spec.addObject();
+                node.put("name", field.name);
+                node.put("selector", field.selector);
+                node.put("kind", field.kind);
+                node.put("key", field.key);
+                node.put("multiple", field.multiple);
+                if (field.schema != null) {
+                    node.set("fields", field.schema.spec(depth + 1));
+                }
+            }
+        }
+        return spec;
+    }
+
+    /**
+     * 把 {@link #source()} 的执行结果逐条反序列化
+     *
+     * @param result   页面函数返回的 JSON 字符串
+     * @param type     记录的类型，可以是 Map
+     * @param consumer 接收每条记录
+     * @param <T>      记录的类型
+     */
+    public <T> void read(Object result, Class<T> type, Consumer<T> consumer) {
+        if (!(result instanceof String)) {
+            return;
+        }
+        ObjectReader reader = OBJECTMAPPER.readerFor(type);
+        try (JsonParser parser = OBJECTMAPPER.getFactory().createParser((String) result)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JvppeteerException("Unexpected extract result: " + result);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(reader.readValue(parser));
+            }
+        } catch (IOException e) {
+            throw new JvppeteerException("Failed to read extract result as " + type.getName(), e);
+        }
+    }
+
+    private static class Field {
+        private final String name;
+
+        private final String selector;
+
+        /**
+         * text、html、attribute、property 或 object
+         */
+        private final String kind;
+
+        /**
+         * attribute 和 property 的名称
+         */
+        private final String key;
+
+        /**
+         * 取全部匹配的元素组成列表
+         */
+        private final boolean multiple;
+
+        private final ExtractSchema schema;
+
+        private Field(String name, String selector, String kind, String key, boolean multiple, ExtractSchema schema) {
+            this.name = name;
+            this.selector = StringUtil.isEmpty(selector) ? null : selector;
+            this.kind = kind;
+            this.key = key;
+            this.multiple = multiple;
+            this.schema = schema;
+        }
+    }
+}
@@ -9,16 +9,17 @@ import com.ruiyun.jvppeteer.cdp.entities.WaitForSelectorOptions;
 import com.ruiyun.jvppeteer.exception.EvaluateException;
 import com.ruiyun.jvppeteer.exception.JvppeteerException;
 import com.ruiyun.jvppeteer.util.StringUtil;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 
-import static com.ruiyun.jvppeteer.api.core.Frame.transposeIterableHandle;
 import static com.ruiyun.jvppeteer.util.Helper.throwError;
 
 public abstract class QueryHandler {
 
+    private volatile String collectAll;
 
     public ElementHandle queryOne(ElementHandle element, String selector) throws JsonProcessingException {
         JSHandle handle = element.evaluateHandle(this.querySelector(), Arrays.asList(selector, new LazyArg()));
@@ -28,13 +29,65 @@ public abstract class QueryHandler {
         return handle.asElement();
     }
 
+    /**
+     * 查询全部匹配的元素
+     * <p>
+     * 在页面中把查询结果（数组、NodeList 或者异步生成器）一次性收集到数组里，再用一次 Runtime.getProperties 取出全部元素，
+     * 无论匹配多少个元素都只需要两次往返，不再按批次从异步生成器中取值。
+     *
+     * @param element  查询的根元素
+     * @param selector 选择器
+     * @return 匹配的元素
+     * @throws JsonProcessingException 序列化异常
+     */
     public List<ElementHandle> queryAll(ElementHandle element, String selector) throws JsonProcessingException {
-        JSHandle handle = element.evaluateHandle(this.querySelectorAll(), Arrays.asList(selector, new LazyArg()));
-        if (Objects.isNull(handle)) {
+        JSHandle array = element.evaluateHandle(this.collectAll(), Arrays.asList(selector, new LazyArg()));
+        if (Objects.isNull(array)) {
             return null;
         }
-        List<JSHandle> handles = transposeIterableHandle(handle);
-        return handles.stream().map(JSHandle::asElement).filter(Objects::nonNull).collect(java.util.stream.Collectors.toList());
+        try {
+            List<ElementHandle> elements = new ArrayList<>();
+            for (JSHandle handle : array.getProperties().values()) {
+                ElementHandle elementHandle = handle.asElement();
+                if (Objects.nonNull(elementHandle)) {
+                    elements.add(elementHandle);
+                } else {
+                    handle.dispose();
+                }
+            }
+            return elements;
+        } finally {
+            // 只释放数组本身，数组中的元素仍然有效
+            array.dispose();
+        }
+    }
+
+    /**
+     * 把 querySelectorAll 的结果收集到数组中的函数，同一个 QueryHandler 生成的源码不变，可以命中执行上下文的编译缓存
+     */
+    private String collectAll() {
+        String collectAll = this.collectAll;
+        if (collectAll == null) {
+            collectAll = "async (element, selector, PuppeteerUtil) => {\n" +
+                    "  const found = await (" + getQuerySelectorAll(this) + ")(element, selector, PuppeteerUtil);\n" +
+                    "  if (!found) {\n" +
+                    "    return [];\n" +
+                    "  }\n" +
+                    "  if (found instanceof Node) {\n" +
+                    "    return [found];\n" +
+                    "  }\n" +
+                    "  if (Array.isArray(found)) {\n" +
+                    "    return found;\n" +
+                    "  }\n" +
+                    "  const results = [];\n" +
+                    "  for await (const node of found) {\n" +
+                    "    results.push(node);\n" +
+                    "  }\n" +
+                    "  return results;\n" +
+                    "}";
+            this.collectAll = collectAll;
+        }
+        return collectAll;
     }
 
     public abstract String querySelector();
@@ -50,6 +103,7 @@ public abstract class QueryHandler {
         waitForSelectorOptions.setPolling(polling);
         waitForSelectorOptions.setRoot(element);
         waitForSelectorOptions.setTimeout(options.getTimeout());
+        waitForSelectorOptions.setPush(options.getPush());
         try {
             JSHandle result = frame.isolatedRealm().waitForFunction("async (PuppeteerUtil, query, selector, root, visible) => {\n" +
                     "  const querySelector = PuppeteerUtil.createFunction(\n" +
@@ -85,6 +139,7 @@ public abstract class QueryHandler {
         waitForSelectorOptions.setPolling(polling);
         waitForSelectorOptions.setRoot(element);
         waitForSelectorOptions.setTimeout(options.getTimeout());
+        waitForSelectorOptions.setPush(options.getPush());
         try {
             JSHandle handle = frame.isolatedRealm().waitForFunction("async (PuppeteerUtil, query, selector, root, visible) => {\n" +
                     "  const querySelector = PuppeteerUtil.createFunction(\n" +
@@ -31,6 +31,9 @@ public class TaskManager {
         tasks.clear();
     }
 
+    /**
+     * 执行上下文重新创建后通知所有等待任务重新开始轮询，只唤醒等待的线程，可以在事件线程中调用
+     */
     public void rerunAll() {
         this.tasks.forEach(WaitTask::rerun);
     }
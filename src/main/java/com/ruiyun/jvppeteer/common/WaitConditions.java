@@ -0,0 +1,231 @@
+package com.ruiyun.jvppeteer.common;
+
+import com.ruiyun.jvppeteer.api.core.Request;
+import com.ruiyun.jvppeteer.api.core.Response;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * 组合等待的条件，用于 {@link com.ruiyun.jvppeteer.api.core.Frame#waitForAny(WaitConditions)} 和
+ * {@link com.ruiyun.jvppeteer.api.core.Frame#waitForAll(WaitConditions)}
+ * <p>
+ * 每个条件有一个唯一的 key，结果按 key 返回。选择器和 DOM 谓词合并成一个页面函数，由同一个轮询任务检查；
+ * 请求、响应和导航条件通过页面事件判断，不需要各自的线程。等待结束后未命中的条件自动撤销监听、停止轮询。
+ * <pre>{@code
+ * WaitResult result = page.waitForAny(new WaitConditions()
+ *         .visible("dialog", ".dialog")
+ *         .selector("list", "#list li")
+ *         .response("error", response -> response.status() >= 400)
+ *         .navigation("navigated"));
+ * }</pre>
+ */
+public class WaitConditions {
+
+    private final List<Condition> conditions = new ArrayList<>();
+
+    /**
+     * 超时时间，毫秒，为空时使用页面的默认超时时间，0 表示无限等待
+     */
+    private Integer timeout;
+
+    public WaitConditions() {
+    }
+
+    /**
+     * 选择器匹配到元素，结果为该元素
+     *
+     * @param key      条件名称
+     * @param selector 选择器，支持 xpath/、text/ 等前缀
+     * @return WaitConditions
+     */
+    public WaitConditions selector(String key, String selector) {
+        return this.selector(key, selector, null);
+    }
+
+    /**
+     * 选择器匹配到可见的元素，结果为该元素
+     *
+     * @param key      条件名称
+     * @param selector 选择器
+     * @return WaitConditions
+     */
+    public WaitConditions visible(String key, String selector) {
+        return this.selector(key, selector, Boolean.TRUE);
+    }
+
+    /**
+     * 选择器没有匹配到元素或者元素不可见，结果为 true
+     *
+     * @param key      条件名称
+     * @param selector 选择器
+     * @return WaitConditions
+     */
+    public WaitConditions hidden(String key, String selector) {
+        return this.selector(key, selector, Boolean.FALSE);
+    }
+
+    private WaitConditions selector(String key, String selector, Boolean visible) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(selector), "selector must not be empty");
+        return this.add(new Condition(key, Kind.SELECTOR, selector, visible, null, null, null));
+    }
+
+    /**
+     * 页面函数返回真值，结果为返回值（元素或者可以序列化的值）
+     * <p>
+     * 函数形如 {@code root => root.querySelectorAll('li').length > 10}，参数是 document。
+     * 函数和选择器一起在隔离的 realm 中执行，只能访问 DOM，访问不到页面脚本定义的全局变量
+     *
+     * @param key          条件名称
+     * @param pptrFunction 页面函数
+     * @return WaitConditions
+     */
+    public WaitConditions predicate(String key, String pptrFunction) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(pptrFunction), "pptrFunction must not be empty");
+        return this.add(new Condition(key, Kind.PREDICATE, null, null, pptrFunction, null, null));
+    }
+
+    /**
+     * 收到 url 完全相同的响应，结果为该响应
+     *
+     * @param key 条件名称
+     * @param url 响应的 url
+     * @return WaitConditions
+     */
+    public WaitConditions response(String key, String url) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(url), "url must not be empty");
+        return this.response(key, response -> url.equals(response.url()));
+    }
+
+    /**
+     * 收到满足条件的响应，结果为该响应
+     *
+     * @param key       条件名称
+     * @param predicate 判断响应
+     * @return WaitConditions
+     */
+    public WaitConditions response(String key, Predicate<Response> predicate) {
+        ValidateUtil.assertArg(predicate != null, "predicate must not be null");
+        return this.add(new Condition(key, Kind.RESPONSE, null, null, null, null, predicate));
+    }
+
+    /**
+     * 发出满足条件的请求，结果为该请求
+     *
+     * @param key       条件名称
+     * @param predicate 判断请求
+     * @return WaitConditions
+     */
+    public WaitConditions request(String key, Predicate<Request> predicate) {
+        ValidateUtil.assertArg(predicate != null, "predicate must not be null");
+        return this.add(new Condition(key, Kind.REQUEST, null, null, null, predicate, null));
+    }
+
+    /**
+     * 所在的 frame 导航到新的文档，结果为该 frame
+     *
+     * @param key 条件名称
+     * @return WaitConditions
+     */
+    public WaitConditions navigation(String key) {
+        return this.add(new Condition(key, Kind.NAVIGATION, null, null, null, null, null));
+    }
+
+    private WaitConditions add(Condition condition) {
+        ValidateUtil.assertArg(StringUtil.isNotEmpty(condition.key), "key must not be empty");
+        for (Condition existing : this.conditions) {
+            ValidateUtil.assertArg(!Objects.equals(existing.key, condition.key), "Duplicate wait condition key: " + condition.key);
+        }
+        this.conditions.add(condition);
+        return this;
+    }
+
+    public List<Condition> getConditions() {
+        return Collections.unmodifiableList(this.conditions);
+    }
+
+    public Integer getTimeout() {
+        return timeout;
+    }
+
+    public WaitConditions setTimeout(Integer timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public enum Kind {
+        SELECTOR,
+        PREDICATE,
+        RESPONSE,
+        REQUEST,
+        NAVIGATION;
+
+        /**
+         * 在页面中轮询检查的条件
+         */
+        public boolean dom() {
+            return this == SELECTOR || this == PREDICATE;
+        }
+    }
+
+    public static class Condition {
+        private final String key;
+
+        private final Kind kind;
+
+        private final String selector;
+
+        /**
+         * true 要求可见，false 要求隐藏，null 只要求存在
+         */
+        private final Boolean visible;
+
+        private final String pptrFunction;
+
+        private final Predicate<Request> requestPredicate;
+
+        private final Predicate<Response> responsePredicate;
+
+        private Condition(String key, Kind kind, String selector, Boolean visible, String pptrFunction, Predicate<Request> requestPredicate, Predicate<Response> responsePredicate) {
+            this.key = key;
+            this.kind = kind;
+            this.selector = selector;
+            this.visible = visible;
+            this.pptrFunction = pptrFunction;
+            this.requestPredicate = requestPredicate;
+            this.responsePredicate = responsePredicate;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getSelector() {
+            return selector;
+        }
+
+        public Boolean getVisible() {
+            return visible;
+        }
+
+        public String getPptrFunction() {
+            return pptrFunction;
+        }
+
+        public Predicate<Request> getRequestPredicate() {
+            return requestPredicate;
+        }
+
+        public Predicate<Response> getResponsePredicate() {
+            return responsePredicate;
+        }
+    }
+}
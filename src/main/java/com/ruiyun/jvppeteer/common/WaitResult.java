@@ -0,0 +1,49 @@
+package com.ruiyun.jvppeteer.common;
+
+/**
+ * 组合等待中最先满足的条件
+ */
+public class WaitResult {
+
+    /**
+     * 条件名称
+     */
+    private final String key;
+
+    /**
+     * 条件的结果：ElementHandle、Response、Request、Frame 或者页面函数的返回值
+     */
+    private final Object value;
+
+    public WaitResult(String key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 按类型取结果
+     *
+     * @param type 结果的类型
+     * @param <T>  结果的类型
+     * @return 结果
+     */
+    public <T> T getValue(Class<T> type) {
+        return type.cast(value);
+    }
+
+    @Override
+    public String toString() {
+        return "WaitResult{" +
+                "key='" + key + '\'' +
+                ", value=" + value +
+                '}';
+    }
+}
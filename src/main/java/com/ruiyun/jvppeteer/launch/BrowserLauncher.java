@@ -13,6 +13,7 @@ import com.ruiyun.jvppeteer.cdp.core.CdpBrowser;
 import com.ruiyun.jvppeteer.cdp.entities.ConnectOptions;
 import com.ruiyun.jvppeteer.cdp.entities.FetcherOptions;
 import com.ruiyun.jvppeteer.cdp.entities.LaunchOptions;
+import com.ruiyun.jvppeteer.cdp.entities.LaunchTimings;
 import com.ruiyun.jvppeteer.cdp.entities.Protocol;
 import com.ruiyun.jvppeteer.cdp.entities.RevisionInfo;
 import com.ruiyun.jvppeteer.cdp.entities.TargetType;
@@ -47,6 +48,9 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
@@ -106,6 +110,7 @@ public abstract class BrowserLauncher {
             RevisionInfo revisionInfo = browserFetcher.revisionInfo(preferredRevision.replace("stable_", ""));
             if (!revisionInfo.getLocal())
                 throw new LaunchException(MessageFormat.format("Could not find browser preferredRevision {0}. Please download a browser binary.", preferredRevision));
+            browserFetcher.recordUsage(revisionInfo);
             return revisionInfo.getExecutablePath();
         }
 
@@ -121,6 +126,7 @@ public abstract class BrowserLauncher {
                         "Tried to use JVPPETEER_PRODUCT_REVISION_ENV env variable to launch browser but did not find executable at: "
                                 + revisionInfo.getExecutablePath());
             }
+            browserFetcher.recordUsage(revisionInfo);
             return revisionInfo.getExecutablePath();
         }
         /*如果下载了chrome，就使用下载的chrome*/
@@ -130,6 +136,8 @@ public abstract class BrowserLauncher {
             for (String localRevision : localRevisions) {
                 RevisionInfo revisionInfo = browserFetcher.revisionInfo(localRevision);
                 if (revisionInfo.getLocal() && StringUtil.isNotEmpty(revisionInfo.getExecutablePath()) && FileUtil.assertExecutable(revisionInfo.getExecutablePath())) {
+                    // 记录使用时间，淘汰旧版本时不会先删除正在使用的版本
+                    browserFetcher.recordUsage(revisionInfo);
                     return revisionInfo.getExecutablePath();
                 }
             }
@@ -148,46 +156,65 @@ public abstract class BrowserLauncher {
     }
 
     protected Browser createBrowser(LaunchOptions options, List<String> chromeArguments, String temporaryUserDataDir, boolean usePipe, List<String> defaultArgs, String customizedUserDataDir) {
+        long start = System.nanoTime();
+        LaunchTimings timings = new LaunchTimings();
         BrowserRunner runner = new BrowserRunner(this.executablePath, chromeArguments, temporaryUserDataDir, options.getProduct(), options.getProtocol(), customizedUserDataDir, options.getEnv(), usePipe);
+        runner.setDumpio(options.getDumpio());
         try {
             Connection connection;
+            Browser browser;
             if (usePipe) {
                 runner.start();
-                PipeTransport pipeTransport = new PipeTransport(runner.getProcess().getInputStream(), runner.getProcess().getOutputStream());
+                timings.setProcessSpawned(elapsed(start));
+                PipeTransport pipeTransport = runner.createPipeTransport(options.getTimeout());
                 connection = new CdpConnection("", pipeTransport, options.getSlowMo(), options.getProtocolTimeout());
+                timings.setTransportConnected(elapsed(start));
                 runner.setConnection(connection);
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("Connect to browser by pipe");
                 }
-                return createCdpBrowser(options, defaultArgs, runner, connection);
+                browser = createCdpBrowser(options, defaultArgs, runner, connection, timings, start);
             } else {
                 if (Protocol.CDP.equals(options.getProtocol())) {
                     runner.start();
+                    timings.setProcessSpawned(elapsed(start));
                     String endpoint = this.waitForWSEndpoint(options.getTimeout(), options.getDumpio(), options.getProtocol(), runner.getProcess());
+                    timings.setEndpointDiscovered(elapsed(start));
                     ConnectionTransport transport = WebSocketTransportFactory.create(endpoint);
                     connection = new CdpConnection(endpoint, transport, options.getSlowMo(), options.getProtocolTimeout());
+                    timings.setTransportConnected(elapsed(start));
                     runner.setConnection(connection);
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Connect to browser by websocket url: {}", endpoint);
                     }
-                    return createCdpBrowser(options, defaultArgs, runner, connection);
+                    browser = createCdpBrowser(options, defaultArgs, runner, connection, timings, start);
                 } else {
                     if (Objects.equals(options.getProduct(), Product.Firefox)) {
                         runner.start();
+                        timings.setProcessSpawned(elapsed(start));
                         String endpoint = this.waitForWSEndpoint(options.getTimeout(), options.getDumpio(), options.getProtocol(), runner.getProcess());
+                        timings.setEndpointDiscovered(elapsed(start));
                         ConnectionTransport transport = WebSocketTransportFactory.create(endpoint + "/session");
                         connection = new BidiConnection(endpoint + "/session", transport, options.getSlowMo(), options.getProtocolTimeout());
+                        timings.setTransportConnected(elapsed(start));
                         runner.setConnection(connection);
                         if (LOGGER.isDebugEnabled()) {
                             LOGGER.debug("Connect to browser by webDriverBidi url: {}", endpoint + "/session");
                         }
                         Runnable closeCallback = runner::closeBrowser;
-                        return createBiDiBrowser((BidiConnection) connection, closeCallback, runner.getProcess(), options);
+                        browser = createBiDiBrowser((BidiConnection) connection, closeCallback, runner.getProcess(), options);
+                        timings.setTargetsAttached(elapsed(start));
                     } else {
                         throw new LaunchException("Chrome dont not support protocol: " + options.getProtocol() + " yet");
                     }
                 }
             }
+            timings.setTotal(elapsed(start));
+            browser.setLaunchTimings(timings);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Browser launch timings: {}", timings);
+            }
+            return browser;
         } catch (Exception e) {
             runner.closeBrowser();
             if (Objects.nonNull(e.getMessage()) && e.getMessage().contains("Failed to create a ProcessSingleton for your profile directory")) {
@@ -200,10 +227,14 @@ public abstract class BrowserLauncher {
         }
     }
 
+    private static long elapsed(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
     /**
      * waiting for browser ws url
      *
-     * @param timeout 等待超时时间
+     * @param timeout 等待超时时间，0 表示不限时
      * @param dumpio  是否用标准输出打印 chrome 进程的输出流
      * @return 连接websocket的url
      */
@@ -211,9 +242,11 @@ public abstract class BrowserLauncher {
         return new StreamReader(timeout, dumpio, process.getInputStream(), protocol).waitFor();
     }
 
+    /**
+     * 在单独的线程中读取浏览器输出，调用线程按截止时间等待，浏览器没有任何输出时也能按时超时
+     */
     static class StreamReader {
-        private final StringBuilder chromeOutputBuilder = new StringBuilder();
-        private volatile String wsEndpoint = null;
+        private final StringBuffer chromeOutputBuilder = new StringBuffer();
         private final int timeout;
         private final boolean dumpio;
         private final InputStream inputStream;
@@ -227,42 +260,63 @@ public abstract class BrowserLauncher {
         }
 
         public String waitFor() {
+            CompletableFuture<String> endpoint = new CompletableFuture<>();
+            Thread readerThread = new Thread(() -> this.read(endpoint), "jvppeteer-launch-output-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+            try {
+                return this.timeout > 0 ? endpoint.get(this.timeout, TimeUnit.MILLISECONDS) : endpoint.get();
+            } catch (java.util.concurrent.TimeoutException e) {
+                // 调用方会关闭浏览器进程，输出流随之关闭，读取线程自然结束
+                throw new TimeoutException("Timed out after " + this.timeout + " ms while waiting for the WS endpoint URL to appear in stdout! Browser process Output: " + chromeOutputBuilder);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LaunchException("Interrupted while waiting for the browser process to start", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof LaunchException) {
+                    throw (LaunchException) cause;
+                }
+                throw new LaunchException("Failed to launch the browser process! " + cause.getMessage() + chromeOutputBuilder, cause);
+            }
+        }
+
+        private void read(CompletableFuture<String> endpoint) {
             try (InputStreamReader inputStreamReader = new InputStreamReader(inputStream);
                  BufferedReader reader = new BufferedReader(inputStreamReader)) {
-                long now = System.currentTimeMillis();
-                long base = 0;
                 String line;
                 while ((line = reader.readLine()) != null) {
-                    long remaining = timeout - base;
-                    if (remaining <= 0) {
-                        throw new TimeoutException("Failed to launch the browser process!" + "Chrome output: " + chromeOutputBuilder);
-                    }
                     if (dumpio) {
                         System.out.println(line);
                     }
+                    if (endpoint.isDone()) {
+                        // 已经超时，不再继续读取
+                        return;
+                    }
                     //只要是 Product.Firefox 就是 用 webdriver-bidi
                     Matcher matcher = Objects.equals(Protocol.WebDriverBiDi, this.protocol) ? BiDi_ENDPOINT_PATTERN.matcher(line) : WS_ENDPOINT_PATTERN.matcher(line);
                     if (matcher.find()) {
-                        wsEndpoint = matcher.group(1);
-                        return wsEndpoint;
+                        endpoint.complete(matcher.group(1));
+                        return;
                     }
                     chromeOutputBuilder.append(line).append(System.lineSeparator());
-                    base = System.currentTimeMillis() - now;
                 }
-                throw new LaunchException("Failed to launch the browser process! Browser process Output: " + chromeOutputBuilder);
+                endpoint.completeExceptionally(new LaunchException("Failed to launch the browser process! Browser process Output: " + chromeOutputBuilder));
             } catch (Exception e) {
-                throw new LaunchException("Failed to launch the browser process! " + e.getMessage() + chromeOutputBuilder, e);
+                endpoint.completeExceptionally(e);
             }
         }
     }
 
-    private CdpBrowser createCdpBrowser(LaunchOptions options, List<String> defaultArgs, BrowserRunner runner, Connection connection) {
+    private CdpBrowser createCdpBrowser(LaunchOptions options, List<String> defaultArgs, BrowserRunner runner, Connection connection, LaunchTimings timings, long start) {
         Runnable closeCallback = runner::closeBrowser;
         CdpBrowser cdpBrowser = CdpBrowser.create(connection, new ArrayList<>(), options.getAcceptInsecureCerts(), options.getDefaultViewport(), runner.getProcess(), closeCallback, options.getTargetFilter(), null, true, options.getNetworkEnabled(), options.getHandleDevToolsAsPage());
+        timings.setTargetsAttached(elapsed(start));
         cdpBrowser.setExecutablePath(this.executablePath);
         cdpBrowser.setDefaultArgs(defaultArgs);
         if (options.getWaitForInitialPage()) {
             cdpBrowser.waitForTarget(t -> TargetType.PAGE.equals(t.type()), options.getTimeout());
+            timings.setInitialPageReady(elapsed(start));
         }
         connection.setCloseRunner(() -> {
             //专门用于浏览器意外关闭的逻辑
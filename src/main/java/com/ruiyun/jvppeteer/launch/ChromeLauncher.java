@@ -26,9 +26,6 @@ public class ChromeLauncher extends BrowserLauncher {
 
     @Override
     public Browser launch(LaunchOptions options) throws IOException {
-        if (options.getArgs() == null) {
-            options.setArgs(new ArrayList<>());
-        }
         this.executablePath = this.computeExecutablePath(options.getExecutablePath(), options.getPreferredRevision());
 
         //临时的 UserDataDir
@@ -49,7 +46,11 @@ public class ChromeLauncher extends BrowserLauncher {
             }
         }
         if (!isCustomUserDir) {
-            temporaryUserDataDir = FileUtil.createProfileDir(Constant.CHROME_PROFILE_PREFIX);
+            if (StringUtil.isNotEmpty(options.getProfileTemplate())) {
+                temporaryUserDataDir = ProfileTemplate.clone(options.getProfileTemplate(), Constant.CHROME_PROFILE_PREFIX);
+            } else {
+                temporaryUserDataDir = FileUtil.createProfileDir(Constant.CHROME_PROFILE_PREFIX);
+            }
             chromeArguments.add("--user-data-dir=" + temporaryUserDataDir);
         }
         if (!isCustomRemoteDebugger) {
@@ -76,9 +77,11 @@ public class ChromeLauncher extends BrowserLauncher {
      */
     @Override
     public List<String> defaultArgs(LaunchOptions options) {
-        List<String> userDisabledFeatures = getFeatures("--disable-features", options.getArgs());
-        if (ValidateUtil.isNotEmpty(options.getArgs()) && !userDisabledFeatures.isEmpty()) {
-            removeMatchingFlags(options, "--disable-features");
+        //不修改传入的参数，同一份参数可能被多次或者并发用于启动
+        List<String> userArgs = options.getArgs() == null ? new ArrayList<>() : new ArrayList<>(options.getArgs());
+        List<String> userDisabledFeatures = getFeatures("--disable-features", userArgs);
+        if (!userDisabledFeatures.isEmpty()) {
+            userArgs = removeMatchingFlags(userArgs, "--disable-features");
         }
         boolean turnOnExperimentalFeaturesForTesting = "true".equals(System.getProperty(JVPPETEER_TEST_EXPERIMENTAL_CHROME_FEATURES));
         List<String> disabledFeatures = new ArrayList<>();
@@ -92,9 +95,9 @@ public class ChromeLauncher extends BrowserLauncher {
         }
         disabledFeatures.addAll(userDisabledFeatures);
         disabledFeatures = disabledFeatures.stream().filter(feature -> !"".equals(feature)).collect(Collectors.toList());
-        List<String> userEnabledFeatures = getFeatures("--enable-features", options.getArgs());
-        if (ValidateUtil.isNotEmpty(options.getArgs()) && !userEnabledFeatures.isEmpty()) {
-            removeMatchingFlags(options, "--enable-features");
+        List<String> userEnabledFeatures = getFeatures("--enable-features", userArgs);
+        if (!userEnabledFeatures.isEmpty()) {
+            userArgs = removeMatchingFlags(userArgs, "--enable-features");
         }
         List<String> enabledFeatures = new ArrayList<>();
         enabledFeatures.add("PdfOopif");
@@ -134,24 +137,23 @@ public class ChromeLauncher extends BrowserLauncher {
                 chromeArguments.add("--mute-audio");
             }
         }
-        List<String> args;
-        if (ValidateUtil.isNotEmpty(args = options.getArgs())) {
-            for (String arg : args) {
+        if (ValidateUtil.isNotEmpty(userArgs)) {
+            for (String arg : userArgs) {
                 if (arg.startsWith("--")) {
                     chromeArguments.add("about:blank");
                     break;
                 }
             }
-            chromeArguments.addAll(args);
+            chromeArguments.addAll(userArgs);
         } else {
             chromeArguments.add("about:blank");
         }
         return chromeArguments;
     }
 
-    private void removeMatchingFlags(LaunchOptions options, String flag) {
+    private List<String> removeMatchingFlags(List<String> args, String flag) {
         Pattern regex = Pattern.compile("^" + flag + "=.*");
-        options.setArgs(options.getArgs().stream().filter(s -> !regex.matcher(s).find()).collect(Collectors.toList()));
+        return args.stream().filter(s -> !regex.matcher(s).find()).collect(Collectors.toList());
     }
 
     private List<String> getFeatures(String flag, List<String> options) {
@@ -159,7 +161,7 @@ public class ChromeLauncher extends BrowserLauncher {
         return options.stream()
                 .filter(s -> s.startsWith(prefix))
                 .map(s -> {
-                    String[] splitArray = s.split(flag + "\\s*");
+                    String[] splitArray = s.split(prefix + "\\s*");
                     if (splitArray.length > 1) {
                         if (StringUtil.isNotEmpty(splitArray[1])) {
                             return splitArray[1].trim();
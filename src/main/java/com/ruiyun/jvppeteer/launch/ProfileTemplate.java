@@ -0,0 +1,256 @@
+package com.ruiyun.jvppeteer.launch;
+
+import com.ruiyun.jvppeteer.api.core.Browser;
+import com.ruiyun.jvppeteer.api.core.Page;
+import com.ruiyun.jvppeteer.cdp.core.Puppeteer;
+import com.ruiyun.jvppeteer.cdp.entities.LaunchOptions;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.util.FileUtil;
+import com.ruiyun.jvppeteer.util.Helper;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 用户数据目录模板
+ * <p>
+ * Chrome 使用全新的用户数据目录启动时，需要初始化组件、写入首次运行的文件等，每个浏览器都要重复一遍。
+ * 通过 {@link #prepare(String, LaunchOptions)} 预先准备一个已经初始化过的目录，启动时配置
+ * {@link LaunchOptions#setProfileTemplate(String)}，每次启动从模板克隆出临时目录即可。
+ * <p>
+ * 文件系统支持 reflink（btrfs、xfs、APFS 等）时按写时复制克隆，否则并行复制文件。
+ * 不使用硬链接：Chrome 会原地改写 SQLite、LevelDB 等文件，硬链接会把改动带回模板。
+ */
+public class ProfileTemplate {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProfileTemplate.class);
+
+    /**
+     * 模板准备完成的标记文件
+     */
+    private static final String READY_MARKER = ".jvppeteer-profile-template";
+
+    /**
+     * 浏览器运行时持有的单例锁，克隆时跳过，否则新浏览器会认为目录正在被使用
+     */
+    private static final String SINGLETON_PREFIX = "Singleton";
+
+    /**
+     * 各模板所在的文件系统是否支持 reflink
+     */
+    private static final Map<Path, Boolean> REFLINK_SUPPORTED = new ConcurrentHashMap<>();
+
+    private ProfileTemplate() {
+    }
+
+    /**
+     * 准备模板：用模板目录作为用户数据目录启动一次浏览器，完成首次运行的初始化后正常关闭
+     * <p>
+     * 模板已经准备过时直接返回。多个线程或者进程同时准备同一个模板时，持有文件锁的一方启动浏览器，其余等待后直接返回
+     *
+     * @param templateDir 模板目录
+     * @param options     启动参数，不会被修改，使用副本启动
+     * @return 模板目录
+     * @throws IOException 启动浏览器或写入模板失败
+     */
+    public static String prepare(String templateDir, LaunchOptions options) throws IOException {
+        Path template = Paths.get(templateDir).toAbsolutePath().normalize();
+        if (isReady(template)) {
+            return template.toString();
+        }
+        Closeable lock = FileUtil.lock(Paths.get(template + ".lock"));
+        try {
+            // 等待锁期间其他线程或者进程可能已经准备好了
+            if (isReady(template)) {
+                return template.toString();
+            }
+            FileUtil.createDirs(template);
+            LaunchOptions launchOptions = options.copy();
+            launchOptions.setUserDataDir(template.toString());
+            launchOptions.setProfileTemplate(null);
+            try {
+                Browser browser = Puppeteer.launch(launchOptions);
+                Process process = browser.process();
+                try {
+                    Page page = browser.newPage();
+                    page.goTo("about:blank");
+                } finally {
+                    browser.close();
+                }
+                // 浏览器进程在后台退出，等它把文件写完再作为模板
+                if (process != null && !process.waitFor(30, TimeUnit.SECONDS)) {
+                    throw new JvppeteerException("Browser used to prepare profile template did not exit");
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new JvppeteerException("Failed to prepare profile template " + template, e);
+            }
+            removeSingletons(template);
+            Files.createFile(template.resolve(READY_MARKER));
+            return template.toString();
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * 模板是否已经准备完成
+     *
+     * @param template 模板目录
+     * @return 准备完成返回 true
+     */
+    public static boolean isReady(Path template) {
+        return Files.isRegularFile(template.resolve(READY_MARKER));
+    }
+
+    /**
+     * 从模板克隆出一个临时的用户数据目录
+     *
+     * @param templateDir 模板目录
+     * @param prefix      临时目录的前缀
+     * @return 克隆出的目录
+     */
+    public static String clone(String templateDir, String prefix) {
+        Path template = Paths.get(templateDir).toAbsolutePath().normalize();
+        if (!isReady(template)) {
+            throw new JvppeteerException("Profile template " + template + " is not prepared, call ProfileTemplate.prepare first");
+        }
+        String target = FileUtil.createProfileDir(prefix);
+        long start = System.nanoTime();
+        try {
+            if (!reflink(template, Paths.get(target))) {
+                parallelCopy(template, Paths.get(target));
+            }
+            Files.deleteIfExists(Paths.get(target, READY_MARKER));
+        } catch (Exception e) {
+            try {
+                deleteTree(Paths.get(target));
+            } catch (IOException ignored) {
+            }
+            throw new JvppeteerException("Failed to clone profile template " + template, e);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Cloned profile template {} to {} in {}ms", template, target, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return target;
+    }
+
+    /**
+     * 用 cp 的 reflink 克隆，文件系统不支持时返回 false
+     */
+    private static boolean reflink(Path template, Path target) throws IOException, InterruptedException {
+        if (!Helper.isUnixLike() || Boolean.FALSE.equals(REFLINK_SUPPORTED.get(template))) {
+            return false;
+        }
+        List<String> command = new ArrayList<>();
+        if (Helper.isMac()) {
+            // APFS 上 cp -c 使用 clonefile
+            command.add("cp");
+            command.add("-cR");
+        } else {
+            command.add("cp");
+            command.add("-a");
+            command.add("--reflink=always");
+        }
+        try (Stream<Path> children = Files.list(template)) {
+            List<Path> entries = children.filter(ProfileTemplate::shouldCopy).collect(Collectors.toList());
+            if (entries.isEmpty()) {
+                return true;
+            }
+            for (Path entry : entries) {
+                command.add(entry.toString());
+            }
+        }
+        command.add(target.toString());
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        process.getInputStream().close();
+        boolean success = process.waitFor(60, TimeUnit.SECONDS) && process.exitValue() == 0;
+        if (!success) {
+            process.destroyForcibly();
+            // 清理复制了一半的文件，改用普通复制
+            deleteTree(target);
+            Files.createDirectories(target);
+            LOGGER.debug("Reflink is not supported for profile template {}, falling back to parallel copy", template);
+        }
+        REFLINK_SUPPORTED.put(template, success);
+        return success;
+    }
+
+    /**
+     * 先按顺序创建目录，再并行复制文件，符号链接按链接本身复制
+     */
+    private static void parallelCopy(Path template, Path target) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(template)) {
+            for (Path source : (Iterable<Path>) paths::iterator) {
+                if (source.equals(template) || !shouldCopy(source)) {
+                    continue;
+                }
+                Path destination = target.resolve(template.relativize(source).toString());
+                if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createDirectories(destination);
+                } else {
+                    files.add(source);
+                }
+            }
+        }
+        try {
+            files.parallelStream().forEach(source -> {
+                try {
+                    Files.copy(source, target.resolve(template.relativize(source).toString()), LinkOption.NOFOLLOW_LINKS, StandardCopyOption.COPY_ATTRIBUTES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 删除目录，符号链接只删除链接本身
+     */
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static boolean shouldCopy(Path path) {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString();
+        return !name.startsWith(SINGLETON_PREFIX) && !READY_MARKER.equals(name);
+    }
+
+    private static void removeSingletons(Path template) throws IOException {
+        try (Stream<Path> children = Files.list(template)) {
+            for (Path child : children.collect(Collectors.toList())) {
+                String name = child.getFileName().toString();
+                if (StringUtil.isNotEmpty(name) && name.startsWith(SINGLETON_PREFIX)) {
+                    Files.deleteIfExists(child);
+                }
+            }
+        }
+    }
+}
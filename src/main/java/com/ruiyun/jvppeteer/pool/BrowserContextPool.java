@@ -0,0 +1,448 @@
+package com.ruiyun.jvppeteer.pool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ruiyun.jvppeteer.api.core.Browser;
+import com.ruiyun.jvppeteer.api.core.BrowserContext;
+import com.ruiyun.jvppeteer.api.core.CDPSession;
+import com.ruiyun.jvppeteer.api.core.Connection;
+import com.ruiyun.jvppeteer.api.core.Page;
+import com.ruiyun.jvppeteer.api.core.Target;
+import com.ruiyun.jvppeteer.api.events.BrowserContextEvents;
+import com.ruiyun.jvppeteer.api.events.ConnectionEvents;
+import com.ruiyun.jvppeteer.cdp.core.CdpBrowserContext;
+import com.ruiyun.jvppeteer.cdp.core.CdpTarget;
+import com.ruiyun.jvppeteer.cdp.entities.BrowserContextPoolOptions;
+import com.ruiyun.jvppeteer.cdp.events.FrameNavigatedEvent;
+import com.ruiyun.jvppeteer.cdp.events.RequestWillBeSentEvent;
+import com.ruiyun.jvppeteer.common.ParamsFactory;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 隐身浏览器上下文池，用于多租户隔离
+ * <p>
+ * 上下文归还后在后台清理，而不是销毁再创建：通过上下文内页面的会话清除访问过的 origin 的存储（Storage.clearDataForOrigin）、
+ * HTTP 缓存和 cookie（Network.clearBrowserCache、Network.clearBrowserCookies），关闭上下文中的页面，
+ * 重置权限（Browser.resetPermissions），最后通过 Storage.getCookies 确认 cookie 已经清空。
+ * 清理失败或者不是 CDP 连接的上下文会被销毁，并在后台创建新的上下文替补。
+ * <p>
+ * 访问过的 origin 从三个来源记录：上下文中 target 的 URL，以及 target 会话上的 Network.requestWillBeSent（包括子资源和 iframe 文档请求）
+ * 和 Page.frameNavigated 事件。会话事件在页面开启 Network、Page 域之后才有，从未通过 {@link Target#page()} 打开的弹出窗口
+ * 只记录它自己的 URL，对这类场景要求严格隔离时可以把 maxUses 设为 1。
+ */
+public class BrowserContextPool implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrowserContextPool.class);
+
+    private static final long POLL_INTERVAL = 200;
+
+    private final Browser browser;
+
+    private final BrowserContextPoolOptions options;
+
+    private final LinkedBlockingDeque<PooledContext> idle = new LinkedBlockingDeque<>();
+
+    private final Map<BrowserContext, PooledContext> contexts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicInteger creating = new AtomicInteger();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicLong wipes = new AtomicLong();
+
+    private final AtomicLong disposals = new AtomicLong();
+
+    private final AtomicLong totalWipeTime = new AtomicLong();
+
+    private final ExecutorService executor;
+
+    private volatile boolean closed;
+
+    /**
+     * 创建上下文池，并在后台创建 minSize 个上下文
+     *
+     * @param browser 浏览器
+     * @param options 配置
+     */
+    public BrowserContextPool(Browser browser, BrowserContextPoolOptions options) {
+        Objects.requireNonNull(browser, "browser");
+        Objects.requireNonNull(options, "options");
+        ValidateUtil.assertArg(options.getMinSize() >= 0, "minSize must not be negative");
+        ValidateUtil.assertArg(options.getMaxSize() > 0 && options.getMaxSize() >= options.getMinSize(), "maxSize must be positive and not less than minSize");
+        this.browser = browser;
+        this.options = options;
+        this.executor = Executors.newCachedThreadPool(new NamedThreadFactory("jvppeteer-context-pool", true));
+        this.ensureMinSize();
+    }
+
+    public BrowserContext lease() {
+        return this.lease(this.options.getLeaseTimeout());
+    }
+
+    /**
+     * 租借一个干净的上下文
+     *
+     * @param timeout 超时时间，单位毫秒
+     * @return 上下文
+     */
+    public BrowserContext lease(long timeout) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            if (this.closed) {
+                throw new JvppeteerException("BrowserContextPool is closed");
+            }
+            PooledContext pooled = this.idle.pollFirst();
+            if (pooled == null) {
+                if (this.creating.get() <= this.waiting.get()) {
+                    this.tryCreate();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Waiting for browser context from pool failed: timeout " + timeout + "ms exceeded");
+                }
+                this.waiting.incrementAndGet();
+                try {
+                    pooled = this.idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JvppeteerException(e);
+                } finally {
+                    this.waiting.decrementAndGet();
+                }
+                if (pooled == null) {
+                    continue;
+                }
+            }
+            if (pooled.context.closed() || !this.browser.connected()) {
+                this.dispose(pooled);
+                continue;
+            }
+            pooled.busy = true;
+            pooled.uses++;
+            return pooled.context;
+        }
+    }
+
+    /**
+     * 归还上下文，上下文在后台清理后才能再次被租借
+     *
+     * @param context 租借的上下文
+     */
+    public void release(BrowserContext context) {
+        PooledContext pooled = this.contexts.get(context);
+        ValidateUtil.assertArg(pooled != null, "BrowserContext does not belong to this pool");
+        ValidateUtil.assertArg(pooled.busy, "BrowserContext is not leased");
+        pooled.busy = false;
+        if (this.closed || (this.options.getMaxUses() > 0 && pooled.uses >= this.options.getMaxUses())) {
+            this.dispose(pooled);
+            return;
+        }
+        try {
+            this.executor.execute(() -> {
+                if (this.wipe(pooled)) {
+                    this.idle.offerFirst(pooled);
+                } else {
+                    this.dispose(pooled);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.dispose(pooled);
+        }
+    }
+
+    /**
+     * 销毁上下文而不是归还
+     *
+     * @param context 租借的上下文
+     */
+    public void invalidate(BrowserContext context) {
+        PooledContext pooled = this.contexts.get(context);
+        ValidateUtil.assertArg(pooled != null, "BrowserContext does not belong to this pool");
+        pooled.busy = false;
+        this.dispose(pooled);
+    }
+
+    public int idleCount() {
+        return this.idle.size();
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * @return 累计清理后复用的次数
+     */
+    public long wipeCount() {
+        return this.wipes.get();
+    }
+
+    /**
+     * @return 累计销毁的上下文数量，包括清理失败和达到 maxUses 的上下文
+     */
+    public long disposalCount() {
+        return this.disposals.get();
+    }
+
+    /**
+     * @return 平均清理耗时，单位毫秒
+     */
+    public double averageWipeTime() {
+        long wipes = this.wipes.get();
+        return wipes == 0 ? 0 : (double) this.totalWipeTime.get() / wipes;
+    }
+
+    public Browser browser() {
+        return this.browser;
+    }
+
+    /**
+     * 销毁池中所有上下文，包括尚未归还的上下文，不会关闭浏览器
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.idle.clear();
+        for (PooledContext pooled : new ArrayList<>(this.contexts.values())) {
+            this.contexts.remove(pooled.context);
+            pooled.unwatch();
+            closeQuietly(pooled.context);
+        }
+        this.executor.shutdown();
+    }
+
+    private boolean wipe(PooledContext pooled) {
+        if (!(pooled.context instanceof CdpBrowserContext) || pooled.context.closed() || !this.browser.connected()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        BrowserContext context = pooled.context;
+        Connection connection = this.browser.connection();
+        try {
+            // 存储、缓存和 cookie 要通过上下文内页面的会话清除，浏览器级别的会话作用于默认上下文
+            List<Page> pages = context.pages();
+            Page page = pages.isEmpty() ? context.newPage() : pages.get(0);
+            CDPSession session = page.createCDPSession();
+            try {
+                Map<String, Object> params = ParamsFactory.create();
+                params.put("storageTypes", "all");
+                for (String origin : pooled.drainOrigins()) {
+                    params.put("origin", origin);
+                    session.send("Storage.clearDataForOrigin", params);
+                }
+                session.send("Network.clearBrowserCache");
+                session.send("Network.clearBrowserCookies");
+            } finally {
+                session.detach();
+            }
+            for (Page contextPage : context.pages()) {
+                contextPage.close();
+            }
+            // 页面已经关闭，漏掉 TargetDestroyed 的会话也不再保留
+            pooled.unwatchSessions();
+            context.clearPermissionOverrides();
+            Map<String, Object> params = ParamsFactory.create();
+            params.put("browserContextId", context.id());
+            JsonNode cookies = connection.send("Storage.getCookies", params).get("cookies");
+            if (cookies != null && cookies.size() > 0) {
+                LOGGER.warn("Browser context wipe verification failed: {} cookies remain", cookies.size());
+                return false;
+            }
+            this.wipes.incrementAndGet();
+            this.totalWipeTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("Failed to wipe browser context, disposing it", e);
+            return false;
+        }
+    }
+
+    private void dispose(PooledContext pooled) {
+        if (this.contexts.remove(pooled.context) == null) {
+            return;
+        }
+        this.idle.remove(pooled);
+        this.size.decrementAndGet();
+        this.disposals.incrementAndGet();
+        pooled.unwatch();
+        try {
+            this.executor.execute(() -> closeQuietly(pooled.context));
+        } catch (RejectedExecutionException e) {
+            closeQuietly(pooled.context);
+        }
+        this.ensureMinSize();
+    }
+
+    private void ensureMinSize() {
+        while (!this.closed && this.size.get() < this.options.getMinSize()) {
+            if (!this.tryCreate()) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryCreate() {
+        while (true) {
+            int current = this.size.get();
+            if (this.closed || current >= this.options.getMaxSize()) {
+                return false;
+            }
+            if (this.size.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        this.creating.incrementAndGet();
+        try {
+            this.executor.execute(this::create);
+        } catch (RejectedExecutionException e) {
+            this.creating.decrementAndGet();
+            this.size.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void create() {
+        BrowserContext context;
+        try {
+            context = this.browser.createBrowserContext(this.options.getContextOptions());
+        } catch (Exception e) {
+            LOGGER.error("Failed to create browser context for pool", e);
+            this.size.decrementAndGet();
+            this.creating.decrementAndGet();
+            return;
+        }
+        PooledContext pooled = new PooledContext(context);
+        this.contexts.put(context, pooled);
+        this.creating.decrementAndGet();
+        if (this.closed) {
+            this.contexts.remove(context);
+            pooled.unwatch();
+            closeQuietly(context);
+            return;
+        }
+        this.idle.offerLast(pooled);
+    }
+
+    private static void closeQuietly(BrowserContext context) {
+        try {
+            if (!context.closed()) {
+                context.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Failed to close pooled browser context", e);
+        }
+    }
+
+    /**
+     * 上下文以及租借期间访问过的 origin
+     */
+    private static class PooledContext {
+        private final BrowserContext context;
+        private final Set<String> origins = ConcurrentHashMap.newKeySet();
+        private final Consumer<Target> watchTarget = this::watchTarget;
+        private final Consumer<Target> unwatchTarget = this::unwatchTarget;
+        private final Consumer<Target> recordOrigin = target -> this.recordOrigin(target.url());
+        private final Consumer<RequestWillBeSentEvent> recordRequest = event -> this.recordOrigin(event.getRequest().getUrl());
+        private final Consumer<FrameNavigatedEvent> recordFrame = event -> this.recordOrigin(event.getFrame().getUrl());
+        /**
+         * 监听了事件的 target 会话，target 销毁或者清理上下文后移除
+         */
+        private final Set<CDPSession> sessions = ConcurrentHashMap.newKeySet();
+        private volatile boolean busy;
+        private int uses;
+
+        PooledContext(BrowserContext context) {
+            this.context = context;
+            context.on(BrowserContextEvents.TargetCreated, this.watchTarget);
+            context.on(BrowserContextEvents.TargetChanged, this.recordOrigin);
+            context.on(BrowserContextEvents.TargetDestroyed, this.unwatchTarget);
+        }
+
+        /**
+         * 记录 target 的 URL，并在 target 的会话上记录请求和 frame 导航的 URL
+         */
+        private void watchTarget(Target target) {
+            this.recordOrigin(target.url());
+            if (!(target instanceof CdpTarget)) {
+                return;
+            }
+            CDPSession session = ((CdpTarget) target).session();
+            if (session != null && this.sessions.add(session)) {
+                session.on(ConnectionEvents.Network_requestWillBeSent, this.recordRequest);
+                session.on(ConnectionEvents.Page_frameNavigated, this.recordFrame);
+            }
+        }
+
+        private void unwatchTarget(Target target) {
+            if (target instanceof CdpTarget) {
+                this.unwatch(((CdpTarget) target).session());
+            }
+        }
+
+        private void unwatch(CDPSession session) {
+            if (session != null && this.sessions.remove(session)) {
+                session.off(ConnectionEvents.Network_requestWillBeSent, this.recordRequest);
+                session.off(ConnectionEvents.Page_frameNavigated, this.recordFrame);
+            }
+        }
+
+        /**
+         * 移除所有会话上的监听，上下文上的监听保留
+         */
+        void unwatchSessions() {
+            for (CDPSession session : new ArrayList<>(this.sessions)) {
+                this.unwatch(session);
+            }
+        }
+
+        private void recordOrigin(String url) {
+            if (StringUtil.isEmpty(url) || !(url.startsWith("http:") || url.startsWith("https:"))) {
+                return;
+            }
+            try {
+                URI uri = URI.create(url);
+                this.origins.add(uri.getScheme() + "://" + uri.getRawAuthority());
+            } catch (IllegalArgumentException e) {
+                LOGGER.debug("Ignore malformed target url {}", url);
+            }
+        }
+
+        List<String> drainOrigins() {
+            List<String> drained = new ArrayList<>(this.origins);
+            this.origins.removeAll(drained);
+            return drained;
+        }
+
+        void unwatch() {
+            this.context.off(BrowserContextEvents.TargetCreated, this.watchTarget);
+            this.context.off(BrowserContextEvents.TargetChanged, this.recordOrigin);
+            this.context.off(BrowserContextEvents.TargetDestroyed, this.unwatchTarget);
+            this.unwatchSessions();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.ruiyun.jvppeteer.pool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ruiyun.jvppeteer.api.core.Browser;
+import com.ruiyun.jvppeteer.api.core.EventEmitter;
+import com.ruiyun.jvppeteer.api.core.Page;
+import com.ruiyun.jvppeteer.api.events.GovernorEvents;
+import com.ruiyun.jvppeteer.api.events.PageEvents;
+import com.ruiyun.jvppeteer.cdp.core.Puppeteer;
+import com.ruiyun.jvppeteer.cdp.entities.GovernorOptions;
+import com.ruiyun.jvppeteer.cdp.entities.ProcessUsage;
+import com.ruiyun.jvppeteer.cdp.entities.ResourceUsage;
+import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
+import com.ruiyun.jvppeteer.util.Helper;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 浏览器资源管控，定期采样浏览器及其子进程（渲染进程、GPU 进程等）的内存和 CPU
+ * <p>
+ * 进程列表和 CPU 时间来自 SystemInfo.getProcessInfo，常驻内存在 Linux 下读取 /proc/&lt;pid&gt;/status。
+ * 连续多次超过阈值时触发 {@link GovernorEvents#ThresholdExceeded}；开启 recycle 时随后回收浏览器：
+ * 通过 {@link #newPage()} 创建页面的调用方会等待，已经创建的页面全部关闭（或者等待超时）后关闭旧浏览器、启动新浏览器，
+ * 避免浏览器一直膨胀直到被 OOM killer 结束，所有标签页同时失败。
+ */
+public class BrowserGovernor extends EventEmitter<GovernorEvents> implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrowserGovernor.class);
+
+    private static final long POLL_INTERVAL = 200;
+
+    /**
+     * 回收时启动新浏览器的尝试次数，以及第一次重试前的等待时间（之后每次翻倍）
+     */
+    private static final int RELAUNCH_ATTEMPTS = 3;
+
+    private static final long RELAUNCH_DELAY = 1000;
+
+    private final GovernorOptions options;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 通过 governor 创建并且尚未关闭的页面
+     */
+    private final Set<Page> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 上一次采样时各进程的 CPU 时间，用于计算占用率
+     */
+    private final Map<Long, Double> lastCpuTimes = new HashMap<>();
+
+    private final Object recycleLock = new Object();
+
+    private volatile Browser browser;
+
+    private volatile boolean draining;
+
+    /**
+     * 已经通过 draining 检查、正在创建的页面数，由 recycleLock 保护。drain 时一并等待，避免页面刚创建就被关闭
+     */
+    private int creating;
+
+    private volatile boolean closed;
+
+    private volatile ResourceUsage lastUsage;
+
+    private long lastSampleTime;
+
+    private int exceededCount;
+
+    private BrowserGovernor(Browser browser, GovernorOptions options) {
+        this.browser = browser;
+        this.options = options;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("jvppeteer-browser-governor", true));
+    }
+
+    /**
+     * 开始管控浏览器
+     *
+     * @param browser 浏览器
+     * @param options 配置
+     * @return BrowserGovernor
+     */
+    public static BrowserGovernor attach(Browser browser, GovernorOptions options) {
+        Objects.requireNonNull(browser, "browser");
+        Objects.requireNonNull(options, "options");
+        ValidateUtil.assertArg(options.getSampleInterval() > 0, "sampleInterval must be positive");
+        ValidateUtil.assertArg(!options.getRecycle() || options.getLaunchOptions() != null, "launchOptions is required when recycle is enabled");
+        BrowserGovernor governor = new BrowserGovernor(browser, options);
+        governor.scheduler.scheduleWithFixedDelay(governor::tick, options.getSampleInterval(), options.getSampleInterval(), TimeUnit.MILLISECONDS);
+        return governor;
+    }
+
+    /**
+     * 当前管控的浏览器，回收后为新启动的浏览器
+     *
+     * @return 浏览器
+     */
+    public Browser browser() {
+        return this.browser;
+    }
+
+    /**
+     * 最近一次采样结果
+     *
+     * @return 还没有采样时为 null
+     */
+    public ResourceUsage lastUsage() {
+        return this.lastUsage;
+    }
+
+    public boolean draining() {
+        return this.draining;
+    }
+
+    /**
+     * 在当前浏览器中创建页面，正在回收时等待回收完成
+     *
+     * @return 页面
+     */
+    public Page newPage() {
+        long deadline = System.currentTimeMillis() + this.options.getDrainTimeout() + Constant.DEFAULT_TIMEOUT;
+        Browser browser;
+        synchronized (this.recycleLock) {
+            while (this.draining) {
+                if (this.closed) {
+                    throw new JvppeteerException("BrowserGovernor is closed");
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new TimeoutException("Timed out waiting for browser recycling to finish");
+                }
+                try {
+                    this.recycleLock.wait(POLL_INTERVAL);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JvppeteerException("Interrupted while waiting for browser recycling", e);
+                }
+            }
+            this.creating++;
+            browser = this.browser;
+        }
+        try {
+            Page page = browser.newPage();
+            this.inFlight.add(page);
+            page.once(PageEvents.Close, (Consumer<Object>) ignored -> this.inFlight.remove(page));
+            return page;
+        } finally {
+            synchronized (this.recycleLock) {
+                this.creating--;
+            }
+        }
+    }
+
+    /**
+     * 立即采样一次
+     *
+     * @return 采样结果
+     */
+    public synchronized ResourceUsage sample() {
+        long now = System.currentTimeMillis();
+        double elapsedSeconds = this.lastSampleTime == 0 ? 0 : (now - this.lastSampleTime) / 1000.0;
+        JsonNode response = this.browser.connection().send("SystemInfo.getProcessInfo");
+        ResourceUsage usage = new ResourceUsage();
+        usage.setTimestamp(now);
+        Map<Long, Double> cpuTimes = new HashMap<>();
+        long totalRss = 0;
+        boolean rssAvailable = false;
+        double totalCpu = 0;
+        Iterator<JsonNode> processInfos = response.get("processInfo").elements();
+        while (processInfos.hasNext()) {
+            JsonNode processInfo = processInfos.next();
+            ProcessUsage process = new ProcessUsage(processInfo.get(Constant.ID).asLong(), processInfo.get(Constant.TYPE).asText(), processInfo.path("cpuTime").asDouble());
+            Double previous = this.lastCpuTimes.get(process.getPid());
+            if (previous != null && elapsedSeconds > 0) {
+                process.setCpuPercent(Math.max(0, process.getCpuTime() - previous) / elapsedSeconds * 100);
+            }
+            process.setRss(readRss(process.getPid()));
+            if (process.getRss() >= 0) {
+                totalRss += process.getRss();
+                rssAvailable = true;
+            }
+            totalCpu += process.getCpuPercent();
+            cpuTimes.put(process.getPid(), process.getCpuTime());
+            usage.getProcesses().add(process);
+        }
+        usage.setTotalRss(rssAvailable ? totalRss : -1);
+        usage.setTotalCpuPercent(totalCpu);
+        usage.setExceeded(this.exceeded(usage));
+        this.lastCpuTimes.clear();
+        this.lastCpuTimes.putAll(cpuTimes);
+        this.lastSampleTime = now;
+        this.lastUsage = usage;
+        return usage;
+    }
+
+    /**
+     * 手动回收浏览器：等待进行中的页面关闭后重启
+     * <p>
+     * 新浏览器启动失败时按退避重试，仍然失败则触发 {@link GovernorEvents#RecycleFailed}，
+     * 下一次采样发现浏览器已经断开时会再次回收
+     */
+    public void recycle() {
+        ValidateUtil.assertArg(this.options.getLaunchOptions() != null, "launchOptions is required to recycle the browser");
+        synchronized (this.recycleLock) {
+            if (this.draining || this.closed) {
+                return;
+            }
+            this.draining = true;
+        }
+        Browser old = this.browser;
+        try {
+            this.drain();
+            try {
+                old.close();
+            } catch (Exception e) {
+                LOGGER.debug("Failed to close browser before recycling", e);
+            }
+            this.browser = this.relaunch();
+            synchronized (this) {
+                this.lastCpuTimes.clear();
+                this.lastSampleTime = 0;
+            }
+            LOGGER.info("Browser recycled by governor");
+            this.emit(GovernorEvents.Recycled, this.browser);
+        } catch (Exception e) {
+            LOGGER.error("Failed to recycle browser", e);
+            this.emit(GovernorEvents.RecycleFailed, e);
+        } finally {
+            synchronized (this.recycleLock) {
+                this.draining = false;
+                this.recycleLock.notifyAll();
+            }
+        }
+    }
+
+    private Browser relaunch() throws Exception {
+        long delay = RELAUNCH_DELAY;
+        for (int attempt = 1; ; attempt++) {
+            if (this.closed) {
+                throw new JvppeteerException("BrowserGovernor is closed");
+            }
+            try {
+                return Puppeteer.launch(this.options.getLaunchOptions().copy());
+            } catch (Exception e) {
+                if (attempt >= RELAUNCH_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.warn("Failed to launch browser while recycling (attempt {}), retrying in {}ms", attempt, delay, e);
+                Thread.sleep(delay);
+                delay <<= 1;
+            }
+        }
+    }
+
+    private void drain() {
+        long deadline = System.currentTimeMillis() + this.options.getDrainTimeout();
+        while (System.currentTimeMillis() < deadline) {
+            this.inFlight.removeIf(Page::isClosed);
+            boolean creating;
+            synchronized (this.recycleLock) {
+                creating = this.creating > 0;
+            }
+            if (this.inFlight.isEmpty() && !creating) {
+                return;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        LOGGER.warn("Drain timed out with {} pages still open, closing browser anyway", this.inFlight.size());
+        this.inFlight.clear();
+    }
+
+    private void tick() {
+        if (this.closed || this.draining) {
+            return;
+        }
+        try {
+            if (!this.browser.connected()) {
+                // 上一次回收没有启动成功，或者浏览器自己退出了
+                if (this.options.getRecycle()) {
+                    this.recycle();
+                }
+                return;
+            }
+            ResourceUsage usage = this.sample();
+            this.emit(GovernorEvents.Sample, usage);
+            if (usage.getExceeded() == null) {
+                this.exceededCount = 0;
+                return;
+            }
+            if (++this.exceededCount < Math.max(1, this.options.getConsecutiveSamples())) {
+                return;
+            }
+            this.exceededCount = 0;
+            LOGGER.warn("Browser resource threshold exceeded: {}", usage.getExceeded());
+            this.emit(GovernorEvents.ThresholdExceeded, usage);
+            if (this.options.getRecycle()) {
+                this.recycle();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Failed to sample browser resource usage", e);
+        }
+    }
+
+    private String exceeded(ResourceUsage usage) {
+        if (this.options.getMaxTotalRss() > 0 && usage.getTotalRss() > this.options.getMaxTotalRss()) {
+            return "total rss " + usage.getTotalRss() + " > " + this.options.getMaxTotalRss();
+        }
+        if (this.options.getMaxProcessRss() > 0) {
+            for (ProcessUsage process : usage.getProcesses()) {
+                if (process.getRss() > this.options.getMaxProcessRss()) {
+                    return process.getType() + " process " + process.getPid() + " rss " + process.getRss() + " > " + this.options.getMaxProcessRss();
+                }
+            }
+        }
+        if (this.options.getMaxCpuPercent() > 0 && usage.getTotalCpuPercent() > this.options.getMaxCpuPercent()) {
+            return "total cpu " + usage.getTotalCpuPercent() + "% > " + this.options.getMaxCpuPercent() + "%";
+        }
+        return null;
+    }
+
+    /**
+     * 读取 /proc/&lt;pid&gt;/status 中的 VmRSS
+     *
+     * @return 常驻内存，单位字节，非 Linux 或者读取失败时返回 -1
+     */
+    private static long readRss(long pid) {
+        if (!Helper.isLinux()) {
+            return -1;
+        }
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try (BufferedReader reader = Files.newBufferedReader(status, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    String[] parts = line.substring(6).trim().split("\\s+");
+                    return Long.parseLong(parts[0]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.trace("Failed to read rss of process {}", pid, e);
+        }
+        return -1;
+    }
+
+    /**
+     * 停止采样，不会关闭浏览器
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.scheduler.shutdownNow();
+        synchronized (this.recycleLock) {
+            this.recycleLock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.ruiyun.jvppeteer.pool;
+
+import com.ruiyun.jvppeteer.api.core.Browser;
+import com.ruiyun.jvppeteer.api.core.Connection;
+import com.ruiyun.jvppeteer.api.events.BrowserEvents;
+import com.ruiyun.jvppeteer.cdp.core.Puppeteer;
+import com.ruiyun.jvppeteer.cdp.entities.BrowserPoolMetrics;
+import com.ruiyun.jvppeteer.cdp.entities.BrowserPoolOptions;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 浏览器池，提前启动浏览器，让启动耗时不落在请求路径上
+ * <p>
+ * 通过 {@link #lease(long)} 租借浏览器，用完后通过 {@link #release(Browser)} 归还。
+ * 浏览器在以下情况退役并在后台启动替补：连接断开或者崩溃、租借次数达到 maxLeases、存活时间超过 maxAge。
+ * 后台定期检查空闲的浏览器，调用 Browser.getVersion 确认可用，并关闭超过 idleTimeout 的多余浏览器。
+ */
+public class BrowserPool implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrowserPool.class);
+
+    /**
+     * 等待空闲浏览器时，每隔一段时间重新判断是否需要启动新的浏览器
+     */
+    private static final long POLL_INTERVAL = 200;
+
+    private final BrowserPoolOptions options;
+
+    /**
+     * 空闲的浏览器，最近归还的在队首
+     */
+    private final LinkedBlockingDeque<PooledBrowser> idle = new LinkedBlockingDeque<>();
+
+    private final Map<Browser, PooledBrowser> browsers = new ConcurrentHashMap<>();
+
+    /**
+     * 已启动和正在启动的浏览器总数
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicInteger launching = new AtomicInteger();
+
+    /**
+     * 正在等待空闲浏览器的租借者数量
+     */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicLong launched = new AtomicLong();
+
+    private final AtomicLong launchFailures = new AtomicLong();
+
+    private final AtomicLong totalLaunchTime = new AtomicLong();
+
+    private final AtomicLong lastLaunchTime = new AtomicLong();
+
+    private final AtomicLong retired = new AtomicLong();
+
+    private final AtomicLong crashed = new AtomicLong();
+
+    private final AtomicLong leases = new AtomicLong();
+
+    private final AtomicLong totalLeaseWaitTime = new AtomicLong();
+
+    private final ExecutorService launchService;
+
+    private final ScheduledExecutorService healthCheckService;
+
+    private volatile boolean closed;
+
+    /**
+     * 创建浏览器池，并在后台启动 minSize 个浏览器
+     *
+     * @param options 配置
+     */
+    public BrowserPool(BrowserPoolOptions options) {
+        Objects.requireNonNull(options, "options");
+        Objects.requireNonNull(options.getLaunchOptions(), "launchOptions");
+        ValidateUtil.assertArg(options.getMinSize() >= 0, "minSize must not be negative");
+        ValidateUtil.assertArg(options.getMaxSize() > 0 && options.getMaxSize() >= options.getMinSize(), "maxSize must be positive and not less than minSize");
+        this.options = options;
+        this.launchService = Executors.newCachedThreadPool(new NamedThreadFactory("jvppeteer-browser-pool-launcher", true));
+        this.healthCheckService = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("jvppeteer-browser-pool-health", true));
+        if (options.getHealthCheckInterval() > 0) {
+            this.healthCheckService.scheduleWithFixedDelay(this::healthCheck, options.getHealthCheckInterval(), options.getHealthCheckInterval(), TimeUnit.MILLISECONDS);
+        }
+        this.ensureMinSize();
+    }
+
+    /**
+     * 阻塞直到池中至少有 minSize 个空闲浏览器
+     *
+     * @param timeout 超时时间，单位毫秒
+     */
+    public void warmUp(long timeout) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (this.idle.size() < this.options.getMinSize()) {
+            this.ensureMinSize();
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TimeoutException("Waiting for browser pool to warm up failed: timeout " + timeout + "ms exceeded");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JvppeteerException(e);
+            }
+        }
+    }
+
+    public Browser lease() {
+        return this.lease(this.options.getLeaseTimeout());
+    }
+
+    /**
+     * 租借一个浏览器，没有空闲浏览器且未达到 maxSize 时在后台启动一个
+     *
+     * @param timeout 超时时间，单位毫秒
+     * @return 浏览器
+     */
+    public Browser lease(long timeout) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            if (this.closed) {
+                throw new JvppeteerException("BrowserPool is closed");
+            }
+            PooledBrowser pooled = this.idle.pollFirst();
+            if (pooled == null) {
+                // 正在启动的浏览器都会被其他等待者拿走时才需要再启动
+                if (this.launching.get() <= this.waiting.get()) {
+                    this.tryLaunch();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Waiting for browser from pool failed: timeout " + timeout + "ms exceeded");
+                }
+                this.waiting.incrementAndGet();
+                try {
+                    pooled = this.idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JvppeteerException(e);
+                } finally {
+                    this.waiting.decrementAndGet();
+                }
+                if (pooled == null) {
+                    continue;
+                }
+            }
+            if (!this.isUsable(pooled, this.options.getTestOnLease())) {
+                this.retire(pooled);
+                continue;
+            }
+            pooled.busy = true;
+            pooled.leases++;
+            this.leases.incrementAndGet();
+            this.totalLeaseWaitTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return pooled.browser;
+        }
+    }
+
+    /**
+     * 归还浏览器，不可用或者达到退役条件的浏览器会被关闭
+     *
+     * @param browser 租借的浏览器
+     */
+    public void release(Browser browser) {
+        PooledBrowser pooled = this.browsers.get(browser);
+        ValidateUtil.assertArg(pooled != null, "Browser does not belong to this pool");
+        ValidateUtil.assertArg(pooled.busy, "Browser is not leased");
+        pooled.busy = false;
+        pooled.lastUsed = System.nanoTime();
+        if (this.closed || !this.isUsable(pooled, false) || this.reachedMaxLeases(pooled)) {
+            this.retire(pooled);
+            return;
+        }
+        this.idle.offerFirst(pooled);
+    }
+
+    /**
+     * 归还并关闭浏览器，例如使用过程中发现浏览器状态异常
+     *
+     * @param browser 租借的浏览器
+     */
+    public void invalidate(Browser browser) {
+        PooledBrowser pooled = this.browsers.get(browser);
+        ValidateUtil.assertArg(pooled != null, "Browser does not belong to this pool");
+        pooled.busy = false;
+        this.retire(pooled);
+    }
+
+    public BrowserPoolMetrics metrics() {
+        BrowserPoolMetrics metrics = new BrowserPoolMetrics();
+        int idle = this.idle.size();
+        int launching = this.launching.get();
+        metrics.setIdle(idle);
+        metrics.setLaunching(launching);
+        metrics.setBusy(Math.max(0, this.browsers.size() - idle));
+        metrics.setLaunched(this.launched.get());
+        metrics.setLaunchFailures(this.launchFailures.get());
+        metrics.setRetired(this.retired.get());
+        metrics.setCrashed(this.crashed.get());
+        metrics.setLeases(this.leases.get());
+        metrics.setLastLaunchTime(this.lastLaunchTime.get());
+        long launched = this.launched.get();
+        metrics.setAverageLaunchTime(launched == 0 ? 0 : (double) this.totalLaunchTime.get() / launched);
+        long leases = this.leases.get();
+        metrics.setAverageLeaseWaitTime(leases == 0 ? 0 : (double) this.totalLeaseWaitTime.get() / leases);
+        return metrics;
+    }
+
+    public BrowserPoolOptions options() {
+        return this.options;
+    }
+
+    /**
+     * 关闭池和池中所有浏览器，包括尚未归还的浏览器
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.healthCheckService.shutdownNow();
+        this.idle.clear();
+        for (PooledBrowser pooled : new ArrayList<>(this.browsers.values())) {
+            this.browsers.remove(pooled.browser);
+            closeQuietly(pooled.browser);
+        }
+        this.launchService.shutdown();
+    }
+
+    public boolean closed() {
+        return this.closed;
+    }
+
+    private boolean isUsable(PooledBrowser pooled, boolean ping) {
+        if (pooled.crashed || !pooled.browser.connected()) {
+            return false;
+        }
+        if (this.options.getMaxAge() > 0 && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.createdAt) >= this.options.getMaxAge()) {
+            return false;
+        }
+        if (ping) {
+            try {
+                pooled.browser.version();
+            } catch (Exception e) {
+                LOGGER.debug("Browser ping failed", e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean reachedMaxLeases(PooledBrowser pooled) {
+        return this.options.getMaxLeases() > 0 && pooled.leases >= this.options.getMaxLeases();
+    }
+
+    private void retire(PooledBrowser pooled) {
+        if (this.browsers.remove(pooled.browser) == null) {
+            return;
+        }
+        this.idle.remove(pooled);
+        this.size.decrementAndGet();
+        this.retired.incrementAndGet();
+        try {
+            this.launchService.execute(() -> closeQuietly(pooled.browser));
+        } catch (RejectedExecutionException e) {
+            closeQuietly(pooled.browser);
+        }
+        this.ensureMinSize();
+    }
+
+    private void ensureMinSize() {
+        while (!this.closed && this.size.get() < this.options.getMinSize()) {
+            if (!this.tryLaunch()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 未达到 maxSize 时在后台启动一个浏览器
+     *
+     * @return 是否启动
+     */
+    private boolean tryLaunch() {
+        while (true) {
+            int current = this.size.get();
+            if (this.closed || current >= this.options.getMaxSize()) {
+                return false;
+            }
+            if (this.size.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        this.launching.incrementAndGet();
+        try {
+            this.launchService.execute(this::launch);
+        } catch (Exception e) {
+            this.launching.decrementAndGet();
+            this.size.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void launch() {
+        long start = System.nanoTime();
+        Browser browser;
+        try {
+            browser = Puppeteer.launch(this.options.getLaunchOptions().copy());
+        } catch (Exception e) {
+            LOGGER.error("Failed to launch browser for pool", e);
+            this.launchFailures.incrementAndGet();
+            this.size.decrementAndGet();
+            this.launching.decrementAndGet();
+            return;
+        }
+        long launchTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        this.launched.incrementAndGet();
+        this.totalLaunchTime.addAndGet(launchTime);
+        this.lastLaunchTime.set(launchTime);
+        PooledBrowser pooled = new PooledBrowser(browser);
+        this.watchCrash(pooled);
+        this.browsers.put(browser, pooled);
+        this.launching.decrementAndGet();
+        if (this.closed) {
+            this.browsers.remove(browser);
+            closeQuietly(browser);
+            return;
+        }
+        this.idle.offerLast(pooled);
+    }
+
+    /**
+     * 连接意外断开时 Connection.closeRunner 会被调用，在原有逻辑之前标记浏览器已崩溃
+     */
+    private void watchCrash(PooledBrowser pooled) {
+        Connection connection = pooled.browser.connection();
+        if (connection != null) {
+            Runnable closeRunner = connection.closeRunner();
+            connection.setCloseRunner(() -> {
+                this.onCrash(pooled);
+                if (closeRunner != null) {
+                    closeRunner.run();
+                }
+            });
+        }
+        pooled.browser.once(BrowserEvents.Disconnected, (Consumer<Object>) ignore -> pooled.crashed = true);
+    }
+
+    private void onCrash(PooledBrowser pooled) {
+        pooled.crashed = true;
+        // 已经退役的浏览器被关闭时也会走到这里
+        if (this.closed || !this.browsers.containsKey(pooled.browser)) {
+            return;
+        }
+        this.crashed.incrementAndGet();
+        // 空闲的浏览器直接退役，已租借的浏览器在归还时退役
+        if (!pooled.busy) {
+            this.retire(pooled);
+        }
+    }
+
+    private void healthCheck() {
+        try {
+            for (PooledBrowser pooled : new ArrayList<>(this.idle)) {
+                // 检查期间不能被租借
+                if (!this.idle.remove(pooled)) {
+                    continue;
+                }
+                boolean idleTooLong = this.options.getIdleTimeout() > 0 && this.size.get() > this.options.getMinSize()
+                        && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.lastUsed) >= this.options.getIdleTimeout();
+                if (idleTooLong || !this.isUsable(pooled, true)) {
+                    this.retire(pooled);
+                } else {
+                    this.idle.offerLast(pooled);
+                }
+            }
+            this.ensureMinSize();
+        } catch (Exception e) {
+            LOGGER.error("Browser pool health check failed", e);
+        }
+    }
+
+    private static void closeQuietly(Browser browser) {
+        try {
+            browser.close();
+        } catch (Exception e) {
+            LOGGER.debug("Failed to close pooled browser", e);
+        }
+    }
+
+    private static class PooledBrowser {
+        private final Browser browser;
+        private final long createdAt = System.nanoTime();
+        private volatile long lastUsed = System.nanoTime();
+        private volatile boolean busy;
+        private volatile boolean crashed;
+        private int leases;
+
+        PooledBrowser(Browser browser) {
+            this.browser = browser;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.ruiyun.jvppeteer.pool;
+
+import com.ruiyun.jvppeteer.api.core.Browser;
+import com.ruiyun.jvppeteer.api.core.BrowserContext;
+import com.ruiyun.jvppeteer.api.core.Page;
+import com.ruiyun.jvppeteer.cdp.core.Puppeteer;
+import com.ruiyun.jvppeteer.cdp.entities.ClusterOptions;
+import com.ruiyun.jvppeteer.cdp.entities.ClusterStatistics;
+import com.ruiyun.jvppeteer.common.ConcurrencyModel;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
+import com.ruiyun.jvppeteer.util.StringUtil;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 任务执行集群，按并发模型为每个任务准备页面，并发执行排队的任务
+ * <p>
+ * 支持失败重试（指数退避）、单任务超时、优先级、跳过重复的 URL，以及定期输出进度和吞吐量。
+ * 任务超时后 Cluster 会关闭该任务的页面（CONTEXT 模型下关闭上下文，BROWSER 模型下关闭浏览器），
+ * 使任务中阻塞的调用尽快失败。
+ * <pre>{@code
+ * try (Cluster cluster = Cluster.launch(ConcurrencyModel.CONTEXT, 4)) {
+ *     cluster.task((page, url) -> { page.goTo((String) url); return page.title(); });
+ *     cluster.queue("https://example.com");
+ *     cluster.idle();
+ * }
+ * }</pre>
+ */
+public class Cluster implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Cluster.class);
+
+    private static final long POLL_INTERVAL = 200;
+
+    private final ClusterOptions options;
+
+    private final PriorityBlockingQueue<Job<?, ?>> queue = new PriorityBlockingQueue<>();
+
+    private final Set<String> seenUrls = ConcurrentHashMap.newKeySet();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Object idleLock = new Object();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 尚未结束的任务数，包括排队、执行中和等待重试的任务
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger delayed = new AtomicInteger();
+
+    /**
+     * 等待重试的任务，关闭时调度器中的重试会被丢弃，需要逐个以异常结束
+     */
+    private final Set<Job<?, ?>> delayedJobs = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong succeeded = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong retried = new AtomicLong();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final AtomicLong totalDuration = new AtomicLong();
+
+    private final long startTime = System.nanoTime();
+
+    private volatile ClusterTask<Object, Object> defaultTask;
+
+    /**
+     * PAGE 和 CONTEXT 模型下共用的浏览器
+     */
+    private volatile Browser browser;
+
+    private volatile boolean closed;
+
+    private Cluster(ClusterOptions options) {
+        this.options = options;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("jvppeteer-cluster-scheduler", true));
+    }
+
+    public static Cluster launch(ConcurrencyModel concurrency, int maxConcurrency) throws IOException {
+        ClusterOptions options = new ClusterOptions();
+        options.setConcurrency(concurrency);
+        options.setMaxConcurrency(maxConcurrency);
+        return launch(options);
+    }
+
+    /**
+     * 启动集群，PAGE 和 CONTEXT 模型会立即启动共用的浏览器
+     *
+     * @param options 配置
+     * @return 集群
+     * @throws IOException 启动浏览器失败
+     */
+    public static Cluster launch(ClusterOptions options) throws IOException {
+        Objects.requireNonNull(options, "options");
+        Objects.requireNonNull(options.getConcurrency(), "concurrency");
+        Objects.requireNonNull(options.getLaunchOptions(), "launchOptions");
+        ValidateUtil.assertArg(options.getMaxConcurrency() > 0, "maxConcurrency must be positive");
+        Cluster cluster = new Cluster(options);
+        if (!ConcurrencyModel.BROWSER.equals(options.getConcurrency())) {
+            cluster.browser = Puppeteer.launch(options.getLaunchOptions().copy());
+        }
+        cluster.start();
+        return cluster;
+    }
+
+    private void start() {
+        for (int i = 0; i < this.options.getMaxConcurrency(); i++) {
+            Thread worker = new Thread(this::work, "jvppeteer-cluster-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            this.workers.add(worker);
+        }
+        if (this.options.getMonitor() && this.options.getMonitorInterval() > 0) {
+            this.scheduler.scheduleWithFixedDelay(() -> LOGGER.info("Cluster progress: {}", this.statistics()), this.options.getMonitorInterval(), this.options.getMonitorInterval(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 设置默认任务，{@link #queue(Object)} 和 {@link #execute(Object)} 使用该任务
+     *
+     * @param task 任务
+     */
+    @SuppressWarnings("unchecked")
+    public void task(ClusterTask<?, ?> task) {
+        this.defaultTask = (ClusterTask<Object, Object>) task;
+    }
+
+    public CompletableFuture<Object> queue(Object data) {
+        return this.queue(data, this.requireDefaultTask(), 0);
+    }
+
+    public <T, R> CompletableFuture<R> queue(T data, ClusterTask<T, R> task) {
+        return this.queue(data, task, 0);
+    }
+
+    /**
+     * 任务入队，立即返回
+     *
+     * @param data     任务数据
+     * @param task     任务
+     * @param priority 优先级，越大越先执行，相同优先级按入队顺序执行
+     * @param <T>      任务数据的类型
+     * @param <R>      任务结果的类型
+     * @return 任务结果，URL 重复被跳过时结果为 null
+     */
+    public <T, R> CompletableFuture<R> queue(T data, ClusterTask<T, R> task, int priority) {
+        Objects.requireNonNull(task, "task");
+        if (this.closed) {
+            throw new JvppeteerException("Cluster is closed");
+        }
+        CompletableFuture<R> future = new CompletableFuture<>();
+        if (this.options.getSkipDuplicateUrls() && this.options.getUrlExtractor() != null) {
+            String url = this.options.getUrlExtractor().apply(data);
+            if (StringUtil.isNotEmpty(url) && !this.seenUrls.add(url)) {
+                this.skipped.incrementAndGet();
+                future.complete(null);
+                return future;
+            }
+        }
+        this.pending.incrementAndGet();
+        this.queue.offer(new Job<>(data, task, priority, this.sequence.getAndIncrement(), future));
+        return future;
+    }
+
+    public Object execute(Object data) throws Exception {
+        return this.execute(data, this.requireDefaultTask(), 0);
+    }
+
+    public <T, R> R execute(T data, ClusterTask<T, R> task) throws Exception {
+        return this.execute(data, task, 0);
+    }
+
+    /**
+     * 任务入队并等待结果
+     *
+     * @param data     任务数据
+     * @param task     任务
+     * @param priority 优先级
+     * @param <T>      任务数据的类型
+     * @param <R>      任务结果的类型
+     * @return 任务结果
+     * @throws Exception 重试后仍然失败时抛出任务最后一次的异常
+     */
+    public <T, R> R execute(T data, ClusterTask<T, R> task, int priority) throws Exception {
+        try {
+            return this.queue(data, task, priority).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 阻塞直到所有任务结束
+     *
+     * @throws InterruptedException 等待被中断
+     */
+    public void idle() throws InterruptedException {
+        synchronized (this.idleLock) {
+            while (this.pending.get() > 0 && !this.closed) {
+                this.idleLock.wait(POLL_INTERVAL);
+            }
+        }
+    }
+
+    public ClusterStatistics statistics() {
+        ClusterStatistics statistics = new ClusterStatistics();
+        long uptime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime);
+        long finished = this.succeeded.get() + this.failed.get();
+        statistics.setQueued(this.queue.size() + this.delayed.get());
+        statistics.setRunning(this.running.get());
+        statistics.setSucceeded(this.succeeded.get());
+        statistics.setFailed(this.failed.get());
+        statistics.setRetried(this.retried.get());
+        statistics.setSkipped(this.skipped.get());
+        statistics.setUptime(uptime);
+        statistics.setThroughput(uptime == 0 ? 0 : finished * 1000.0 / uptime);
+        statistics.setAverageDuration(finished == 0 ? 0 : (double) this.totalDuration.get() / finished);
+        return statistics;
+    }
+
+    /**
+     * 停止执行，未执行的任务以异常结束，并关闭浏览器
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.scheduler.shutdownNow();
+        for (Thread worker : this.workers) {
+            worker.interrupt();
+        }
+        for (Job<?, ?> job : this.delayedJobs) {
+            if (this.delayedJobs.remove(job)) {
+                this.delayed.decrementAndGet();
+                failClosed(job);
+            }
+        }
+        Job<?, ?> job;
+        while ((job = this.queue.poll()) != null) {
+            failClosed(job);
+        }
+        synchronized (this.idleLock) {
+            this.idleLock.notifyAll();
+        }
+        if (this.browser != null) {
+            closeQuietly(this.browser);
+        }
+    }
+
+    private ClusterTask<Object, Object> requireDefaultTask() {
+        ValidateUtil.assertArg(this.defaultTask != null, "No task defined, call task() first or pass a task to queue()");
+        return this.defaultTask;
+    }
+
+    private void work() {
+        while (!this.closed) {
+            Job<?, ?> job;
+            try {
+                job = this.queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (job == null) {
+                continue;
+            }
+            this.running.incrementAndGet();
+            try {
+                this.run(job);
+            } finally {
+                this.running.decrementAndGet();
+            }
+        }
+    }
+
+    private <T, R> void run(Job<T, R> job) {
+        job.attempts++;
+        long start = System.nanoTime();
+        Resource resource = null;
+        AtomicBoolean timedOut = new AtomicBoolean();
+        // 本次执行是否结束，同时作为锁，结束后看门狗不能再中断工作线程，以免中断到下一个任务
+        AtomicBoolean finished = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = null;
+        try {
+            resource = this.acquire();
+            if (this.options.getTimeout() > 0) {
+                Resource current = resource;
+                Thread worker = Thread.currentThread();
+                watchdog = this.scheduler.schedule(() -> {
+                    synchronized (finished) {
+                        if (finished.get()) {
+                            return;
+                        }
+                        timedOut.set(true);
+                    }
+                    current.close();
+                    synchronized (finished) {
+                        if (!finished.get()) {
+                            worker.interrupt();
+                        }
+                    }
+                }, this.options.getTimeout(), TimeUnit.MILLISECONDS);
+            }
+            R result = job.task.run(resource.page, job.data);
+            if (timedOut.get()) {
+                throw new TimeoutException("Task timed out after " + this.options.getTimeout() + "ms");
+            }
+            this.finish(start);
+            this.succeeded.incrementAndGet();
+            job.future.complete(result);
+        } catch (Throwable e) {
+            Throwable error = timedOut.get() ? new TimeoutException("Task timed out after " + this.options.getTimeout() + "ms", e) : e;
+            this.onError(job, error, start);
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            synchronized (finished) {
+                finished.set(true);
+            }
+            // 清除超时时设置的中断状态，避免影响下一个任务
+            Thread.interrupted();
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+
+    private <T, R> void onError(Job<T, R> job, Throwable error, long start) {
+        if (!this.closed && job.attempts <= this.options.getRetryLimit()) {
+            this.retried.incrementAndGet();
+            long delay = this.options.getRetryDelay() << Math.min(job.attempts - 1, 20);
+            LOGGER.debug("Task failed, retrying in {}ms (attempt {})", delay, job.attempts, error);
+            this.delayed.incrementAndGet();
+            this.delayedJobs.add(job);
+            try {
+                this.scheduler.schedule(() -> {
+                    if (!this.delayedJobs.remove(job)) {
+                        return;
+                    }
+                    this.delayed.decrementAndGet();
+                    this.queue.offer(job);
+                    // 与 close() 并发时 close() 可能已经清空了队列
+                    if (this.closed && this.queue.remove(job)) {
+                        failClosed(job);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                if (this.delayedJobs.remove(job)) {
+                    this.delayed.decrementAndGet();
+                    failClosed(job);
+                }
+            }
+            return;
+        }
+        this.finish(start);
+        this.failed.incrementAndGet();
+        job.future.completeExceptionally(error);
+    }
+
+    private void finish(long start) {
+        this.totalDuration.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (this.pending.decrementAndGet() == 0) {
+            synchronized (this.idleLock) {
+                this.idleLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 按并发模型为任务准备页面
+     */
+    private Resource acquire() throws IOException {
+        switch (this.options.getConcurrency()) {
+            case PAGE:
+                return new Resource(this.sharedBrowser().newPage(), null, null);
+            case CONTEXT:
+                BrowserContext context = this.sharedBrowser().createBrowserContext(this.options.getContextOptions());
+                try {
+                    return new Resource(context.newPage(), context, null);
+                } catch (RuntimeException e) {
+                    closeQuietly(context);
+                    throw e;
+                }
+            case BROWSER:
+                Browser browser = Puppeteer.launch(this.options.getLaunchOptions().copy());
+                try {
+                    return new Resource(browser.newPage(), null, browser);
+                } catch (RuntimeException e) {
+                    closeQuietly(browser);
+                    throw e;
+                }
+            default:
+                throw new JvppeteerException("Unsupported concurrency model: " + this.options.getConcurrency());
+        }
+    }
+
+    /**
+     * 共用的浏览器断开后重新启动
+     */
+    private Browser sharedBrowser() throws IOException {
+        Browser browser = this.browser;
+        if (browser != null && browser.connected()) {
+            return browser;
+        }
+        synchronized (this) {
+            if (this.closed) {
+                throw new JvppeteerException("Cluster is closed");
+            }
+            if (this.browser == null || !this.browser.connected()) {
+                if (this.browser != null) {
+                    LOGGER.warn("Cluster browser disconnected, relaunching");
+                    closeQuietly(this.browser);
+                }
+                this.browser = Puppeteer.launch(this.options.getLaunchOptions().copy());
+            }
+            return this.browser;
+        }
+    }
+
+    private static void failClosed(Job<?, ?> job) {
+        job.future.completeExceptionally(new JvppeteerException("Cluster is closed"));
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LOGGER.debug("Failed to close cluster resource", e);
+        }
+    }
+
+    private static void closeQuietly(BrowserContext context) {
+        try {
+            if (!context.closed()) {
+                context.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Failed to close cluster context", e);
+        }
+    }
+
+    /**
+     * 一次执行使用的页面，以及 CONTEXT、BROWSER 模型下随页面一起关闭的上下文或浏览器
+     */
+    private static class Resource {
+        private final Page page;
+        private final BrowserContext context;
+        private final Browser browser;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Resource(Page page, BrowserContext context, Browser browser) {
+            this.page = page;
+            this.context = context;
+            this.browser = browser;
+        }
+
+        void close() {
+            if (!this.closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (this.browser != null) {
+                closeQuietly(this.browser);
+            } else if (this.context != null) {
+                closeQuietly(this.context);
+            } else {
+                try {
+                    if (!this.page.isClosed()) {
+                        this.page.close();
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("Failed to close cluster page", e);
+                }
+            }
+        }
+    }
+
+    private static class Job<T, R> implements Comparable<Job<?, ?>> {
+        private final T data;
+        private final ClusterTask<T, R> task;
+        private final int priority;
+        private final long sequence;
+        private final CompletableFuture<R> future;
+        private int attempts;
+
+        Job(T data, ClusterTask<T, R> task, int priority, long sequence, CompletableFuture<R> future) {
+            this.data = data;
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.future = future;
+        }
+
+        @Override
+        public int compareTo(Job<?, ?> other) {
+            if (this.priority != other.priority) {
+                return Integer.compare(other.priority, this.priority);
+            }
+            return Long.compare(this.sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ruiyun.jvppeteer.pool;
+
+import com.ruiyun.jvppeteer.api.core.Page;
+
+/**
+ * Cluster 中执行的任务
+ *
+ * @param <T> 任务数据的类型
+ * @param <R> 任务结果的类型
+ */
+@FunctionalInterface
+public interface ClusterTask<T, R> {
+    /**
+     * 执行任务
+     *
+     * @param page 为本次执行准备的页面，执行结束后由 Cluster 关闭
+     * @param data 任务数据
+     * @return 任务结果
+     * @throws Exception 任务失败，会按配置重试
+     */
+    R run(Page page, T data) throws Exception;
+}
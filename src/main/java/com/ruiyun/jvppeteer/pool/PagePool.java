@@ -0,0 +1,466 @@
+package com.ruiyun.jvppeteer.pool;
+
+import com.ruiyun.jvppeteer.api.core.BrowserContext;
+import com.ruiyun.jvppeteer.api.core.Page;
+import com.ruiyun.jvppeteer.api.events.PageEvents;
+import com.ruiyun.jvppeteer.cdp.entities.NetworkConditions;
+import com.ruiyun.jvppeteer.cdp.entities.PagePoolOptions;
+import com.ruiyun.jvppeteer.cdp.entities.Viewport;
+import com.ruiyun.jvppeteer.cdp.entities.VisionDeficiency;
+import com.ruiyun.jvppeteer.common.UserAgentOptions;
+import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
+import com.ruiyun.jvppeteer.util.ValidateUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 同一个 BrowserContext 中的页面池，复用已经初始化好的页面，省去每次创建和关闭页面的开销
+ * <p>
+ * 页面归还后在后台重置，恢复以下状态：
+ * <ul>
+ * <li>租借期间添加的监听器、evaluateOnNewDocument 脚本和 exposeFunction 函数</li>
+ * <li>请求拦截、HTTP 认证、额外的请求头、User-Agent、Service Worker 绕过和拖动拦截</li>
+ * <li>离线模式和网络限速、缓存、JavaScript、CSP 绕过</li>
+ * <li>媒体类型、媒体特性、时区、视觉缺陷、CPU 限速、空闲状态和地理位置的模拟</li>
+ * <li>视口和默认超时时间，最后导航到 about:blank</li>
+ * </ul>
+ * 开启 verifyReset 时会校验重置结果，任何一步失败都会关闭该页面并创建新的页面，保证任务之间不会互相影响。
+ * <p>
+ * 不在重置范围内的状态：Cookie、localStorage、权限等属于 BrowserContext 的状态，需要隔离时每个租户使用单独的 BrowserContext；
+ * emulateFocusedPage、通过 createCDPSession 直接发送的协议命令以及 WebDriver BiDi 下不支持的设置（例如地理位置）也不会恢复，
+ * 租借方修改了这些状态时应调用 {@link #invalidate(Page)} 而不是归还。
+ */
+public class PagePool implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PagePool.class);
+
+    private static final String BLANK_URL = "about:blank";
+
+    private static final long POLL_INTERVAL = 200;
+
+    private final BrowserContext context;
+
+    private final PagePoolOptions options;
+
+    private final LinkedBlockingDeque<PooledPage> idle = new LinkedBlockingDeque<>();
+
+    private final Map<Page, PooledPage> pages = new ConcurrentHashMap<>();
+
+    /**
+     * 已创建和正在创建的页面总数
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicInteger creating = new AtomicInteger();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicLong resets = new AtomicLong();
+
+    private final AtomicLong resetFailures = new AtomicLong();
+
+    private final AtomicLong totalResetTime = new AtomicLong();
+
+    private final ExecutorService executor;
+
+    private volatile boolean closed;
+
+    /**
+     * 浏览器默认的 User-Agent，第一次重置时获取
+     */
+    private volatile String userAgent;
+
+    public PagePool(BrowserContext context) {
+        this(context, new PagePoolOptions());
+    }
+
+    /**
+     * 创建页面池，并在后台创建 minSize 个页面
+     *
+     * @param context 页面所在的 BrowserContext
+     * @param options 配置
+     */
+    public PagePool(BrowserContext context, PagePoolOptions options) {
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(options, "options");
+        ValidateUtil.assertArg(options.getMinSize() >= 0, "minSize must not be negative");
+        ValidateUtil.assertArg(options.getMaxSize() > 0 && options.getMaxSize() >= options.getMinSize(), "maxSize must be positive and not less than minSize");
+        this.context = context;
+        this.options = options;
+        this.executor = Executors.newCachedThreadPool(new NamedThreadFactory("jvppeteer-page-pool", true));
+        this.ensureMinSize();
+    }
+
+    public Page lease() {
+        return this.lease(this.options.getLeaseTimeout());
+    }
+
+    /**
+     * 租借一个页面，页面停留在 about:blank
+     *
+     * @param timeout 超时时间，单位毫秒
+     * @return 页面
+     */
+    public Page lease(long timeout) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            if (this.closed) {
+                throw new JvppeteerException("PagePool is closed");
+            }
+            PooledPage pooled = this.idle.pollFirst();
+            if (pooled == null) {
+                if (this.creating.get() <= this.waiting.get()) {
+                    this.tryCreate();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Waiting for page from pool failed: timeout " + timeout + "ms exceeded");
+                }
+                this.waiting.incrementAndGet();
+                try {
+                    pooled = this.idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JvppeteerException(e);
+                } finally {
+                    this.waiting.decrementAndGet();
+                }
+                if (pooled == null) {
+                    continue;
+                }
+            }
+            if (pooled.page.isClosed()) {
+                this.discard(pooled);
+                continue;
+            }
+            pooled.busy = true;
+            pooled.uses++;
+            return pooled.page;
+        }
+    }
+
+    /**
+     * 归还页面，页面在后台重置后才能再次被租借
+     *
+     * @param page 租借的页面
+     */
+    public void release(Page page) {
+        PooledPage pooled = this.pages.get(page);
+        ValidateUtil.assertArg(pooled != null, "Page does not belong to this pool");
+        ValidateUtil.assertArg(pooled.busy, "Page is not leased");
+        pooled.busy = false;
+        if (this.closed || page.isClosed() || (this.options.getMaxUses() > 0 && pooled.uses >= this.options.getMaxUses())) {
+            this.discard(pooled);
+            return;
+        }
+        try {
+            this.executor.execute(() -> {
+                if (this.reset(pooled)) {
+                    this.idle.offerFirst(pooled);
+                } else {
+                    this.resetFailures.incrementAndGet();
+                    this.discard(pooled);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.discard(pooled);
+        }
+    }
+
+    /**
+     * 关闭页面而不是归还，例如页面状态无法恢复
+     *
+     * @param page 租借的页面
+     */
+    public void invalidate(Page page) {
+        PooledPage pooled = this.pages.get(page);
+        ValidateUtil.assertArg(pooled != null, "Page does not belong to this pool");
+        pooled.busy = false;
+        this.discard(pooled);
+    }
+
+    public int idleCount() {
+        return this.idle.size();
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * @return 累计重置成功的次数
+     */
+    public long resetCount() {
+        return this.resets.get();
+    }
+
+    /**
+     * @return 累计重置或校验失败的次数
+     */
+    public long resetFailureCount() {
+        return this.resetFailures.get();
+    }
+
+    /**
+     * @return 平均重置耗时，单位毫秒
+     */
+    public double averageResetTime() {
+        long resets = this.resets.get();
+        return resets == 0 ? 0 : (double) this.totalResetTime.get() / resets;
+    }
+
+    public BrowserContext context() {
+        return this.context;
+    }
+
+    /**
+     * 关闭池中所有页面，包括尚未归还的页面，不会关闭 BrowserContext
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.idle.clear();
+        for (PooledPage pooled : new ArrayList<>(this.pages.values())) {
+            this.pages.remove(pooled.page);
+            closeQuietly(pooled.page);
+        }
+        this.executor.shutdown();
+    }
+
+    /**
+     * 不限速并且关闭离线模式
+     */
+    private static NetworkConditions noThrottling() {
+        NetworkConditions conditions = new NetworkConditions(-1, -1, 0);
+        conditions.setOffline(false);
+        return conditions;
+    }
+
+    private String defaultUserAgent() {
+        String userAgent = this.userAgent;
+        if (userAgent == null) {
+            userAgent = this.context.browser().userAgent();
+            this.userAgent = userAgent;
+        }
+        return userAgent;
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean reset(PooledPage pooled) {
+        long start = System.nanoTime();
+        Page page = pooled.page;
+        try {
+            page.restoreListeners(pooled.listeners);
+            for (String identifier : page.newDocumentScripts()) {
+                page.removeScriptToEvaluateOnNewDocument(identifier);
+            }
+            Set<String> exposedFunctionNames = page.exposedFunctionNames();
+            for (String name : exposedFunctionNames) {
+                page.removeExposedFunction(name);
+            }
+            resetStep(() -> page.setRequestInterception(false));
+            resetStep(() -> page.authenticate(null));
+            resetStep(() -> page.setExtraHTTPHeaders(Collections.emptyMap()));
+            resetStep(() -> page.setUserAgent(new UserAgentOptions(this.defaultUserAgent())));
+            if (page.isServiceWorkerBypassed()) {
+                resetStep(() -> page.setBypassServiceWorker(false));
+            }
+            if (page.isDragInterceptionEnabled()) {
+                resetStep(() -> page.setDragInterception(false));
+            }
+            resetStep(() -> page.emulateNetworkConditions(noThrottling()));
+            resetStep(() -> page.setCacheEnabled(true));
+            resetStep(() -> page.setJavaScriptEnabled(true));
+            resetStep(() -> page.setBypassCSP(false));
+            resetStep(() -> page.emulateMediaType(null));
+            resetStep(() -> page.emulateMediaFeatures(Collections.emptyList()));
+            resetStep(() -> page.emulateTimezone(null));
+            resetStep(() -> page.emulateVisionDeficiency(VisionDeficiency.NONE));
+            resetStep(() -> page.emulateCPUThrottling(1));
+            resetStep(() -> page.emulateIdleState(null));
+            resetStep(page::clearGeolocation);
+            if (page.viewport() != pooled.viewport) {
+                page.setViewport(pooled.viewport);
+            }
+            page.setDefaultTimeout(pooled.defaultTimeout);
+            page.setDefaultNavigationTimeout(pooled.defaultNavigationTimeout);
+            page.goTo(BLANK_URL);
+            if (this.options.getVerifyReset() && !this.verify(pooled, exposedFunctionNames)) {
+                return false;
+            }
+            this.resets.incrementAndGet();
+            this.totalResetTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("Failed to reset pooled page", e);
+            return false;
+        }
+    }
+
+    /**
+     * 部分设置在 WebDriver BiDi 下不支持，跳过即可
+     */
+    private static void resetStep(ResetStep step) throws Exception {
+        try {
+            step.run();
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean verify(PooledPage pooled, Set<String> removedFunctions) throws Exception {
+        Page page = pooled.page;
+        if (!BLANK_URL.equals(page.url())) {
+            LOGGER.warn("Pooled page reset verification failed: url is {}", page.url());
+            return false;
+        }
+        if (!page.isJavaScriptEnabled() || page.isDragInterceptionEnabled() || page.isServiceWorkerBypassed()) {
+            LOGGER.warn("Pooled page reset verification failed: JavaScript, drag interception or service worker bypass was not restored");
+            return false;
+        }
+        Object userAgent = page.evaluate("() => navigator.userAgent");
+        if (!Objects.equals(userAgent, this.defaultUserAgent())) {
+            LOGGER.warn("Pooled page reset verification failed: user agent is {}", userAgent);
+            return false;
+        }
+        if (!page.newDocumentScripts().isEmpty() || !page.exposedFunctionNames().isEmpty()) {
+            LOGGER.warn("Pooled page reset verification failed: scripts or exposed functions remain");
+            return false;
+        }
+        for (PageEvents event : PageEvents.values()) {
+            List<Consumer<?>> listeners = pooled.listeners.get(event);
+            if (page.listenerCount(event) != (listeners == null ? 0 : listeners.size())) {
+                LOGGER.warn("Pooled page reset verification failed: listeners of {} remain", event);
+                return false;
+            }
+        }
+        if (!removedFunctions.isEmpty()) {
+            Object leaked = page.evaluate("names => names.filter(name => name in globalThis)", new ArrayList<>(removedFunctions));
+            if (leaked instanceof Collection && !((Collection<?>) leaked).isEmpty()) {
+                LOGGER.warn("Pooled page reset verification failed: functions {} still exposed", leaked);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void discard(PooledPage pooled) {
+        if (this.pages.remove(pooled.page) == null) {
+            return;
+        }
+        this.idle.remove(pooled);
+        this.size.decrementAndGet();
+        try {
+            this.executor.execute(() -> closeQuietly(pooled.page));
+        } catch (RejectedExecutionException e) {
+            closeQuietly(pooled.page);
+        }
+        this.ensureMinSize();
+    }
+
+    private void ensureMinSize() {
+        while (!this.closed && this.size.get() < this.options.getMinSize()) {
+            if (!this.tryCreate()) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryCreate() {
+        while (true) {
+            int current = this.size.get();
+            if (this.closed || current >= this.options.getMaxSize()) {
+                return false;
+            }
+            if (this.size.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        this.creating.incrementAndGet();
+        try {
+            this.executor.execute(this::create);
+        } catch (RejectedExecutionException e) {
+            this.creating.decrementAndGet();
+            this.size.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void create() {
+        Page page;
+        try {
+            page = this.context.newPage();
+        } catch (Exception e) {
+            LOGGER.error("Failed to create page for pool", e);
+            this.size.decrementAndGet();
+            this.creating.decrementAndGet();
+            return;
+        }
+        PooledPage pooled = new PooledPage(page);
+        this.pages.put(page, pooled);
+        this.creating.decrementAndGet();
+        if (this.closed) {
+            this.pages.remove(page);
+            closeQuietly(page);
+            return;
+        }
+        this.idle.offerLast(pooled);
+    }
+
+    private static void closeQuietly(Page page) {
+        try {
+            if (!page.isClosed()) {
+                page.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Failed to close pooled page", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResetStep {
+        void run() throws Exception;
+    }
+
+    /**
+     * 页面以及创建时的初始状态，重置时恢复到该状态
+     */
+    private static class PooledPage {
+        private final Page page;
+        private final Map<PageEvents, List<Consumer<?>>> listeners;
+        private final Viewport viewport;
+        private final int defaultTimeout;
+        private final int defaultNavigationTimeout;
+        private volatile boolean busy;
+        private int uses;
+
+        PooledPage(Page page) {
+            this.page = page;
+            this.listeners = page.listenersSnapshot();
+            this.viewport = page.viewport();
+            this.defaultTimeout = page.getDefaultTimeout();
+            this.defaultNavigationTimeout = page.getDefaultNavigationTimeout();
+        }
+    }
+}
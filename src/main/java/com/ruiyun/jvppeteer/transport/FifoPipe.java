@@ -0,0 +1,205 @@
+package com.ruiyun.jvppeteer.transport;
+
+import com.ruiyun.jvppeteer.exception.LaunchException;
+import com.ruiyun.jvppeteer.exception.TimeoutException;
+import com.ruiyun.jvppeteer.util.Helper;
+import com.ruiyun.jvppeteer.util.StreamUtil;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Linux 下通过两个命名管道（FIFO）与浏览器的 --remote-debugging-pipe 通信，不需要 Node.js 中转
+ * <p>
+ * 浏览器从 fd 3 读取命令，向 fd 4 写入响应和事件。启动时用 sh 的 exec 把两个 FIFO 重定向到 fd 3/4 后直接替换为浏览器进程，
+ * 不会多出常驻的进程。两端打开后 FIFO 文件即被删除。
+ */
+public class FifoPipe {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FifoPipe.class);
+
+    /**
+     * 设置为 false 时 pipe 模式仍然使用 Node.js 启动浏览器
+     */
+    public static final String JVPPETEER_NATIVE_PIPE = "JVPPETEER_NATIVE_PIPE";
+
+    private static final String PIPE_IN_ENV = "JVPPETEER_PIPE_IN";
+
+    private static final String PIPE_OUT_ENV = "JVPPETEER_PIPE_OUT";
+
+    private final Path directory;
+
+    /**
+     * 浏览器读取的管道，对应 fd 3
+     */
+    private final Path in;
+
+    /**
+     * 浏览器写入的管道，对应 fd 4
+     */
+    private final Path out;
+
+    private InputStream inputStream;
+
+    private OutputStream outputStream;
+
+    private FifoPipe(Path directory) {
+        this.directory = directory;
+        this.in = directory.resolve("in");
+        this.out = directory.resolve("out");
+    }
+
+    /**
+     * 当前平台是否可以使用 FIFO
+     *
+     * @return Linux 并且没有通过 {@link #JVPPETEER_NATIVE_PIPE} 关闭时返回 true
+     */
+    public static boolean isSupported() {
+        return Helper.isLinux() && !"false".equalsIgnoreCase(System.getProperty(JVPPETEER_NATIVE_PIPE)) && Files.isExecutable(Paths.get("/bin/sh"));
+    }
+
+    /**
+     * 在临时目录中创建两个 FIFO
+     *
+     * @return FifoPipe
+     * @throws IOException 创建失败，例如系统没有 mkfifo
+     */
+    public static FifoPipe create() throws IOException {
+        Path directory = Files.createTempDirectory("jvppeteer-pipe-");
+        FifoPipe pipe = new FifoPipe(directory);
+        try {
+            Process mkfifo = new ProcessBuilder("mkfifo", "-m", "600", pipe.in.toString(), pipe.out.toString()).redirectErrorStream(true).start();
+            String output = StreamUtil.toString(mkfifo.getInputStream());
+            if (!mkfifo.waitFor(10, TimeUnit.SECONDS) || mkfifo.exitValue() != 0) {
+                throw new IOException("mkfifo failed: " + output);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pipe.delete();
+            throw new IOException("Interrupted while creating fifo", e);
+        } catch (IOException e) {
+            pipe.delete();
+            throw e;
+        }
+        return pipe;
+    }
+
+    /**
+     * 把启动命令包装成先重定向 fd 3/4 再 exec 浏览器的 sh 命令
+     *
+     * @param command     浏览器的启动命令
+     * @param environment 进程的环境变量，FIFO 路径通过环境变量传递，避免转义
+     * @return 包装后的命令
+     */
+    public List<String> wrap(List<String> command, Map<String, String> environment) {
+        environment.put(PIPE_IN_ENV, this.in.toString());
+        environment.put(PIPE_OUT_ENV, this.out.toString());
+        List<String> wrapped = new ArrayList<>();
+        wrapped.add("/bin/sh");
+        wrapped.add("-c");
+        wrapped.add("exec \"$0\" \"$@\" 3<\"$" + PIPE_IN_ENV + "\" 4>\"$" + PIPE_OUT_ENV + "\"");
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    /**
+     * 打开两个 FIFO，等待浏览器打开另一端
+     * <p>
+     * 打开 FIFO 会阻塞到另一端也被打开，浏览器进程超时仍未打开时结束进程
+     *
+     * @param process 浏览器进程
+     * @param timeout 等待时间，毫秒，0 表示不限时
+     */
+    public void connect(Process process, int timeout) {
+        CompletableFuture<Void> opened = new CompletableFuture<>();
+        Thread opener = new Thread(() -> {
+            try {
+                // 与 sh 中重定向的顺序一致：先 fd 3 再 fd 4
+                this.outputStream = new FileOutputStream(this.in.toFile());
+                this.inputStream = new FileInputStream(this.out.toFile());
+                opened.complete(null);
+            } catch (IOException e) {
+                opened.completeExceptionally(e);
+            }
+        }, "jvppeteer-pipe-opener");
+        opener.setDaemon(true);
+        opener.start();
+        try {
+            if (timeout > 0) {
+                opened.get(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                opened.get();
+            }
+        } catch (java.util.concurrent.TimeoutException e) {
+            process.destroyForcibly();
+            this.unblock(opened);
+            throw new TimeoutException("Timed out after " + timeout + " ms while waiting for the browser to open the pipe");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            this.unblock(opened);
+            throw new LaunchException("Interrupted while waiting for the browser to open the pipe", e);
+        } catch (ExecutionException e) {
+            throw new LaunchException("Failed to open browser pipe: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            this.delete();
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Browser pipe opened at {}", this.directory);
+        }
+    }
+
+    public InputStream getInputStream() {
+        return this.inputStream;
+    }
+
+    public OutputStream getOutputStream() {
+        return this.outputStream;
+    }
+
+    /**
+     * 以读写方式打开 FIFO 不会阻塞，并且能让另一端等待中的 open 返回。保持打开直到打开线程结束，再全部关闭
+     */
+    private void unblock(CompletableFuture<Void> opened) {
+        List<RandomAccessFile> peers = new ArrayList<>();
+        for (Path fifo : new Path[]{this.in, this.out}) {
+            try {
+                peers.add(new RandomAccessFile(fifo.toFile(), "rw"));
+            } catch (IOException e) {
+                LOGGER.trace("Failed to open {} for unblocking", fifo, e);
+            }
+        }
+        try {
+            opened.get(1, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+        } finally {
+            peers.forEach(StreamUtil::closeQuietly);
+            StreamUtil.closeQuietly(this.outputStream);
+            StreamUtil.closeQuietly(this.inputStream);
+        }
+    }
+
+    private void delete() {
+        try {
+            Files.deleteIfExists(this.in);
+            Files.deleteIfExists(this.out);
+            Files.deleteIfExists(this.directory);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to delete fifo directory {}", this.directory, e);
+        }
+    }
+}
@@ -126,6 +126,12 @@ public class PipeTransport implements ConnectionTransport {
             // 直接读取字节流，不假设第一个字节为长度
             byte[] buffer = new byte[Constant.DEFAULT_BUFFER_SIZE];
             int bytesRead = pipeReader.read(buffer);
+            if (bytesRead < 0) {
+                // 直接连接 FIFO 时，浏览器退出后读到流结束
+                remote = true;
+                close();
+                return;
+            }
             if (bytesRead > 0) {
                 byte[] actualData = new byte[bytesRead];
                 System.arraycopy(buffer, 0, actualData, 0, bytesRead);
@@ -1,14 +1,22 @@
 package com.ruiyun.jvppeteer.util;
 
 import com.ruiyun.jvppeteer.exception.JvppeteerException;
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.StandardOpenOption;
 import java.util.Comparator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 /**
@@ -76,10 +84,11 @@ public class FileUtil {
         if (Files.exists(userDirPath)) {
             try (Stream<Path> paths = Files.walk(userDirPath)) {
                 paths.sorted(Comparator.reverseOrder())  // 确保先删除子目录中的文件和子目录
-                        .map(Path::toFile)
                         .forEach(file -> {
-                            if (file.exists()) {
-                                file.delete();
+                            // 不跟随符号链接，浏览器被强制结束后残留的 SingletonLock 等失效链接也能删除
+                            try {
+                                Files.deleteIfExists(file);
+                            } catch (IOException ignored) {
                             }
                         });
             }
@@ -117,4 +126,93 @@ public class FileUtil {
         }
     }
 
+    /**
+     * 同一个 JVM 内的线程先在这里排队，FileChannel.lock 在同一个 JVM 内重复加锁会抛出 OverlappingFileLockException
+     */
+    private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * 获取跨进程的文件锁，阻塞到其他线程或者其他 JVM 释放为止
+     *
+     * @param lockFile 锁文件，不存在时创建
+     * @return 关闭即释放锁
+     * @throws IOException 打开锁文件失败
+     */
+    public static Closeable lock(Path lockFile) throws IOException {
+        Path key = lockFile.toAbsolutePath().normalize();
+        ReentrantLock threadLock = LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+        threadLock.lock();
+        FileChannel channel = null;
+        try {
+            Path parent = key.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                createDirs(parent);
+            }
+            channel = FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock fileLock = channel.lock();
+            FileChannel lockedChannel = channel;
+            return () -> {
+                try {
+                    fileLock.release();
+                    lockedChannel.close();
+                } finally {
+                    threadLock.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            StreamUtil.closeQuietly(channel);
+            threadLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * 尝试获取跨进程的文件锁，其他线程或者其他 JVM 持有时立即返回 null
+     *
+     * @param lockFile 锁文件，不存在时创建
+     * @return 关闭即释放锁，锁被占用时返回 null
+     * @throws IOException 打开锁文件失败
+     */
+    public static Closeable tryLock(Path lockFile) throws IOException {
+        Path key = lockFile.toAbsolutePath().normalize();
+        ReentrantLock threadLock = LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+        if (!threadLock.tryLock()) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            Path parent = key.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                createDirs(parent);
+            }
+            channel = FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock fileLock;
+            try {
+                fileLock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // 当前线程已经持有这把锁
+                fileLock = null;
+            }
+            if (fileLock == null) {
+                StreamUtil.closeQuietly(channel);
+                threadLock.unlock();
+                return null;
+            }
+            FileLock lockedFile = fileLock;
+            FileChannel lockedChannel = channel;
+            return () -> {
+                try {
+                    lockedFile.release();
+                    lockedChannel.close();
+                } finally {
+                    threadLock.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            StreamUtil.closeQuietly(channel);
+            threadLock.unlock();
+            throw e;
+        }
+    }
+
 }
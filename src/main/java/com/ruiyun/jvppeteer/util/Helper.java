@@ -1,7 +1,9 @@
 package com.ruiyun.jvppeteer.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.ruiyun.jvppeteer.api.core.CDPSession;
 import com.ruiyun.jvppeteer.api.core.Connection;
@@ -29,6 +31,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
@@ -42,12 +45,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +69,11 @@ import static com.ruiyun.jvppeteer.common.Constant.SOURCE_URL_REGEX;
 public class Helper {
     private static final Logger LOGGER = LoggerFactory.getLogger(Helper.class);
 
+    /**
+     * 按目标类型缓存的 ObjectReader，ObjectReader 不可变，可以在线程间共享
+     */
+    private static final Map<JavaType, ObjectReader> READERS = new ConcurrentHashMap<>();
+
     public static Object createClientError(ExceptionDetails exceptionDetails) {
         String name = "";
         String message;
@@ -381,6 +392,16 @@ public class Helper {
         return remoteObject.getValue();
     }
 
+    /**
+     * 获取反序列化到指定类型的 ObjectReader
+     *
+     * @param type 目标类型
+     * @return 缓存的 ObjectReader
+     */
+    public static ObjectReader readerFor(JavaType type) {
+        return READERS.computeIfAbsent(type, OBJECTMAPPER::readerFor);
+    }
+
     public static void releaseObject(CDPSession client, RemoteObject remoteObject) {
         if (StringUtil.isEmpty(remoteObject.getObjectId()))
             return;
@@ -456,6 +477,54 @@ public class Helper {
         return pid;
     }
 
+    /**
+     * 通过 ProcessHandle（JDK 9 及以上）强制结束进程和它的所有子进程，不需要启动 shell
+     *
+     * @param pid 进程id
+     * @return JDK 不支持 ProcessHandle 或者进程不存在时返回 false
+     */
+    public static boolean destroyProcessTree(long pid) {
+        try {
+            Class<?> handleClass = Class.forName("java.lang.ProcessHandle");
+            Optional<?> handle = (Optional<?>) handleClass.getMethod("of", long.class).invoke(null, pid);
+            if (!handle.isPresent()) {
+                return false;
+            }
+            Method destroyForcibly = handleClass.getMethod("destroyForcibly");
+            // 先收集子进程，父进程退出后子进程会被过继，就找不到了
+            List<?> descendants = ((Stream<?>) handleClass.getMethod("descendants").invoke(handle.get())).collect(Collectors.toList());
+            destroyForcibly.invoke(handle.get());
+            for (Object descendant : descendants) {
+                destroyForcibly.invoke(descendant);
+            }
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (Exception e) {
+            LOGGER.debug("Failed to destroy process tree of {}", pid, e);
+            return false;
+        }
+    }
+
+    /**
+     * 判断进程是否存活
+     *
+     * @param pid 进程id
+     * @return 存活返回 true，无法判断时返回 null
+     */
+    public static Boolean isProcessAlive(long pid) {
+        try {
+            Class<?> handleClass = Class.forName("java.lang.ProcessHandle");
+            Optional<?> handle = (Optional<?>) handleClass.getMethod("of", long.class).invoke(null, pid);
+            return handle.isPresent() && (Boolean) handleClass.getMethod("isAlive").invoke(handle.get());
+        } catch (Exception e) {
+            if (isLinux()) {
+                return new File("/proc/" + pid).exists();
+            }
+            return null;
+        }
+    }
+
     public static String createProtocolErrorMessage(JsonNode receivedNode) {
         String message = receivedNode.get(Constant.ERROR).get(Constant.MESSAGE).asText();
         if (receivedNode.get(Constant.ERROR).hasNonNull(Constant.DATA)) {
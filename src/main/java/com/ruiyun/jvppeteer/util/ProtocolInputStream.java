@@ -0,0 +1,111 @@
+package com.ruiyun.jvppeteer.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ruiyun.jvppeteer.api.core.CDPSession;
+import com.ruiyun.jvppeteer.common.Constant;
+import com.ruiyun.jvppeteer.common.ParamsFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * 以 InputStream 的方式按需读取协议流（IO.read），每次只在内存中保留一个数据块。
+ * <p>
+ * 适用于 tracing 文件等体积较大的流，调用方边读边处理，不需要先把整个流读到内存中。
+ */
+public class ProtocolInputStream extends InputStream {
+
+    private final CDPSession client;
+
+    private final Map<String, Object> params = ParamsFactory.create();
+
+    private byte[] chunk = new byte[0];
+
+    private int position;
+
+    private boolean eof;
+
+    private boolean closed;
+
+    /**
+     * @param client CDPSession
+     * @param handle 协议流的句柄，例如 Tracing.tracingComplete 事件里的 stream
+     */
+    public ProtocolInputStream(CDPSession client, String handle) {
+        this.client = client;
+        this.params.put("handle", handle);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.fill()) {
+            return -1;
+        }
+        return this.chunk[this.position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!this.fill()) {
+            return -1;
+        }
+        int count = Math.min(len, this.chunk.length - this.position);
+        System.arraycopy(this.chunk, this.position, b, off, count);
+        this.position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return this.chunk.length - this.position;
+    }
+
+    /**
+     * 当前数据块读完时，从浏览器读取下一块
+     *
+     * @return 还有数据可读返回true
+     * @throws IOException 流已经关闭
+     */
+    private boolean fill() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        while (this.position >= this.chunk.length) {
+            if (this.eof) {
+                return false;
+            }
+            JsonNode response = this.client.send("IO.read", this.params);
+            JsonNode eofNode = response.get(Constant.EOF);
+            JsonNode base64EncodedNode = response.get(Constant.BASE_64_ENCODED);
+            JsonNode dataNode = response.get(Constant.DATA);
+            this.eof = eofNode == null || eofNode.asBoolean();
+            this.position = 0;
+            if (dataNode == null || StringUtil.isEmpty(dataNode.asText())) {
+                this.chunk = new byte[0];
+            } else if (base64EncodedNode != null && base64EncodedNode.asBoolean()) {
+                this.chunk = Base64.getDecoder().decode(dataNode.asText());
+            } else {
+                this.chunk = dataNode.asText().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 关闭浏览器端的流句柄
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.chunk = new byte[0];
+        this.client.send("IO.close", this.params);
+    }
+}
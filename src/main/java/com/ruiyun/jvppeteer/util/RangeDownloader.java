@@ -0,0 +1,409 @@
+package com.ruiyun.jvppeteer.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.java_websocket.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 多连接分段下载
+ * <p>
+ * 服务器支持 Range 时把文件按块并行下载到预先分配好大小的 .part 文件，每完成一块记录到 .part.state，
+ * 中断后再次下载只补齐缺少的块。状态文件同时记录块大小和服务器的校验值（ETag 或 Last-Modified），任一不同时从头下载，
+ * 服务器没有校验值并且调用方没有给出 SHA-256 时不续传；不支持 Range 时退化为单连接下载。下载完成后计算 SHA-256，
+ * 校验通过再原子地重命名为目标文件。整个过程持有 &lt;目标文件&gt;.lock 的文件锁，多个 JVM 同时下载同一个文件时只有一个真正下载，
+ * 其余等待后直接使用下载好的文件。
+ */
+public class RangeDownloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RangeDownloader.class);
+
+    public static final int DEFAULT_CONNECTIONS = 4;
+
+    public static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+
+    private static final int RETRIES = 3;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int CONNECT_TIMEOUT = 30000;
+
+    private static final int READ_TIMEOUT = 60000;
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; jvppeteer)";
+
+    private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("bytes\\s+\\d+-\\d+/(\\d+)");
+
+    private final int connections;
+
+    private final long chunkSize;
+
+    public RangeDownloader() {
+        this(DEFAULT_CONNECTIONS, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param connections 并行连接数
+     * @param chunkSize   每块的大小，字节
+     */
+    public RangeDownloader(int connections, long chunkSize) {
+        ValidateUtil.assertArg(connections > 0, "connections must be positive");
+        ValidateUtil.assertArg(chunkSize > 0, "chunkSize must be positive");
+        this.connections = connections;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 下载文件
+     *
+     * @param url    下载地址
+     * @param target 保存的文件
+     * @param sha256 期望的 SHA-256（十六进制），为空时不校验
+     * @return 下载好的文件
+     * @throws IOException 下载失败或者校验不通过，已经下载的块会保留，下次调用时继续
+     */
+    public Path download(String url, Path target, String sha256) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null && !Files.exists(parent)) {
+            FileUtil.createDirs(parent);
+        }
+        Closeable lock = FileUtil.lock(sibling(target, ".lock"));
+        try {
+            if (Files.isRegularFile(target)) {
+                // 其他 JVM 已经下载完成
+                if (StringUtil.isEmpty(sha256) || sha256.equalsIgnoreCase(sha256(target))) {
+                    LOGGER.info("Reusing downloaded file {}", target);
+                    return target;
+                }
+                LOGGER.warn("Checksum of existing file {} does not match, downloading again", target);
+                Files.delete(target);
+            }
+            Path part = sibling(target, ".part");
+            Path state = sibling(target, ".part.state");
+            long start = System.currentTimeMillis();
+            Probe probe = probe(url);
+            if (probe.acceptRanges && probe.length > this.chunkSize) {
+                this.downloadRanges(url, probe, part, state, sha256);
+            } else {
+                this.downloadStream(url, part);
+            }
+            String actual = sha256(part);
+            if (StringUtil.isNotEmpty(sha256) && !sha256.equalsIgnoreCase(actual)) {
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(state);
+                throw new IOException("Checksum mismatch for " + url + ": expected " + sha256 + " but was " + actual);
+            }
+            move(part, target);
+            Files.deleteIfExists(state);
+            LOGGER.info("Downloaded {} ({} bytes, sha256 {}) in {}ms", url, Files.size(target), actual, System.currentTimeMillis() - start);
+            return target;
+        } finally {
+            lock.close();
+        }
+    }
+
+    private void downloadRanges(String url, Probe probe, Path part, Path state, String sha256) throws IOException {
+        int chunks = (int) ((probe.length + this.chunkSize - 1) / this.chunkSize);
+        // 既没有校验值也没有 SHA-256 时，无法发现服务器上的文件已经变化，不续传
+        BitSet done = probe.validator == null && StringUtil.isEmpty(sha256) ? new BitSet() : this.loadState(state, url, probe);
+        if (!done.isEmpty() && (!Files.isRegularFile(part) || Files.size(part) != probe.length)) {
+            done.clear();
+        }
+        if (done.isEmpty()) {
+            Files.deleteIfExists(part);
+            // 设置长度即可预分配，支持稀疏文件的文件系统不会真正写入
+            try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+                file.setLength(probe.length);
+            }
+        } else {
+            LOGGER.info("Resuming download of {}, {}/{} chunks already downloaded", url, done.cardinality(), chunks);
+        }
+        AtomicLong downloaded = new AtomicLong((long) done.cardinality() * this.chunkSize);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.connections, chunks), new NamedThreadFactory("jvppeteer-download", true));
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = done.nextClearBit(0); i < chunks; i = done.nextClearBit(i + 1)) {
+                int index = i;
+                long from = index * this.chunkSize;
+                long to = Math.min(probe.length, from + this.chunkSize) - 1;
+                futures.add(executor.submit(() -> {
+                    this.downloadChunk(url, probe, channel, from, to, downloaded);
+                    // 先落盘再记录，避免状态文件记录了实际没有写入的块
+                    channel.force(false);
+                    synchronized (done) {
+                        done.set(index);
+                        this.saveState(state, url, probe, done);
+                    }
+                    return null;
+                }));
+            }
+            IOException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                        futures.forEach(f -> f.cancel(true));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    throw new IOException("Interrupted while downloading " + url, e);
+                } catch (CancellationException ignored) {
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            channel.force(true);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void downloadChunk(String url, Probe probe, FileChannel channel, long from, long to, AtomicLong downloaded) throws IOException {
+        IOException last = null;
+        for (int attempt = 1; attempt <= RETRIES; attempt++) {
+            long position = from;
+            HttpURLConnection conn = open(url);
+            try {
+                conn.setRequestProperty("Range", "bytes=" + from + "-" + to);
+                if (probe.validator != null) {
+                    // 文件在服务器上变化时返回 200 而不是 206，避免拼出损坏的文件
+                    conn.setRequestProperty("If-Range", probe.validator);
+                }
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                    throw new IOException("Server did not return the requested range of " + url + ": HTTP " + conn.getResponseCode());
+                }
+                try (InputStream in = conn.getInputStream()) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while (position <= to && (read = in.read(buffer, 0, (int) Math.min(buffer.length, to - position + 1))) != -1) {
+                        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                        while (byteBuffer.hasRemaining()) {
+                            position += channel.write(byteBuffer, position);
+                        }
+                        this.progress(url, probe.length, downloaded.addAndGet(read), read);
+                    }
+                }
+                if (position != to + 1) {
+                    throw new IOException("Connection closed after " + (position - from) + " of " + (to - from + 1) + " bytes");
+                }
+                return;
+            } catch (IOException e) {
+                downloaded.addAndGet(from - position);
+                last = e;
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                LOGGER.debug("Failed to download bytes {}-{} of {} (attempt {}/{})", from, to, url, attempt, RETRIES, e);
+            } finally {
+                conn.disconnect();
+            }
+        }
+        throw last;
+    }
+
+    private void downloadStream(String url, Path part) throws IOException {
+        HttpURLConnection conn = open(url);
+        try {
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Download failed with response code: " + conn.getResponseCode());
+            }
+            long length = conn.getContentLengthLong();
+            long total = 0;
+            try (InputStream in = conn.getInputStream(); OutputStream out = Files.newOutputStream(part)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    total += read;
+                    this.progress(url, length, total, read);
+                }
+            }
+            if (length > 0 && total != length) {
+                throw new IOException("Connection closed after " + total + " of " + length + " bytes");
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * 进度每跨过 10% 打印一次
+     */
+    private void progress(String url, long length, long downloaded, int read) {
+        if (length <= 0) {
+            return;
+        }
+        long step = Math.max(1, length / 10);
+        if ((downloaded - read) / step != downloaded / step) {
+            LOGGER.info("Downloaded {}% of {}", Math.min(100, downloaded * 100 / length), url);
+        }
+    }
+
+    /**
+     * 请求第一个字节，判断服务器是否支持 Range 并得到文件大小
+     */
+    private static Probe probe(String url) throws IOException {
+        HttpURLConnection conn = open(url);
+        try {
+            conn.setRequestProperty("Range", "bytes=0-0");
+            int code = conn.getResponseCode();
+            Probe probe = new Probe();
+            String etag = conn.getHeaderField("ETag");
+            // 弱校验值不能用于 If-Range
+            probe.validator = etag != null && !etag.startsWith("W/") ? etag : conn.getHeaderField("Last-Modified");
+            if (code == HttpURLConnection.HTTP_PARTIAL) {
+                Matcher matcher = CONTENT_RANGE_PATTERN.matcher(String.valueOf(conn.getHeaderField("Content-Range")));
+                if (matcher.find()) {
+                    probe.length = Long.parseLong(matcher.group(1));
+                    probe.acceptRanges = true;
+                }
+            } else if (code == HttpURLConnection.HTTP_OK) {
+                probe.length = conn.getContentLengthLong();
+            } else {
+                throw new IOException("Download failed with response code: " + code);
+            }
+            return probe;
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private static HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestProperty("User-Agent", USER_AGENT);
+        conn.setConnectTimeout(CONNECT_TIMEOUT);
+        conn.setReadTimeout(READ_TIMEOUT);
+        conn.setInstanceFollowRedirects(true);
+        return conn;
+    }
+
+    /**
+     * 读取已经下载的块，地址、长度、校验值或者块大小与本次不同时从头下载
+     */
+    private BitSet loadState(Path state, String url, Probe probe) {
+        if (!Files.isRegularFile(state)) {
+            return new BitSet();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(state)) {
+            properties.load(in);
+        } catch (IOException e) {
+            return new BitSet();
+        }
+        if (!url.equals(properties.getProperty("url")) || !String.valueOf(probe.length).equals(properties.getProperty("length"))
+                || !Objects.equals(probe.validator, properties.getProperty("validator")) || !String.valueOf(this.chunkSize).equals(properties.getProperty("chunkSize"))) {
+            return new BitSet();
+        }
+        BitSet done = new BitSet();
+        for (String index : properties.getProperty("done", "").split(",")) {
+            if (StringUtil.isNotEmpty(index)) {
+                done.set(Integer.parseInt(index.trim()));
+            }
+        }
+        return done;
+    }
+
+    private void saveState(Path state, String url, Probe probe, BitSet done) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", url);
+        properties.setProperty("length", String.valueOf(probe.length));
+        properties.setProperty("chunkSize", String.valueOf(this.chunkSize));
+        if (probe.validator != null) {
+            properties.setProperty("validator", probe.validator);
+        }
+        StringBuilder indexes = new StringBuilder();
+        for (int i = done.nextSetBit(0); i >= 0; i = done.nextSetBit(i + 1)) {
+            if (indexes.length() > 0) {
+                indexes.append(',');
+            }
+            indexes.append(i);
+        }
+        properties.setProperty("done", indexes.toString());
+        // 先写临时文件再替换，进程中途退出不会留下半个状态文件
+        Path temp = sibling(state, ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        move(temp, state);
+    }
+
+    /**
+     * 计算文件的 SHA-256
+     *
+     * @param file 文件
+     * @return 十六进制小写字符串
+     * @throws IOException 读取失败
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Path sibling(Path path, String suffix) {
+        return Paths.get(path.toAbsolutePath().toString() + suffix);
+    }
+
+    private static class Probe {
+        private long length = -1;
+        private boolean acceptRanges;
+        private String validator;
+    }
+}
@@ -0,0 +1,298 @@
+package com.ruiyun.jvppeteer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 在 JVM 内解压 zip 包，不依赖系统的 unzip
+ * <p>
+ * 先在目标目录下的临时目录中解压：目录按顺序创建，文件在 ForkJoinPool 中并行解压。
+ * 可执行权限和符号链接从 zip 中央目录的外部属性（高 16 位为 Unix mode）恢复，java.util.zip 不提供这部分信息。
+ * 符号链接在全部文件写完之后才按顺序创建，链接目标必须是相对路径并且解析后仍在解压目录内，
+ * 写文件和创建链接时父目录的真实路径也必须在解压目录内，压缩包不能借助符号链接把文件写到目录外。
+ * 全部解压完成后再把顶层的文件和目录原子地移动到目标目录，其他进程不会看到解压了一半的浏览器。
+ */
+public class ZipExtractor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZipExtractor.class);
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+
+    /**
+     * 中央目录中 version made by 的高字节，3 表示 Unix
+     */
+    private static final int HOST_UNIX = 3;
+
+    private static final int S_IFMT = 0170000;
+
+    private static final int S_IFLNK = 0120000;
+
+    private ZipExtractor() {
+    }
+
+    /**
+     * 解压 zip 包
+     *
+     * @param zip         zip 文件
+     * @param destination 目标目录，压缩包中的顶层条目会出现在这个目录下，已经存在的同名条目会被替换
+     * @return 目标目录
+     * @throws IOException 解压失败，目标目录不会留下解压了一半的文件
+     */
+    public static Path extract(Path zip, Path destination) throws IOException {
+        long start = System.currentTimeMillis();
+        FileUtil.createDirs(destination);
+        Path staging = Files.createTempDirectory(destination, ".extracting-").toRealPath();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        Map<String, Integer> modes = posix ? readUnixModes(zip) : Collections.<String, Integer>emptyMap();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            List<ZipEntry> files = new ArrayList<>();
+            List<ZipEntry> links = new ArrayList<>();
+            Map<Path, Integer> directoryModes = new LinkedHashMap<>();
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                Path target = resolve(staging, entry.getName());
+                Integer entryMode = modes.get(entry.getName());
+                if (!entry.isDirectory() && entryMode != null && (entryMode & S_IFMT) == S_IFLNK) {
+                    Files.createDirectories(target.getParent());
+                    links.add(entry);
+                } else if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                    Integer mode = modes.get(entry.getName());
+                    if (mode != null) {
+                        directoryModes.put(target, mode);
+                    }
+                } else {
+                    Files.createDirectories(target.getParent());
+                    files.add(entry);
+                }
+            }
+            List<Callable<Void>> tasks = new ArrayList<>(files.size());
+            for (ZipEntry entry : files) {
+                tasks.add(() -> {
+                    extractFile(zipFile, entry, staging, modes.get(entry.getName()));
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+            for (ZipEntry entry : links) {
+                createLink(zipFile, entry, staging);
+            }
+            // 目录权限最后设置，避免没有写权限的目录中无法创建文件
+            for (Map.Entry<Path, Integer> directory : directoryModes.entrySet()) {
+                setPermissions(directory.getKey(), directory.getValue());
+            }
+            moveIntoPlace(staging, destination);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("Failed to extract " + zip, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting " + zip, e);
+        } finally {
+            pool.shutdownNow();
+            FileUtil.removeFolder(staging.toString());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Extracted {} to {} in {}ms", zip, destination, System.currentTimeMillis() - start);
+        }
+        return destination;
+    }
+
+    private static void extractFile(ZipFile zipFile, ZipEntry entry, Path staging, Integer mode) throws IOException {
+        Path target = resolveReal(staging, entry.getName());
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (mode != null) {
+            setPermissions(target, mode);
+        }
+    }
+
+    /**
+     * 创建符号链接，链接的内容是链接目标，例如 macOS 上 Framework 的 Versions/Current
+     */
+    private static void createLink(ZipFile zipFile, ZipEntry entry, Path staging) throws IOException {
+        String link;
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            link = StreamUtil.toString(in);
+        }
+        Path linkTarget = Paths.get(link);
+        if (linkTarget.isAbsolute()) {
+            throw new IOException("Zip entry " + entry.getName() + " is a symbolic link to an absolute path: " + link);
+        }
+        Path target = resolveReal(staging, entry.getName());
+        if (!target.getParent().resolve(linkTarget).normalize().startsWith(staging)) {
+            throw new IOException("Zip entry " + entry.getName() + " is a symbolic link outside of the target directory: " + link);
+        }
+        Files.createSymbolicLink(target, linkTarget);
+        // 按路径字面检查不了经过其他链接的 ..，链接目标已经存在时再按真实路径检查一次
+        if (Files.exists(target) && !target.toRealPath().startsWith(staging)) {
+            throw new IOException("Zip entry " + entry.getName() + " is a symbolic link outside of the target directory: " + link);
+        }
+    }
+
+    /**
+     * 把临时目录下的顶层条目逐个原子地移动到目标目录
+     */
+    private static void moveIntoPlace(Path staging, Path destination) throws IOException {
+        List<Path> children;
+        try (Stream<Path> stream = Files.list(staging)) {
+            children = stream.collect(Collectors.toList());
+        }
+        for (Path child : children) {
+            Path target = destination.resolve(child.getFileName().toString());
+            if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                FileUtil.removeFolder(target.toString());
+            }
+            try {
+                Files.move(child, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(child, target);
+            }
+        }
+    }
+
+    /**
+     * 解析条目路径，并且要求父目录的真实路径在解压目录内，不能经过指向目录外的符号链接写入
+     *
+     * @param staging 解压目录的真实路径
+     */
+    private static Path resolveReal(Path staging, String name) throws IOException {
+        Path target = resolve(staging, name);
+        Path parent = target.getParent().toRealPath();
+        if (!parent.startsWith(staging)) {
+            throw new IOException("Zip entry is outside of the target directory: " + name);
+        }
+        return parent.resolve(target.getFileName());
+    }
+
+    /**
+     * 解析后的路径必须仍在解压目录内，防止 ../ 之类的条目写到目录外
+     */
+    private static Path resolve(Path root, String name) throws IOException {
+        Path target = root.resolve(name).normalize();
+        if (!target.startsWith(root)) {
+            throw new IOException("Zip entry is outside of the target directory: " + name);
+        }
+        return target;
+    }
+
+    private static void setPermissions(Path path, int mode) throws IOException {
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        PosixFilePermission[] values = PosixFilePermission.values();
+        // PosixFilePermission 的顺序是 OWNER_READ … OTHERS_EXECUTE，对应 mode 的第 8 位到第 0 位
+        for (int i = 0; i < values.length; i++) {
+            if ((mode & (1 << (8 - i))) != 0) {
+                permissions.add(values[i]);
+            }
+        }
+        // 保证自己始终可以读写，之后才能替换或删除
+        permissions.add(PosixFilePermission.OWNER_READ);
+        permissions.add(PosixFilePermission.OWNER_WRITE);
+        Files.setPosixFilePermissions(path, permissions);
+    }
+
+    /**
+     * 从中央目录读取每个条目的 Unix mode
+     *
+     * @return 条目名称到 mode 的映射，不是在 Unix 上创建的条目没有 mode
+     */
+    private static Map<String, Integer> readUnixModes(Path zip) throws IOException {
+        Map<String, Integer> modes = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(zip, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int tailLength = (int) Math.min(size, 0xFFFF + 22);
+            ByteBuffer tail = read(channel, size - tailLength, tailLength);
+            int eocd = -1;
+            for (int i = tailLength - 22; i >= 0; i--) {
+                if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd < 0) {
+                throw new IOException("Not a zip file: " + zip);
+            }
+            long entries = tail.getShort(eocd + 10) & 0xFFFF;
+            long directorySize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+            long directoryOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+            if (eocd >= 20 && tail.getInt(eocd - 20) == ZIP64_LOCATOR) {
+                ByteBuffer zip64 = read(channel, tail.getLong(eocd - 20 + 8), 56);
+                if (zip64.getInt(0) == ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                    entries = zip64.getLong(32);
+                    directorySize = zip64.getLong(40);
+                    directoryOffset = zip64.getLong(48);
+                }
+            }
+            ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+            int position = 0;
+            for (long i = 0; i < entries && position + 46 <= directory.limit(); i++) {
+                if (directory.getInt(position) != CENTRAL_DIRECTORY_HEADER) {
+                    break;
+                }
+                int host = (directory.getShort(position + 4) >> 8) & 0xFF;
+                int nameLength = directory.getShort(position + 28) & 0xFFFF;
+                int extraLength = directory.getShort(position + 30) & 0xFFFF;
+                int commentLength = directory.getShort(position + 32) & 0xFFFF;
+                int mode = (directory.getInt(position + 38) >>> 16) & 0xFFFF;
+                if (host == HOST_UNIX && mode != 0) {
+                    byte[] name = new byte[nameLength];
+                    directory.position(position + 46);
+                    directory.get(name);
+                    modes.put(new String(name, StandardCharsets.UTF_8), mode);
+                }
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+        }
+        return modes;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of zip file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -32,7 +32,9 @@ fi
 
 # 4. download chrome beta from dl.google.com and install it.
 cd "$1" #$1是安装目录
-curl -O -L "$2" # $2是一个url，代表浏览器的下载地址
+if [[ ! -d "$3" && ! -f "$(basename "$2")" ]]; then # java 已经下载或者解压时跳过
+  curl -O -L "$2" # $2是一个url，代表浏览器的下载地址
+fi
 if [[ "$4" == "firefox" ]];then #是火狐浏览器
   if ! command -v tar >/dev/null; then
     if [[ -f /etc/debian_version ]]; then
@@ -47,8 +49,10 @@ if [[ "$4" == "firefox" ]];then #是火狐浏览器
   rm -rf ./"$3.tar.bz2"
   ./"$4"/"$4" --version
 else #是谷歌浏览器
-  unzip ./"$3.zip" #解压 $3例如 chrome-linux64
-  rm -rf ./"$3.zip"
+  if [[ ! -d "$3" ]]; then # java 已经解压时跳过
+    unzip ./"$3.zip" #解压 $3例如 chrome-linux64
+    rm -rf ./"$3.zip"
+  fi
   # 安装依赖
   if [[ -f /etc/debian_version ]]; then
       apt-get install -y ca-certificates fonts-liberation libasound2 libatk-bridge2.0-0 libatk1.0-0 libc6 libcairo2 libcups2 libdbus-1-3 libexpat1 libfontconfig1 libgbm1 libgcc1 libglib2.0-0 libgtk-3-0 libnspr4 libnss3 libpango-1.0-0 libpangocairo-1.0-0 libstdc++6 libx11-6 libx11-xcb1 libxcb1 libxcomposite1 libxcursor1 libxdamage1 libxext6 libxfixes3 libxi6 libxrandr2 libxrender1 libxss1 libxtst6 lsb-release wget xdg-utils